@@ -1,5 +1,8 @@
 package hr.validation;
 
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
+
 /**
  * The abstract validators implementation.
  *
@@ -10,9 +13,46 @@ public abstract class AbstractValidator<T> implements Validator<T> {
 
     @Override
     public final ValidationResults validate(final T data) {
-        final ValidationResults validationResults = new ValidationResults();
-		
-        return doValidate(data, validationResults);
+        if (Tracing.isEnabled()) {
+            return Tracing.trace(this, SpanKind.VALIDATOR, () -> run(data));
+        }
+        return run(data);
+    }
+
+    @Override
+    public final boolean isValidFast(final T data) {
+        final Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            return false;
+        }
+        if (LoadShedding.skip(this)) {
+            return true;
+        }
+
+        final ValidationContext context = ValidationContext.open();
+        try {
+            return doIsValid(data);
+        } finally {
+            ValidationContext.close(context);
+        }
+    }
+
+    private ValidationResults run(final T data) {
+        final ValidationResults validationResults = ValidationScope.newResults();
+        final Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            return validationResults.add(deadline.skipped(this));
+        }
+        if (LoadShedding.skip(this)) {
+            return validationResults;
+        }
+
+        final ValidationContext context = ValidationContext.open();
+        try {
+            return doValidate(data, validationResults);
+        } finally {
+            ValidationContext.close(context);
+        }
     }
 
     /**
@@ -24,4 +64,23 @@ public abstract class AbstractValidator<T> implements Validator<T> {
      */
     protected abstract ValidationResults doValidate(T data, ValidationResults validationResults);
 
+    /**
+     * Method for checking whether given data is valid. Override it when validity can be
+     * checked without creating validation results, result must be the same as result of
+     * {@link #doValidate(Object, ValidationResults)}. Default implementation validates into
+     * validation results reused by the current thread, so only results added by
+     * {@link #doValidate(Object, ValidationResults)} are allocated.
+     *
+     * @param data - input data to be validated
+     * @return - true if data is valid
+     */
+    protected boolean doIsValid(final T data) {
+        final ValidationResults validationResults = ValidationScope.takeScratch();
+        try {
+            return doValidate(data, validationResults).isValid();
+        } finally {
+            ValidationScope.releaseScratch(validationResults);
+        }
+    }
+
 }
@@ -0,0 +1,322 @@
+package hr.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Validator chain that learns in which order its steps should run. Cost and rejection
+ * rate of steps are sampled, and commutative steps are periodically reordered so steps
+ * that are cheap and often invalid run first. Consecutive commutative steps can be
+ * reordered between themselves, other steps keep their declared position. Statistics
+ * decay by half on every reordering, so the order follows changes in validated data.
+ *
+ * <pre>
+ * Validator&lt;Order&gt; validator = AdaptiveValidatorChain.&lt;Order&gt;builder()
+ *         .step(formatValidator)
+ *         .commutativeStep(stockValidator)
+ *         .commutativeStep(limitValidator)
+ *         .failFast()
+ *         .build();
+ * </pre>
+ *
+ * Steps are reordered only in fail fast mode, where validation stops after the first
+ * invalid step like chain of {@link Validator#andThenIfValid(Validator)}. Step order
+ * decides which results are returned when more than one step would be invalid, data
+ * with at most one invalid step gets the same results in any order. In full mode all
+ * steps run in declared order, so there is nothing to gain from reordering.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class AdaptiveValidatorChain<T> implements Validator<T> {
+
+    private final List<Step<T>> steps;
+    private final boolean failFast;
+    private final int sampleRate;
+    private final int reorderRate;
+    private final LongSupplier clock;
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile int[] order;
+
+    private AdaptiveValidatorChain(final List<Step<T>> steps, final boolean failFast, final int sampleRate,
+                                   final int reorderRate, final LongSupplier clock) {
+        this.steps = steps;
+        this.failFast = failFast;
+        this.sampleRate = sampleRate;
+        this.reorderRate = reorderRate;
+        this.clock = clock;
+        this.order = new int[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Create new adaptive chain builder.
+     *
+     * @param <T> the type of data for validation
+     * @return builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        if (!failFast) {
+            return ValidationContext.within(() -> validateAll(data));
+        }
+        final long invocation = invocations.incrementAndGet();
+        final boolean sampled = invocation % sampleRate == 0;
+        if (invocation % reorderRate == 0) {
+            reorder();
+        }
+        return ValidationContext.within(() -> validateFailFast(data, sampled));
+    }
+
+    /**
+     * Get current execution order of steps.
+     *
+     * @return declared indexes of steps in order in which they run
+     */
+    public List<Integer> currentOrder() {
+        final int[] current = order;
+        final List<Integer> indexes = new ArrayList<>(current.length);
+        for (final int index : current) {
+            indexes.add(index);
+        }
+        return Collections.unmodifiableList(indexes);
+    }
+
+    private ValidationResults validateFailFast(final T data, final boolean sampled) {
+        final ValidationResults validationResults = ValidationScope.newResults();
+        for (final int index : order) {
+            final ValidationResults results = steps.get(index).run(data, sampled ? clock : null);
+            validationResults.join(results);
+            if (results.isInvalid()) {
+                break;
+            }
+        }
+        return validationResults;
+    }
+
+    private ValidationResults validateAll(final T data) {
+        final ValidationResults validationResults = ValidationScope.newResults();
+        for (final Step<T> step : steps) {
+            validationResults.join(step.run(data, null));
+        }
+        return validationResults;
+    }
+
+    /**
+     * Sort every group of consecutive commutative steps by expected cost of reaching
+     * a rejection. Only one thread reorders at a time, others keep using previous order.
+     */
+    private void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (final Step<T> step : steps) {
+                step.decay();
+            }
+            final Integer[] next = new Integer[steps.size()];
+            for (int i = 0; i < next.length; i++) {
+                next[i] = i;
+            }
+            final Comparator<Integer> byRank = Comparator.comparingDouble(i -> steps.get(i).rank());
+            int start = 0;
+            while (start < next.length) {
+                int end = start + 1;
+                if (steps.get(start).commutative) {
+                    while (end < next.length && steps.get(end).commutative) {
+                        end++;
+                    }
+                    Arrays.sort(next, start, end, byRank);
+                }
+                start = end;
+            }
+            final int[] newOrder = new int[next.length];
+            for (int i = 0; i < next.length; i++) {
+                newOrder[i] = next[i];
+            }
+            order = newOrder;
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    /**
+     * Chain step with sampled statistics.
+     *
+     * @param <T> the type of data for validation
+     */
+    private static final class Step<T> {
+
+        private final Validator<T> validator;
+        private final boolean commutative;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        /**
+         * Decayed statistics, updated and read only by the reordering thread.
+         */
+        private double decayedSamples;
+        private double decayedRejections;
+        private double decayedNanos;
+
+        Step(final Validator<T> validator, final boolean commutative) {
+            this.validator = validator;
+            this.commutative = commutative;
+        }
+
+        /**
+         * Run step, recording its statistics when clock is given.
+         */
+        ValidationResults run(final T data, final LongSupplier clock) {
+            if (clock == null) {
+                return Deadline.step(validator, () -> validator.validate(data));
+            }
+            final long start = clock.getAsLong();
+            final ValidationResults results = Deadline.step(validator, () -> validator.validate(data));
+            nanos.add(clock.getAsLong() - start);
+            samples.increment();
+            if (results.isInvalid()) {
+                rejections.increment();
+            }
+            return results;
+        }
+
+        /**
+         * Halve statistics of previous periods and add samples taken since the last reordering.
+         */
+        void decay() {
+            decayedSamples = decayedSamples / 2 + samples.sumThenReset();
+            decayedRejections = decayedRejections / 2 + rejections.sumThenReset();
+            decayedNanos = decayedNanos / 2 + nanos.sumThenReset();
+        }
+
+        /**
+         * Expected cost spent per rejection, lower rank runs first. Rejection rate is
+         * smoothed, so steps that were never sampled have rank zero and run first.
+         */
+        double rank() {
+            if (decayedSamples == 0) {
+                return 0;
+            }
+            final double cost = decayedNanos / decayedSamples;
+            final double rejectionRate = (decayedRejections + 1d) / (decayedSamples + 2d);
+            return cost / rejectionRate;
+        }
+    }
+
+    /**
+     * Builder of {@link AdaptiveValidatorChain}.
+     *
+     * @param <T> the type of data for validation
+     */
+    public static final class Builder<T> {
+
+        private final List<Step<T>> steps = new ArrayList<>();
+        private boolean failFast;
+        private int sampleRate = 16;
+        private int reorderRate = 1024;
+        private LongSupplier clock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Add step that always runs at its declared position.
+         *
+         * @param validator step validator
+         * @return current builder
+         */
+        public Builder<T> step(final Validator<T> validator) {
+            steps.add(new Step<>(validator, false));
+            return this;
+        }
+
+        /**
+         * Add step that does not depend on other steps, so it can be reordered
+         * with neighbouring commutative steps.
+         *
+         * @param validator step validator
+         * @return current builder
+         */
+        public Builder<T> commutativeStep(final Validator<T> validator) {
+            steps.add(new Step<>(validator, true));
+            return this;
+        }
+
+        /**
+         * Stop validation after the first invalid step. Only fail fast chains reorder their steps.
+         *
+         * @return current builder
+         */
+        public Builder<T> failFast() {
+            this.failFast = true;
+            return this;
+        }
+
+        /**
+         * Set how often validations are sampled, default is every 16th validation.
+         *
+         * @param everyNth sampling period
+         * @return current builder
+         */
+        public Builder<T> sampleEvery(final int everyNth) {
+            if (everyNth <= 0) {
+                throw new IllegalArgumentException("Sampling period must be positive: " + everyNth);
+            }
+            this.sampleRate = everyNth;
+            return this;
+        }
+
+        /**
+         * Set how often steps are reordered, default is every 1024th validation.
+         *
+         * @param everyNth reordering period
+         * @return current builder
+         */
+        public Builder<T> reorderEvery(final int everyNth) {
+            if (everyNth <= 0) {
+                throw new IllegalArgumentException("Reordering period must be positive: " + everyNth);
+            }
+            this.reorderRate = everyNth;
+            return this;
+        }
+
+        /**
+         * Set clock measuring cost of sampled steps in nanoseconds, default is {@link System#nanoTime()}.
+         * Clock with fixed cost of every step reorders steps only by their rejection rates.
+         *
+         * @param nanoClock clock returning nanoseconds
+         * @return current builder
+         */
+        public Builder<T> clock(final LongSupplier nanoClock) {
+            if (nanoClock == null) {
+                throw new IllegalArgumentException("Clock must not be null");
+            }
+            this.clock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Create adaptive validator chain.
+         *
+         * @return validator
+         */
+        public AdaptiveValidatorChain<T> build() {
+            return new AdaptiveValidatorChain<>(new ArrayList<>(steps), failFast, sampleRate, reorderRate, clock);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package hr.validation;
+
+import hr.validation.i18n.MessageCode;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Built-in aggregate validators created by {@link AggregateValidator} factory methods.
+ *
+ * @author frano.pecek
+ */
+final class AggregateRules {
+
+    private AggregateRules() {
+    }
+
+    /**
+     * Sum of values equals expected value.
+     */
+    static final class SumEquals<T> implements AggregateValidator<T, SumEquals.Sum> {
+
+        private final Function<T, BigDecimal> value;
+        private final BigDecimal expected;
+        private final MessageCode messageCode;
+        private final String[] fields;
+
+        SumEquals(final Function<T, BigDecimal> value, final BigDecimal expected, final MessageCode messageCode,
+                  final String[] fields) {
+            this.value = value;
+            this.expected = expected;
+            this.messageCode = messageCode;
+            this.fields = fields;
+        }
+
+        @Override
+        public Sum supply() {
+            return new Sum();
+        }
+
+        @Override
+        public void accumulate(final Sum state, final T data) {
+            final BigDecimal v = value.apply(data);
+            if (v != null) {
+                state.value = state.value.add(v);
+            }
+        }
+
+        @Override
+        public Sum combine(final Sum left, final Sum right) {
+            left.value = left.value.add(right.value);
+            return left;
+        }
+
+        @Override
+        public ValidationResults finish(final Sum state) {
+            final ValidationResults results = new ValidationResults();
+            if (state.value.compareTo(expected) != 0) {
+                results.add(new ValidationResult(messageCode, fields).withMessageParameters(expected, state.value));
+            }
+            return results;
+        }
+
+        /**
+         * Sum of stream part.
+         */
+        static final class Sum {
+
+            private BigDecimal value = BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * At most given number of data with the same key.
+     */
+    static final class AtMostPerKey<T, K> implements AggregateValidator<T, Map<K, long[]>> {
+
+        private final Function<T, K> key;
+        private final long max;
+        private final MessageCode messageCode;
+        private final String[] fields;
+
+        AtMostPerKey(final Function<T, K> key, final long max, final MessageCode messageCode, final String[] fields) {
+            this.key = key;
+            this.max = max;
+            this.messageCode = messageCode;
+            this.fields = fields;
+        }
+
+        @Override
+        public Map<K, long[]> supply() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public void accumulate(final Map<K, long[]> state, final T data) {
+            final K k = key.apply(data);
+            if (k != null) {
+                state.computeIfAbsent(k, ignored -> new long[1])[0]++;
+            }
+        }
+
+        @Override
+        public Map<K, long[]> combine(final Map<K, long[]> left, final Map<K, long[]> right) {
+            for (final Map.Entry<K, long[]> entry : right.entrySet()) {
+                final long[] count = left.putIfAbsent(entry.getKey(), entry.getValue());
+                if (count != null) {
+                    count[0] += entry.getValue()[0];
+                }
+            }
+            return left;
+        }
+
+        @Override
+        public ValidationResults finish(final Map<K, long[]> state) {
+            final ValidationResults results = new ValidationResults();
+            for (final Map.Entry<K, long[]> entry : state.entrySet()) {
+                if (entry.getValue()[0] > max) {
+                    results.add(new ValidationResult(messageCode, fields)
+                            .withMessageParameters(entry.getKey(), entry.getValue()[0], max));
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Values do not decrease in stream order.
+     */
+    static final class NonDecreasing<T, C extends Comparable<? super C>>
+            implements AggregateValidator<T, NonDecreasing.Run<C>> {
+
+        private final Function<T, C> value;
+        private final MessageCode messageCode;
+        private final String[] fields;
+
+        NonDecreasing(final Function<T, C> value, final MessageCode messageCode, final String[] fields) {
+            this.value = value;
+            this.messageCode = messageCode;
+            this.fields = fields;
+        }
+
+        @Override
+        public Run<C> supply() {
+            return new Run<>();
+        }
+
+        @Override
+        public void accumulate(final Run<C> state, final T data) {
+            final C v = value.apply(data);
+            if (v == null) {
+                return;
+            }
+            if (state.first == null) {
+                state.first = v;
+            } else {
+                check(state, v);
+            }
+            state.last = v;
+        }
+
+        @Override
+        public Run<C> combine(final Run<C> left, final Run<C> right) {
+            if (right.first == null) {
+                return left;
+            }
+            if (left.first == null) {
+                return right;
+            }
+            check(left, right.first);
+            left.results.join(right.results);
+            left.last = right.last;
+            return left;
+        }
+
+        @Override
+        public ValidationResults finish(final Run<C> state) {
+            return state.results;
+        }
+
+        private void check(final Run<C> state, final C next) {
+            if (next.compareTo(state.last) < 0) {
+                state.results.add(new ValidationResult(messageCode, fields).withMessageParameters(next, state.last));
+            }
+        }
+
+        /**
+         * First and last value of stream part with results of decreasing values in it.
+         */
+        static final class Run<C> {
+
+            private final ValidationResults results = new ValidationResults();
+            private C first;
+            private C last;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package hr.validation;
+
+import hr.validation.i18n.MessageCode;
+
+import java.math.BigDecimal;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Validator of a constraint over all data of a stream, like sum of all values or number
+ * of data with the same key. It works like {@link java.util.stream.Collector}: every part
+ * of the stream gets its own state from {@link #supply()}, data is added to the state with
+ * {@link #accumulate(Object, Object)}, states of stream parts are combined with
+ * {@link #combine(Object, Object)} and validation results are created from the final state
+ * with {@link #finish(Object)} when the stream ends. Combining makes aggregate validators
+ * usable with parallel streams, and {@link Validator#andAggregate(AggregateValidator)}
+ * runs them in the same pass as validation of single data.
+ *
+ * <pre>
+ * Validator&lt;InvoiceLine&gt; validator = lineValidator
+ *         .andAggregate(AggregateValidator.sumEquals(InvoiceLine::getAmount, header.getAmount(),
+ *                 InvoiceMessageCode.TOTAL_MISMATCH, "amount"))
+ *         .andAggregate(AggregateValidator.atMostPerKey(InvoiceLine::getArticle, 1,
+ *                 InvoiceMessageCode.ARTICLE_REPEATED, "article"));
+ * ValidationResults results = validator.validate(lines.parallelStream());
+ * </pre>
+ *
+ * @param <T> the type of data for validation
+ * @param <A> the type of aggregation state
+ * @author frano.pecek
+ */
+public interface AggregateValidator<T, A> {
+
+    /**
+     * Create empty state of one stream part.
+     *
+     * @return new state
+     */
+    A supply();
+
+    /**
+     * Add data to state.
+     *
+     * @param state state of stream part
+     * @param data data from stream
+     */
+    void accumulate(A state, T data);
+
+    /**
+     * Combine states of two adjacent stream parts.
+     *
+     * @param left state of the part that comes first in stream order
+     * @param right state of the part that comes after left part
+     * @return combined state, can be one of the arguments
+     */
+    A combine(A left, A right);
+
+    /**
+     * Validate final state of the whole stream.
+     *
+     * @param state final state
+     * @return validation results
+     */
+    ValidationResults finish(A state);
+
+    /**
+     * Validate stream of data with this aggregate only.
+     *
+     * @param data stream of data
+     * @return validation results
+     */
+    default ValidationResults validate(final Stream<T> data) {
+        if (data == null) {
+            return finish(supply());
+        }
+        return finish(data.collect(this::supply, this::accumulate, this::combine));
+    }
+
+    /**
+     * Create aggregate validator from functions.
+     *
+     * @param supplier creates empty state
+     * @param accumulator adds data to state
+     * @param combiner combines states of adjacent stream parts
+     * @param finisher validates final state
+     * @param <T> the type of data for validation
+     * @param <A> the type of aggregation state
+     * @return aggregate validator
+     */
+    static <T, A> AggregateValidator<T, A> of(final Supplier<A> supplier, final BiConsumer<A, T> accumulator,
+                                             final BinaryOperator<A> combiner,
+                                             final Function<A, ValidationResults> finisher) {
+        return new AggregateValidator<T, A>() {
+            @Override
+            public A supply() {
+                return supplier.get();
+            }
+
+            @Override
+            public void accumulate(final A state, final T data) {
+                accumulator.accept(state, data);
+            }
+
+            @Override
+            public A combine(final A left, final A right) {
+                return combiner.apply(left, right);
+            }
+
+            @Override
+            public ValidationResults finish(final A state) {
+                return finisher.apply(state);
+            }
+        };
+    }
+
+    /**
+     * Validate that sum of values equals expected value. Null values are ignored. Result has
+     * expected and actual sum as message parameters.
+     *
+     * @param value value of data
+     * @param expected expected sum
+     * @param messageCode message code of invalid sum
+     * @param fields fields of validation result
+     * @param <T> the type of data for validation
+     * @return aggregate validator
+     */
+    static <T> AggregateValidator<T, ?> sumEquals(final Function<T, BigDecimal> value, final BigDecimal expected,
+                                                  final MessageCode messageCode, final String... fields) {
+        return new AggregateRules.SumEquals<>(value, expected, messageCode, fields);
+    }
+
+    /**
+     * Validate that there are at most given number of data with the same key. Null keys are
+     * ignored. There is one result for every key used too many times, with key, number of
+     * data with the key and allowed number as message parameters.
+     *
+     * @param key key of data
+     * @param max allowed number of data with the same key
+     * @param messageCode message code of repeated key
+     * @param fields fields of validation result
+     * @param <T> the type of data for validation
+     * @param <K> the type of key
+     * @return aggregate validator
+     */
+    static <T, K> AggregateValidator<T, ?> atMostPerKey(final Function<T, K> key, final long max,
+                                                        final MessageCode messageCode, final String... fields) {
+        return new AggregateRules.AtMostPerKey<>(key, max, messageCode, fields);
+    }
+
+    /**
+     * Validate that values do not decrease in stream order. Null values are ignored. There is
+     * one result for every value less than value before it, with that value and value before it
+     * as message parameters. Stream must be ordered, parallel streams are checked on boundaries
+     * of their parts too.
+     *
+     * @param value value of data
+     * @param messageCode message code of decreasing value
+     * @param fields fields of validation result
+     * @param <T> the type of data for validation
+     * @param <C> the type of value
+     * @return aggregate validator
+     */
+    static <T, C extends Comparable<? super C>> AggregateValidator<T, ?> nonDecreasing(
+            final Function<T, C> value, final MessageCode messageCode, final String... fields) {
+        return new AggregateRules.NonDecreasing<>(value, messageCode, fields);
+    }
+}
@@ -0,0 +1,202 @@
+package hr.validation;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Validator that validates every data with element validator and the whole stream with
+ * aggregate validators in a single pass over the stream. Combinators apply to element
+ * validator and keep the aggregates, so aggregates can be added anywhere in the chain.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+final class AggregatingValidator<T> implements Validator<T> {
+
+    private final Validator<T> element;
+    private final List<AggregateValidator<T, Object>> aggregates;
+
+    AggregatingValidator(final Validator<T> element, final List<AggregateValidator<T, Object>> aggregates) {
+        this.element = element;
+        this.aggregates = aggregates;
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        return element.validate(data);
+    }
+
+    @Override
+    public boolean isValidFast(final T data) {
+        return element.isValidFast(data);
+    }
+
+    @Override
+    public String getName() {
+        return element.getName();
+    }
+
+    @Override
+    public ValidationResults validate(final Stream<T> data) {
+        if (data == null) {
+            return new ValidationResults();
+        }
+        return validate(data, new ValidationResults());
+    }
+
+    /**
+     * Validate stream of data, results of elements of sequential stream are joined to given
+     * results as soon as element is validated. Results of aggregates are joined at the end.
+     *
+     * @param data stream of data
+     * @param into validation results receiving results
+     * @return given validation results
+     */
+    @Override
+    public ValidationResults validate(final Stream<T> data, final ValidationResults into) {
+        if (data == null) {
+            return into;
+        }
+        return Tracing.trace(this, SpanKind.STREAM, () -> {
+            final ExecutionSnapshot snapshot = ExecutionSnapshot.capture();
+            final Deadline deadline = Deadline.current();
+            final boolean parallel = data.isParallel();
+            final Pass pass = data.collect(() -> new Pass(parallel ? new ValidationResults() : into), (p, t) -> {
+                if (p.skipped || deadline != null && deadline.isExpired()) {
+                    p.skipped = true;
+                    return;
+                }
+                p.results.join(snapshot.call(() -> element.validate(t)));
+                for (int i = 0; i < p.states.length; i++) {
+                    aggregates.get(i).accumulate(p.states[i], t);
+                }
+            }, (left, right) -> {
+                left.results.join(right.results);
+                for (int i = 0; i < left.states.length; i++) {
+                    left.states[i] = aggregates.get(i).combine(left.states[i], right.states[i]);
+                }
+                left.skipped |= right.skipped;
+            });
+            if (parallel) {
+                into.join(pass.results);
+            }
+            if (pass.skipped) {
+                return into.add(deadline.skipped(this));
+            }
+            for (int i = 0; i < pass.states.length; i++) {
+                final AggregateValidator<T, Object> aggregate = aggregates.get(i);
+                final Object state = pass.states[i];
+                into.join(Deadline.step(aggregate, () -> aggregate.finish(state)));
+            }
+            return into;
+        });
+    }
+
+    @Override
+    public boolean isValidFast(final Stream<T> data) {
+        return validate(data).isValid();
+    }
+
+    @Override
+    public Validator<T> withMaxSeverityLevel(final ExceptionSeverityLevel severityLevel) {
+        return new AggregatingValidator<>(element.withMaxSeverityLevel(severityLevel), aggregates);
+    }
+
+    @Override
+    public Validator<T> named(final String name) {
+        return new AggregatingValidator<>(element.named(name), aggregates);
+    }
+
+    @Override
+    public Validator<T> repack(final Supplier<ValidationResults> newValidationResults) {
+        return new AggregatingValidator<>(element.repack(newValidationResults), aggregates);
+    }
+
+    @Override
+    public Validator<T> andThen(final Validator<T> validator) {
+        return new AggregatingValidator<>(element.andThen(validator), aggregates);
+    }
+
+    @Override
+    public <D> Validator<T> andThen(final Validator<D> validator, final Function<T, D> convert) {
+        return new AggregatingValidator<>(element.andThen(validator, convert), aggregates);
+    }
+
+    @Override
+    public <D> Validator<T> andThenForEach(final Validator<D> validator, final Function<T, Stream<D>> convert) {
+        return new AggregatingValidator<>(element.andThenForEach(validator, convert), aggregates);
+    }
+
+    @Override
+    public <D> Validator<T> andThenIfValid(final Validator<D> validator, final Function<T, D> convert) {
+        return new AggregatingValidator<>(element.andThenIfValid(validator, convert), aggregates);
+    }
+
+    @Override
+    public Validator<T> andThenIfValid(final Validator<T> validator) {
+        return new AggregatingValidator<>(element.andThenIfValid(validator), aggregates);
+    }
+
+    @Override
+    public <D> Validator<T> andThenForEachIfValid(final Validator<D> validator, final Function<T, Stream<D>> convert) {
+        return new AggregatingValidator<>(element.andThenForEachIfValid(validator, convert), aggregates);
+    }
+
+    @Override
+    public Validator<T> or(final Validator<T> alternative) {
+        return new AggregatingValidator<>(element.or(alternative), aggregates);
+    }
+
+    @Override
+    public Validator<T> or(final Validator<T> alternative, final Executor executor) {
+        return new AggregatingValidator<>(element.or(alternative, executor), aggregates);
+    }
+
+    @Override
+    public Validator<T> withDeadline(final Duration budget) {
+        return new AggregatingValidator<>(element.withDeadline(budget), aggregates);
+    }
+
+    @Override
+    public Validator<T> cancelOnDeadline(final Executor executor) {
+        return new AggregatingValidator<>(element.cancelOnDeadline(executor), aggregates);
+    }
+
+    @Override
+    public <A> Validator<T> andAggregate(final AggregateValidator<T, A> aggregate) {
+        final List<AggregateValidator<T, Object>> all = new ArrayList<>(aggregates);
+        all.add(erase(aggregate));
+        return new AggregatingValidator<>(element, all);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, A> AggregateValidator<T, Object> erase(final AggregateValidator<T, A> aggregate) {
+        return (AggregateValidator<T, Object>) aggregate;
+    }
+
+    /**
+     * Results of element validation and aggregation states of one stream part.
+     */
+    private final class Pass {
+
+        private final ValidationResults results;
+        private final Object[] states = new Object[aggregates.size()];
+        private boolean skipped;
+
+        Pass(final ValidationResults results) {
+            this.results = results;
+            for (int i = 0; i < states.length; i++) {
+                states[i] = aggregates.get(i).supply();
+            }
+        }
+    }
+}
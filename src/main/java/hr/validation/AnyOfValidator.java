@@ -0,0 +1,164 @@
+package hr.validation;
+
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validator that is valid if any of alternative validators is valid. Alternatives run one
+ * after another, or all at once on executor if it is given. Validation returns results of
+ * the first valid alternative, and when all alternatives are invalid it returns results of
+ * all of them joined in declared order.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+final class AnyOfValidator<T> implements Validator<T> {
+
+    private final List<Validator<T>> alternatives;
+    private final Executor executor;
+    private final String name;
+
+    /**
+     * Create validator of alternatives.
+     *
+     * @param alternatives alternative validators
+     * @param executor executor racing alternatives, null if alternatives run sequentially
+     */
+    AnyOfValidator(final List<Validator<T>> alternatives, final Executor executor) {
+        if (alternatives.isEmpty()) {
+            throw new IllegalArgumentException("At least one alternative validator is required");
+        }
+        this.alternatives = alternatives;
+        this.executor = executor;
+        final StringBuilder builder = new StringBuilder("anyOf(");
+        for (int i = 0; i < alternatives.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(alternatives.get(i).getName());
+        }
+        this.name = builder.append(')').toString();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        return ValidationContext.within(() -> executor == null ? validateSequential(data) : validateRacing(data));
+    }
+
+    @Override
+    public boolean isValidFast(final T data) {
+        if (executor != null) {
+            return validate(data).isValid();
+        }
+        final ValidationContext context = ValidationContext.open();
+        try {
+            for (final Validator<T> alternative : alternatives) {
+                if (Deadline.allowsProbe() && alternative.isValidFast(data)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            ValidationContext.close(context);
+        }
+    }
+
+    private ValidationResults validateSequential(final T data) {
+        final List<ValidationResults> failures = new ArrayList<>(alternatives.size());
+        for (final Validator<T> alternative : alternatives) {
+            final ValidationResults results = Deadline.step(alternative, () -> alternative.validate(data));
+            if (results.isValid()) {
+                return results;
+            }
+            failures.add(results);
+        }
+        return joinAll(failures);
+    }
+
+    /**
+     * Run all alternatives on executor and return as soon as one of them is valid.
+     * Alternatives that are still running are interrupted.
+     */
+    private ValidationResults validateRacing(final T data) {
+        final ExecutionSnapshot snapshot = ExecutionSnapshot.capture();
+        final BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+        final List<FutureTask<ValidationResults>> tasks = new ArrayList<>(alternatives.size());
+        for (int i = 0; i < alternatives.size(); i++) {
+            final Validator<T> alternative = alternatives.get(i);
+            final Integer index = i;
+            tasks.add(new FutureTask<ValidationResults>(() -> snapshot.call(
+                    () -> Tracing.trace(alternative, SpanKind.STEP, () -> alternative.validate(data)))) {
+                @Override
+                protected void done() {
+                    finished.add(index);
+                }
+            });
+        }
+        for (final FutureTask<ValidationResults> task : tasks) {
+            executor.execute(task);
+        }
+        final ValidationResults[] failures = new ValidationResults[tasks.size()];
+        final Deadline deadline = Deadline.current();
+        try {
+            for (int remaining = tasks.size(); remaining > 0; remaining--) {
+                final Integer index = deadline == null ? finished.take()
+                        : finished.poll(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+                if (index == null) {
+                    cancelAll(tasks);
+                    return new ValidationResults().add(deadline.skipped(this));
+                }
+                final ValidationResults results = tasks.get(index).get();
+                if (results.isValid()) {
+                    cancelAll(tasks);
+                    return results;
+                }
+                failures[index] = results;
+            }
+        } catch (InterruptedException e) {
+            cancelAll(tasks);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validation of alternatives was interrupted", e);
+        } catch (ExecutionException | CancellationException e) {
+            cancelAll(tasks);
+            final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        final List<ValidationResults> ordered = new ArrayList<>(failures.length);
+        for (final ValidationResults results : failures) {
+            ordered.add(results);
+        }
+        return joinAll(ordered);
+    }
+
+    private static ValidationResults joinAll(final List<ValidationResults> failures) {
+        final ValidationResults validationResults = ValidationScope.newResults();
+        for (final ValidationResults results : failures) {
+            validationResults.join(results);
+        }
+        return validationResults;
+    }
+
+    private static void cancelAll(final List<FutureTask<ValidationResults>> tasks) {
+        for (final FutureTask<ValidationResults> task : tasks) {
+            task.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hr.validation;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Validator created by composing other validators, with validation and validity
+ * probe implemented separately so the probe does not create validation results.
+ * Probes of chained validators allocate nothing by themselves, validators in the
+ * chain still allocate whatever their own {@link Validator#isValidFast(Object)} does.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+final class ComposedValidator<T> implements Validator<T> {
+
+    private final Validator<T> validation;
+    private final Predicate<T> probe;
+    private final String name;
+
+    /**
+     * Create composed validator.
+     *
+     * @param validation validation returning all results
+     * @param probe validity check that gives the same answer as validation
+     * @param name validator name
+     */
+    ComposedValidator(final Validator<T> validation, final Predicate<T> probe, final String name) {
+        this.validation = validation;
+        this.probe = probe;
+        this.name = name;
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        return validation.validate(data);
+    }
+
+    @Override
+    public boolean isValidFast(final T data) {
+        return probe.test(data);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check validity of chain of two validators in context of one validation.
+     *
+     * @param first first validator
+     * @param second chained validator
+     * @param convert converter of data for chained validator
+     * @param data input data
+     * @param <T> the type of data for validation
+     * @param <D> the type of data for chained validator
+     * @return true if both validators are valid
+     */
+    static <T, D> boolean probe(final Validator<T> first, final Validator<D> second, final Function<T, D> convert,
+                                final T data) {
+        final ValidationContext context = ValidationContext.open();
+        try {
+            return first.isValidFast(data) && Deadline.allowsProbe() && second.isValidFast(convert.apply(data));
+        } finally {
+            ValidationContext.close(context);
+        }
+    }
+
+    /**
+     * Check validity of validator chained with validator of every element of converted stream
+     * in context of one validation.
+     *
+     * @param first first validator
+     * @param second validator of stream elements
+     * @param convert converter of data to stream for chained validator
+     * @param data input data
+     * @param <T> the type of data for validation
+     * @param <D> the type of stream elements
+     * @return true if validator and all stream elements are valid
+     */
+    static <T, D> boolean probeForEach(final Validator<T> first, final Validator<D> second,
+                                       final Function<T, Stream<D>> convert, final T data) {
+        final ValidationContext context = ValidationContext.open();
+        try {
+            return first.isValidFast(data) && Deadline.allowsProbe() && second.isValidFast(convert.apply(data));
+        } finally {
+            ValidationContext.close(context);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package hr.validation;
+
+import hr.validation.i18n.CoreMessage;
+import hr.validation.i18n.MessageCode;
+
+/**
+ * Message codes of validation results created by the validation library itself.
+ *
+ * @author frano.pecek
+ */
+@CoreMessage
+public enum CoreValidationMessageCode implements MessageCode {
+
+    /**
+     * Input record could not be converted to validated object.
+     */
+    RECORD_NOT_PARSABLE("Record can not be parsed: %s", 1),
+
+    /**
+     * Validation step was not executed or was cancelled because validation time budget is exhausted.
+     */
+    VALIDATION_TIMED_OUT("Validation step %s was skipped because validation time budget is exhausted", 1),
+
+    /**
+     * Record key is equal to the key of an earlier record.
+     */
+    DUPLICATE_KEY("Key %s is not unique, it was first used in row %s", 2);
+
+    private final String message;
+    private final int parameterCount;
+
+    CoreValidationMessageCode(final String message, final int parameterCount) {
+        this.message = message;
+        this.parameterCount = parameterCount;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public int getParameterCount() {
+        return parameterCount;
+    }
+}
@@ -0,0 +1,228 @@
+package hr.validation;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Point in time until which validation has to finish. Deadline is bound to
+ * the current thread while validation runs with {@link #run(Supplier)} and chained
+ * validators check it before every step. Steps started after deadline has passed
+ * are skipped and reported as {@link CoreValidationMessageCode#VALIDATION_TIMED_OUT}
+ * result with deadline severity level, {@link ExceptionSeverityLevel#WARNING} by default.
+ *
+ * <p>Use {@link ExecutionSnapshot} to pass deadline to validations running in other threads.</p>
+ *
+ * @author frano.pecek
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final ExceptionSeverityLevel skippedSeverity;
+
+    private Deadline(final long deadlineNanos, final ExceptionSeverityLevel skippedSeverity) {
+        this.deadlineNanos = deadlineNanos;
+        this.skippedSeverity = skippedSeverity;
+    }
+
+    /**
+     * Create deadline after given time budget from now.
+     *
+     * @param budget time budget
+     * @return new deadline
+     */
+    public static Deadline after(final Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos(), ExceptionSeverityLevel.WARNING);
+    }
+
+    /**
+     * Get deadline bound to current thread.
+     *
+     * @return current deadline or null if validation is not time bounded
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Create same deadline that reports skipped steps with given severity level.
+     *
+     * @param severityLevel severity level of skipped step result
+     * @return new deadline
+     */
+    public Deadline withSkippedSeverity(final ExceptionSeverityLevel severityLevel) {
+        return new Deadline(deadlineNanos, severityLevel);
+    }
+
+    /**
+     * Remaining time until deadline.
+     *
+     * @return remaining nanoseconds, zero or negative if deadline has passed
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Check if deadline has passed.
+     *
+     * @return true if there is no time left
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Run validation bound to this deadline. If another deadline is already bound
+     * to current thread, the earlier of them is used.
+     *
+     * @param validation validation to run
+     * @param <R> validation result type
+     * @return validation result
+     */
+    public <R> R run(final Supplier<R> validation) {
+        final Deadline previous = CURRENT.get();
+        final Deadline effective = previous == null || deadlineNanos - previous.deadlineNanos < 0 ? this : previous;
+        CURRENT.set(effective);
+        try {
+            return validation.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Create result for validation step that was skipped because of this deadline.
+     *
+     * @param step skipped validation step, name of validator or class name of other steps is result parameter
+     * @return validation result
+     */
+    public ValidationResult skipped(final Object step) {
+        final String name = step instanceof Validator ? ((Validator<?>) step).getName() : step.getClass().getName();
+        return new ValidationResult(CoreValidationMessageCode.VALIDATION_TIMED_OUT, skippedSeverity)
+                .withMessageParameters(name);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline [remainingNanos=" + remainingNanos() + "]";
+    }
+
+    /**
+     * Run validation step if current deadline has not passed.
+     *
+     * @param step validation step, used in result of skipped step
+     * @param validation validation to run
+     * @return validation results or result of skipped step
+     */
+    static ValidationResults step(final Object step, final Supplier<ValidationResults> validation) {
+        final Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            return new ValidationResults().add(deadline.skipped(step));
+        }
+        return Tracing.trace(step, SpanKind.STEP, validation);
+    }
+
+    /**
+     * Check whether validity of next validation step can be checked before current deadline.
+     *
+     * @return false if current deadline has passed and step would be skipped
+     */
+    static boolean allowsProbe() {
+        final Deadline deadline = CURRENT.get();
+        return deadline == null || !deadline.isExpired();
+    }
+
+    /**
+     * Run validation step on given executor and wait for it until current deadline.
+     * Step that does not finish in time is interrupted and reported as skipped.
+     *
+     * @param step validation step, used in result of skipped step
+     * @param validation validation to run
+     * @param executor executor running validation
+     * @return validation results or result of skipped step
+     */
+    static ValidationResults cancellableStep(final Object step, final Supplier<ValidationResults> validation,
+                                             final Executor executor) {
+        final Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return Tracing.trace(step, SpanKind.STEP, validation);
+        }
+        if (deadline.isExpired()) {
+            return new ValidationResults().add(deadline.skipped(step));
+        }
+        return deadline.runOn(executor, () -> Tracing.trace(step, SpanKind.STEP, validation),
+                () -> new ValidationResults().add(deadline.skipped(step)));
+    }
+
+    /**
+     * Check validity on given executor and wait for it until current deadline. Check that does
+     * not finish in time is interrupted and its data is invalid, like data of skipped step.
+     *
+     * @param probe validity check
+     * @param executor executor running check
+     * @return result of check, false if it did not finish in time
+     */
+    static boolean cancellableProbe(final Supplier<Boolean> probe, final Executor executor) {
+        final Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return probe.get();
+        }
+        if (deadline.isExpired()) {
+            return false;
+        }
+        return deadline.runOn(executor, probe, () -> false);
+    }
+
+    /**
+     * Run action on executor with validation state of current thread, and wait for it until
+     * this deadline. Action that does not finish in time is interrupted, and exception thrown
+     * by action is thrown to the caller.
+     */
+    private <R> R runOn(final Executor executor, final Supplier<R> action, final Supplier<R> timedOut) {
+        final FutureTask<R> task = new FutureTask<>(ExecutionSnapshot.capture().wrap(action)::get);
+        executor.execute(task);
+        try {
+            return task.get(remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            return timedOut.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return timedOut.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Bind given deadline to current thread.
+     *
+     * @param deadline deadline to bind, can be null
+     */
+    static void restore(final Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+}
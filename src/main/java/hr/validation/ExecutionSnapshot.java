@@ -0,0 +1,89 @@
+package hr.validation;
+
+import hr.validation.trace.Tracing;
+import hr.validation.trace.ValidationSpan;
+
+import java.util.function.Supplier;
+
+/**
+ * Snapshot of validation state bound to the current thread, like {@link Deadline},
+ * {@link ValidationContext}, {@link LoadShedding} and current tracing span.
+ * Capture it before validation is handed over to another thread and run the
+ * validation with {@link #call(Supplier)} or wrapped task there.
+ *
+ * @author frano.pecek
+ */
+public final class ExecutionSnapshot {
+
+    private final Deadline deadline;
+    private final ValidationContext context;
+    private final LoadShedding loadShedding;
+    private final ValidationSpan span;
+
+    private ExecutionSnapshot(final Deadline deadline, final ValidationContext context,
+                              final LoadShedding loadShedding, final ValidationSpan span) {
+        this.deadline = deadline;
+        this.context = context;
+        this.loadShedding = loadShedding;
+        this.span = span;
+    }
+
+    /**
+     * Capture validation state of the current thread.
+     *
+     * @return snapshot
+     */
+    public static ExecutionSnapshot capture() {
+        return new ExecutionSnapshot(Deadline.current(), ValidationContext.current(), LoadShedding.current(),
+                Tracing.currentSpan());
+    }
+
+    /**
+     * Run action with captured validation state bound to the current thread.
+     *
+     * @param action action to run
+     * @param <R> action result type
+     * @return action result
+     */
+    public <R> R call(final Supplier<R> action) {
+        final Deadline previousDeadline = Deadline.current();
+        final ValidationContext previousContext = ValidationContext.bound();
+        final LoadShedding previousLoadShedding = LoadShedding.current();
+        Deadline.restore(deadline);
+        ValidationContext.restore(context);
+        LoadShedding.restore(loadShedding);
+        final ValidationSpan previousSpan = Tracing.bind(span);
+        try {
+            return action.get();
+        } finally {
+            Deadline.restore(previousDeadline);
+            ValidationContext.restore(previousContext);
+            LoadShedding.restore(previousLoadShedding);
+            Tracing.bind(previousSpan);
+        }
+    }
+
+    /**
+     * Wrap action so it runs with captured validation state.
+     *
+     * @param action action to wrap
+     * @param <R> action result type
+     * @return wrapped action
+     */
+    public <R> Supplier<R> wrap(final Supplier<R> action) {
+        return () -> call(action);
+    }
+
+    /**
+     * Wrap action so it runs with captured validation state.
+     *
+     * @param action action to wrap
+     * @return wrapped action
+     */
+    public Runnable wrap(final Runnable action) {
+        return () -> call(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package hr.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Validator composed of steps that declare which field paths of validated object they read.
+ * After the first validation only steps reading changed fields need to run again,
+ * results of other steps are taken from previous validation.
+ *
+ * <pre>
+ * IncrementalValidator&lt;Form&gt; validator = IncrementalValidator.&lt;Form&gt;builder()
+ *         .step(nameValidator, "name")
+ *         .step(addressValidator, "address")
+ *         .build();
+ * ValidationResults results = validator.validate(form);
+ * results = validator.revalidate(form, results, Collections.singleton("address.city"));
+ * </pre>
+ *
+ * Field paths are dot separated and a change of a path affects steps reading the
+ * same path, any of its parents or any of its children. Step without declared
+ * fields, and step that was skipped because of {@link Deadline} in previous
+ * validation, runs on every validation.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class IncrementalValidator<T> implements Validator<T> {
+
+    private final List<Step<T>> steps;
+
+    private IncrementalValidator(final List<Step<T>> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Create new incremental validator builder.
+     *
+     * @param <T> the type of data for validation
+     * @return builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public IncrementalValidationResults validate(final T data) {
+        return ValidationContext.within(() -> {
+            final List<ValidationResults> stepResults = new ArrayList<>(steps.size());
+            for (final Step<T> step : steps) {
+                stepResults.add(step.run(data));
+            }
+            return new IncrementalValidationResults(this, stepResults);
+        });
+    }
+
+    /**
+     * Validate data again running only steps that read changed fields. If previous results
+     * were not created by this validator, all steps are executed.
+     *
+     * @param data input data that needs to be validated
+     * @param previousResults results of previous validation of the same object
+     * @param changedFields paths of fields changed since previous validation
+     * @return validation results
+     */
+    public IncrementalValidationResults revalidate(final T data, final ValidationResults previousResults,
+                                                   final Collection<String> changedFields) {
+        if (!(previousResults instanceof IncrementalValidationResults)
+                || ((IncrementalValidationResults) previousResults).validator != this) {
+            return validate(data);
+        }
+        final List<ValidationResults> previousStepResults = ((IncrementalValidationResults) previousResults).stepResults;
+        return ValidationContext.within(() -> {
+            final List<ValidationResults> stepResults = new ArrayList<>(steps.size());
+            for (int i = 0; i < steps.size(); i++) {
+                final Step<T> step = steps.get(i);
+                final ValidationResults previous = previousStepResults.get(i);
+                stepResults.add(step.isAffectedBy(changedFields) || isTimedOut(previous) ? step.run(data) : previous);
+            }
+            return new IncrementalValidationResults(this, stepResults);
+        });
+    }
+
+    /**
+     * Check if step was skipped or cancelled because of deadline, such step has no
+     * results to reuse.
+     */
+    private static boolean isTimedOut(final ValidationResults results) {
+        for (final ValidationResult result : results) {
+            if (result.getMessageCode() == CoreValidationMessageCode.VALIDATION_TIMED_OUT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if field path is equal to other path, or one of them is parent of the other one.
+     */
+    private static boolean overlaps(final String path, final String other) {
+        if (path.length() == other.length()) {
+            return path.equals(other);
+        }
+        final String shorter = path.length() < other.length() ? path : other;
+        final String longer = shorter == path ? other : path;
+        return longer.startsWith(shorter) && longer.charAt(shorter.length()) == '.';
+    }
+
+    /**
+     * Validator step together with fields it reads.
+     *
+     * @param <T> the type of data for validation
+     */
+    private static final class Step<T> {
+
+        private final Validator<T> validator;
+        private final String[] fields;
+
+        Step(final Validator<T> validator, final String[] fields) {
+            this.validator = validator;
+            this.fields = fields;
+        }
+
+        ValidationResults run(final T data) {
+            return Deadline.step(validator, () -> validator.validate(data));
+        }
+
+        boolean isAffectedBy(final Collection<String> changedFields) {
+            if (fields.length == 0) {
+                return true;
+            }
+            for (final String changed : changedFields) {
+                for (final String field : fields) {
+                    if (overlaps(field, changed)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Validation results that remember results of every step, so they can be
+     * reused by {@link IncrementalValidator#revalidate(Object, ValidationResults, Collection)}.
+     * Results added after validation are not kept by the next revalidation. Step results
+     * are copied out of {@link ValidationScope} pool, so they stay valid after scope is closed.
+     */
+    public static final class IncrementalValidationResults extends ValidationResults {
+
+        private final IncrementalValidator<?> validator;
+        private final List<ValidationResults> stepResults;
+
+        private IncrementalValidationResults(final IncrementalValidator<?> validator,
+                                             final List<ValidationResults> stepResults) {
+            this.validator = validator;
+            for (int i = 0; i < stepResults.size(); i++) {
+                final ValidationResults results = stepResults.get(i);
+                if (results.getScope() != null) {
+                    stepResults.set(i, new ValidationResults().join(results));
+                }
+                join(results);
+            }
+            this.stepResults = Collections.unmodifiableList(stepResults);
+        }
+    }
+
+    /**
+     * Builder of {@link IncrementalValidator}.
+     *
+     * @param <T> the type of data for validation
+     */
+    public static final class Builder<T> {
+
+        private final List<Step<T>> steps = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add validation step.
+         *
+         * @param validator step validator
+         * @param readFields paths of fields validator reads
+         * @return current builder
+         */
+        public Builder<T> step(final Validator<T> validator, final String... readFields) {
+            steps.add(new Step<>(validator, Arrays.copyOf(readFields, readFields.length)));
+            return this;
+        }
+
+        /**
+         * Create incremental validator.
+         *
+         * @return validator
+         */
+        public IncrementalValidator<T> build() {
+            return new IncrementalValidator<>(Collections.unmodifiableList(new ArrayList<>(steps)));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package hr.validation;
+
+import hr.enums.ExceptionSeverityLevel;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Execution mode that skips validators which can only produce results of low severity
+ * levels while the system is overloaded. Validators declare the highest severity level of
+ * their results with {@link Validator#getMaxSeverityLevel()} or
+ * {@link Validator#withMaxSeverityLevel(ExceptionSeverityLevel)}, and validators and chain
+ * steps with declared level in the shed levels are skipped by validations started with
+ * {@link #run(Supplier)} while load shedding is active. Validators without declared level
+ * always run.
+ *
+ * <pre>
+ * LoadShedding shedding = LoadShedding.builder()
+ *         .shed(ExceptionSeverityLevel.INFO, ExceptionSeverityLevel.WARNING)
+ *         .pressure(() -&gt; queue.size() &gt; 1000)
+ *         .latencyThreshold(Duration.ofMillis(50))
+ *         .build();
+ * Validator&lt;Order&gt; validator = orderValidator.andThen(styleValidator.withMaxSeverityLevel(ExceptionSeverityLevel.WARNING));
+ * ValidationResults results = shedding.run(() -&gt; validator.validate(order));
+ * </pre>
+ *
+ * <p>Load shedding is active while external pressure signal is on, or while exponentially
+ * weighted average latency of validations is above the latency threshold. Average latency has
+ * to fall below three quarters of the threshold before shedding stops, so validations do not
+ * alternate between modes. Whether to shed is decided once when validation starts, so all steps
+ * of one validation see the same mode. Skipped steps add no validation results, they are only
+ * counted in metrics of this instance.</p>
+ *
+ * <p>Use {@link ExecutionSnapshot} to pass load shedding to validations running in other threads.</p>
+ *
+ * @author frano.pecek
+ */
+public final class LoadShedding {
+
+    private static final ThreadLocal<LoadShedding> CURRENT = new ThreadLocal<>();
+
+    private final Set<ExceptionSeverityLevel> shedLevels;
+    private final BooleanSupplier pressure;
+    private final long latencyThresholdNanos;
+    private final long recoveryNanos;
+    private final double smoothing;
+    private final AtomicLong averageLatency = new AtomicLong(Double.doubleToRawLongBits(0d));
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder sheddingRuns = new LongAdder();
+    private final Map<ExceptionSeverityLevel, LongAdder> skipped;
+    private volatile boolean overloaded;
+
+    private LoadShedding(final Set<ExceptionSeverityLevel> shedLevels, final BooleanSupplier pressure,
+                         final long latencyThresholdNanos, final double smoothing) {
+        this.shedLevels = shedLevels;
+        this.pressure = pressure;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.recoveryNanos = latencyThresholdNanos - latencyThresholdNanos / 4;
+        this.smoothing = smoothing;
+        this.skipped = new EnumMap<>(ExceptionSeverityLevel.class);
+        for (final ExceptionSeverityLevel level : shedLevels) {
+            skipped.put(level, new LongAdder());
+        }
+    }
+
+    /**
+     * Create new load shedding builder.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get load shedding active in current thread.
+     *
+     * @return current load shedding or null if steps are not skipped
+     */
+    public static LoadShedding current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run validation in this mode. If load shedding is active, steps with declared severity
+     * level in shed levels are skipped. Latency of validation is recorded if latency threshold is set.
+     *
+     * @param validation validation to run
+     * @param <R> validation result type
+     * @return validation result
+     */
+    public <R> R run(final Supplier<R> validation) {
+        runs.increment();
+        final LoadShedding previous = CURRENT.get();
+        final boolean shedding = isShedding();
+        if (shedding) {
+            sheddingRuns.increment();
+            CURRENT.set(this);
+        }
+        final long start = latencyThresholdNanos > 0 ? System.nanoTime() : 0;
+        try {
+            return validation.get();
+        } finally {
+            if (latencyThresholdNanos > 0) {
+                recordLatency(System.nanoTime() - start);
+            }
+            if (shedding) {
+                restore(previous);
+            }
+        }
+    }
+
+    /**
+     * Check if steps would be skipped by validation started now.
+     *
+     * @return true if pressure signal is on or average latency is too high
+     */
+    public boolean isShedding() {
+        return overloaded || pressure != null && pressure.getAsBoolean();
+    }
+
+    /**
+     * Record latency measured outside of this mode, like latency of the whole request.
+     * Validations started with {@link #run(Supplier)} record their latency automatically.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void recordLatency(final long nanos) {
+        if (latencyThresholdNanos <= 0) {
+            return;
+        }
+        long current;
+        double average;
+        do {
+            current = averageLatency.get();
+            final double previous = Double.longBitsToDouble(current);
+            average = previous == 0d ? nanos : previous + smoothing * (nanos - previous);
+        } while (!averageLatency.compareAndSet(current, Double.doubleToRawLongBits(average)));
+        if (average > latencyThresholdNanos) {
+            overloaded = true;
+        } else if (average < recoveryNanos) {
+            overloaded = false;
+        }
+    }
+
+    /**
+     * Get exponentially weighted average latency of recorded validations.
+     *
+     * @return average latency in nanoseconds, zero if latency is not recorded
+     */
+    public long getAverageLatencyNanos() {
+        return (long) Double.longBitsToDouble(averageLatency.get());
+    }
+
+    /**
+     * Get number of validations started in this mode.
+     *
+     * @return number of validations
+     */
+    public long getRunCount() {
+        return runs.sum();
+    }
+
+    /**
+     * Get number of validations started while load shedding was active.
+     *
+     * @return number of validations with skipped steps allowed
+     */
+    public long getSheddingRunCount() {
+        return sheddingRuns.sum();
+    }
+
+    /**
+     * Get number of skipped validators and chain steps.
+     *
+     * @return number of skipped steps
+     */
+    public long getSkippedCount() {
+        long sum = 0;
+        for (final LongAdder count : skipped.values()) {
+            sum += count.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Get number of skipped validators and chain steps with given declared severity level.
+     *
+     * @param severityLevel declared severity level
+     * @return number of skipped steps
+     */
+    public long getSkippedCount(final ExceptionSeverityLevel severityLevel) {
+        final LongAdder count = skipped.get(severityLevel);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Get severity levels of skipped steps.
+     *
+     * @return shed severity levels
+     */
+    public Set<ExceptionSeverityLevel> getShedLevels() {
+        return Collections.unmodifiableSet(shedLevels);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadShedding [shedLevels=" + shedLevels + ", shedding=" + isShedding()
+                + ", skipped=" + getSkippedCount() + "]";
+    }
+
+    /**
+     * Check if validation step should be skipped by load shedding active in current
+     * thread, and count it as skipped if it should.
+     *
+     * @param step validator or chain step
+     * @return true if step should be skipped
+     */
+    static boolean skip(final Validator<?> step) {
+        final LoadShedding shedding = CURRENT.get();
+        if (shedding == null) {
+            return false;
+        }
+        final ExceptionSeverityLevel severityLevel = step.getMaxSeverityLevel();
+        if (severityLevel == null || !shedding.shedLevels.contains(severityLevel)) {
+            return false;
+        }
+        shedding.skipped.get(severityLevel).increment();
+        return true;
+    }
+
+    /**
+     * Bind given load shedding to current thread.
+     *
+     * @param shedding load shedding to bind, can be null
+     */
+    static void restore(final LoadShedding shedding) {
+        if (shedding == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shedding);
+        }
+    }
+
+    /**
+     * Builder of {@link LoadShedding}.
+     */
+    public static final class Builder {
+
+        private final Set<ExceptionSeverityLevel> shedLevels = EnumSet.noneOf(ExceptionSeverityLevel.class);
+        private BooleanSupplier pressure;
+        private long latencyThresholdNanos;
+        private double smoothing = 0.2;
+
+        private Builder() {
+        }
+
+        /**
+         * Add severity levels of steps that are skipped while load shedding is active.
+         *
+         * @param severityLevels shed severity levels
+         * @return current builder
+         */
+        public Builder shed(final ExceptionSeverityLevel... severityLevels) {
+            for (final ExceptionSeverityLevel severityLevel : severityLevels) {
+                if (severityLevel == null) {
+                    throw new IllegalArgumentException("Shed severity level must not be null");
+                }
+                shedLevels.add(severityLevel);
+            }
+            return this;
+        }
+
+        /**
+         * Set externally controlled pressure signal, load shedding is active while it is true.
+         *
+         * @param pressure pressure signal
+         * @return current builder
+         */
+        public Builder pressure(final BooleanSupplier pressure) {
+            this.pressure = pressure;
+            return this;
+        }
+
+        /**
+         * Set average validation latency above which load shedding is active.
+         *
+         * @param threshold latency threshold
+         * @return current builder
+         */
+        public Builder latencyThreshold(final Duration threshold) {
+            if (threshold.isNegative() || threshold.isZero()) {
+                throw new IllegalArgumentException("Latency threshold must be positive: " + threshold);
+            }
+            this.latencyThresholdNanos = threshold.toNanos();
+            return this;
+        }
+
+        /**
+         * Set weight of the latest latency in average latency, default is 0.2.
+         *
+         * @param smoothing weight between 0 exclusive and 1 inclusive
+         * @return current builder
+         */
+        public Builder latencySmoothing(final double smoothing) {
+            if (!(smoothing > 0 && smoothing <= 1)) {
+                throw new IllegalArgumentException("Latency smoothing must be in (0, 1]: " + smoothing);
+            }
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * Create load shedding.
+         *
+         * @return load shedding
+         */
+        public LoadShedding build() {
+            if (shedLevels.isEmpty()) {
+                throw new IllegalArgumentException("At least one shed severity level is required");
+            }
+            if (pressure == null && latencyThresholdNanos == 0) {
+                throw new IllegalArgumentException("Pressure signal or latency threshold is required");
+            }
+            return new LoadShedding(EnumSet.copyOf(shedLevels), pressure, latencyThresholdNanos, smoothing);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package hr.validation;
+
+import hr.validation.i18n.CacheStats;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of composed validators built from tenant configuration. Validator of a tenant is
+ * built once per configuration version and shared by all validations, instead of composing
+ * validators with {@link Validator#andThen(Validator)} and other combinators on every request.
+ *
+ * <pre>
+ * RuleSetRegistry&lt;String, Order&gt; rules = new RuleSetRegistry&lt;&gt;(1_000,
+ *         (tenant, version) -&gt; orderRules.compose(configService.load(tenant, version)));
+ * ValidationResults results = rules.get(tenantId, configVersion).validate(order);
+ * </pre>
+ *
+ * <p>Registry keeps validators of at most given number of tenants and evicts approximately least
+ * recently used tenant when it is full. Cached validators are returned without locking, tenant
+ * use is recorded as a stamp that changes only when a validator is built, so tenants used
+ * between two builds are equally recent. When several threads ask for validator that is not built yet,
+ * only one of them builds it and the others wait for it. Newer configuration version replaces
+ * cached validator of the tenant, validators of older versions are built for the caller but not
+ * cached. Validators must be immutable and thread safe, like validators composed by combinators
+ * of {@link Validator}.</p>
+ *
+ * @param <K> the type of tenant key
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class RuleSetRegistry<K, T> {
+
+    private final int maxTenants;
+    private final RuleSetFactory<K, T> factory;
+    private final ConcurrentMap<K, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create new registry.
+     *
+     * @param maxTenants maximum number of tenants with cached validator
+     * @param factory builder of tenant validator
+     */
+    public RuleSetRegistry(final int maxTenants, final RuleSetFactory<K, T> factory) {
+        if (maxTenants < 1) {
+            throw new IllegalArgumentException("Maximum number of tenants must be positive: " + maxTenants);
+        }
+        this.maxTenants = maxTenants;
+        this.factory = factory;
+    }
+
+    /**
+     * Get validator of tenant configuration version, building it if it is not cached.
+     *
+     * @param tenant tenant key
+     * @param version configuration version
+     * @return validator
+     */
+    public Validator<T> get(final K tenant, final long version) {
+        final Entry<T> cached = entries.get(tenant);
+        if (cached != null && cached.version == version) {
+            return hit(cached);
+        }
+        if (cached != null && cached.version > version) {
+            misses.increment();
+            return factory.build(tenant, version);
+        }
+        final Entry<T> created = new Entry<>(version, clock.incrementAndGet());
+        final Entry<T> entry = entries.compute(tenant,
+                (key, current) -> current != null && current.version >= version ? current : created);
+        if (entry != created) {
+            if (entry.version == version) {
+                return hit(entry);
+            }
+            misses.increment();
+            return factory.build(tenant, version);
+        }
+        misses.increment();
+        if (entries.size() > maxTenants) {
+            evict();
+        }
+        try {
+            created.future.complete(factory.build(tenant, version));
+        } catch (RuntimeException | Error e) {
+            entries.remove(tenant, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+        return await(created.future);
+    }
+
+    /**
+     * Remove cached validator of tenant, for example when its configuration changes.
+     * Next request builds validator again.
+     *
+     * @param tenant tenant key
+     */
+    public void invalidate(final K tenant) {
+        entries.remove(tenant);
+    }
+
+    /**
+     * Remove all cached validators.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Get registry statistics. Misses are builds of validators.
+     *
+     * @return statistics snapshot
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private Validator<T> hit(final Entry<T> entry) {
+        hits.increment();
+        final long now = clock.get();
+        if (entry.accessed != now) {
+            entry.accessed = now;
+        }
+        return await(entry.future);
+    }
+
+    /**
+     * Remove tenants with the oldest use stamp until registry is back to maximum size.
+     * Evictions run only when validators are built, so scanning all tenants is cheap
+     * compared to the build.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            while (entries.size() > maxTenants) {
+                Map.Entry<K, Entry<T>> eldest = null;
+                for (final Map.Entry<K, Entry<T>> candidate : entries.entrySet()) {
+                    if (eldest == null || candidate.getValue().accessed < eldest.getValue().accessed) {
+                        eldest = candidate;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static <T> Validator<T> await(final CompletableFuture<Validator<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Builder of tenant validator from its configuration.
+     *
+     * @param <K> the type of tenant key
+     * @param <T> the type of data for validation
+     */
+    @FunctionalInterface
+    public interface RuleSetFactory<K, T> {
+
+        /**
+         * Build validator of tenant configuration version.
+         *
+         * @param tenant tenant key
+         * @param version configuration version
+         * @return immutable validator
+         */
+        Validator<T> build(K tenant, long version);
+    }
+
+    /**
+     * Cached validator of one configuration version with stamp of its last use.
+     */
+    private static final class Entry<T> {
+
+        private final long version;
+        private final CompletableFuture<Validator<T>> future = new CompletableFuture<>();
+        private volatile long accessed;
+
+        Entry(final long version, final long accessed) {
+            this.version = version;
+            this.accessed = accessed;
+        }
+    }
+}
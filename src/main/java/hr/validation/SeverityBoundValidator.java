@@ -0,0 +1,55 @@
+package hr.validation;
+
+import hr.enums.ExceptionSeverityLevel;
+
+/**
+ * Validator with declared highest severity level of its results, skipped by
+ * {@link LoadShedding} when that level is shed.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+final class SeverityBoundValidator<T> implements Validator<T> {
+
+    private final Validator<T> validator;
+    private final ExceptionSeverityLevel maxSeverityLevel;
+
+    /**
+     * Create validator with declared severity level.
+     *
+     * @param validator validator
+     * @param maxSeverityLevel highest severity level of validator results
+     */
+    SeverityBoundValidator(final Validator<T> validator, final ExceptionSeverityLevel maxSeverityLevel) {
+        this.validator = validator;
+        this.maxSeverityLevel = maxSeverityLevel;
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        if (LoadShedding.skip(this)) {
+            return ValidationScope.newResults();
+        }
+        return validator.validate(data);
+    }
+
+    @Override
+    public boolean isValidFast(final T data) {
+        return LoadShedding.skip(this) || validator.isValidFast(data);
+    }
+
+    @Override
+    public String getName() {
+        return validator.getName();
+    }
+
+    @Override
+    public ExceptionSeverityLevel getMaxSeverityLevel() {
+        return maxSeverityLevel;
+    }
+
+    @Override
+    public Validator<T> withMaxSeverityLevel(final ExceptionSeverityLevel severityLevel) {
+        return new SeverityBoundValidator<>(validator, severityLevel);
+    }
+}
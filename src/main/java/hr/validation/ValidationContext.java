@@ -0,0 +1,247 @@
+package hr.validation;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Context of one top-level validation. It is opened by the first validator or validator
+ * chain that starts validating and discarded when that validation finishes, all chained
+ * validators see the same context. Context keeps values computed during validation,
+ * so converters and lookups shared by several chained validators run only once.
+ *
+ * <pre>
+ * Function&lt;Order, Customer&gt; customer = ValidationContext.shared(order -&gt; repository.load(order.getCustomerId()));
+ * Validator&lt;Order&gt; validator = orderValidator
+ *         .andThen(customerValidator, customer)
+ *         .andThenIfValid(limitValidator, customer);
+ * </pre>
+ *
+ * Values are visible to validations started on other threads with {@link ExecutionSnapshot}.
+ *
+ * @author frano.pecek
+ */
+public final class ValidationContext {
+
+    private static final ThreadLocal<ValidationContext> CURRENT = new ThreadLocal<>();
+    /**
+     * Marks validation whose context is not created yet. Context is created on first use,
+     * so validations that share no values do not allocate it.
+     */
+    private static final ValidationContext PENDING = new ValidationContext();
+
+    private volatile ConcurrentMap<Object, Memo> values;
+
+    private ValidationContext() {
+    }
+
+    /**
+     * Get context of validation running in current thread.
+     *
+     * @return current context or null if there is no validation running
+     */
+    public static ValidationContext current() {
+        ValidationContext context = CURRENT.get();
+        if (context == PENDING) {
+            context = new ValidationContext();
+            CURRENT.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Get value from current context, computing it if it is not yet known.
+     * Without current context value is computed on every call.
+     *
+     * @param key value key
+     * @param supplier value supplier
+     * @param <V> value type
+     * @return value
+     */
+    public static <V> V lookup(final Object key, final Supplier<V> supplier) {
+        final ValidationContext context = current();
+        return context == null ? supplier.get() : context.computeIfAbsent(key, supplier);
+    }
+
+    /**
+     * Create converter that is applied at most once per input object in one validation.
+     * Same converter instance must be passed to all chained validators that should share the result.
+     *
+     * @param convert converter for converting value in another type
+     * @param <T> input type
+     * @param <D> converted type
+     * @return shared converter
+     */
+    public static <T, D> Function<T, D> shared(final Function<T, D> convert) {
+        return data -> lookup(new SharedKey(convert, data), () -> convert.apply(data));
+    }
+
+    /**
+     * Create stream converter that is applied at most once per input object in one validation.
+     * Converted stream is collected to a list, and every validator gets new stream of that list.
+     *
+     * @param convert converter for converting value in stream of another type
+     * @param <T> input type
+     * @param <D> converted type
+     * @return shared stream converter
+     */
+    public static <T, D> Function<T, Stream<D>> sharedStream(final Function<T, Stream<D>> convert) {
+        return data -> {
+            final ValidationContext context = current();
+            if (context == null) {
+                return convert.apply(data);
+            }
+            final List<D> values = context.computeIfAbsent(new SharedKey(convert, data),
+                    () -> convert.apply(data).collect(Collectors.toList()));
+            return values.stream();
+        };
+    }
+
+    /**
+     * Get value from this context, computing it if it is not yet known. Value is computed
+     * only once even if more threads of the same validation ask for it at the same time.
+     *
+     * @param key value key
+     * @param supplier value supplier
+     * @param <V> value type
+     * @return value
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V computeIfAbsent(final Object key, final Supplier<V> supplier) {
+        ConcurrentMap<Object, Memo> map = values;
+        if (map == null) {
+            synchronized (this) {
+                map = values;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    values = map;
+                }
+            }
+        }
+        Memo memo = map.get(key);
+        if (memo == null) {
+            final Memo newMemo = new Memo();
+            memo = map.putIfAbsent(key, newMemo);
+            if (memo == null) {
+                memo = newMemo;
+            }
+        }
+        return (V) memo.get(supplier);
+    }
+
+    /**
+     * Run validation inside context. New context is opened only if there is no current context.
+     *
+     * @param validation validation to run
+     * @param <R> validation result type
+     * @return validation result
+     */
+    static <R> R within(final Supplier<R> validation) {
+        final ValidationContext opened = open();
+        try {
+            return validation.get();
+        } finally {
+            close(opened);
+        }
+    }
+
+    /**
+     * Open new context if there is no current context. Context object itself is created
+     * only when validation asks for it, opening and closing context does not allocate.
+     *
+     * @return token of opened context or null if context already exists
+     */
+    static ValidationContext open() {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        CURRENT.set(PENDING);
+        return PENDING;
+    }
+
+    /**
+     * Close context returned by {@link #open()}.
+     *
+     * @param opened token of opened context, can be null
+     */
+    static void close(final ValidationContext opened) {
+        if (opened != null) {
+            CURRENT.set(null);
+        }
+    }
+
+    /**
+     * Get context bound to current thread without creating context that is not used yet.
+     *
+     * @return bound context, can be null
+     */
+    static ValidationContext bound() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind given context to current thread.
+     *
+     * @param context context to bind, can be null
+     */
+    static void restore(final ValidationContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+    /**
+     * Lazily computed value.
+     */
+    private static final class Memo {
+
+        private volatile boolean computed;
+        private Object value;
+
+        Object get(final Supplier<?> supplier) {
+            if (!computed) {
+                synchronized (this) {
+                    if (!computed) {
+                        value = supplier.get();
+                        computed = true;
+                    }
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Key of shared converter result, converter and input are compared by identity.
+     */
+    private static final class SharedKey {
+
+        private final Object convert;
+        private final Object data;
+
+        SharedKey(final Object convert, final Object data) {
+            this.convert = convert;
+            this.data = data;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof SharedKey)) {
+                return false;
+            }
+            final SharedKey other = (SharedKey) o;
+            return convert == other.convert && data == other.data;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(convert) + System.identityHashCode(data);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package hr.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Validator composed of named validation nodes and prerequisites between them.
+ * Nodes without unfinished prerequisites run concurrently on the executor, a node
+ * runs only if all its prerequisites are valid, otherwise it is skipped like chained
+ * validator in {@link Validator#andThenIfValid(Validator)}. Results are joined in
+ * node declaration order regardless of the order in which nodes finish.
+ *
+ * <pre>
+ * Validator&lt;Order&gt; validator = ValidationGraph.&lt;Order&gt;builder()
+ *         .node("customer", customerValidator)
+ *         .node("items", itemValidator, Order::getItems)
+ *         .node("limits", limitValidator, "customer")
+ *         .build();
+ * </pre>
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class ValidationGraph<T> implements Validator<T> {
+
+    private final List<Node<T>> nodes;
+    private final Executor executor;
+
+    private ValidationGraph(final List<Node<T>> nodes, final Executor executor) {
+        this.nodes = nodes;
+        this.executor = executor;
+    }
+
+    /**
+     * Create new graph builder.
+     *
+     * @param <T> the type of data for validation
+     * @return graph builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public ValidationResults validate(final T data) {
+        return ValidationContext.within(() -> validateNodes(data));
+    }
+
+    private ValidationResults validateNodes(final T data) {
+        final ExecutionSnapshot snapshot = ExecutionSnapshot.capture();
+        final List<CompletableFuture<ValidationResults>> futures = new ArrayList<>(nodes.size());
+        for (final Node<T> node : nodes) {
+            final CompletableFuture<ValidationResults> future;
+            if (node.prerequisites.length == 0) {
+                future = CompletableFuture.supplyAsync(snapshot.wrap(() -> node.run(data)), executor);
+            } else {
+                final CompletableFuture<?>[] prerequisites = new CompletableFuture<?>[node.prerequisites.length];
+                for (int i = 0; i < prerequisites.length; i++) {
+                    prerequisites[i] = futures.get(node.prerequisites[i]);
+                }
+                future = CompletableFuture.allOf(prerequisites).thenApplyAsync(ignored -> {
+                    for (final CompletableFuture<?> prerequisite : prerequisites) {
+                        final ValidationResults results = (ValidationResults) prerequisite.join();
+                        if (results == null || results.isInvalid()) {
+                            return null;
+                        }
+                    }
+                    return snapshot.call(() -> node.run(data));
+                }, executor);
+            }
+            futures.add(future);
+        }
+        final ValidationResults validationResults = ValidationScope.newResults();
+        try {
+            for (final CompletableFuture<ValidationResults> future : futures) {
+                final ValidationResults results = future.join();
+                if (results != null) {
+                    validationResults.join(results);
+                }
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return validationResults;
+    }
+
+    /**
+     * Single validation node.
+     *
+     * @param <T> the type of data for validation
+     */
+    private static final class Node<T> {
+
+        private final Validator<T> validator;
+        private final int[] prerequisites;
+
+        Node(final Validator<T> validator, final int[] prerequisites) {
+            this.validator = validator;
+            this.prerequisites = prerequisites;
+        }
+
+        ValidationResults run(final T data) {
+            return Deadline.step(validator, () -> validator.validate(data));
+        }
+    }
+
+    /**
+     * Builder of {@link ValidationGraph}. Prerequisites must be declared before
+     * nodes depending on them, so the graph can not contain cycles.
+     *
+     * @param <T> the type of data for validation
+     */
+    public static final class Builder<T> {
+
+        private final List<Node<T>> nodes = new ArrayList<>();
+        private final Map<String, Integer> names = new HashMap<>();
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        /**
+         * Add validation node.
+         *
+         * @param name unique node name
+         * @param validator node validator
+         * @param prerequisites names of nodes that must be valid before this node runs
+         * @return current builder
+         */
+        public Builder<T> node(final String name, final Validator<T> validator, final String... prerequisites) {
+            if (names.containsKey(name)) {
+                throw new IllegalArgumentException("Validation node is already defined: " + name);
+            }
+            final int[] indexes = new int[prerequisites.length];
+            for (int i = 0; i < prerequisites.length; i++) {
+                final Integer index = names.get(prerequisites[i]);
+                if (index == null) {
+                    throw new IllegalArgumentException("Prerequisite of validation node " + name
+                            + " must be defined before it: " + prerequisites[i]);
+                }
+                indexes[i] = index;
+            }
+            names.put(name, nodes.size());
+            nodes.add(new Node<>(validator, indexes));
+            return this;
+        }
+
+        /**
+         * Add validation node validating converted data.
+         *
+         * @param name unique node name
+         * @param validator node validator
+         * @param convert converter for converting value in another type
+         * @param prerequisites names of nodes that must be valid before this node runs
+         * @param <D> data type requested by node validator
+         * @return current builder
+         */
+        public <D> Builder<T> node(final String name, final Validator<D> validator, final Function<T, D> convert,
+                                   final String... prerequisites) {
+            return node(name, new ComposedValidator<>(data -> validator.validate(convert.apply(data)),
+                    data -> validator.isValidFast(convert.apply(data)), validator.getName()), prerequisites);
+        }
+
+        /**
+         * Set executor running validation nodes, default is common fork join pool.
+         *
+         * @param nodeExecutor executor
+         * @return current builder
+         */
+        public Builder<T> executor(final Executor nodeExecutor) {
+            this.executor = nodeExecutor;
+            return this;
+        }
+
+        /**
+         * Create validation graph.
+         *
+         * @return validator
+         */
+        public ValidationGraph<T> build() {
+            return new ValidationGraph<>(Collections.unmodifiableList(new ArrayList<>(nodes)), executor);
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package hr.validation;
 
 import hr.enums.ExceptionSeverityLevel;
-import hr.validation.i18n.CacheTranslateFormat;
-import hr.validation.i18n.DefaultTranslateFormat;
 import hr.validation.i18n.MessageCode;
+import hr.validation.i18n.SharedMessageCache;
 import hr.validation.i18n.Translatable;
 
 import java.util.Arrays;
@@ -16,12 +15,12 @@ import java.util.StringJoiner;
  */
 public class ValidationResult implements Translatable {
 
-    private final CacheTranslateFormat<String> cachedTranslateFormat = new CacheTranslateFormat<>(DefaultTranslateFormat.INSTANCE);
     private final MessageCode messageCode;
     private final String[] fields;
     private Object[] messageParameters = new Object[]{};
     private Object bean;
     private ExceptionSeverityLevel severityLevel;
+    private volatile String message;
 
     /**
      * Create new ValidationResult using bean, message code, exception severity level and error fields.
@@ -108,11 +107,17 @@ public class ValidationResult implements Translatable {
      */
     public ValidationResult withMessageParameters(final Object... messageParams) {
         this.messageParameters = Arrays.copyOf(messageParams, messageParams.length);
+        this.message = null;
         return this;
     }
 
     public String getMessage() {
-        return cachedTranslateFormat.translateAndFormat(this);
+        String rendered = message;
+        if (rendered == null) {
+            rendered = SharedMessageCache.INSTANCE.translateAndFormat(this);
+            message = rendered;
+        }
+        return rendered;
     }
 
     public String[] getFields() {
@@ -23,6 +23,8 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
     private static final Logger LOGGER = LoggerFactory.getLogger(ValidationResults.class);
 
     private final List<ValidationResult> valResults;
+    private ValidationResult lastValidation;
+    private ValidationScope scope;
 
     /**
      * Create new ValidationResult object.
@@ -83,7 +85,14 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
         return step2;
     }
 
-    private ValidationResults doAdd(final ValidationResult res) {
+    /**
+     * Store validation result. Subclasses that keep results elsewhere override this method
+     * together with methods reading results.
+     *
+     * @param res validation result
+     * @return current object reference
+     */
+    protected ValidationResults doAdd(final ValidationResult res) {
         this.valResults.add(res);
         return this;
     }
@@ -95,7 +104,13 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
      * @return - joined validation result
      */
     public ValidationResults join(final ValidationResults results) {
-        this.valResults.addAll(results.valResults);
+        if (results.getClass() == ValidationResults.class) {
+            this.valResults.addAll(results.valResults);
+        } else {
+            for (final ValidationResult result : results) {
+                doAdd(result);
+            }
+        }
         return this;
     }
 
@@ -124,6 +139,32 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
         this.valResults.clear();
     }
 
+    /**
+     * Number of validation results.
+     *
+     * @return size
+     */
+    public int size() {
+        return this.valResults.size();
+    }
+
+    /**
+     * Clear results before instance is reused by {@link ValidationScope}.
+     */
+    void reset() {
+        this.valResults.clear();
+        this.lastValidation = null;
+        this.scope = null;
+    }
+
+    ValidationScope getScope() {
+        return scope;
+    }
+
+    void setScope(final ValidationScope newScope) {
+        this.scope = newScope;
+    }
+
     /**
      * Throw exception if validation is invalid.
      */
@@ -169,7 +210,7 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
      * Work in progress - update needed
      */
     private void logValidationResults() {
-        for (final ValidationResult validationResult : this.valResults) {
+        for (final ValidationResult validationResult : this) {
             LOGGER.error("-----------VALIDATION RESULT START--------------");
             LOGGER.error("MESSAGE CODE >> " + validationResult.getMessageCode());
             LOGGER.error("ERROR MESSAGE >> " + validationResult.getMessage());
@@ -182,8 +223,6 @@ public class ValidationResults implements Iterable<ValidationResult>, Validation
     //CHECKSTYLE:OFF
     private final ValidationResultStep2 step2 = new ValidationResultStep2() {
 
-        private ValidationResult lastValidation;
-
         @Override
         public ValidationResultStep2 add(final MessageCode msg, final String... fields) {
             add(new ValidationResult(msg, fields));
@@ -0,0 +1,174 @@
+package hr.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scope in which validators reuse {@link ValidationResults} instances instead of
+ * allocating new ones. While scope is open in current thread, {@link AbstractValidator},
+ * stream validation and validator graph take validation results from the pool,
+ * and all of them are cleared and returned to the pool when scope is closed.
+ *
+ * <pre>
+ * try (ValidationScope scope = ValidationScope.open()) {
+ *     return scope.detach(validator.validate(data));
+ * }
+ * </pre>
+ *
+ * Validation results created inside the scope must not be used after scope is closed,
+ * results that leave the scope have to be copied with {@link #detach(ValidationResults)}.
+ * Scope must be closed in the thread that opened it. Validations running in other
+ * threads allocate new validation results as usual.
+ *
+ * <p>Pool is shared by all threads and split in stripes selected by thread id, so short
+ * lived threads, like virtual threads serving one request, reuse results returned by
+ * earlier threads.</p>
+ *
+ * @author frano.pecek
+ */
+public final class ValidationScope implements AutoCloseable {
+
+    private static final ThreadLocal<ValidationScope> ACTIVE = new ThreadLocal<>();
+    private static final ThreadLocal<ValidationResults> SCRATCH = new ThreadLocal<>();
+    private static final int MAX_POOLED = 64;
+    private static final int MAX_POOLED_RESULT_SIZE = 256;
+    private static final Pool[] POOLS = createPools();
+
+    private final List<ValidationResults> leased = new ArrayList<>();
+    private final ValidationScope previous;
+    private final Thread owner;
+    private boolean closed;
+
+    private ValidationScope(final ValidationScope previous) {
+        this.previous = previous;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Open new scope in current thread.
+     *
+     * @return opened scope
+     */
+    public static ValidationScope open() {
+        final ValidationScope scope = new ValidationScope(ACTIVE.get());
+        ACTIVE.set(scope);
+        return scope;
+    }
+
+    /**
+     * Copy validation results so they can be used after scope is closed.
+     *
+     * @param results validation results created inside the scope
+     * @return validation results that are not returned to the pool
+     */
+    public ValidationResults detach(final ValidationResults results) {
+        if (results.getScope() == null) {
+            return results;
+        }
+        return new ValidationResults().join(results);
+    }
+
+    /**
+     * Clear all validation results leased in this scope and return them to the pool.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Validation scope must be closed by the thread that opened it");
+        }
+        closed = true;
+        final Pool pool = pool();
+        synchronized (pool) {
+            for (final ValidationResults results : leased) {
+                final boolean reusable = results.size() <= MAX_POOLED_RESULT_SIZE;
+                results.reset();
+                if (reusable && pool.results.size() < MAX_POOLED) {
+                    pool.results.push(results);
+                }
+            }
+        }
+        leased.clear();
+        if (previous == null) {
+            ACTIVE.remove();
+        } else {
+            ACTIVE.set(previous);
+        }
+    }
+
+    /**
+     * Create validation results, taken from the pool if scope is open in current thread.
+     *
+     * @return empty validation results
+     */
+    static ValidationResults newResults() {
+        final ValidationScope scope = ACTIVE.get();
+        if (scope == null) {
+            return new ValidationResults();
+        }
+        final Pool pool = pool();
+        ValidationResults results;
+        synchronized (pool) {
+            results = pool.results.poll();
+        }
+        if (results == null) {
+            results = new ValidationResults();
+        }
+        results.setScope(scope);
+        scope.leased.add(results);
+        return results;
+    }
+
+    /**
+     * Take validation results that are discarded right after validation, like results of
+     * validity check. Every thread keeps one such instance, nested checks allocate new ones.
+     * Results must be given back with {@link #releaseScratch(ValidationResults)}.
+     *
+     * @return empty validation results
+     */
+    static ValidationResults takeScratch() {
+        final ValidationResults results = SCRATCH.get();
+        if (results == null) {
+            return new ValidationResults();
+        }
+        SCRATCH.set(null);
+        return results;
+    }
+
+    /**
+     * Clear validation results taken with {@link #takeScratch()} and keep them for the next check.
+     *
+     * @param results validation results that are no longer used
+     */
+    static void releaseScratch(final ValidationResults results) {
+        if (results.size() <= MAX_POOLED_RESULT_SIZE) {
+            results.reset();
+            SCRATCH.set(results);
+        }
+    }
+
+    private static Pool pool() {
+        final long id = Thread.currentThread().getId();
+        return POOLS[(int) (id ^ (id >>> 16)) & (POOLS.length - 1)];
+    }
+
+    private static Pool[] createPools() {
+        final int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1);
+        final Pool[] pools = new Pool[stripes];
+        for (int i = 0; i < stripes; i++) {
+            pools[i] = new Pool();
+        }
+        return pools;
+    }
+
+    /**
+     * Pooled validation results of one stripe, guarded by the pool monitor.
+     */
+    private static final class Pool {
+
+        private final ArrayDeque<ValidationResults> results = new ArrayDeque<>();
+    }
+}
@@ -1,5 +1,16 @@
 package hr.validation;
 
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -21,6 +32,66 @@ public interface Validator<T> {
      */
     ValidationResults validate(T data);
 
+    /**
+     * Check whether data is valid without creating validation results when possible.
+     * Result must be the same as {@code validate(data).isValid()}, which is the default
+     * implementation. Composed validators check their parts with this method, and
+     * combinators use it where validation results would be discarded.
+     *
+     * @param data input data that needs to be validated
+     * @return true if data is valid
+     */
+    default boolean isValidFast(final T data) {
+        return validate(data).isValid();
+    }
+
+    /**
+     * Get declared highest severity level of results of this validator. Validators with
+     * declared level are skipped by {@link LoadShedding} when their level is shed.
+     *
+     * @return highest severity level of results, or null if it is not declared
+     */
+    default ExceptionSeverityLevel getMaxSeverityLevel() {
+        return null;
+    }
+
+    /**
+     * Declare highest severity level of results of this validator, like
+     * {@link ExceptionSeverityLevel#WARNING} for validators reporting only hints.
+     *
+     * @param severityLevel highest severity level of results
+     * @return validator with declared severity level
+     */
+    default Validator<T> withMaxSeverityLevel(final ExceptionSeverityLevel severityLevel) {
+        return new SeverityBoundValidator<>(this, severityLevel);
+    }
+
+    /**
+     * Get name of this validator, used in results of skipped steps and in trace spans.
+     * Default name is the class name, or the name of declaring class for lambdas.
+     * Combinators name created validators after their parts.
+     *
+     * @return validator name
+     */
+    default String getName() {
+        final String className = getClass().getName();
+        final int lambda = className.indexOf("$$Lambda");
+        return lambda < 0 ? className : className.substring(0, lambda + "$$Lambda".length());
+    }
+
+    /**
+     * Give this validator a name, used in results of skipped steps and in trace spans.
+     *
+     * @param name validator name
+     * @return validator with given name
+     */
+    default Validator<T> named(final String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Validator name must not be null");
+        }
+        return new ComposedValidator<>(this, this::isValidFast, name);
+    }
+
     /**
      * Repack validation result in another validation result.
      *
@@ -28,13 +99,12 @@ public interface Validator<T> {
      * @return - validator
      */
     default Validator<T> repack(final Supplier<ValidationResults> newValidationResults) {
-        return data -> {
-            final ValidationResults results = this.validate(data);
-            if (results.isInvalid()) {
-                return newValidationResults.get();
+        return new ComposedValidator<>(data -> {
+            if (this.isValidFast(data)) {
+                return ValidationScope.newResults();
             }
-            return results;
-        };
+            return newValidationResults.get();
+        }, data -> this.isValidFast(data) || newValidationResults.get().isValid(), getName() + ".repack()");
     }
 
     /**
@@ -70,18 +140,81 @@ public interface Validator<T> {
     }
 
     /**
-     * Method for validating stream of data.
+     * Method for validating stream of data. Parallel stream is validated in parallel, with
+     * validation state of the calling thread propagated to worker threads and results
+     * in stream order. Every element is a separate validation with its own
+     * {@link ValidationContext}, unless the stream is validated inside another validation,
+     * whose context is then shared by all elements.
      *
      * @param data - input data that needs to be validated
      * @return - validation results
      */
     default ValidationResults validate(final Stream<T> data) {
-        final ValidationResults validationResults = new ValidationResults();
         if (data == null) {
-            return validationResults;
+            return new ValidationResults();
         }
-        data.forEach(t -> validationResults.join(validate(t)));
-        return validationResults;
+        return validate(data, ValidationScope.newResults());
+    }
+
+    /**
+     * Validate stream of data joining results of every element to given results as soon as the
+     * element is validated, so results like {@code SpillingValidationResults} do not have to
+     * keep results of the whole stream in memory. Parts of parallel stream collect their
+     * results in memory and are joined in stream order at the end.
+     *
+     * @param data - input data that needs to be validated
+     * @param into - validation results receiving results of elements
+     * @return given validation results
+     */
+    default ValidationResults validate(final Stream<T> data, final ValidationResults into) {
+        if (data == null) {
+            return into;
+        }
+        return Tracing.trace(this, SpanKind.STREAM, () -> {
+            final Deadline deadline = Deadline.current();
+            if (data.isParallel()) {
+                final ExecutionSnapshot snapshot = ExecutionSnapshot.capture();
+                final AtomicBoolean skipped = new AtomicBoolean();
+                into.join(data.collect(ValidationResults::new, (results, t) -> {
+                    if (deadline != null && deadline.isExpired()) {
+                        skipped.set(true);
+                    } else {
+                        results.join(snapshot.call(() -> validate(t)));
+                    }
+                }, ValidationResults::join));
+                if (skipped.get()) {
+                    into.add(deadline.skipped(this));
+                }
+                return into;
+            }
+            if (deadline == null) {
+                data.forEach(t -> into.join(validate(t)));
+                return into;
+            }
+            final Spliterator<T> elements = data.spliterator();
+            while (!deadline.isExpired()) {
+                if (!elements.tryAdvance(t -> into.join(validate(t)))) {
+                    return into;
+                }
+            }
+            if (elements.tryAdvance(t -> { })) {
+                into.add(deadline.skipped(this));
+            }
+            return into;
+        });
+    }
+
+    /**
+     * Check whether all data in stream is valid without creating validation results when possible.
+     *
+     * @param data - input data that needs to be validated
+     * @return true if all data is valid
+     */
+    default boolean isValidFast(final Stream<T> data) {
+        if (data == null) {
+            return true;
+        }
+        return data.allMatch(t -> Deadline.allowsProbe() && isValidFast(t));
     }
 
     /**
@@ -101,7 +234,10 @@ public interface Validator<T> {
      * @return validator chain
      */
     default Validator<T> andThen(final Validator<T> validator) {
-        return data -> this.validate(data).join(validator.validate(data));
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> this.validate(data)
+                .join(Deadline.step(validator, () -> validator.validate(data)))),
+                data -> ComposedValidator.probe(this, validator, Function.identity(), data),
+                getName() + ".andThen(" + validator.getName() + ")");
     }
 
     /**
@@ -113,7 +249,10 @@ public interface Validator<T> {
      * @return validator
      */
     default <D> Validator<T> andThen(final Validator<D> validator, final Function<T, D> convert) {
-        return data -> this.validate(data).join(validator.validate(convert.apply(data)));
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> this.validate(data)
+                .join(Deadline.step(validator, () -> validator.validate(convert.apply(data))))),
+                data -> ComposedValidator.probe(this, validator, convert, data),
+                getName() + ".andThen(" + validator.getName() + ")");
     }
 
     /**
@@ -124,7 +263,10 @@ public interface Validator<T> {
      * @return chained validator
      */
     default <D> Validator<T> andThenForEach(final Validator<D> validator, final Function<T, Stream<D>> convert) {
-        return data -> this.validate(data).join(validator.validate(convert.apply(data)));
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> this.validate(data)
+                .join(Deadline.step(validator, () -> validator.validate(convert.apply(data))))),
+                data -> ComposedValidator.probeForEach(this, validator, convert, data),
+                getName() + ".andThenForEach(" + validator.getName() + ")");
     }
 
     /**
@@ -136,13 +278,14 @@ public interface Validator<T> {
      * @return chained validator
      */
     default <D> Validator<T> andThenIfValid(final Validator<D> validator, final Function<T, D> convert) {
-        return data -> {
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> {
             final ValidationResults rs = this.validate(data);
             if (rs.isValid()) {
-                rs.join(validator.validate(convert.apply(data)));
+                rs.join(Deadline.step(validator, () -> validator.validate(convert.apply(data))));
             }
             return rs;
-        };
+        }), data -> ComposedValidator.probe(this, validator, convert, data),
+                getName() + ".andThenIfValid(" + validator.getName() + ")");
     }
 
     /**
@@ -152,13 +295,14 @@ public interface Validator<T> {
      * @return chained validator
      */
     default Validator<T> andThenIfValid(final Validator<T> validator) {
-        return data -> {
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> {
             final ValidationResults rs = this.validate(data);
             if (rs.isValid()) {
-                rs.join(validator.validate(data));
+                rs.join(Deadline.step(validator, () -> validator.validate(data)));
             }
             return rs;
-        };
+        }), data -> ComposedValidator.probe(this, validator, Function.identity(), data),
+                getName() + ".andThenIfValid(" + validator.getName() + ")");
     }
 
     /**
@@ -170,12 +314,118 @@ public interface Validator<T> {
      * @return chained validator
      */
     default <D> Validator<T> andThenForEachIfValid(final Validator<D> validator, final Function<T, Stream<D>> convert) {
-        return data -> {
+        return new ComposedValidator<>(data -> ValidationContext.within(() -> {
             final ValidationResults rs = this.validate(data);
             if (rs.isValid()) {
-                rs.join(validator.validate(convert.apply(data)));
+                rs.join(Deadline.step(validator, () -> validator.validate(convert.apply(data))));
             }
             return rs;
-        };
+        }), data -> ComposedValidator.probeForEach(this, validator, convert, data),
+                getName() + ".andThenForEachIfValid(" + validator.getName() + ")");
+    }
+
+    /**
+     * Add aggregate validator that validates the whole stream in the same pass as this
+     * validator validates data in it. Validating single data does not use aggregate.
+     * Combinators applied to returned validator keep the aggregate and apply to validation
+     * of single data, aggregates of validators passed to combinators are not used.
+     *
+     * @param aggregate aggregate validator
+     * @param <A> the type of aggregation state
+     * @return validator of data and aggregate
+     */
+    default <A> Validator<T> andAggregate(final AggregateValidator<T, A> aggregate) {
+        return new AggregatingValidator<>(this, Collections.singletonList(AggregatingValidator.erase(aggregate)));
+    }
+
+    /**
+     * Combine validator with alternative validator. Data is valid if this or alternative
+     * validator is valid, alternative runs only if this validator is invalid.
+     *
+     * @param alternative alternative validator
+     * @return combined validator
+     */
+    default Validator<T> or(final Validator<T> alternative) {
+        return anyOf(this, alternative);
+    }
+
+    /**
+     * Combine validator with alternative validator racing on executor. Data is valid if this
+     * or alternative validator is valid, validation returns when the first of them is valid
+     * and interrupts the other one.
+     *
+     * @param alternative alternative validator
+     * @param executor executor running both validators
+     * @return combined validator
+     */
+    default Validator<T> or(final Validator<T> alternative, final Executor executor) {
+        return anyOf(executor, this, alternative);
+    }
+
+    /**
+     * Create validator that is valid if any of alternatives is valid. Alternatives run one after
+     * another until one of them is valid and its results are returned. If all alternatives are
+     * invalid, results of all of them are joined.
+     *
+     * @param alternatives alternative validators
+     * @param <T> the type of data for validation
+     * @return combined validator
+     */
+    @SafeVarargs
+    static <T> Validator<T> anyOf(final Validator<T>... alternatives) {
+        final List<Validator<T>> validators = new ArrayList<>(alternatives.length);
+        for (final Validator<T> alternative : alternatives) {
+            validators.add(alternative);
+        }
+        return new AnyOfValidator<>(validators, null);
+    }
+
+    /**
+     * Create validator that is valid if any of alternatives is valid. All alternatives race on
+     * executor, validation returns results of the first valid alternative and interrupts the
+     * others. If all alternatives are invalid, results of all of them are joined in given order.
+     *
+     * @param executor executor running alternatives
+     * @param alternatives alternative validators
+     * @param <T> the type of data for validation
+     * @return combined validator
+     */
+    @SafeVarargs
+    static <T> Validator<T> anyOf(final Executor executor, final Validator<T>... alternatives) {
+        final List<Validator<T>> validators = new ArrayList<>(alternatives.length);
+        for (final Validator<T> alternative : alternatives) {
+            validators.add(alternative);
+        }
+        return new AnyOfValidator<>(validators, executor);
+    }
+
+    /**
+     * Bound validation time. Every validation gets its own deadline after given budget,
+     * and chained steps that would start after the deadline are skipped and reported
+     * with {@link CoreValidationMessageCode#VALIDATION_TIMED_OUT} result.
+     *
+     * @param budget time budget of one validation
+     * @return time bounded validator
+     */
+    default Validator<T> withDeadline(final Duration budget) {
+        return new ComposedValidator<>(data -> Deadline.after(budget).run(() -> this.validate(data)),
+                data -> Deadline.after(budget).run(() -> this.isValidFast(data)),
+                getName() + ".withDeadline(" + budget + ")");
+    }
+
+    /**
+     * Run validator on given executor and stop waiting for it when current deadline passes.
+     * Validator that does not finish in time is interrupted and reported with
+     * {@link CoreValidationMessageCode#VALIDATION_TIMED_OUT} result. Without deadline
+     * validator runs in the calling thread. {@link #isValidFast(Object)} runs on executor too,
+     * and data whose check does not finish in time is invalid.
+     *
+     * @param executor executor running validation
+     * @return cancellable validator
+     */
+    default Validator<T> cancelOnDeadline(final Executor executor) {
+        return new ComposedValidator<>(data -> Deadline.cancellableStep(this, () -> this.validate(data), executor),
+                data -> Deadline.cancellableProbe(() -> this.isValidFast(data), executor),
+                getName() + ".cancelOnDeadline()");
     }
 }
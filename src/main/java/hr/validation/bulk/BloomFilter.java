@@ -0,0 +1,55 @@
+package hr.validation.bulk;
+
+/**
+ * Bloom filter of 64-bit hashes. Bit positions are derived from the hash by double
+ * hashing, so the hash is computed only once per key.
+ *
+ * @author frano.pecek
+ */
+final class BloomFilter {
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Create filter sized for expected number of hashes.
+     *
+     * @param expectedInsertions expected number of hashes
+     * @param falsePositiveRate expected false positive rate with expected number of hashes
+     */
+    BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        final long n = Math.max(1, expectedInsertions);
+        final double ln2 = Math.log(2);
+        final long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        final long wordCount = (bits + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Bloom filter is too large for " + expectedInsertions + " keys");
+        }
+        this.words = new long[(int) wordCount];
+        this.bitCount = wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+    }
+
+    /**
+     * Add hash to the filter.
+     *
+     * @param hash 64-bit hash
+     * @return true if hash might have been added before
+     */
+    boolean put(final long hash) {
+        final long first = hash;
+        final long second = (hash >>> 32 | hash << 32) | 1;
+        boolean present = true;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Long.remainderUnsigned(first + i * second, bitCount);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            if ((words[word] & mask) == 0) {
+                present = false;
+                words[word] |= mask;
+            }
+        }
+        return present;
+    }
+}
@@ -0,0 +1,323 @@
+package hr.validation.bulk;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.i18n.MessageCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * Compact validation results of bulk data. Instead of one validation result per invalid
+ * row it keeps {@link RowBitmap} of invalid rows for every message code, severity level and
+ * fields, and results that relate to the whole data set, like invalid column sum. Rows of
+ * a message code are queried together for all its severity levels and fields. Rows failing several rules are
+ * found with bitmap union and intersection, and results of data partitions are merged
+ * with {@link #merge(BulkValidationResults, int)}.
+ *
+ * <p>Iterating creates {@link RecordValidationResult} for every invalid row lazily, data set
+ * results first and then rows of every message code in ascending order, so bulk results can
+ * be used where iterable of validation results is expected. Use {@link #toValidationResults()}
+ * when regular validation results are required.</p>
+ *
+ * @author frano.pecek
+ */
+public class BulkValidationResults implements Iterable<ValidationResult> {
+
+    private final Map<FailingRows, FailingRows> failingRows = new LinkedHashMap<>();
+    private final ValidationResults dataSetResults = new ValidationResults();
+
+    /**
+     * Add invalid rows of message code.
+     *
+     * @param messageCode validation message code
+     * @param severityLevel severity level of row results
+     * @param fields fields of row results
+     * @param rows indexes of invalid rows
+     * @return current object reference
+     */
+    public BulkValidationResults addFailingRows(final MessageCode messageCode, final ExceptionSeverityLevel severityLevel,
+                                                final String[] fields, final RowBitmap rows) {
+        if (!rows.isEmpty()) {
+            rowsOf(messageCode, severityLevel, fields).rows.or(rows);
+        }
+        return this;
+    }
+
+    /**
+     * Add invalid row of message code.
+     *
+     * @param messageCode validation message code
+     * @param severityLevel severity level of row result
+     * @param fields fields of row result
+     * @param row index of invalid row
+     * @return current object reference
+     */
+    public BulkValidationResults addFailingRow(final MessageCode messageCode, final ExceptionSeverityLevel severityLevel,
+                                               final String[] fields, final int row) {
+        rowsOf(messageCode, severityLevel, fields).rows.add(row);
+        return this;
+    }
+
+    /**
+     * Add result that relates to the whole data set.
+     *
+     * @param result validation result
+     * @return current object reference
+     */
+    public BulkValidationResults add(final ValidationResult result) {
+        dataSetResults.add(result);
+        return this;
+    }
+
+    /**
+     * Merge results of another validation of the same rows.
+     *
+     * @param other bulk results
+     * @return current object reference
+     */
+    public BulkValidationResults merge(final BulkValidationResults other) {
+        return merge(other, 0);
+    }
+
+    /**
+     * Merge results of data partition that starts at given row.
+     *
+     * @param other bulk results of partition
+     * @param rowOffset index of the first partition row in whole data set
+     * @return current object reference
+     */
+    public BulkValidationResults merge(final BulkValidationResults other, final int rowOffset) {
+        for (final FailingRows rows : other.failingRows.values()) {
+            addFailingRows(rows.messageCode, rows.severityLevel, rows.fields,
+                    rowOffset == 0 ? rows.rows : rows.rows.shift(rowOffset));
+        }
+        dataSetResults.join(other.dataSetResults);
+        return this;
+    }
+
+    /**
+     * Check if there are no invalid rows and no data set results.
+     *
+     * @return true if there is no error
+     */
+    public boolean isValid() {
+        return failingRows.isEmpty() && dataSetResults.isValid();
+    }
+
+    /**
+     * Check if there are any invalid rows or data set results.
+     *
+     * @return true if there is error
+     */
+    public boolean isInvalid() {
+        return !isValid();
+    }
+
+    /**
+     * Get message codes of invalid rows.
+     *
+     * @return message codes in order they were added
+     */
+    public Set<MessageCode> getMessageCodes() {
+        final Set<MessageCode> messageCodes = new LinkedHashSet<>();
+        for (final FailingRows rows : failingRows.values()) {
+            messageCodes.add(rows.messageCode);
+        }
+        return Collections.unmodifiableSet(messageCodes);
+    }
+
+    /**
+     * Get invalid rows of message code.
+     *
+     * @param messageCode validation message code
+     * @return copy of invalid rows
+     */
+    public RowBitmap getFailingRows(final MessageCode messageCode) {
+        final RowBitmap union = new RowBitmap();
+        for (final FailingRows rows : failingRows.values()) {
+            if (rows.messageCode.equals(messageCode)) {
+                union.or(rows.rows);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Get rows that are invalid for any message code.
+     *
+     * @return invalid rows
+     */
+    public RowBitmap getFailingRows() {
+        final RowBitmap all = new RowBitmap();
+        for (final FailingRows rows : failingRows.values()) {
+            all.or(rows.rows);
+        }
+        return all;
+    }
+
+    /**
+     * Get rows that are invalid for any of given message codes.
+     *
+     * @param messageCodes validation message codes
+     * @return union of invalid rows
+     */
+    public RowBitmap getRowsFailingAny(final MessageCode... messageCodes) {
+        final RowBitmap union = new RowBitmap();
+        for (final MessageCode messageCode : messageCodes) {
+            union.or(getFailingRows(messageCode));
+        }
+        return union;
+    }
+
+    /**
+     * Get rows that are invalid for all given message codes.
+     *
+     * @param messageCodes validation message codes
+     * @return intersection of invalid rows
+     */
+    public RowBitmap getRowsFailingAll(final MessageCode... messageCodes) {
+        if (messageCodes.length == 0) {
+            return new RowBitmap();
+        }
+        final RowBitmap intersection = getFailingRows(messageCodes[0]);
+        for (int i = 1; i < messageCodes.length && !intersection.isEmpty(); i++) {
+            intersection.and(getFailingRows(messageCodes[i]));
+        }
+        return intersection;
+    }
+
+    /**
+     * Get number of invalid rows of message code.
+     *
+     * @param messageCode validation message code
+     * @return number of invalid rows
+     */
+    public long cardinality(final MessageCode messageCode) {
+        return getFailingRows(messageCode).cardinality();
+    }
+
+    /**
+     * Number of validation results this object expands to.
+     *
+     * @return number of data set results and invalid rows of all message codes
+     */
+    public long size() {
+        long size = dataSetResults.size();
+        for (final FailingRows rows : failingRows.values()) {
+            size += rows.rows.cardinality();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<ValidationResult> iterator() {
+        final Iterator<ValidationResult> dataSet = dataSetResults.iterator();
+        final Iterator<FailingRows> codes = failingRows.values().iterator();
+        return new Iterator<ValidationResult>() {
+            private FailingRows code;
+            private PrimitiveIterator.OfInt rows;
+
+            @Override
+            public boolean hasNext() {
+                if (dataSet.hasNext()) {
+                    return true;
+                }
+                while (rows == null || !rows.hasNext()) {
+                    if (!codes.hasNext()) {
+                        return false;
+                    }
+                    code = codes.next();
+                    rows = code.rows.iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public ValidationResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (dataSet.hasNext()) {
+                    return dataSet.next();
+                }
+                return code.toResult(rows.nextInt());
+            }
+        };
+    }
+
+    /**
+     * Create regular validation results with all results of this object.
+     *
+     * @return validation results
+     */
+    public ValidationResults toValidationResults() {
+        final ValidationResults results = new ValidationResults();
+        for (final ValidationResult result : this) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        final List<String> codes = new ArrayList<>(failingRows.size());
+        for (final FailingRows rows : failingRows.values()) {
+            codes.add(rows.messageCode + "=" + rows.rows.cardinality());
+        }
+        return "BulkValidationResults [failingRows=" + codes + ", dataSetResults=" + dataSetResults.size() + "]";
+    }
+
+    private FailingRows rowsOf(final MessageCode messageCode, final ExceptionSeverityLevel severityLevel,
+                               final String[] fields) {
+        final FailingRows key = new FailingRows(messageCode, severityLevel, fields);
+        return failingRows.computeIfAbsent(key, created -> created);
+    }
+
+    /**
+     * Invalid rows of one message code, severity level and fields, which are its identity.
+     */
+    private static final class FailingRows {
+
+        private final MessageCode messageCode;
+        private final ExceptionSeverityLevel severityLevel;
+        private final String[] fields;
+        private final RowBitmap rows = new RowBitmap();
+
+        FailingRows(final MessageCode messageCode, final ExceptionSeverityLevel severityLevel, final String[] fields) {
+            this.messageCode = messageCode;
+            this.severityLevel = severityLevel;
+            this.fields = fields == null ? null : fields.clone();
+        }
+
+        ValidationResult toResult(final int row) {
+            return new RecordValidationResult(new ValidationResult(messageCode, severityLevel, fields), row);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof FailingRows)) {
+                return false;
+            }
+            final FailingRows other = (FailingRows) o;
+            return messageCode.equals(other.messageCode) && severityLevel == other.severityLevel
+                    && Arrays.equals(fields, other.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(messageCode, severityLevel) + Arrays.hashCode(fields);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package hr.validation.bulk;
+
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.codec.MessageCodeRegistry;
+import hr.validation.codec.ValidationResultsCodec;
+import hr.validation.i18n.MessageCode;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Validator of long running bulk input that can be resumed after restart. It validates records
+ * one by one and periodically writes a checkpoint to local directory: results found since the
+ * previous checkpoint are appended to results file as {@link ValidationResultsCodec} frames, and
+ * input position with result counters is atomically replaced in checkpoint file. On restart
+ * validation continues from the position of the last checkpoint, results written after it are
+ * discarded and found again, so final results are the same as without restart.
+ *
+ * <pre>
+ * CheckpointedValidator&lt;Order&gt; validator = CheckpointedValidator.builder(orderValidator,
+ *                 Paths.get("/data/checkpoints/orders-2024-05"), registry)
+ *         .checkpointEvery(100_000)
+ *         .progressListener(progress -&gt; LOGGER.info("{}", progress))
+ *         .build();
+ * ValidationResults results = validator.validate(startRow -&gt; reader.lines().skip(startRow).map(parser));
+ * </pre>
+ *
+ * <p>Message codes are stored by ids of strict {@link MessageCodeRegistry}, which must register
+ * the same codes with the same ids in every run. Every result is returned as
+ * {@link RecordValidationResult} with the row index of its record, without validated bean.</p>
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class CheckpointedValidator<T> {
+
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+    private static final String RESULTS_FILE = "results.bin";
+    private static final String CODE_PREFIX = "code.";
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private final Validator<T> validator;
+    private final Path directory;
+    private final MessageCodeRegistry registry;
+    private final ValidationResultsCodec codec;
+    private final long checkpointRows;
+    private final long checkpointNanos;
+    private final ProgressListener listener;
+    private final Supplier<? extends ValidationResults> resultsFactory;
+
+    private CheckpointedValidator(final Builder<T> builder) {
+        this.validator = builder.validator;
+        this.directory = builder.directory;
+        this.registry = builder.registry;
+        this.codec = new ValidationResultsCodec(builder.registry);
+        this.checkpointRows = builder.checkpointRows;
+        this.checkpointNanos = builder.checkpointInterval.toNanos();
+        this.listener = builder.listener;
+        this.resultsFactory = builder.resultsFactory;
+    }
+
+    /**
+     * Create new builder.
+     *
+     * @param validator validator of single record
+     * @param directory directory of checkpoint and results files
+     * @param registry strict registry of all message codes validator can return
+     * @param <T> the type of data for validation
+     * @return builder
+     */
+    public static <T> Builder<T> builder(final Validator<T> validator, final Path directory,
+                                         final MessageCodeRegistry registry) {
+        return new Builder<>(validator, directory, registry);
+    }
+
+    /**
+     * Validate input, continuing from the last checkpoint if there is one. If the last
+     * checkpoint is of completed validation, input is not read again.
+     *
+     * @param input creates stream of records starting with record at given zero based row index
+     * @return results of all records
+     */
+    public ValidationResults validate(final LongFunction<Stream<T>> input) {
+        try {
+            Files.createDirectories(directory);
+            final Checkpoint checkpoint = readCheckpoint();
+            try (FileChannel results = FileChannel.open(directory.resolve(RESULTS_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                results.truncate(checkpoint.resultsBytes);
+                if (!checkpoint.completed) {
+                    run(input, checkpoint, results);
+                }
+            }
+            return readResults(checkpoint.resultsBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get progress of the last checkpoint.
+     *
+     * @return progress or null if there is no checkpoint
+     */
+    public Progress getProgress() {
+        try {
+            if (!Files.exists(directory.resolve(CHECKPOINT_FILE))) {
+                return null;
+            }
+            return readCheckpoint().toProgress(0, 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete checkpoint and results, so the next validation starts from the first row.
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+            Files.deleteIfExists(directory.resolve(RESULTS_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void run(final LongFunction<Stream<T>> input, final Checkpoint checkpoint,
+                     final FileChannel results) throws IOException {
+        final long resumedFrom = checkpoint.position;
+        final long start = System.nanoTime();
+        long lastCheckpoint = start;
+        final List<ValidationResult> pending = new ArrayList<>();
+        final List<Long> pendingRows = new ArrayList<>();
+        try (Stream<T> records = input.apply(resumedFrom)) {
+            final Iterator<T> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                final long row = checkpoint.position;
+                final ValidationResults rs = validator.validate(iterator.next());
+                if (rs.isInvalid()) {
+                    checkpoint.invalidRowCount++;
+                    for (final ValidationResult result : rs) {
+                        pending.add(result);
+                        pendingRows.add(row);
+                    }
+                }
+                checkpoint.position++;
+                final long rows = checkpoint.position - resumedFrom;
+                if (rows % checkpointRows == 0
+                        || (rows & TIME_CHECK_MASK) == 0 && System.nanoTime() - lastCheckpoint >= checkpointNanos) {
+                    writeCheckpoint(checkpoint, results, pending, pendingRows);
+                    lastCheckpoint = System.nanoTime();
+                    listener.onProgress(checkpoint.toProgress(resumedFrom, rows, lastCheckpoint - start));
+                }
+            }
+        }
+        checkpoint.completed = true;
+        writeCheckpoint(checkpoint, results, pending, pendingRows);
+        listener.onProgress(checkpoint.toProgress(resumedFrom, checkpoint.position - resumedFrom,
+                System.nanoTime() - start));
+    }
+
+    /**
+     * Append pending results to results file and make them durable before checkpoint file
+     * refers to them.
+     */
+    private void writeCheckpoint(final Checkpoint checkpoint, final FileChannel results,
+                                 final List<ValidationResult> pending, final List<Long> pendingRows)
+            throws IOException {
+        if (!pending.isEmpty()) {
+            final byte[] frame = codec.encode(pending);
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(frame.length + pendingRows.size() * 8 + 8);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(pendingRows.size());
+            for (final Long row : pendingRows) {
+                out.writeLong(row);
+            }
+            out.writeInt(frame.length);
+            out.write(frame);
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                results.write(buffer, checkpoint.resultsBytes + buffer.position());
+            }
+            for (final ValidationResult result : pending) {
+                checkpoint.resultCount++;
+                checkpoint.countsByCode.merge(registry.idOf(result.getMessageCode()), 1L, Long::sum);
+            }
+            checkpoint.resultsBytes += buffer.limit();
+            pending.clear();
+            pendingRows.clear();
+            results.force(false);
+        }
+        final Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpoint.toProperties().store(Channels.newOutputStream(out), null);
+            out.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        final Path file = directory.resolve(CHECKPOINT_FILE);
+        final Checkpoint checkpoint = new Checkpoint();
+        if (!Files.exists(file)) {
+            return checkpoint;
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        checkpoint.position = Long.parseLong(properties.getProperty("position"));
+        checkpoint.resultsBytes = Long.parseLong(properties.getProperty("resultsBytes"));
+        checkpoint.resultCount = Long.parseLong(properties.getProperty("resultCount"));
+        checkpoint.invalidRowCount = Long.parseLong(properties.getProperty("invalidRowCount"));
+        checkpoint.completed = Boolean.parseBoolean(properties.getProperty("completed"));
+        for (final String name : properties.stringPropertyNames()) {
+            if (name.startsWith(CODE_PREFIX)) {
+                checkpoint.countsByCode.put(Integer.parseInt(name.substring(CODE_PREFIX.length())),
+                        Long.parseLong(properties.getProperty(name)));
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Read frames of results file up to the length recorded in checkpoint.
+     */
+    private ValidationResults readResults(final long resultsBytes) throws IOException {
+        final ValidationResults results = resultsFactory.get();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(RESULTS_FILE)), 1 << 16))) {
+            long position = 0;
+            while (position < resultsBytes) {
+                final long[] rows = new long[in.readInt()];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = in.readLong();
+                }
+                final byte[] frame = new byte[in.readInt()];
+                in.readFully(frame);
+                position += Integer.BYTES + (long) rows.length * Long.BYTES + Integer.BYTES + frame.length;
+                int i = 0;
+                for (final ValidationResult result : codec.decode(frame)) {
+                    results.add(new RecordValidationResult(result, rows[i++]));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Listener of validation progress, notified after every checkpoint.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Validation progress after checkpoint.
+         *
+         * @param progress progress
+         */
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * Validation progress at checkpoint.
+     */
+    public static final class Progress {
+
+        private final long position;
+        private final long resumedFrom;
+        private final long resultCount;
+        private final long invalidRowCount;
+        private final Map<MessageCode, Long> resultCountsByCode;
+        private final boolean completed;
+        private final long rowsPerSecond;
+
+        Progress(final long position, final long resumedFrom, final long resultCount, final long invalidRowCount,
+                 final Map<MessageCode, Long> resultCountsByCode, final boolean completed,
+                 final long rowsPerSecond) {
+            this.position = position;
+            this.resumedFrom = resumedFrom;
+            this.resultCount = resultCount;
+            this.invalidRowCount = invalidRowCount;
+            this.resultCountsByCode = resultCountsByCode;
+            this.completed = completed;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        /**
+         * Number of validated rows, which is also index of the next row.
+         *
+         * @return input position
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Input position at which current run started.
+         *
+         * @return input position of the last restart or zero
+         */
+        public long getResumedFrom() {
+            return resumedFrom;
+        }
+
+        public long getResultCount() {
+            return resultCount;
+        }
+
+        public long getInvalidRowCount() {
+            return invalidRowCount;
+        }
+
+        public Map<MessageCode, Long> getResultCountsByCode() {
+            return resultCountsByCode;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Throughput of current run.
+         *
+         * @return rows validated per second since current run started
+         */
+        public long getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "Progress [position=" + position + ", resumedFrom=" + resumedFrom + ", resultCount=" + resultCount
+                    + ", invalidRowCount=" + invalidRowCount + ", rowsPerSecond=" + rowsPerSecond
+                    + ", completed=" + completed + "]";
+        }
+    }
+
+    /**
+     * Persisted validation state.
+     */
+    private final class Checkpoint {
+
+        private final Map<Integer, Long> countsByCode = new TreeMap<>();
+        private long position;
+        private long resultsBytes;
+        private long resultCount;
+        private long invalidRowCount;
+        private boolean completed;
+
+        Properties toProperties() {
+            final Properties properties = new Properties();
+            properties.setProperty("position", Long.toString(position));
+            properties.setProperty("resultsBytes", Long.toString(resultsBytes));
+            properties.setProperty("resultCount", Long.toString(resultCount));
+            properties.setProperty("invalidRowCount", Long.toString(invalidRowCount));
+            properties.setProperty("completed", Boolean.toString(completed));
+            for (final Map.Entry<Integer, Long> entry : countsByCode.entrySet()) {
+                properties.setProperty(CODE_PREFIX + entry.getKey(), Long.toString(entry.getValue()));
+            }
+            return properties;
+        }
+
+        Progress toProgress(final long resumedFrom, final long rows, final long elapsedNanos) {
+            final Map<MessageCode, Long> byCode = new LinkedHashMap<>();
+            for (final Map.Entry<Integer, Long> entry : countsByCode.entrySet()) {
+                byCode.put(registry.codeOf(entry.getKey()), entry.getValue());
+            }
+            final long rowsPerSecond = elapsedNanos <= 0 ? 0 : (long) (rows * 1e9 / elapsedNanos);
+            return new Progress(position, resumedFrom, resultCount, invalidRowCount,
+                    Collections.unmodifiableMap(byCode), completed, rowsPerSecond);
+        }
+    }
+
+    /**
+     * Builder of {@link CheckpointedValidator}.
+     *
+     * @param <T> the type of data for validation
+     */
+    public static final class Builder<T> {
+
+        private final Validator<T> validator;
+        private final Path directory;
+        private final MessageCodeRegistry registry;
+        private long checkpointRows = 100_000;
+        private Duration checkpointInterval = Duration.ofSeconds(30);
+        private ProgressListener listener = progress -> { };
+        private Supplier<? extends ValidationResults> resultsFactory = ValidationResults::new;
+
+        private Builder(final Validator<T> validator, final Path directory, final MessageCodeRegistry registry) {
+            if (registry.isAutoRegistering()) {
+                throw new IllegalArgumentException("Message code ids of auto registering registry are not stable between runs");
+            }
+            this.validator = validator;
+            this.directory = directory;
+            this.registry = registry;
+        }
+
+        /**
+         * Write checkpoint after given number of rows, default is 100 000.
+         *
+         * @param rows number of rows between checkpoints
+         * @return current builder
+         */
+        public Builder<T> checkpointEvery(final long rows) {
+            if (rows < 1) {
+                throw new IllegalArgumentException("Number of rows between checkpoints must be positive: " + rows);
+            }
+            this.checkpointRows = rows;
+            return this;
+        }
+
+        /**
+         * Write checkpoint at least once in given time when rows are validated, default is 30 seconds.
+         *
+         * @param interval time between checkpoints
+         * @return current builder
+         */
+        public Builder<T> checkpointInterval(final Duration interval) {
+            this.checkpointInterval = interval;
+            return this;
+        }
+
+        /**
+         * Set listener notified after every checkpoint.
+         *
+         * @param progressListener listener
+         * @return current builder
+         */
+        public Builder<T> progressListener(final ProgressListener progressListener) {
+            this.listener = progressListener;
+            return this;
+        }
+
+        /**
+         * Set factory of returned validation results, for example of
+         * {@link hr.validation.codec.SpillingValidationResults} when results do not fit in memory.
+         *
+         * @param factory factory of empty validation results
+         * @return current builder
+         */
+        public Builder<T> resultsInto(final Supplier<? extends ValidationResults> factory) {
+            this.resultsFactory = factory;
+            return this;
+        }
+
+        /**
+         * Create validator.
+         *
+         * @return validator
+         */
+        public CheckpointedValidator<T> build() {
+            return new CheckpointedValidator<>(this);
+        }
+    }
+}
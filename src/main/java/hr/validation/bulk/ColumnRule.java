@@ -0,0 +1,44 @@
+package hr.validation.bulk;
+
+import hr.validation.i18n.MessageCode;
+
+/**
+ * Rule checked for every row of primitive column. Column is checked block by block,
+ * {@link #anyFailing(Object, int, int)} is a branch free loop the JIT compiler can
+ * vectorize, and only blocks containing invalid rows are checked row by row.
+ *
+ * @param <A> primitive array type of column
+ * @author frano.pecek
+ */
+abstract class ColumnRule<A> {
+
+    private final MessageCode messageCode;
+
+    ColumnRule(final MessageCode messageCode) {
+        this.messageCode = messageCode;
+    }
+
+    MessageCode getMessageCode() {
+        return messageCode;
+    }
+
+    /**
+     * Check whether any row in range is invalid.
+     *
+     * @param column column values
+     * @param from first row, inclusive
+     * @param to last row, exclusive
+     * @return true if any row is invalid
+     */
+    abstract boolean anyFailing(A column, int from, int to);
+
+    /**
+     * Mark invalid rows in range.
+     *
+     * @param column column values
+     * @param from first row, inclusive
+     * @param to last row, exclusive
+     * @param failing set of invalid rows
+     */
+    abstract void addFailing(A column, int from, int to, RowBitmap failing);
+}
@@ -0,0 +1,398 @@
+package hr.validation.bulk;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.i18n.MessageCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Validates column of primitive values without boxing rows into objects. Column is
+ * checked in blocks small enough to stay in CPU cache, every rule first checks the whole
+ * block with a branch free loop and looks for invalid rows only in blocks that contain them.
+ *
+ * <pre>
+ * ColumnValidator&lt;int[]&gt; ages = ColumnValidator.ints("age")
+ *         .range(0, 150, OrderMessageCode.AGE_OUT_OF_RANGE)
+ *         .build();
+ * BulkValidationResults results = ages.validate(ageColumn);
+ * </pre>
+ *
+ * Row index in results is the index of the value in the column.
+ *
+ * @param <A> primitive array type of column
+ * @author frano.pecek
+ */
+public final class ColumnValidator<A> {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final List<ColumnRule<A>> rules;
+    private final List<Function<A, ValidationResult>> columnChecks;
+    private final ToIntFunction<A> length;
+    private final String[] fields;
+    private final ExceptionSeverityLevel severityLevel;
+
+    private ColumnValidator(final Builder<A, ?> builder) {
+        this.rules = new ArrayList<>(builder.rules);
+        this.columnChecks = new ArrayList<>(builder.columnChecks);
+        this.length = builder.length;
+        this.fields = builder.fields;
+        this.severityLevel = builder.severityLevel;
+    }
+
+    /**
+     * Create builder of {@code int} column validator.
+     *
+     * @param fields fields reported in validation results
+     * @return builder
+     */
+    public static IntBuilder ints(final String... fields) {
+        return new IntBuilder(fields);
+    }
+
+    /**
+     * Create builder of {@code long} column validator.
+     *
+     * @param fields fields reported in validation results
+     * @return builder
+     */
+    public static LongBuilder longs(final String... fields) {
+        return new LongBuilder(fields);
+    }
+
+    /**
+     * Create builder of {@code double} column validator.
+     *
+     * @param fields fields reported in validation results
+     * @return builder
+     */
+    public static DoubleBuilder doubles(final String... fields) {
+        return new DoubleBuilder(fields);
+    }
+
+    /**
+     * Validate column.
+     *
+     * @param column column values
+     * @return invalid rows per message code
+     */
+    public BulkValidationResults validate(final A column) {
+        final int size = length.applyAsInt(column);
+        final RowBitmap[] failing = new RowBitmap[rules.size()];
+        for (int from = 0; from < size; from += BLOCK_SIZE) {
+            final int to = Math.min(size, from + BLOCK_SIZE);
+            for (int r = 0; r < failing.length; r++) {
+                final ColumnRule<A> rule = rules.get(r);
+                if (rule.anyFailing(column, from, to)) {
+                    if (failing[r] == null) {
+                        failing[r] = new RowBitmap();
+                    }
+                    rule.addFailing(column, from, to, failing[r]);
+                }
+            }
+        }
+        final BulkValidationResults results = new BulkValidationResults();
+        for (int r = 0; r < failing.length; r++) {
+            if (failing[r] != null) {
+                results.addFailingRows(rules.get(r).getMessageCode(), severityLevel, fields, failing[r]);
+            }
+        }
+        for (final Function<A, ValidationResult> check : columnChecks) {
+            final ValidationResult result = check.apply(column);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Base of column validator builders.
+     *
+     * @param <A> primitive array type of column
+     * @param <B> builder type
+     */
+    public abstract static class Builder<A, B extends Builder<A, B>> {
+
+        private final List<ColumnRule<A>> rules = new ArrayList<>();
+        private final List<Function<A, ValidationResult>> columnChecks = new ArrayList<>();
+        private final ToIntFunction<A> length;
+        private final String[] fields;
+        private ExceptionSeverityLevel severityLevel = ExceptionSeverityLevel.ERROR;
+
+        Builder(final ToIntFunction<A> length, final String[] fields) {
+            this.length = length;
+            this.fields = fields.clone();
+        }
+
+        /**
+         * Set severity level of validation results, default is error.
+         *
+         * @param level severity level
+         * @return current builder
+         */
+        public B severity(final ExceptionSeverityLevel level) {
+            this.severityLevel = level;
+            return self();
+        }
+
+        /**
+         * Create column validator.
+         *
+         * @return column validator
+         */
+        public ColumnValidator<A> build() {
+            return new ColumnValidator<>(this);
+        }
+
+        B rule(final ColumnRule<A> rule) {
+            rules.add(rule);
+            return self();
+        }
+
+        B columnCheck(final Function<A, ValidationResult> check) {
+            columnChecks.add(check);
+            return self();
+        }
+
+        ValidationResult sumResult(final MessageCode code, final Object expected, final Object actual) {
+            return new ValidationResult(code, severityLevel, fields).withMessageParameters(expected, actual);
+        }
+
+        abstract B self();
+
+        static void checkRange(final boolean valid, final Object min, final Object max) {
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid range: " + min + " - " + max);
+            }
+        }
+    }
+
+    /**
+     * Builder of {@code int} column validator.
+     */
+    public static final class IntBuilder extends Builder<int[], IntBuilder> {
+
+        IntBuilder(final String[] fields) {
+            super(column -> column.length, fields);
+        }
+
+        /**
+         * Every value must be between min and max, inclusive.
+         *
+         * @param min minimal value
+         * @param max maximal value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public IntBuilder range(final int min, final int max, final MessageCode code) {
+            checkRange(min <= max, min, max);
+            return rule(IntColumnRules.range(min, max, code));
+        }
+
+        /**
+         * Every value must be equal to given value.
+         *
+         * @param value expected value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public IntBuilder equalTo(final int value, final MessageCode code) {
+            return rule(IntColumnRules.equalTo(value, code));
+        }
+
+        /**
+         * Every value must be greater than or equal to the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public IntBuilder nonDecreasing(final MessageCode code) {
+            return rule(IntColumnRules.nonDecreasing(code));
+        }
+
+        /**
+         * Every value must be greater than the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public IntBuilder increasing(final MessageCode code) {
+            return rule(IntColumnRules.increasing(code));
+        }
+
+        /**
+         * Sum of all values must be equal to given value. Result has expected
+         * and actual sum as message parameters.
+         *
+         * @param expected expected sum
+         * @param code message code of column result
+         * @return current builder
+         */
+        public IntBuilder sumEquals(final long expected, final MessageCode code) {
+            return columnCheck(column -> {
+                final long sum = IntColumnRules.sum(column);
+                return sum == expected ? null : sumResult(code, expected, sum);
+            });
+        }
+
+        @Override
+        IntBuilder self() {
+            return this;
+        }
+    }
+
+    /**
+     * Builder of {@code long} column validator.
+     */
+    public static final class LongBuilder extends Builder<long[], LongBuilder> {
+
+        LongBuilder(final String[] fields) {
+            super(column -> column.length, fields);
+        }
+
+        /**
+         * Every value must be between min and max, inclusive.
+         *
+         * @param min minimal value
+         * @param max maximal value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public LongBuilder range(final long min, final long max, final MessageCode code) {
+            checkRange(min <= max, min, max);
+            return rule(LongColumnRules.range(min, max, code));
+        }
+
+        /**
+         * Every value must be equal to given value.
+         *
+         * @param value expected value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public LongBuilder equalTo(final long value, final MessageCode code) {
+            return rule(LongColumnRules.equalTo(value, code));
+        }
+
+        /**
+         * Every value must be greater than or equal to the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public LongBuilder nonDecreasing(final MessageCode code) {
+            return rule(LongColumnRules.nonDecreasing(code));
+        }
+
+        /**
+         * Every value must be greater than the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public LongBuilder increasing(final MessageCode code) {
+            return rule(LongColumnRules.increasing(code));
+        }
+
+        /**
+         * Exact sum of all values must be equal to given value. Result has expected
+         * and actual sum as message parameters, actual sum that does not fit in
+         * {@code long} is a {@link java.math.BigInteger}.
+         *
+         * @param expected expected sum
+         * @param code message code of column result
+         * @return current builder
+         */
+        public LongBuilder sumEquals(final long expected, final MessageCode code) {
+            return columnCheck(column -> {
+                final Number sum = LongColumnRules.sum(column);
+                return sum instanceof Long && sum.longValue() == expected ? null : sumResult(code, expected, sum);
+            });
+        }
+
+        @Override
+        LongBuilder self() {
+            return this;
+        }
+    }
+
+    /**
+     * Builder of {@code double} column validator. {@code NaN} values are invalid for all rules.
+     */
+    public static final class DoubleBuilder extends Builder<double[], DoubleBuilder> {
+
+        DoubleBuilder(final String[] fields) {
+            super(column -> column.length, fields);
+        }
+
+        /**
+         * Every value must be between min and max, inclusive.
+         *
+         * @param min minimal value
+         * @param max maximal value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public DoubleBuilder range(final double min, final double max, final MessageCode code) {
+            checkRange(min <= max, min, max);
+            return rule(DoubleColumnRules.range(min, max, code));
+        }
+
+        /**
+         * Every value must be equal to given value.
+         *
+         * @param value expected value
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public DoubleBuilder equalTo(final double value, final MessageCode code) {
+            return rule(DoubleColumnRules.equalTo(value, code));
+        }
+
+        /**
+         * Every value must be greater than or equal to the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public DoubleBuilder nonDecreasing(final MessageCode code) {
+            return rule(DoubleColumnRules.nonDecreasing(code));
+        }
+
+        /**
+         * Every value must be greater than the previous value.
+         *
+         * @param code message code of invalid rows
+         * @return current builder
+         */
+        public DoubleBuilder increasing(final MessageCode code) {
+            return rule(DoubleColumnRules.increasing(code));
+        }
+
+        /**
+         * Sum of all values must differ from given value at most by tolerance. Result has
+         * expected and actual sum as message parameters.
+         *
+         * @param expected expected sum
+         * @param tolerance allowed absolute difference
+         * @param code message code of column result
+         * @return current builder
+         */
+        public DoubleBuilder sumEquals(final double expected, final double tolerance, final MessageCode code) {
+            return columnCheck(column -> {
+                final double sum = DoubleColumnRules.sum(column);
+                return Math.abs(sum - expected) <= tolerance ? null : sumResult(code, expected, sum);
+            });
+        }
+
+        @Override
+        DoubleBuilder self() {
+            return this;
+        }
+    }
+}
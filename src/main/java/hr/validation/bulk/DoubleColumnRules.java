@@ -0,0 +1,124 @@
+package hr.validation.bulk;
+
+import hr.validation.i18n.MessageCode;
+
+/**
+ * Rules of {@code double} columns. Comparisons are written so that {@code NaN}
+ * values are always invalid.
+ *
+ * @author frano.pecek
+ */
+final class DoubleColumnRules {
+
+    private DoubleColumnRules() {
+    }
+
+    static ColumnRule<double[]> range(final double min, final double max, final MessageCode code) {
+        return new ColumnRule<double[]>(code) {
+            @Override
+            boolean anyFailing(final double[] column, final int from, final int to) {
+                boolean invalid = false;
+                for (int i = from; i < to; i++) {
+                    invalid |= !(column[i] >= min & column[i] <= max);
+                }
+                return invalid;
+            }
+
+            @Override
+            void addFailing(final double[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (!(column[i] >= min && column[i] <= max)) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    static ColumnRule<double[]> equalTo(final double value, final MessageCode code) {
+        return new ColumnRule<double[]>(code) {
+            @Override
+            boolean anyFailing(final double[] column, final int from, final int to) {
+                boolean invalid = false;
+                for (int i = from; i < to; i++) {
+                    invalid |= column[i] != value;
+                }
+                return invalid;
+            }
+
+            @Override
+            void addFailing(final double[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (column[i] != value) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is less than the previous row.
+     */
+    static ColumnRule<double[]> nonDecreasing(final MessageCode code) {
+        return new ColumnRule<double[]>(code) {
+            @Override
+            boolean anyFailing(final double[] column, final int from, final int to) {
+                boolean invalid = false;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    invalid |= !(column[i] >= column[i - 1]);
+                }
+                return invalid;
+            }
+
+            @Override
+            void addFailing(final double[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (!(column[i] >= column[i - 1])) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is not greater than the previous row.
+     */
+    static ColumnRule<double[]> increasing(final MessageCode code) {
+        return new ColumnRule<double[]>(code) {
+            @Override
+            boolean anyFailing(final double[] column, final int from, final int to) {
+                boolean invalid = false;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    invalid |= !(column[i] > column[i - 1]);
+                }
+                return invalid;
+            }
+
+            @Override
+            void addFailing(final double[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (!(column[i] > column[i - 1])) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Column sum with compensated summation.
+     */
+    static double sum(final double[] column) {
+        double sum = 0;
+        double compensation = 0;
+        for (final double value : column) {
+            final double y = value - compensation;
+            final double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+        return sum;
+    }
+}
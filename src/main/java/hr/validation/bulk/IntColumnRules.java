@@ -0,0 +1,118 @@
+package hr.validation.bulk;
+
+import hr.validation.i18n.MessageCode;
+
+/**
+ * Rules of {@code int} columns. Range is checked as unsigned comparison of the offset
+ * from minimum, so each row needs one subtraction and comparison without branches.
+ *
+ * @author frano.pecek
+ */
+final class IntColumnRules {
+
+    private IntColumnRules() {
+    }
+
+    static ColumnRule<int[]> range(final int min, final int max, final MessageCode code) {
+        final int span = (max - min) ^ Integer.MIN_VALUE;
+        return new ColumnRule<int[]>(code) {
+            @Override
+            boolean anyFailing(final int[] column, final int from, final int to) {
+                int worst = Integer.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    worst = Math.max(worst, (column[i] - min) ^ Integer.MIN_VALUE);
+                }
+                return worst > span;
+            }
+
+            @Override
+            void addFailing(final int[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (((column[i] - min) ^ Integer.MIN_VALUE) > span) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    static ColumnRule<int[]> equalTo(final int value, final MessageCode code) {
+        return new ColumnRule<int[]>(code) {
+            @Override
+            boolean anyFailing(final int[] column, final int from, final int to) {
+                int difference = 0;
+                for (int i = from; i < to; i++) {
+                    difference |= column[i] ^ value;
+                }
+                return difference != 0;
+            }
+
+            @Override
+            void addFailing(final int[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (column[i] != value) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is less than the previous row.
+     */
+    static ColumnRule<int[]> nonDecreasing(final MessageCode code) {
+        return new ColumnRule<int[]>(code) {
+            @Override
+            boolean anyFailing(final int[] column, final int from, final int to) {
+                long signs = 0;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    signs |= (long) column[i] - column[i - 1];
+                }
+                return signs < 0;
+            }
+
+            @Override
+            void addFailing(final int[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (column[i] < column[i - 1]) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is not greater than the previous row.
+     */
+    static ColumnRule<int[]> increasing(final MessageCode code) {
+        return new ColumnRule<int[]>(code) {
+            @Override
+            boolean anyFailing(final int[] column, final int from, final int to) {
+                long signs = 0;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    signs |= ~((long) column[i - 1] - column[i]);
+                }
+                return signs < 0;
+            }
+
+            @Override
+            void addFailing(final int[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (column[i] <= column[i - 1]) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    static long sum(final int[] column) {
+        long sum = 0;
+        for (final int value : column) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,141 @@
+package hr.validation.bulk;
+
+import hr.validation.i18n.MessageCode;
+
+import java.math.BigInteger;
+
+/**
+ * Rules of {@code long} columns. Comparisons that could overflow are computed from
+ * sign bits, so each row is checked without branches.
+ *
+ * @author frano.pecek
+ */
+final class LongColumnRules {
+
+    private LongColumnRules() {
+    }
+
+    static ColumnRule<long[]> range(final long min, final long max, final MessageCode code) {
+        final long span = (max - min) ^ Long.MIN_VALUE;
+        return new ColumnRule<long[]>(code) {
+            @Override
+            boolean anyFailing(final long[] column, final int from, final int to) {
+                long worst = Long.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    worst = Math.max(worst, (column[i] - min) ^ Long.MIN_VALUE);
+                }
+                return worst > span;
+            }
+
+            @Override
+            void addFailing(final long[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (((column[i] - min) ^ Long.MIN_VALUE) > span) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    static ColumnRule<long[]> equalTo(final long value, final MessageCode code) {
+        return new ColumnRule<long[]>(code) {
+            @Override
+            boolean anyFailing(final long[] column, final int from, final int to) {
+                long difference = 0;
+                for (int i = from; i < to; i++) {
+                    difference |= column[i] ^ value;
+                }
+                return difference != 0;
+            }
+
+            @Override
+            void addFailing(final long[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = from; i < to; i++) {
+                    if (column[i] != value) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is less than the previous row.
+     */
+    static ColumnRule<long[]> nonDecreasing(final MessageCode code) {
+        return new ColumnRule<long[]>(code) {
+            @Override
+            boolean anyFailing(final long[] column, final int from, final int to) {
+                long signs = 0;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    signs |= lessThan(column[i], column[i - 1]);
+                }
+                return signs < 0;
+            }
+
+            @Override
+            void addFailing(final long[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (column[i] < column[i - 1]) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Row is invalid if it is not greater than the previous row.
+     */
+    static ColumnRule<long[]> increasing(final MessageCode code) {
+        return new ColumnRule<long[]>(code) {
+            @Override
+            boolean anyFailing(final long[] column, final int from, final int to) {
+                long signs = 0;
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    signs |= ~lessThan(column[i - 1], column[i]);
+                }
+                return signs < 0;
+            }
+
+            @Override
+            void addFailing(final long[] column, final int from, final int to, final RowBitmap failing) {
+                for (int i = Math.max(from, 1); i < to; i++) {
+                    if (column[i] <= column[i - 1]) {
+                        failing.add(i);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Exact column sum, overflowing sum is returned as big integer.
+     */
+    static Number sum(final long[] column) {
+        long sum = 0;
+        long overflow = 0;
+        for (final long value : column) {
+            final long next = sum + value;
+            if (((sum ^ next) & (value ^ next)) < 0) {
+                overflow += value < 0 ? -1 : 1;
+            }
+            sum = next;
+        }
+        if (overflow == 0) {
+            return sum;
+        }
+        return BigInteger.valueOf(overflow).shiftLeft(Long.SIZE).add(BigInteger.valueOf(sum));
+    }
+
+    /**
+     * Signed comparison without branches.
+     *
+     * @return value with sign bit set if {@code a < b}
+     */
+    private static long lessThan(final long a, final long b) {
+        final long difference = a - b;
+        return difference ^ ((a ^ b) & (difference ^ a));
+    }
+}
@@ -0,0 +1,112 @@
+package hr.validation.bulk;
+
+/**
+ * Open addressing map of primitive {@code long} keys and values without boxing.
+ *
+ * @author frano.pecek
+ */
+final class LongHashMap {
+
+    /**
+     * Value returned for missing keys.
+     */
+    static final long MISSING = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongHashMap() {
+        keys = new long[16];
+        values = new long[16];
+    }
+
+    /**
+     * Get value of key.
+     *
+     * @param key key
+     * @return value or {@link #MISSING}
+     */
+    long get(final long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : MISSING;
+        }
+        final int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Check whether map contains key.
+     *
+     * @param key key
+     * @return true if key is in map
+     */
+    boolean containsKey(final long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Set value of key.
+     *
+     * @param key key
+     * @param value value, must not be {@link #MISSING}
+     */
+    void put(final long key, final long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                size++;
+            }
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        final int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(final long key, final int mask) {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ mixed >>> 32) & mask;
+    }
+}
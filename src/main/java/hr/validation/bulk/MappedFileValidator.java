@@ -0,0 +1,306 @@
+package hr.validation.bulk;
+
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.Deadline;
+import hr.validation.ExecutionSnapshot;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validates delimited text file record by record. File is memory mapped and split
+ * in chunks on line boundaries, chunks are parsed and validated in parallel and
+ * results are merged in file order. Every invalid record result is returned as
+ * {@link RecordValidationResult} with row index, line number and byte offset of the record.
+ *
+ * <p>Records are separated by {@code '\n'}, optional {@code '\r'} before it is removed
+ * and empty lines are skipped. Header lines are skipped before the file is split in chunks,
+ * so line numbers count them. Parser exceptions are reported with
+ * {@link CoreValidationMessageCode#RECORD_NOT_PARSABLE}, validator exceptions are
+ * propagated to the caller.</p>
+ *
+ * <p>If validation runs with {@link Deadline}, chunks stop reading records when the
+ * deadline passes and single skipped step result is added at the end.</p>
+ *
+ * @param <T> type of parsed record
+ * @author frano.pecek
+ */
+public final class MappedFileValidator<T> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int BOUNDARY_SCAN_SIZE = 8192;
+
+    private final RecordParser<T> parser;
+    private final Validator<T> validator;
+    private final int chunkSize;
+    private final int headerLines;
+    private final boolean parallel;
+    private final Charset charset;
+
+    /**
+     * Create new file validator.
+     *
+     * @param parser record parser
+     * @param validator validator of parsed records
+     */
+    public MappedFileValidator(final RecordParser<T> parser, final Validator<T> validator) {
+        this(parser, validator, DEFAULT_CHUNK_SIZE, 0, true, StandardCharsets.UTF_8);
+    }
+
+    private MappedFileValidator(final RecordParser<T> parser, final Validator<T> validator, final int chunkSize,
+                                final int headerLines, final boolean parallel, final Charset charset) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.parser = parser;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.headerLines = headerLines;
+        this.parallel = parallel;
+        this.charset = charset;
+    }
+
+    /**
+     * Set approximate size of the file part processed by one task.
+     *
+     * @param newChunkSize chunk size in bytes
+     * @return new file validator
+     */
+    public MappedFileValidator<T> withChunkSize(final int newChunkSize) {
+        return new MappedFileValidator<>(parser, validator, newChunkSize, headerLines, parallel, charset);
+    }
+
+    /**
+     * Set number of header lines at the start of the file that are not validated.
+     *
+     * @param newHeaderLines number of header lines
+     * @return new file validator
+     */
+    public MappedFileValidator<T> withHeaderLines(final int newHeaderLines) {
+        return new MappedFileValidator<>(parser, validator, chunkSize, newHeaderLines, parallel, charset);
+    }
+
+    /**
+     * Set charset of the file, default is UTF-8.
+     *
+     * @param newCharset file charset
+     * @return new file validator
+     */
+    public MappedFileValidator<T> withCharset(final Charset newCharset) {
+        return new MappedFileValidator<>(parser, validator, chunkSize, headerLines, parallel, newCharset);
+    }
+
+    /**
+     * Process all chunks in calling thread.
+     *
+     * @return new file validator
+     */
+    public MappedFileValidator<T> sequential() {
+        return new MappedFileValidator<>(parser, validator, chunkSize, headerLines, false, charset);
+    }
+
+    /**
+     * Validate all records from the file.
+     *
+     * @param file file to validate
+     * @return validation results of invalid records in file order
+     * @throws IOException if file can not be read
+     */
+    public ValidationResults validate(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+            long start = 0;
+            long lines = 0;
+            while (lines < headerLines && start < size) {
+                start = nextLineStart(channel, start, size, scan);
+                lines++;
+            }
+            final List<Chunk> chunks = split(channel, start, size, scan);
+            final Stream<Chunk> stream = parallel ? chunks.parallelStream() : chunks.stream();
+            final ExecutionSnapshot snapshot = ExecutionSnapshot.capture();
+            final List<ChunkResult> chunkResults;
+            try {
+                chunkResults = stream.map(chunk -> snapshot.call(() -> process(channel, chunk))).collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return merge(chunkResults, lines);
+        }
+    }
+
+    private List<Chunk> split(final FileChannel channel, final long from, final long size,
+                              final ByteBuffer scan) throws IOException {
+        final List<Chunk> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            if (end < size) {
+                end = nextLineStart(channel, end - 1, size, scan);
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(final FileChannel channel, final long from, final long size,
+                                      final ByteBuffer scan) throws IOException {
+        long position = from;
+        while (position < size) {
+            scan.clear();
+            final int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ChunkResult process(final FileChannel channel, final Chunk chunk) {
+        final MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final ChunkResult result = new ChunkResult();
+        final Deadline deadline = Deadline.current();
+        final int limit = buffer.limit();
+        byte[] record = new byte[256];
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            if (i == limit && lineStart == limit) {
+                break;
+            }
+            if (deadline != null && deadline.isExpired()) {
+                result.timedOut = true;
+                break;
+            }
+            int lineEnd = i;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            result.lines++;
+            if (lineEnd > lineStart) {
+                final int length = lineEnd - lineStart;
+                if (record.length < length) {
+                    record = new byte[Math.max(length, record.length * 2)];
+                }
+                buffer.get(lineStart, record, 0, length);
+                validateRecord(new String(record, 0, length, charset), chunk.start + lineStart, result);
+                result.records++;
+            }
+            lineStart = i + 1;
+        }
+        return result;
+    }
+
+    private void validateRecord(final String record, final long byteOffset, final ChunkResult result) {
+        final T parsed;
+        try {
+            parsed = parser.parse(record);
+        } catch (RuntimeException e) {
+            result.invalid.add(new InvalidRecord(result.records, result.lines, byteOffset,
+                    new ValidationResult(CoreValidationMessageCode.RECORD_NOT_PARSABLE).withMessageParameters(e.getMessage())));
+            return;
+        }
+        final ValidationResults results = validator.validate(parsed);
+        if (results.isInvalid()) {
+            for (final ValidationResult validationResult : results) {
+                result.invalid.add(new InvalidRecord(result.records, result.lines, byteOffset, validationResult));
+            }
+        }
+    }
+
+    private ValidationResults merge(final List<ChunkResult> chunkResults, final long headerLinesRead) {
+        final ValidationResults results = new ValidationResults();
+        long recordBase = 0;
+        long lineBase = headerLinesRead;
+        boolean timedOut = false;
+        for (final ChunkResult chunkResult : chunkResults) {
+            for (final InvalidRecord invalid : chunkResult.invalid) {
+                results.add(new RecordValidationResult(invalid.result, recordBase + invalid.record,
+                        lineBase + invalid.line, invalid.byteOffset));
+            }
+            if (chunkResult.timedOut) {
+                // positions in following chunks are unknown once a chunk stopped early
+                timedOut = true;
+                break;
+            }
+            recordBase += chunkResult.records;
+            lineBase += chunkResult.lines;
+        }
+        final Deadline deadline = Deadline.current();
+        if (timedOut && deadline != null) {
+            results.add(deadline.skipped(validator));
+        }
+        return results;
+    }
+
+    /**
+     * File part between two line boundaries.
+     */
+    private static final class Chunk {
+
+        private final long start;
+        private final long end;
+
+        Chunk(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Invalid records of one chunk with positions relative to the chunk start.
+     */
+    private static final class ChunkResult {
+
+        private final List<InvalidRecord> invalid = new ArrayList<>();
+        private long records;
+        private long lines;
+        private boolean timedOut;
+    }
+
+    /**
+     * Single validation result of invalid record.
+     */
+    private static final class InvalidRecord {
+
+        private final long record;
+        private final long line;
+        private final long byteOffset;
+        private final ValidationResult result;
+
+        InvalidRecord(final long record, final long line, final long byteOffset, final ValidationResult result) {
+            this.record = record;
+            this.line = line;
+            this.byteOffset = byteOffset;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hr.validation.bulk;
+
+/**
+ * Parser converting single text record to object that will be validated.
+ *
+ * @param <T> parsed object type
+ * @author frano.pecek
+ */
+@FunctionalInterface
+public interface RecordParser<T> {
+
+    /**
+     * Parse one record. Line terminator is not part of the record.
+     *
+     * @param record text of the record
+     * @return parsed object
+     */
+    T parse(String record);
+
+}
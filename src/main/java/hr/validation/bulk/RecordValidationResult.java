@@ -0,0 +1,65 @@
+package hr.validation.bulk;
+
+import hr.validation.ValidationResult;
+
+/**
+ * Validation result of single record from bulk input. Beside original
+ * validation result it contains position of invalid record in the input.
+ *
+ * @author frano.pecek
+ */
+public class RecordValidationResult extends ValidationResult {
+
+    /**
+     * Value used when position is unknown.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private final long rowIndex;
+    private final long lineNumber;
+    private final long byteOffset;
+
+    /**
+     * Create new result for record with given row index.
+     *
+     * @param result original validation result
+     * @param rowIndex zero based index of the record in the input
+     */
+    public RecordValidationResult(final ValidationResult result, final long rowIndex) {
+        this(result, rowIndex, UNKNOWN, UNKNOWN);
+    }
+
+    /**
+     * Create new result for record with given position.
+     *
+     * @param result original validation result
+     * @param rowIndex zero based index of the record in the input
+     * @param lineNumber one based line number of the record in the input file
+     * @param byteOffset offset of the first record byte in the input file
+     */
+    public RecordValidationResult(final ValidationResult result, final long rowIndex, final long lineNumber,
+                                  final long byteOffset) {
+        super(result.getBean(), result.getMessageCode(), result.getSeverityLevel(), result.getFields());
+        withMessageParameters(result.getMessageParameters());
+        this.rowIndex = rowIndex;
+        this.lineNumber = lineNumber;
+        this.byteOffset = byteOffset;
+    }
+
+    public long getRowIndex() {
+        return rowIndex;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " @" + rowIndex;
+    }
+}
@@ -0,0 +1,644 @@
+package hr.validation.bulk;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of row indexes. Rows are split by upper 16 bits in containers of
+ * at most 65536 rows, sparse containers keep sorted array of rows and dense containers
+ * keep a bitmap, like Roaring bitmaps. Sets of few scattered rows and sets of
+ * millions of rows both take little memory, and union and intersection work on
+ * whole containers.
+ *
+ * <p>Row indexes must not be negative. Bitmap is not thread safe.</p>
+ *
+ * @author frano.pecek
+ */
+public final class RowBitmap {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    /**
+     * Create empty bitmap.
+     */
+    public RowBitmap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private RowBitmap(final int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    /**
+     * Create bitmap with given rows.
+     *
+     * @param rows row indexes
+     * @return bitmap
+     */
+    public static RowBitmap of(final int... rows) {
+        final RowBitmap bitmap = new RowBitmap();
+        for (final int row : rows) {
+            bitmap.add(row);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Create bitmap with rows set in bit set.
+     *
+     * @param rows row indexes
+     * @return bitmap
+     */
+    public static RowBitmap of(final BitSet rows) {
+        final RowBitmap bitmap = new RowBitmap();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            bitmap.add(row);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Create union of two bitmaps.
+     *
+     * @param first first bitmap
+     * @param second second bitmap
+     * @return new bitmap with rows contained in any of bitmaps
+     */
+    public static RowBitmap union(final RowBitmap first, final RowBitmap second) {
+        return first.copy().or(second);
+    }
+
+    /**
+     * Create intersection of two bitmaps.
+     *
+     * @param first first bitmap
+     * @param second second bitmap
+     * @return new bitmap with rows contained in both bitmaps
+     */
+    public static RowBitmap intersection(final RowBitmap first, final RowBitmap second) {
+        return first.copy().and(second);
+    }
+
+    /**
+     * Add row. Adding rows in ascending order is the fastest.
+     *
+     * @param row row index
+     * @return current bitmap
+     */
+    public RowBitmap add(final int row) {
+        if (row < 0) {
+            throw new IllegalArgumentException("Row index must not be negative: " + row);
+        }
+        final char key = (char) (row >>> 16);
+        final char low = (char) row;
+        if (size > 0 && keys[size - 1] == key) {
+            containers[size - 1] = containers[size - 1].add(low);
+            return this;
+        }
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            containers[index] = containers[index].add(low);
+        } else {
+            insert(-index - 1, key, new ArrayContainer().add(low));
+        }
+        return this;
+    }
+
+    /**
+     * Check whether bitmap contains row.
+     *
+     * @param row row index
+     * @return true if row is in bitmap
+     */
+    public boolean contains(final int row) {
+        if (row < 0) {
+            return false;
+        }
+        final int index = Arrays.binarySearch(keys, 0, size, (char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    /**
+     * Number of rows in bitmap.
+     *
+     * @return cardinality
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Check whether bitmap contains no rows.
+     *
+     * @return true if bitmap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add all rows of another bitmap to this bitmap.
+     *
+     * @param other another bitmap
+     * @return current bitmap
+     */
+    public RowBitmap or(final RowBitmap other) {
+        final RowBitmap result = new RowBitmap(Math.max(INITIAL_CAPACITY, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                result.append(keys[i], containers[i++].or(other.containers[j++]));
+            } else if (keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i++]);
+            } else {
+                result.append(other.keys[j], other.containers[j++].copy());
+            }
+        }
+        while (i < size) {
+            result.append(keys[i], containers[i++]);
+        }
+        while (j < other.size) {
+            result.append(other.keys[j], other.containers[j++].copy());
+        }
+        replace(result);
+        return this;
+    }
+
+    /**
+     * Keep only rows contained in another bitmap.
+     *
+     * @param other another bitmap
+     * @return current bitmap
+     */
+    public RowBitmap and(final RowBitmap other) {
+        final RowBitmap result = new RowBitmap(Math.max(INITIAL_CAPACITY, Math.min(size, other.size)));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                final Container container = containers[i++].and(other.containers[j++]);
+                if (container.cardinality() > 0) {
+                    result.append(keys[i - 1], container);
+                }
+            } else if (keys[i] < other.keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        replace(result);
+        return this;
+    }
+
+    /**
+     * Create bitmap with all rows moved by offset, used for merging results of data partitions.
+     *
+     * @param offset value added to every row
+     * @return new bitmap
+     */
+    public RowBitmap shift(final int offset) {
+        if ((offset & 0xFFFF) == 0) {
+            final RowBitmap shifted = new RowBitmap(Math.max(INITIAL_CAPACITY, size));
+            for (int i = 0; i < size; i++) {
+                final int key = keys[i] + (offset >> 16);
+                if (key < 0 || key > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Shifted row index out of range, offset: " + offset);
+                }
+                shifted.append((char) key, containers[i].copy());
+            }
+            return shifted;
+        }
+        final RowBitmap shifted = new RowBitmap();
+        forEach(row -> shifted.add(Math.addExact(row, offset)));
+        return shifted;
+    }
+
+    /**
+     * Create copy of bitmap.
+     *
+     * @return new bitmap with same rows
+     */
+    public RowBitmap copy() {
+        final RowBitmap copy = new RowBitmap(Math.max(INITIAL_CAPACITY, size));
+        for (int i = 0; i < size; i++) {
+            copy.append(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Call action for every row in ascending order.
+     *
+     * @param action row action
+     */
+    public void forEach(final IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Iterate over rows in ascending order.
+     *
+     * @return row iterator
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container;
+            private int next = nextFrom(0, 0);
+
+            private int nextFrom(final int start, final int low) {
+                for (container = start; container < size; container++) {
+                    final int found = containers[container].next(container == start ? low : 0);
+                    if (found >= 0) {
+                        return keys[container] << 16 | found;
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                final int row = next;
+                final int low = (row & 0xFFFF) + 1;
+                next = low > 0xFFFF ? nextFrom(container + 1, 0) : nextFrom(container, low);
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Convert bitmap to bit set.
+     *
+     * @return bit set with same rows
+     */
+    public BitSet toBitSet() {
+        final BitSet bitSet = new BitSet();
+        forEach(bitSet::set);
+        return bitSet;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof RowBitmap)) {
+            return false;
+        }
+        final RowBitmap other = (RowBitmap) o;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i] || !containers[i].sameRows(other.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        final int[] hash = {1};
+        forEach(row -> hash[0] = 31 * hash[0] + row);
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RowBitmap [cardinality=").append(cardinality());
+        final PrimitiveIterator.OfInt rows = iterator();
+        for (int i = 0; i < 10 && rows.hasNext(); i++) {
+            sb.append(i == 0 ? ", rows=" : ",").append(rows.nextInt());
+        }
+        return sb.append(rows.hasNext() ? "...]" : "]").toString();
+    }
+
+    private void insert(final int index, final char key, final Container container) {
+        ensureCapacity();
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(final char key, final Container container) {
+        ensureCapacity();
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+    }
+
+    private void replace(final RowBitmap result) {
+        this.keys = result.keys;
+        this.containers = result.containers;
+        this.size = result.size;
+    }
+
+    /**
+     * Rows sharing upper 16 bits. Operations return container that should replace
+     * current container, because sparse and dense containers convert to each other.
+     */
+    private abstract static class Container {
+
+        /**
+         * Maximal number of rows in array container, array container of this size
+         * takes as much memory as bitmap container.
+         */
+        static final int MAX_ARRAY_SIZE = 4096;
+
+        abstract Container add(char low);
+
+        abstract boolean contains(char low);
+
+        abstract int cardinality();
+
+        abstract Container or(Container other);
+
+        abstract Container and(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int high, IntConsumer action);
+
+        /**
+         * Find first row greater than or equal to given row.
+         *
+         * @return lower 16 bits of the row or -1
+         */
+        abstract int next(int low);
+
+        boolean sameRows(final Container other) {
+            if (cardinality() != other.cardinality()) {
+                return false;
+            }
+            for (int low = next(0); low >= 0; low = low == 0xFFFF ? -1 : next(low + 1)) {
+                if (!other.contains((char) low)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sparse container with sorted rows.
+     */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(final char[] values, final int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(final char low) {
+            int index;
+            if (cardinality == 0 || values[cardinality - 1] < low) {
+                index = cardinality;
+            } else {
+                index = Arrays.binarySearch(values, 0, cardinality, low);
+                if (index >= 0) {
+                    return this;
+                }
+                index = -index - 1;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return toBitmap().add(low);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(final char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container or(final Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            final ArrayContainer array = (ArrayContainer) other;
+            final char[] merged = new char[cardinality + array.cardinality];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < cardinality && j < array.cardinality) {
+                final char a = values[i];
+                final char b = array.values[j];
+                if (a == b) {
+                    merged[k++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    merged[k++] = a;
+                    i++;
+                } else {
+                    merged[k++] = b;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                merged[k++] = values[i++];
+            }
+            while (j < array.cardinality) {
+                merged[k++] = array.values[j++];
+            }
+            final ArrayContainer result = new ArrayContainer(merged, k);
+            return k > MAX_ARRAY_SIZE ? result.toBitmap() : result;
+        }
+
+        @Override
+        Container and(final Container other) {
+            final char[] common = new char[cardinality];
+            int k = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    common[k++] = values[i];
+                }
+            }
+            return new ArrayContainer(common, k);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        int next(final int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        private BitmapContainer toBitmap() {
+            final long[] words = new long[BitmapContainer.WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    /**
+     * Dense container with one bit per row.
+     */
+    private static final class BitmapContainer extends Container {
+
+        static final int WORDS = 1024;
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(final long[] words, final int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(final char low) {
+            final long before = words[low >>> 6];
+            final long after = before | 1L << low;
+            if (before != after) {
+                words[low >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(final char low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container or(final Container other) {
+            final long[] result = words.clone();
+            if (other instanceof BitmapContainer) {
+                final long[] otherWords = ((BitmapContainer) other).words;
+                int count = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] |= otherWords[i];
+                    count += Long.bitCount(result[i]);
+                }
+                return new BitmapContainer(result, count);
+            }
+            final BitmapContainer union = new BitmapContainer(result, cardinality);
+            other.forEach(0, row -> union.add((char) row));
+            return union;
+        }
+
+        @Override
+        Container and(final Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            final long[] otherWords = ((BitmapContainer) other).words;
+            final long[] result = new long[WORDS];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            final BitmapContainer intersection = new BitmapContainer(result, count);
+            return count > MAX_ARRAY_SIZE ? intersection : intersection.toArray();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int next(final int low) {
+            int index = low >>> 6;
+            long word = words[index] & -1L << low;
+            while (word == 0) {
+                if (++index == WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return index << 6 | Long.numberOfTrailingZeros(word);
+        }
+
+        private ArrayContainer toArray() {
+            final char[] values = new char[Math.max(cardinality, 1)];
+            final int[] k = {0};
+            forEach(0, row -> values[k[0]++] = (char) row);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
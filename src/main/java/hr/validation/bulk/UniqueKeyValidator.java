@@ -0,0 +1,506 @@
+package hr.validation.bulk;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.AggregateValidator;
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Validates that key of every record in a stream is unique. Duplicate records are reported
+ * as {@link RecordValidationResult} with {@link CoreValidationMessageCode#DUPLICATE_KEY},
+ * key and row of the first record with the same key as message parameters.
+ *
+ * <pre>
+ * UniqueKeyValidator&lt;Order&gt; uniqueIds = UniqueKeyValidator.builder(Order::getId)
+ *         .expectedRows(50_000_000)
+ *         .spillTo(Paths.get("/var/tmp"))
+ *         .build();
+ * ValidationResults results = orderValidator.andAggregate(uniqueIds).validate(orders);
+ * </pre>
+ *
+ * <p>Keys are not kept in memory. Every key is hashed to 64 bits and checked with a Bloom
+ * filter, and only keys the filter has probably seen before are verified when the stream
+ * ends. Verification reads the log of all key hashes, kept in memory as primitive arrays
+ * or spilled to a temporary file together with keys. In-memory log takes 16 bytes per
+ * record, about 800 MB for 50 million records, so large streams should be spilled.
+ * Without spilling, keys with the same 64-bit hash are treated as equal, which for
+ * 50 million keys happens with probability of about 0.01%. With spilling, duplicates
+ * are verified by comparing keys.</p>
+ *
+ * <p>Uniqueness can be checked only over the whole stream, so it is an aggregate validator,
+ * added to validator of single records with {@link hr.validation.Validator#andAggregate(AggregateValidator)}
+ * to check keys in the same pass. Row of a record is its index in the stream. {@link #session()}
+ * checks records that are not available as a stream. Every part of a parallel stream has its own
+ * Bloom filter, and log of a part is checked against the filter of preceding parts when parts are
+ * combined. Without spilling, keys are not in the log, so a duplicate found only when parts are
+ * combined has null key parameter, unless the same key is repeated within a part.</p>
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+public final class UniqueKeyValidator<T> implements AggregateValidator<T, UniqueKeyValidator<T>.Session> {
+
+    private final Function<T, ? extends CharSequence> key;
+    private final long expectedRows;
+    private final double falsePositiveRate;
+    private final Path spillDirectory;
+    private final String[] fields;
+    private final ExceptionSeverityLevel severityLevel;
+
+    private UniqueKeyValidator(final Builder<T> builder) {
+        this.key = builder.key;
+        this.expectedRows = builder.expectedRows;
+        this.falsePositiveRate = builder.falsePositiveRate;
+        this.spillDirectory = builder.spillDirectory;
+        this.fields = builder.fields;
+        this.severityLevel = builder.severityLevel;
+    }
+
+    /**
+     * Create new builder.
+     *
+     * @param key function returning record key
+     * @param <T> the type of data for validation
+     * @return builder
+     */
+    public static <T> Builder<T> builder(final Function<T, ? extends CharSequence> key) {
+        return new Builder<>(key);
+    }
+
+    @Override
+    public Session supply() {
+        return session();
+    }
+
+    @Override
+    public void accumulate(final Session state, final T data) {
+        state.accept(state.rows, data);
+    }
+
+    @Override
+    public Session combine(final Session left, final Session right) {
+        left.append(right);
+        return left;
+    }
+
+    /**
+     * Create results of duplicate records and close the session.
+     *
+     * @param state final session
+     * @return validation results of duplicate records
+     */
+    @Override
+    public ValidationResults finish(final Session state) {
+        try (Session session = state) {
+            return session.finish();
+        }
+    }
+
+    /**
+     * Validate stream sequentially, spill file is deleted also when validation fails.
+     *
+     * @param data stream of data
+     * @return validation results of duplicate records
+     */
+    @Override
+    public ValidationResults validate(final Stream<T> data) {
+        if (data == null) {
+            return new ValidationResults();
+        }
+        try (Session session = session()) {
+            data.sequential().forEachOrdered(record -> session.accept(session.rows, record));
+            return session.finish();
+        }
+    }
+
+    /**
+     * Start new uniqueness check, used when records are not available as a stream.
+     * Session must be closed to delete spill file.
+     *
+     * @return new session
+     */
+    public Session session() {
+        return new Session();
+    }
+
+    /**
+     * Compute 64-bit hash of key.
+     */
+    static long hash(final CharSequence value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * One uniqueness check over records with known row indexes. Not thread safe.
+     */
+    public final class Session implements AutoCloseable {
+
+        private static final long UNRESOLVED = -1L;
+
+        private final BloomFilter filter = new BloomFilter(expectedRows, falsePositiveRate);
+        private final LongHashMap firstRows = new LongHashMap();
+        private final List<Suspect> suspects = new ArrayList<>();
+        private final HashLog log;
+        private long rows;
+
+        private Session() {
+            this.log = spillDirectory == null ? new MemoryLog() : new FileLog(spillDirectory);
+        }
+
+        /**
+         * Check record key.
+         *
+         * @param row row index of the record, rows must be accepted in ascending order
+         * @param record record
+         */
+        public void accept(final long row, final T record) {
+            rows = row + 1;
+            final CharSequence value = key.apply(record);
+            if (value != null) {
+                add(hash(value), row, value);
+            }
+        }
+
+        private void add(final long hash, final long row, final CharSequence value) {
+            log.append(hash, row, value);
+            if (filter.put(hash)) {
+                suspects.add(new Suspect(hash, row, value == null ? null : value.toString()));
+                firstRows.put(hash, UNRESOLVED);
+            }
+        }
+
+        /**
+         * Check log of session of the following records against this session and close it.
+         * Keys of its suspects are kept, other keys are known only if they are spilled.
+         */
+        private void append(final Session next) {
+            final long offset = rows;
+            final int[] suspect = {0};
+            try (Session appended = next) {
+                appended.log.forEach((hash, row, value) -> {
+                    String known = value;
+                    if (suspect[0] < appended.suspects.size() && appended.suspects.get(suspect[0]).row == row) {
+                        known = appended.suspects.get(suspect[0]++).key;
+                    }
+                    add(hash, offset + row, known);
+                });
+            }
+            rows = offset + next.rows;
+        }
+
+        /**
+         * Verify probable duplicates and create results of duplicate records.
+         *
+         * @return validation results of duplicate records
+         */
+        public ValidationResults finish() {
+            final ValidationResults results = new ValidationResults();
+            if (suspects.isEmpty()) {
+                return results;
+            }
+            final Map<String, Long> firstRowsByKey = new HashMap<>();
+            final Map<Long, String> keysByHash = new HashMap<>();
+            for (final Suspect suspect : suspects) {
+                if (suspect.key != null) {
+                    keysByHash.putIfAbsent(suspect.hash, suspect.key);
+                }
+            }
+            log.forEach((hash, row, value) -> {
+                if (!firstRows.containsKey(hash)) {
+                    return;
+                }
+                if (value != null) {
+                    firstRowsByKey.putIfAbsent(value, row);
+                } else if (firstRows.get(hash) == UNRESOLVED) {
+                    firstRows.put(hash, row);
+                }
+            });
+            for (final Suspect suspect : suspects) {
+                final long firstRow = log.hasKeys() ? firstRowsByKey.get(suspect.key) : firstRows.get(suspect.hash);
+                if (firstRow != suspect.row) {
+                    results.add(new RecordValidationResult(
+                            new ValidationResult(CoreValidationMessageCode.DUPLICATE_KEY, severityLevel, fields)
+                                    .withMessageParameters(suspect.key != null ? suspect.key : keysByHash.get(suspect.hash),
+                                            firstRow), suspect.row));
+                }
+            }
+            return results;
+        }
+
+        /**
+         * Delete spill file.
+         */
+        @Override
+        public void close() {
+            log.close();
+        }
+    }
+
+    /**
+     * Record whose key hash was probably seen before.
+     */
+    private static final class Suspect {
+
+        private final long hash;
+        private final long row;
+        private final String key;
+
+        Suspect(final long hash, final long row, final String key) {
+            this.hash = hash;
+            this.row = row;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Consumer of key log entries.
+     */
+    @FunctionalInterface
+    private interface LogConsumer {
+
+        void accept(long hash, long row, String key);
+    }
+
+    /**
+     * Append only log of all key hashes.
+     */
+    private interface HashLog {
+
+        void append(long hash, long row, CharSequence key);
+
+        void forEach(LogConsumer consumer);
+
+        boolean hasKeys();
+
+        void close();
+    }
+
+    /**
+     * Log of hashes and rows kept in primitive arrays, without keys. Every record takes 16 bytes.
+     */
+    private static final class MemoryLog implements HashLog {
+
+        private static final int PAGE_SIZE = 1 << 16;
+
+        private final List<long[]> hashes = new ArrayList<>();
+        private final List<long[]> rows = new ArrayList<>();
+        private long size;
+
+        @Override
+        public void append(final long hash, final long row, final CharSequence key) {
+            final int offset = (int) (size % PAGE_SIZE);
+            if (offset == 0) {
+                hashes.add(new long[PAGE_SIZE]);
+                rows.add(new long[PAGE_SIZE]);
+            }
+            hashes.get(hashes.size() - 1)[offset] = hash;
+            rows.get(rows.size() - 1)[offset] = row;
+            size++;
+        }
+
+        @Override
+        public void forEach(final LogConsumer consumer) {
+            for (long i = 0; i < size; i++) {
+                final int page = (int) (i / PAGE_SIZE);
+                final int offset = (int) (i % PAGE_SIZE);
+                consumer.accept(hashes.get(page)[offset], rows.get(page)[offset], null);
+            }
+        }
+
+        @Override
+        public boolean hasKeys() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            hashes.clear();
+            rows.clear();
+        }
+    }
+
+    /**
+     * Log of hashes, rows and keys spilled to temporary file.
+     */
+    private static final class FileLog implements HashLog {
+
+        private final Path file;
+        private final DataOutputStream output;
+
+        FileLog(final Path directory) {
+            try {
+                this.file = Files.createTempFile(directory, "unique-keys", ".log");
+                this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void append(final long hash, final long row, final CharSequence key) {
+            try {
+                final byte[] bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+                output.writeLong(hash);
+                output.writeLong(row);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void forEach(final LogConsumer consumer) {
+            try {
+                output.flush();
+                try (DataInputStream input = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                    while (true) {
+                        final long hash;
+                        try {
+                            hash = input.readLong();
+                        } catch (EOFException e) {
+                            return;
+                        }
+                        final long row = input.readLong();
+                        final byte[] bytes = new byte[input.readInt()];
+                        input.readFully(bytes);
+                        consumer.accept(hash, row, new String(bytes, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasKeys() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                output.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Builder of {@link UniqueKeyValidator}.
+     *
+     * @param <T> the type of data for validation
+     */
+    public static final class Builder<T> {
+
+        private final Function<T, ? extends CharSequence> key;
+        private long expectedRows = 1_000_000;
+        private double falsePositiveRate = 0.01;
+        private Path spillDirectory;
+        private String[] fields = new String[0];
+        private ExceptionSeverityLevel severityLevel = ExceptionSeverityLevel.ERROR;
+
+        private Builder(final Function<T, ? extends CharSequence> key) {
+            this.key = key;
+        }
+
+        /**
+         * Set expected number of records used to size Bloom filter, default is one million.
+         * Filter takes about 10 bits per expected record with default false positive rate.
+         *
+         * @param rows expected number of records
+         * @return current builder
+         */
+        public Builder<T> expectedRows(final long rows) {
+            this.expectedRows = rows;
+            return this;
+        }
+
+        /**
+         * Set Bloom filter false positive rate, default is 1%. Lower rate uses more
+         * memory and verifies fewer keys.
+         *
+         * @param rate false positive rate
+         * @return current builder
+         */
+        public Builder<T> falsePositiveRate(final double rate) {
+            if (rate <= 0 || rate >= 1) {
+                throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + rate);
+            }
+            this.falsePositiveRate = rate;
+            return this;
+        }
+
+        /**
+         * Spill log of keys to temporary file in given directory and verify duplicates by
+         * comparing keys. Without spilling, log of key hashes takes 16 bytes of memory per record.
+         *
+         * @param directory directory of temporary file
+         * @return current builder
+         */
+        public Builder<T> spillTo(final Path directory) {
+            this.spillDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Set fields of duplicate record results.
+         *
+         * @param resultFields fields
+         * @return current builder
+         */
+        public Builder<T> fields(final String... resultFields) {
+            this.fields = resultFields.clone();
+            return this;
+        }
+
+        /**
+         * Set severity level of duplicate record results, default is error.
+         *
+         * @param level severity level
+         * @return current builder
+         */
+        public Builder<T> severity(final ExceptionSeverityLevel level) {
+            this.severityLevel = level;
+            return this;
+        }
+
+        /**
+         * Create validator.
+         *
+         * @return validator
+         */
+        public UniqueKeyValidator<T> build() {
+            return new UniqueKeyValidator<>(this);
+        }
+    }
+}
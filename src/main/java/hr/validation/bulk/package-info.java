@@ -0,0 +1,6 @@
+/**
+ * The package contains validation of large data sets, like files and bulk imports.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.bulk;
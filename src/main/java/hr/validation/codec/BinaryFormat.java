@@ -0,0 +1,39 @@
+package hr.validation.codec;
+
+/**
+ * Constants of binary validation results format.
+ *
+ * <pre>
+ * frame   := MAGIC VERSION strings count entry*
+ * strings := varint(n) (varint(length) utf8)*
+ * entry   := varint(codeId) varint(severity) varint(n) varint(field)* varint(m) parameter*
+ * </pre>
+ *
+ * Severity and fields are references into the string table, reference {@code 0}
+ * means no severity or null field and other values are string index + 1.
+ *
+ * @author frano.pecek
+ */
+final class BinaryFormat {
+
+    static final byte MAGIC_1 = 'V';
+    static final byte MAGIC_2 = 'R';
+    static final byte VERSION = 2;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte FLOAT = 5;
+    static final byte TRUE = 6;
+    static final byte FALSE = 7;
+    static final byte BIG_DECIMAL = 8;
+    static final byte BIG_INTEGER = 9;
+    static final byte SHORT = 10;
+    static final byte BYTE = 11;
+    static final byte CHARACTER = 12;
+
+    private BinaryFormat() {
+    }
+}
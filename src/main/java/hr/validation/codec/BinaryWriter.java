@@ -0,0 +1,105 @@
+package hr.validation.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with varint support.
+ *
+ * @author frano.pecek
+ */
+final class BinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Create new writer.
+     *
+     * @param initialCapacity initial buffer size
+     */
+    BinaryWriter(final int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    void writeByte(final int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    void writeBytes(final byte[] bytes, final int offset, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Write unsigned variable length integer, 7 bits per byte.
+     *
+     * @param value value to write
+     */
+    void writeVarLong(final long value) {
+        ensureCapacity(10);
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    void writeVarInt(final int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Write signed value using zig-zag encoding so small negative values stay short.
+     *
+     * @param value value to write
+     */
+    void writeZigZag(final long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeLong(final long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    void writeInt(final int value) {
+        ensureCapacity(4);
+        for (int i = 0; i < 4; i++) {
+            buffer[position++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    void writeString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    void writeTo(final BinaryWriter other) {
+        other.writeBytes(buffer, 0, position);
+    }
+
+    int size() {
+        return position;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    void reset() {
+        position = 0;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package hr.validation.codec;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.i18n.MessageCode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only view of encoded validation results. Only frame header and string table
+ * offsets are read when view is created, strings are decoded on first use and
+ * results are created while iterating.
+ *
+ * @author frano.pecek
+ */
+public final class EncodedValidationResults implements Iterable<ValidationResult> {
+
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final ByteBuffer buffer;
+    private final MessageCodeRegistry registry;
+    private final int[] stringOffsets;
+    private final int[] stringLengths;
+    private final String[] strings;
+    private final int size;
+    private final int entriesOffset;
+
+    EncodedValidationResults(final ByteBuffer buffer, final MessageCodeRegistry registry) {
+        this.buffer = buffer;
+        this.registry = registry;
+        final ByteBuffer in = buffer.duplicate();
+        if (in.remaining() < 3 || in.get() != BinaryFormat.MAGIC_1 || in.get() != BinaryFormat.MAGIC_2) {
+            throw new IllegalArgumentException("Not an encoded validation results frame");
+        }
+        final byte version = in.get();
+        if (version != BinaryFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported validation results format version: " + version);
+        }
+        final int stringCount = readVarInt(in);
+        this.stringOffsets = new int[stringCount];
+        this.stringLengths = new int[stringCount];
+        this.strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            stringLengths[i] = readVarInt(in);
+            stringOffsets[i] = in.position();
+            in.position(in.position() + stringLengths[i]);
+        }
+        this.size = readVarInt(in);
+        this.entriesOffset = in.position();
+    }
+
+    /**
+     * Number of encoded validation results.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if there are no encoded validation results.
+     *
+     * @return true if there is no error
+     */
+    public boolean isValid() {
+        return size == 0;
+    }
+
+    /**
+     * Decode all results into new {@link ValidationResults}.
+     *
+     * @return validation results
+     */
+    public ValidationResults toValidationResults() {
+        final ValidationResults results = new ValidationResults();
+        for (final ValidationResult result : this) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Override
+    public Iterator<ValidationResult> iterator() {
+        final ByteBuffer in = buffer.duplicate();
+        in.position(entriesOffset);
+        return new Iterator<ValidationResult>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public ValidationResult next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                return readResult(in);
+            }
+        };
+    }
+
+    private ValidationResult readResult(final ByteBuffer in) {
+        final MessageCode code = registry.codeOf(readVarInt(in));
+        final int severityRef = readVarInt(in);
+        final ExceptionSeverityLevel severity = severityRef == 0 ? null : ExceptionSeverityLevel.valueOf(string(severityRef - 1));
+        final String[] fields = new String[readVarInt(in)];
+        for (int i = 0; i < fields.length; i++) {
+            final int fieldRef = readVarInt(in);
+            fields[i] = fieldRef == 0 ? null : string(fieldRef - 1);
+        }
+        final int parameterCount = readVarInt(in);
+        final Object[] parameters = parameterCount == 0 ? NO_PARAMETERS : new Object[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            parameters[i] = readParameter(in);
+        }
+        final ValidationResult result = new ValidationResult(code, severity, fields);
+        if (parameterCount > 0) {
+            result.withMessageParameters(parameters);
+        }
+        return result;
+    }
+
+    private String string(final int index) {
+        String value = strings[index];
+        if (value == null) {
+            value = readUtf8(buffer, stringOffsets[index], stringLengths[index]);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    private static Object readParameter(final ByteBuffer in) {
+        final byte type = in.get();
+        switch (type) {
+            case BinaryFormat.NULL:
+                return null;
+            case BinaryFormat.STRING:
+                return readString(in);
+            case BinaryFormat.INT:
+                return (int) readZigZag(in);
+            case BinaryFormat.LONG:
+                return readZigZag(in);
+            case BinaryFormat.DOUBLE:
+                return Double.longBitsToDouble(readLong(in));
+            case BinaryFormat.FLOAT:
+                return Float.intBitsToFloat(readInt(in));
+            case BinaryFormat.TRUE:
+                return Boolean.TRUE;
+            case BinaryFormat.FALSE:
+                return Boolean.FALSE;
+            case BinaryFormat.BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case BinaryFormat.BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case BinaryFormat.SHORT:
+                return (short) readZigZag(in);
+            case BinaryFormat.BYTE:
+                return in.get();
+            case BinaryFormat.CHARACTER:
+                return (char) readVarInt(in);
+            default:
+                throw new IllegalArgumentException("Unknown parameter type: " + type);
+        }
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = readVarInt(in);
+        final String value = readUtf8(in, in.position(), length);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static String readUtf8(final ByteBuffer in, final int offset, final int length) {
+        if (in.hasArray()) {
+            return new String(in.array(), in.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[length];
+        final ByteBuffer source = in.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(final ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(final ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long readZigZag(final ByteBuffer in) {
+        final long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readLong(final ByteBuffer in) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (long) (in.get() & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+
+    private static int readInt(final ByteBuffer in) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value |= (in.get() & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+}
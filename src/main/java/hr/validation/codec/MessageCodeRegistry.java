@@ -0,0 +1,144 @@
+package hr.validation.codec;
+
+import hr.validation.i18n.MessageCode;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry mapping {@link MessageCode} instances to numeric ids used on the wire.
+ * Both sides of the communication must register the same codes with the same ids.
+ * Id {@code 0} is reserved for missing message code.
+ *
+ * @author frano.pecek
+ */
+public final class MessageCodeRegistry {
+
+    private final ConcurrentMap<MessageCode, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, MessageCode> codes = new ConcurrentHashMap<>();
+    private final boolean autoRegister;
+    private int nextId = 1;
+
+    private MessageCodeRegistry(final boolean autoRegister) {
+        this.autoRegister = autoRegister;
+    }
+
+    /**
+     * Create registry that accepts only explicitly registered codes.
+     * Use it for data exchanged between services.
+     *
+     * @return new registry
+     */
+    public static MessageCodeRegistry strict() {
+        return new MessageCodeRegistry(false);
+    }
+
+    /**
+     * Create registry that assigns ids to unknown codes while encoding.
+     * Ids are valid only inside current process, so use it only for
+     * data that never leaves the process.
+     *
+     * @return new registry
+     */
+    public static MessageCodeRegistry autoRegistering() {
+        return new MessageCodeRegistry(true);
+    }
+
+    /**
+     * Check whether registry assigns ids to unknown codes. Ids of such registry are not
+     * stable between processes.
+     *
+     * @return true for registry created with {@link #autoRegistering()}
+     */
+    public boolean isAutoRegistering() {
+        return autoRegister;
+    }
+
+    /**
+     * Register message code with given id.
+     *
+     * @param code message code
+     * @param id id greater than zero
+     * @return current registry
+     */
+    public synchronized MessageCodeRegistry register(final MessageCode code, final int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Message code id must be positive: " + id);
+        }
+        final MessageCode registered = codes.get(id);
+        if (registered != null && !registered.equals(code)) {
+            throw new IllegalArgumentException("Message code id " + id + " is already used by " + registered);
+        }
+        final Integer registeredId = ids.get(code);
+        if (registeredId != null && registeredId != id) {
+            throw new IllegalArgumentException("Message code " + code + " is already registered with id " + registeredId);
+        }
+        ids.put(code, id);
+        codes.put(id, code);
+        nextId = Math.max(nextId, id + 1);
+        return this;
+    }
+
+    /**
+     * Register all constants of message code enum. Constant ids are
+     * {@code firstId + ordinal}, so new constants should be added at the end of the enum.
+     *
+     * @param type message code enum
+     * @param firstId id of the first enum constant
+     * @param <E> message code enum type
+     * @return current registry
+     */
+    public synchronized <E extends Enum<E> & MessageCode> MessageCodeRegistry register(final Class<E> type, final int firstId) {
+        for (final E code : type.getEnumConstants()) {
+            register(code, firstId + code.ordinal());
+        }
+        return this;
+    }
+
+    /**
+     * Get id of message code.
+     *
+     * @param code message code, can be null
+     * @return message code id or {@code 0} for null code
+     */
+    public int idOf(final MessageCode code) {
+        if (code == null) {
+            return 0;
+        }
+        final Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        if (!autoRegister) {
+            throw new IllegalArgumentException("Message code is not registered: " + code);
+        }
+        return assignId(code);
+    }
+
+    /**
+     * Get message code with given id.
+     *
+     * @param id message code id
+     * @return message code or null for id {@code 0}
+     */
+    public MessageCode codeOf(final int id) {
+        if (id == 0) {
+            return null;
+        }
+        final MessageCode code = codes.get(id);
+        if (code == null) {
+            throw new IllegalArgumentException("Unknown message code id: " + id);
+        }
+        return code;
+    }
+
+    private synchronized int assignId(final MessageCode code) {
+        final Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        final int newId = nextId;
+        register(code, newId);
+        return newId;
+    }
+}
@@ -0,0 +1,297 @@
+package hr.validation.codec;
+
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Validation results that keep at most given number of results in memory and spill older
+ * results to a temporary append-only file. Every spill is one frame encoded by
+ * {@link ValidationResultsCodec}, and iterating reads spilled frames from memory mapped
+ * file before results still in memory, so results keep the order in which they were added.
+ *
+ * <pre>
+ * try (SpillingValidationResults results = new SpillingValidationResults(100_000)) {
+ *     validator.validate(records, results);
+ *     results.stream().forEach(report::write);
+ * }
+ * </pre>
+ *
+ * <p>Spilled results are decoded like results of {@link ValidationResultsCodec}, without
+ * validated bean and as plain {@link ValidationResult}. The last added result always stays
+ * in memory, so {@code add(code).withParams(...)} works as usual. Temporary file is deleted
+ * when results are closed. Results are not thread safe and must not be changed while
+ * iterating.</p>
+ *
+ * @author frano.pecek
+ */
+public class SpillingValidationResults extends ValidationResults implements AutoCloseable {
+
+    private static final String FILE_PREFIX = "validation-results";
+    private static final long SEGMENT_SIZE = 64L << 20;
+
+    private final int maxInMemory;
+    private final ValidationResultsCodec codec;
+    private final Path file;
+    private final FileChannel channel;
+    private final List<ValidationResult> buffer = new ArrayList<>();
+    private long[] frameOffsets = new long[16];
+    private int[] frameLengths = new int[16];
+    private int frameCount;
+    private long spilledCount;
+    private long fileSize;
+    private boolean closed;
+
+    /**
+     * Create results spilling to file in default temporary directory.
+     *
+     * @param maxInMemory maximum number of results kept in memory
+     */
+    public SpillingValidationResults(final int maxInMemory) {
+        this(maxInMemory, null, MessageCodeRegistry.autoRegistering());
+    }
+
+    /**
+     * Create results spilling to file in given directory.
+     *
+     * @param maxInMemory maximum number of results kept in memory
+     * @param directory directory of temporary file, default temporary directory if null
+     */
+    public SpillingValidationResults(final int maxInMemory, final Path directory) {
+        this(maxInMemory, directory, MessageCodeRegistry.autoRegistering());
+    }
+
+    /**
+     * Create results spilling to file in given directory with message codes encoded by given
+     * registry. Strict registry fails on the first unregistered message code.
+     *
+     * @param maxInMemory maximum number of results kept in memory
+     * @param directory directory of temporary file, default temporary directory if null
+     * @param registry message code registry
+     */
+    public SpillingValidationResults(final int maxInMemory, final Path directory, final MessageCodeRegistry registry) {
+        if (maxInMemory < 1) {
+            throw new IllegalArgumentException("At least one result must be kept in memory: " + maxInMemory);
+        }
+        this.maxInMemory = maxInMemory;
+        this.codec = new ValidationResultsCodec(registry);
+        try {
+            this.file = directory == null ? Files.createTempFile(FILE_PREFIX, ".bin")
+                    : Files.createTempFile(directory, FILE_PREFIX, ".bin");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected ValidationResults doAdd(final ValidationResult res) {
+        if (closed) {
+            throw new IllegalStateException("Validation results are closed");
+        }
+        if (buffer.size() >= maxInMemory) {
+            spill();
+        }
+        buffer.add(res);
+        return this;
+    }
+
+    @Override
+    public ValidationResults join(final ValidationResults results) {
+        for (final ValidationResult result : results) {
+            doAdd(result);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isValid() {
+        return spilledCount == 0 && buffer.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, count());
+    }
+
+    /**
+     * Number of validation results, including results above {@link Integer#MAX_VALUE}.
+     *
+     * @return number of spilled results and results in memory
+     */
+    public long count() {
+        return spilledCount + buffer.size();
+    }
+
+    /**
+     * Number of results spilled to file.
+     *
+     * @return number of spilled results
+     */
+    public long getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * Size of temporary file.
+     *
+     * @return number of bytes written to file
+     */
+    public long getSpilledBytes() {
+        return fileSize;
+    }
+
+    @Override
+    public void clearValidationResult() {
+        buffer.clear();
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        frameCount = 0;
+        spilledCount = 0;
+        fileSize = 0;
+    }
+
+    @Override
+    public Iterator<ValidationResult> iterator() {
+        if (frameCount == 0) {
+            return Collections.unmodifiableList(buffer).iterator();
+        }
+        return new SpilledIterator(frameCount, buffer.size());
+    }
+
+    @Override
+    public Stream<ValidationResult> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), count(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Delete temporary file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillingValidationResults [count=" + count() + ", spilled=" + spilledCount + ", file=" + file + "]";
+    }
+
+    private void spill() {
+        final byte[] frame = codec.encode(buffer);
+        final ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + frame.length);
+        out.putInt(frame.length).put(frame).flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out, fileSize + out.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (frameCount == frameOffsets.length) {
+            frameOffsets = Arrays.copyOf(frameOffsets, frameCount * 2);
+            frameLengths = Arrays.copyOf(frameLengths, frameCount * 2);
+        }
+        frameOffsets[frameCount] = fileSize + Integer.BYTES;
+        frameLengths[frameCount] = frame.length;
+        frameCount++;
+        fileSize += out.limit();
+        spilledCount += buffer.size();
+        buffer.clear();
+    }
+
+    /**
+     * Iterator over spilled frames followed by results in memory. Consecutive frames are
+     * mapped together in segments of limited size.
+     */
+    private final class SpilledIterator implements Iterator<ValidationResult> {
+
+        private final int frames;
+        private final int buffered;
+        private int frame;
+        private int bufferIndex;
+        private MappedByteBuffer segment;
+        private long segmentStart;
+        private long segmentEnd;
+        private Iterator<ValidationResult> current = Collections.emptyIterator();
+
+        SpilledIterator(final int frames, final int buffered) {
+            this.frames = frames;
+            this.buffered = buffered;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && frame < frames) {
+                current = codec.decode(frameBuffer(frame++)).iterator();
+            }
+            return current.hasNext() || bufferIndex < buffered;
+        }
+
+        @Override
+        public ValidationResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (current.hasNext()) {
+                return current.next();
+            }
+            return buffer.get(bufferIndex++);
+        }
+
+        private ByteBuffer frameBuffer(final int index) {
+            final long start = frameOffsets[index];
+            final long end = start + frameLengths[index];
+            if (segment == null || start < segmentStart || end > segmentEnd) {
+                int last = index;
+                while (last + 1 < frames
+                        && frameOffsets[last + 1] + frameLengths[last + 1] - start <= SEGMENT_SIZE) {
+                    last++;
+                }
+                segmentStart = start;
+                segmentEnd = frameOffsets[last] + frameLengths[last];
+                try {
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            final ByteBuffer view = segment.duplicate();
+            view.position((int) (start - segmentStart));
+            view.limit((int) (end - segmentStart));
+            return view.slice();
+        }
+    }
+}
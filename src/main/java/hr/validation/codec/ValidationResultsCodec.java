@@ -0,0 +1,148 @@
+package hr.validation.codec;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary codec for validation results. Message codes are written as
+ * varint ids from {@link MessageCodeRegistry}, severity levels and fields are
+ * interned in a string table and message parameters keep their type for
+ * strings, booleans, characters and numbers. Other parameter types are written
+ * as their string representation. Validated bean is not part of the format.
+ *
+ * @author frano.pecek
+ */
+public final class ValidationResultsCodec {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final MessageCodeRegistry registry;
+
+    /**
+     * Create new codec.
+     *
+     * @param registry message code registry shared by encoding and decoding side
+     */
+    public ValidationResultsCodec(final MessageCodeRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Encode validation results.
+     *
+     * @param results validation results, for example {@link hr.validation.ValidationResults}
+     * @return encoded frame
+     */
+    public byte[] encode(final Iterable<ValidationResult> results) {
+        final Map<String, Integer> strings = new HashMap<>();
+        final BinaryWriter table = new BinaryWriter(INITIAL_CAPACITY);
+        final BinaryWriter body = new BinaryWriter(INITIAL_CAPACITY);
+        int count = 0;
+        for (final ValidationResult result : results) {
+            body.writeVarInt(registry.idOf(result.getMessageCode()));
+            final ExceptionSeverityLevel severity = result.getSeverityLevel();
+            body.writeVarInt(severity == null ? 0 : intern(severity.name(), strings, table) + 1);
+            final String[] fields = result.getFields();
+            final int fieldCount = fields == null ? 0 : fields.length;
+            body.writeVarInt(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                body.writeVarInt(fields[i] == null ? 0 : intern(fields[i], strings, table) + 1);
+            }
+            final Object[] parameters = result.getMessageParameters();
+            final int parameterCount = parameters == null ? 0 : parameters.length;
+            body.writeVarInt(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                writeParameter(parameters[i], body);
+            }
+            count++;
+        }
+        final BinaryWriter frame = new BinaryWriter(table.size() + body.size() + 16);
+        frame.writeByte(BinaryFormat.MAGIC_1);
+        frame.writeByte(BinaryFormat.MAGIC_2);
+        frame.writeByte(BinaryFormat.VERSION);
+        frame.writeVarInt(strings.size());
+        table.writeTo(frame);
+        frame.writeVarInt(count);
+        body.writeTo(frame);
+        return frame.toByteArray();
+    }
+
+    /**
+     * Decode frame without copying it. Returned view reads from given buffer,
+     * so buffer content must not change while view is in use.
+     *
+     * @param buffer buffer positioned at the start of the frame
+     * @return lazily decoded validation results
+     */
+    public EncodedValidationResults decode(final ByteBuffer buffer) {
+        return new EncodedValidationResults(buffer.slice(), registry);
+    }
+
+    /**
+     * Decode frame from byte array.
+     *
+     * @param frame encoded frame
+     * @return lazily decoded validation results
+     */
+    public EncodedValidationResults decode(final byte[] frame) {
+        return decode(ByteBuffer.wrap(frame));
+    }
+
+    private static int intern(final String value, final Map<String, Integer> strings, final BinaryWriter table) {
+        final Integer index = strings.get(value);
+        if (index != null) {
+            return index;
+        }
+        final int newIndex = strings.size();
+        strings.put(value, newIndex);
+        table.writeString(value);
+        return newIndex;
+    }
+
+    private static void writeParameter(final Object value, final BinaryWriter out) {
+        if (value == null) {
+            out.writeByte(BinaryFormat.NULL);
+        } else if (value instanceof String) {
+            out.writeByte(BinaryFormat.STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(BinaryFormat.INT);
+            out.writeZigZag((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(BinaryFormat.LONG);
+            out.writeZigZag((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(BinaryFormat.DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.writeByte(BinaryFormat.FLOAT);
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BinaryFormat.BIG_DECIMAL);
+            out.writeString(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BinaryFormat.BIG_INTEGER);
+            out.writeString(value.toString());
+        } else if (value instanceof Short) {
+            out.writeByte(BinaryFormat.SHORT);
+            out.writeZigZag((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BinaryFormat.BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(BinaryFormat.CHARACTER);
+            out.writeVarInt((Character) value);
+        } else {
+            out.writeByte(BinaryFormat.STRING);
+            out.writeString(value.toString());
+        }
+    }
+}
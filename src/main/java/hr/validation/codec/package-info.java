@@ -0,0 +1,6 @@
+/**
+ * The package contains compact binary encoding of validation results.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.codec;
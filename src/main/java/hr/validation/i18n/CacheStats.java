@@ -0,0 +1,80 @@
+package hr.validation.i18n;
+
+/**
+ * Snapshot of message cache statistics.
+ *
+ * @author frano.pecek
+ */
+public final class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long uncacheable;
+	private final long evictions;
+	private final long size;
+
+	/**
+	 * Create new statistics snapshot.
+	 *
+	 * @param hits number of lookups answered from cache
+	 * @param misses number of lookups that rendered message
+	 * @param evictions number of evicted messages
+	 * @param size current number of cached messages
+	 */
+	public CacheStats(final long hits, final long misses, final long evictions, final long size) {
+		this(hits, misses, 0, evictions, size);
+	}
+
+	/**
+	 * Create new statistics snapshot of cache that does not cache some lookups.
+	 *
+	 * @param hits number of lookups answered from cache
+	 * @param misses number of cacheable lookups that rendered message
+	 * @param uncacheable number of lookups that can not be cached and always render message
+	 * @param evictions number of evicted messages
+	 * @param size current number of cached messages
+	 */
+	public CacheStats(final long hits, final long misses, final long uncacheable, final long evictions,
+					  final long size) {
+		this.hits = hits;
+		this.misses = misses;
+		this.uncacheable = uncacheable;
+		this.evictions = evictions;
+		this.size = size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getUncacheable() {
+		return uncacheable;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Ratio of cacheable lookups answered from cache, uncacheable lookups are not counted.
+	 *
+	 * @return hit rate between 0 and 1, or 1 if there was no lookup
+	 */
+	public double hitRate() {
+		final long total = hits + misses;
+		return total == 0 ? 1.0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hits=" + hits + ", misses=" + misses + ", uncacheable=" + uncacheable + ", evictions=" + evictions + ", size=" + size + "]";
+	}
+}
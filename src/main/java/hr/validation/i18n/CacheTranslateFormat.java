@@ -3,14 +3,15 @@ package hr.validation.i18n;
 /**
  * Class that translate and format message and then cache
  * returned value so there is no need to translate and
- * format again.
+ * format again. Value is cached for one translatable object,
+ * use {@link SharedMessageCache} to share messages between objects.
  *
  * @param <R> translated object return type
  * @author frano.pecek
  */
 public class CacheTranslateFormat<R> implements TranslateFormat<R> {
 
-	private R value;
+	private volatile R value;
 	private final TranslateFormat<R> translateFormat;
 
 	/**
@@ -23,11 +24,12 @@ public class CacheTranslateFormat<R> implements TranslateFormat<R> {
 
 	@Override
 	public R translateAndFormat(final Translatable t) {
-		if (value != null) {
-			return value;
+		R cached = value;
+		if (cached == null) {
+			cached = translateFormat.translateAndFormat(t);
+			value = cached;
 		}
-		value = translateFormat.translateAndFormat(t);
-		return value;
+		return cached;
 	}
 
 }
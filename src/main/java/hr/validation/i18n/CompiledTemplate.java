@@ -0,0 +1,152 @@
+package hr.validation.i18n;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Message template parsed once and formatted many times. Templates that use only
+ * {@code %s}, {@code %n$s}, {@code %%} and {@code %n} are formatted by simple string
+ * concatenation, all other templates are formatted with {@link String#format(String, Object...)}.
+ * Both ways give the same message.
+ *
+ * @author frano.pecek
+ */
+public final class CompiledTemplate {
+
+	private static final Pattern SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+	private final String template;
+	private final int parameterCount;
+	/**
+	 * Literal parts of simple template, null if template is not simple.
+	 */
+	private final String[] literals;
+	/**
+	 * Parameter index placed after literal with the same index.
+	 */
+	private final int[] indexes;
+
+	private CompiledTemplate(final String template, final int parameterCount, final String[] literals, final int[] indexes) {
+		this.template = template;
+		this.parameterCount = parameterCount;
+		this.literals = literals;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Parse message template.
+	 *
+	 * @param template message template in {@link java.util.Formatter} syntax
+	 * @return compiled template
+	 */
+	public static CompiledTemplate compile(final String template) {
+		final List<String> literals = new ArrayList<>();
+		final List<Integer> indexes = new ArrayList<>();
+		final StringBuilder literal = new StringBuilder();
+		final Matcher matcher = SPECIFIER.matcher(template);
+		boolean simple = true;
+		int ordinary = 0;
+		int maxExplicit = 0;
+		int last = 0;
+		while (matcher.find()) {
+			literal.append(template, last, matcher.start());
+			last = matcher.end();
+			final String explicit = matcher.group(1);
+			final String flags = matcher.group(2) == null ? "" : matcher.group(2);
+			final char conversion = matcher.group(6).charAt(0);
+			if (conversion == '%' || conversion == 'n') {
+				literal.append(conversion == '%' ? "%" : System.lineSeparator());
+				simple &= explicit == null && flags.isEmpty() && matcher.group(3) == null && matcher.group(4) == null;
+				continue;
+			}
+			final int index;
+			if (explicit != null) {
+				index = Integer.parseInt(explicit.substring(0, explicit.length() - 1)) - 1;
+				maxExplicit = Math.max(maxExplicit, index + 1);
+			} else if (flags.indexOf('<') >= 0) {
+				index = -1;
+			} else {
+				index = ordinary++;
+			}
+			if (conversion != 's' || !flags.isEmpty() || matcher.group(3) != null || matcher.group(4) != null
+					|| matcher.group(5) != null || index < 0) {
+				simple = false;
+			}
+			literals.add(literal.toString());
+			indexes.add(index);
+			literal.setLength(0);
+		}
+		if (template.indexOf('%', last) >= 0) {
+			simple = false;
+		}
+		literal.append(template, last, template.length());
+		literals.add(literal.toString());
+		final int parameterCount = Math.max(ordinary, maxExplicit);
+		if (!simple) {
+			return new CompiledTemplate(template, parameterCount, null, null);
+		}
+		final int[] indexArray = new int[indexes.size()];
+		for (int i = 0; i < indexArray.length; i++) {
+			indexArray[i] = indexes.get(i);
+		}
+		return new CompiledTemplate(template, parameterCount, literals.toArray(new String[0]), indexArray);
+	}
+
+	/**
+	 * Format message with given parameters.
+	 *
+	 * @param parameters message parameters
+	 * @return formatted message
+	 * @throws java.util.IllegalFormatException if template is invalid or parameters are missing
+	 */
+	public String format(final Object... parameters) {
+		if (literals == null || parameters == null || parameters.length < parameterCount || hasFormattable(parameters)) {
+			return String.format(template, parameters);
+		}
+		final StringBuilder message = new StringBuilder(template.length() + 16 * indexes.length);
+		for (int i = 0; i < indexes.length; i++) {
+			message.append(literals[i]).append(parameters[indexes[i]]);
+		}
+		return message.append(literals[indexes.length]).toString();
+	}
+
+	/**
+	 * Get template.
+	 *
+	 * @return template
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Get number of parameters template refers to.
+	 *
+	 * @return number of parameters
+	 */
+	public int getParameterCount() {
+		return parameterCount;
+	}
+
+	/**
+	 * Check whether template is formatted without {@link String#format(String, Object...)}.
+	 *
+	 * @return true if template uses only simple placeholders
+	 */
+	public boolean isSimple() {
+		return literals != null;
+	}
+
+	private static boolean hasFormattable(final Object[] parameters) {
+		for (final Object parameter : parameters) {
+			if (parameter instanceof Formattable) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
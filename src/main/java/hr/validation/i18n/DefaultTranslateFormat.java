@@ -4,6 +4,10 @@ import hr.exception.AppRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Default implementation of class that translate and format message.
  *
@@ -18,14 +22,21 @@ public class DefaultTranslateFormat implements TranslateFormat<String> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AppRuntimeException.class);
 
+    /**
+     * Maximum number of missing message codes remembered to log each of them only once.
+     */
+    private static final int MAX_REPORTED_CODES = 1024;
+
     private final Formatter<String, String> formatter;
     private final Translator<String> translator;
+    private final LongAdder missingTemplates = new LongAdder();
+    private final Set<Object> reportedCodes = ConcurrentHashMap.newKeySet();
 
     /**
      * Create default instance.
      */
     public DefaultTranslateFormat() {
-        formatter = new NoExceptionStringFormatter<>(String::format);
+        formatter = new NoExceptionStringFormatter<>(TemplateFormatter.INSTANCE);
         translator = new DefaultTranslator();
     }
 
@@ -55,9 +66,15 @@ public class DefaultTranslateFormat implements TranslateFormat<String> {
         }
 
         if (message == null) {
-            //JUST FOR STACKTRACE
-            final Exception e = new Exception(MessageCode.NO_CODE);
-            LOGGER.error("No code definition: ", e);
+            missingTemplates.increment();
+            final MessageCode code = translatable.getMessageCode();
+            if (reportedCodes.size() < MAX_REPORTED_CODES && reportedCodes.add(code == null ? MessageCode.NO_CODE : code)) {
+                LOGGER.warn("No code definition: {}", code == null || code.getKey() == null ? code
+                        : code.getClass().getName() + "." + code.getKey());
+                if (reportedCodes.size() == MAX_REPORTED_CODES) {
+                    LOGGER.warn("Logged {} missing code definitions, further ones are only counted", MAX_REPORTED_CODES);
+                }
+            }
             message = MessageCode.NO_CODE;
         }
 
@@ -65,4 +82,15 @@ public class DefaultTranslateFormat implements TranslateFormat<String> {
 
     }
 
+    /**
+     * Get number of messages that could not be translated because template is missing.
+     * Each missing message code is logged only once and at most 1024 codes are logged,
+     * run {@link TranslationAudit} to find all of them.
+     *
+     * @return number of missing templates
+     */
+    public long getMissingTemplateCount() {
+        return missingTemplates.sum();
+    }
+
 }
@@ -33,4 +33,14 @@ public interface MessageCode {
      */
     String getMessage();
 
+    /**
+     * Get number of parameters message is formatted with. It is used by
+     * {@link TranslationAudit} to check that every template uses all parameters.
+     *
+     * @return number of message parameters, or -1 if it is not declared
+     */
+    default int getParameterCount() {
+        return -1;
+    }
+
 }
@@ -0,0 +1,211 @@
+package hr.validation.i18n;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread safe cache of translated and formatted messages shared by all translatable objects.
+ * Messages are cached by message code, locale and message parameters, so the same message
+ * is rendered only once no matter how many validation results contain it. Messages with
+ * parameters that are not known to be immutable (strings, numbers, enums, dates...) are
+ * rendered on every call.
+ *
+ * <p>Cache is bounded, when it grows over maximum size, messages that were not used since
+ * the last eviction are removed.</p>
+ *
+ * @author frano.pecek
+ */
+public class SharedMessageCache implements TranslateFormat<String> {
+
+	/**
+	 * Default shared cache using {@link DefaultTranslateFormat}.
+	 */
+	public static final SharedMessageCache INSTANCE = new SharedMessageCache(DefaultTranslateFormat.INSTANCE, () -> null, 10_000);
+
+	private final ConcurrentMap<Key, Entry> messages = new ConcurrentHashMap<>();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder uncacheable = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final TranslateFormat<String> translateFormat;
+	private final Supplier<Locale> localeResolver;
+	private final int maxSize;
+
+	/**
+	 * Create new cache.
+	 *
+	 * @param translateFormat translator and formatter rendering messages
+	 * @param localeResolver resolver of the locale messages are currently translated to
+	 * @param maxSize maximum number of cached messages
+	 */
+	public SharedMessageCache(final TranslateFormat<String> translateFormat, final Supplier<Locale> localeResolver,
+							  final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Maximum cache size must be positive: " + maxSize);
+		}
+		this.translateFormat = translateFormat;
+		this.localeResolver = localeResolver;
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public String translateAndFormat(final Translatable translatable) {
+		final Object[] parameters = translatable.getMessageParameters();
+		if (translatable.getMessageCode() == null || !isImmutable(parameters)) {
+			uncacheable.increment();
+			return translateFormat.translateAndFormat(translatable);
+		}
+		final Key key = new Key(translatable.getMessageCode(), localeResolver.get(), parameters);
+		final Entry cached = messages.get(key);
+		if (cached != null) {
+			hits.increment();
+			cached.referenced = true;
+			return cached.message;
+		}
+		misses.increment();
+		final String message = translateFormat.translateAndFormat(translatable);
+		if (message != null) {
+			messages.putIfAbsent(key.copy(), new Entry(message));
+			if (messages.size() > maxSize) {
+				evict();
+			}
+		}
+		return message;
+	}
+
+	/**
+	 * Get cache statistics.
+	 *
+	 * @return statistics snapshot
+	 */
+	public CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), uncacheable.sum(), evictions.sum(), messages.size());
+	}
+
+	/**
+	 * Remove all cached messages, for example after translations are reloaded.
+	 */
+	public void clear() {
+		messages.clear();
+	}
+
+	/**
+	 * Remove messages that were not used since previous eviction until cache is
+	 * back to maximum size. Only one thread evicts at a time.
+	 */
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			while (messages.size() > maxSize) {
+				final Iterator<Map.Entry<Key, Entry>> it = messages.entrySet().iterator();
+				while (it.hasNext() && messages.size() > maxSize) {
+					final Entry entry = it.next().getValue();
+					if (entry.referenced) {
+						entry.referenced = false;
+					} else {
+						it.remove();
+						evictions.increment();
+					}
+				}
+			}
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	private static boolean isImmutable(final Object[] parameters) {
+		if (parameters == null) {
+			return true;
+		}
+		for (final Object parameter : parameters) {
+			if (parameter != null && !isImmutable(parameter)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isImmutable(final Object value) {
+		return value instanceof String || value instanceof Integer || value instanceof Long
+				|| value instanceof Boolean || value instanceof Enum || value instanceof Character
+				|| value instanceof Double || value instanceof Float || value instanceof Short
+				|| value instanceof Byte || value instanceof BigDecimal || value instanceof BigInteger
+				|| value instanceof UUID || value instanceof LocalDate || value instanceof LocalDateTime
+				|| value instanceof LocalTime || value instanceof Instant || value instanceof OffsetDateTime
+				|| value instanceof ZonedDateTime || value instanceof Duration || value instanceof Locale;
+	}
+
+	/**
+	 * Cached message with reference bit used by eviction.
+	 */
+	private static final class Entry {
+
+		private final String message;
+		private volatile boolean referenced;
+
+		Entry(final String message) {
+			this.message = message;
+		}
+	}
+
+	/**
+	 * Cache key made of message code, locale and message parameters.
+	 */
+	private static final class Key {
+
+		private final MessageCode code;
+		private final Locale locale;
+		private final Object[] parameters;
+		private final int hash;
+
+		Key(final MessageCode code, final Locale locale, final Object[] parameters) {
+			this.code = code;
+			this.locale = locale;
+			this.parameters = parameters;
+			this.hash = 31 * (31 * code.hashCode() + Objects.hashCode(locale)) + Arrays.hashCode(parameters);
+		}
+
+		/**
+		 * Copy key with parameters that can not be changed by translatable object.
+		 */
+		Key copy() {
+			return new Key(code, locale, parameters == null ? null : parameters.clone());
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) o;
+			return hash == other.hash && code.equals(other.code) && Objects.equals(locale, other.locale)
+					&& Arrays.equals(parameters, other.parameters);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
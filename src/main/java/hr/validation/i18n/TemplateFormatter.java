@@ -0,0 +1,54 @@
+package hr.validation.i18n;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * String formatter that compiles every template once and keeps compiled
+ * templates for later use. Templates can be compiled in advance, for example by
+ * {@link TranslationAudit} on application startup.
+ *
+ * @author frano.pecek
+ */
+public class TemplateFormatter implements Formatter<String, String> {
+
+	/**
+	 * Default shared instance.
+	 */
+	public static final TemplateFormatter INSTANCE = new TemplateFormatter(10_000);
+
+	private final ConcurrentMap<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+	private final int maxSize;
+
+	/**
+	 * Create new instance.
+	 *
+	 * @param maxSize maximum number of kept compiled templates, other templates are compiled on every use
+	 */
+	public TemplateFormatter(final int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public String format(final String input, final Object... objects) {
+		return compile(input).format(objects);
+	}
+
+	/**
+	 * Get compiled template, compiling it if it is not yet compiled.
+	 *
+	 * @param template message template
+	 * @return compiled template
+	 */
+	public CompiledTemplate compile(final String template) {
+		CompiledTemplate compiled = templates.get(template);
+		if (compiled == null) {
+			compiled = CompiledTemplate.compile(template);
+			if (templates.size() < maxSize) {
+				templates.putIfAbsent(template, compiled);
+			}
+		}
+		return compiled;
+	}
+
+}
@@ -0,0 +1,177 @@
+package hr.validation.i18n;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Audit of message translations meant to run on application startup. It checks that
+ * every message code has a template in every locale, that templates are valid and that
+ * they use as many parameters as message code declares with {@link MessageCode#getParameterCount()}.
+ * All audited templates are compiled in advance with {@link TemplateFormatter}.
+ *
+ * <pre>
+ * new TranslationAudit(translator, TemplateFormatter.INSTANCE)
+ *         .verify(TranslationAudit.codesOf(OrderMessageCode.class), Arrays.asList(Locale.ENGLISH, Locale.GERMAN));
+ * </pre>
+ *
+ * @author frano.pecek
+ */
+public class TranslationAudit {
+
+	private final Translator<String> translator;
+	private final TemplateFormatter formatter;
+
+	/**
+	 * Create audit of {@link DefaultTranslator} messages.
+	 */
+	public TranslationAudit() {
+		this(new DefaultTranslator(), TemplateFormatter.INSTANCE);
+	}
+
+	/**
+	 * Create new audit.
+	 *
+	 * @param translator translator of audited messages
+	 * @param formatter formatter that keeps compiled templates
+	 */
+	public TranslationAudit(final Translator<String> translator, final TemplateFormatter formatter) {
+		this.translator = translator;
+		this.formatter = formatter;
+	}
+
+	/**
+	 * Get all message codes of enum.
+	 *
+	 * @param codes enum class
+	 * @param <E> enum type
+	 * @return message codes
+	 */
+	public static <E extends Enum<E> & MessageCode> List<MessageCode> codesOf(final Class<E> codes) {
+		return Collections.unmodifiableList(Arrays.asList(codes.getEnumConstants()));
+	}
+
+	/**
+	 * Audit message codes in given locales.
+	 *
+	 * @param codes audited message codes
+	 * @param locales audited locales, if empty codes are translated with null locale
+	 * @return found issues, empty if all translations are correct
+	 */
+	public List<Issue> audit(final Collection<? extends MessageCode> codes, final Collection<Locale> locales) {
+		final Collection<Locale> auditedLocales = locales.isEmpty() ? Collections.singletonList(null) : locales;
+		final List<Issue> issues = new ArrayList<>();
+		for (final MessageCode code : codes) {
+			for (final Locale locale : auditedLocales) {
+				final Issue issue = audit(code, locale);
+				if (issue != null) {
+					issues.add(issue);
+				}
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Audit message codes in given locales and fail if any issue is found.
+	 *
+	 * @param codes audited message codes
+	 * @param locales audited locales, if empty codes are translated with null locale
+	 * @throws IllegalStateException if any translation is not correct
+	 */
+	public void verify(final Collection<? extends MessageCode> codes, final Collection<Locale> locales) {
+		final List<Issue> issues = audit(codes, locales);
+		if (!issues.isEmpty()) {
+			final StringBuilder message = new StringBuilder("Translation audit found ")
+					.append(issues.size()).append(" issue(s):");
+			for (final Issue issue : issues) {
+				message.append(System.lineSeparator()).append(issue);
+			}
+			throw new IllegalStateException(message.toString());
+		}
+	}
+
+	private Issue audit(final MessageCode code, final Locale locale) {
+		final String template = translator.translate(code, locale);
+		if (template == null) {
+			return new Issue(code, locale, IssueType.MISSING_TEMPLATE, "template is not defined");
+		}
+		final CompiledTemplate compiled = formatter.compile(template);
+		try {
+			String.format(template, new Object[compiled.getParameterCount()]);
+		} catch (IllegalFormatException e) {
+			return new Issue(code, locale, IssueType.INVALID_TEMPLATE, e.toString());
+		}
+		final int declared = code.getParameterCount();
+		if (declared >= 0 && declared != compiled.getParameterCount()) {
+			return new Issue(code, locale, IssueType.PARAMETER_COUNT_MISMATCH, "template uses "
+					+ compiled.getParameterCount() + " parameter(s), message code declares " + declared);
+		}
+		return null;
+	}
+
+	/**
+	 * Type of translation issue.
+	 */
+	public enum IssueType {
+
+		/**
+		 * Translator returned no template.
+		 */
+		MISSING_TEMPLATE,
+
+		/**
+		 * Template can not be formatted.
+		 */
+		INVALID_TEMPLATE,
+
+		/**
+		 * Template uses different number of parameters than message code declares.
+		 */
+		PARAMETER_COUNT_MISMATCH
+	}
+
+	/**
+	 * Translation issue of one message code in one locale.
+	 */
+	public static final class Issue {
+
+		private final MessageCode code;
+		private final Locale locale;
+		private final IssueType type;
+		private final String description;
+
+		Issue(final MessageCode code, final Locale locale, final IssueType type, final String description) {
+			this.code = code;
+			this.locale = locale;
+			this.type = type;
+			this.description = description;
+		}
+
+		public MessageCode getCode() {
+			return code;
+		}
+
+		public Locale getLocale() {
+			return locale;
+		}
+
+		public IssueType getType() {
+			return type;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		@Override
+		public String toString() {
+			return type + " " + (code.getKey() != null ? code.getKey() : code) + " [" + locale + "]: " + description;
+		}
+	}
+
+}
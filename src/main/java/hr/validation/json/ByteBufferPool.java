@@ -0,0 +1,60 @@
+package hr.validation.json;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small bounded pool of fixed size byte arrays used as write buffers.
+ * Buffers are returned to the pool after every write so large error
+ * responses do not allocate a new buffer for each request.
+ *
+ * @author frano.pecek
+ */
+final class ByteBufferPool {
+
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxPooled;
+
+    /**
+     * Create new pool.
+     *
+     * @param bufferSize size of every buffer in bytes
+     * @param maxPooled maximum number of idle buffers kept in the pool
+     */
+    ByteBufferPool(final int bufferSize, final int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Take buffer from the pool or allocate new one if pool is empty.
+     *
+     * @return buffer
+     */
+    byte[] acquire() {
+        final byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[bufferSize];
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Return buffer to the pool. Buffer is dropped if pool is full.
+     *
+     * @param buffer buffer taken with {@link #acquire()}
+     */
+    void release(final byte[] buffer) {
+        if (buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
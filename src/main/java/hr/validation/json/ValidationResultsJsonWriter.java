@@ -0,0 +1,381 @@
+package hr.validation.json;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.i18n.MessageCode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Streaming, dependency free JSON encoder for {@link ValidationResults}.
+ * Results are written directly to the target without building intermediate
+ * DTOs. Output is an array of objects in iteration order:
+ *
+ * <pre>
+ * [{"code":"NOT_NULL","key":"NOT_NULL","message":"...","fields":["name"],"severity":"ERROR","parameters":[1,"x"]}]
+ * </pre>
+ *
+ * Code is string value of the message code and key is {@link MessageCode#getKey()}, null for
+ * message codes that are not enums. Property names, message codes and severity levels are
+ * encoded to UTF-8 only once.
+ *
+ * <p>The same results always produce the same bytes, so encoded output can be cached. Numbers and
+ * booleans are written as JSON values, enums as their names, arrays and lists as JSON arrays,
+ * and other parameters as strings returned by their {@code toString()}. Parameters of classes that
+ * do not override {@code toString()} are written as their class name, because default
+ * {@code toString()} contains identity hash code that changes between runs.</p>
+ *
+ * @author frano.pecek
+ */
+public final class ValidationResultsJsonWriter {
+
+    /**
+     * Create default instance.
+     */
+    public static final ValidationResultsJsonWriter INSTANCE = new ValidationResultsJsonWriter();
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    private static final int MAX_CACHED_CODES = 4096;
+    private static final int MAX_PARAMETER_DEPTH = 8;
+
+    private static final byte[] CODE = ascii("{\"code\":");
+    private static final byte[] KEY = ascii(",\"key\":");
+    private static final byte[] MESSAGE = ascii(",\"message\":");
+    private static final byte[] FIELDS = ascii(",\"fields\":[");
+    private static final byte[] SEVERITY = ascii("],\"severity\":");
+    private static final byte[] PARAMETERS = ascii(",\"parameters\":[");
+    private static final byte[] END_RESULT = ascii("]}");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] NULL_CODE = ascii("null,\"key\":null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final ClassValue<Boolean> OVERRIDES_TO_STRING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("toString").getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final ByteBufferPool bufferPool = new ByteBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final ConcurrentMap<MessageCode, byte[]> encodedCodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ExceptionSeverityLevel, byte[]> encodedSeverities = new ConcurrentHashMap<>();
+
+    /**
+     * Write validation results to given output stream. Stream is not closed.
+     *
+     * @param results validation results to write
+     * @param out target output stream
+     * @throws IOException if writing to the stream fails
+     */
+    public void write(final ValidationResults results, final OutputStream out) throws IOException {
+        write(results, out::write);
+    }
+
+    /**
+     * Write validation results to given channel. Channel is not closed.
+     *
+     * @param results validation results to write
+     * @param channel target channel
+     * @throws IOException if writing to the channel fails
+     */
+    public void write(final ValidationResults results, final WritableByteChannel channel) throws IOException {
+        write(results, (buffer, offset, length) -> {
+            final ByteBuffer bb = ByteBuffer.wrap(buffer, offset, length);
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+        });
+    }
+
+    /**
+     * Encode validation results to byte array.
+     *
+     * @param results validation results to encode
+     * @return UTF-8 encoded JSON
+     */
+    public byte[] toBytes(final ValidationResults results) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(results, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(final ValidationResults results, final ByteTarget target) throws IOException {
+        final Sink sink = new Sink(bufferPool.acquire(), target);
+        try {
+            sink.write('[');
+            boolean first = true;
+            for (final ValidationResult result : results) {
+                if (!first) {
+                    sink.write(',');
+                }
+                first = false;
+                writeResult(result, sink);
+            }
+            sink.write(']');
+            sink.flush();
+        } finally {
+            bufferPool.release(sink.buffer);
+        }
+    }
+
+    private void writeResult(final ValidationResult result, final Sink sink) throws IOException {
+        sink.write(CODE);
+        sink.write(encodedCode(result.getMessageCode()));
+        sink.write(MESSAGE);
+        writeString(result.getMessage(), sink);
+        sink.write(FIELDS);
+        final String[] fields = result.getFields();
+        if (fields != null) {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    sink.write(',');
+                }
+                writeString(fields[i], sink);
+            }
+        }
+        sink.write(SEVERITY);
+        final ExceptionSeverityLevel severity = result.getSeverityLevel();
+        sink.write(severity == null ? NULL : encodedSeverities.computeIfAbsent(severity, s -> quoted(s.name())));
+        sink.write(PARAMETERS);
+        final Object[] parameters = result.getMessageParameters();
+        if (parameters != null) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (i > 0) {
+                    sink.write(',');
+                }
+                writeValue(parameters[i], sink, 0);
+            }
+        }
+        sink.write(END_RESULT);
+    }
+
+    private byte[] encodedCode(final MessageCode code) {
+        if (code == null) {
+            return NULL_CODE;
+        }
+        final byte[] cached = encodedCodes.get(code);
+        if (cached != null) {
+            return cached;
+        }
+        final byte[] value = quoted(String.valueOf(code));
+        final String key = code.getKey();
+        final byte[] encodedKey = key == null ? NULL : quoted(key);
+        final byte[] encoded = new byte[value.length + KEY.length + encodedKey.length];
+        System.arraycopy(value, 0, encoded, 0, value.length);
+        System.arraycopy(KEY, 0, encoded, value.length, KEY.length);
+        System.arraycopy(encodedKey, 0, encoded, value.length + KEY.length, encodedKey.length);
+        // only enum codes are cached, ad-hoc code instances would grow the cache without bound
+        if (code instanceof Enum && encodedCodes.size() < MAX_CACHED_CODES) {
+            encodedCodes.putIfAbsent(code, encoded);
+        }
+        return encoded;
+    }
+
+    private static void writeValue(final Object value, final Sink sink, final int depth) throws IOException {
+        if (value == null) {
+            sink.write(NULL);
+        } else if (value instanceof Boolean) {
+            sink.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            sink.writeAscii(value.toString());
+        } else if (value instanceof BigDecimal) {
+            sink.writeAscii(((BigDecimal) value).toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            final double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                writeString(value.toString(), sink);
+            } else {
+                sink.writeAscii(value.toString());
+            }
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            writeString(value.toString(), sink);
+        } else if (value instanceof Enum) {
+            writeString(((Enum<?>) value).name(), sink);
+        } else if (depth < MAX_PARAMETER_DEPTH && value.getClass().isArray()) {
+            sink.write('[');
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    sink.write(',');
+                }
+                writeValue(Array.get(value, i), sink, depth + 1);
+            }
+            sink.write(']');
+        } else if (depth < MAX_PARAMETER_DEPTH && value instanceof List) {
+            sink.write('[');
+            boolean first = true;
+            for (final Object element : (List<?>) value) {
+                if (!first) {
+                    sink.write(',');
+                }
+                first = false;
+                writeValue(element, sink, depth + 1);
+            }
+            sink.write(']');
+        } else if (OVERRIDES_TO_STRING.get(value.getClass())) {
+            writeString(value.toString(), sink);
+        } else {
+            writeString(value.getClass().getName(), sink);
+        }
+    }
+
+    private static void writeString(final String value, final Sink sink) throws IOException {
+        if (value == null) {
+            sink.write(NULL);
+            return;
+        }
+        sink.write('"');
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sink.write('\\');
+                sink.write(c);
+            } else if (c < 0x20) {
+                writeControl(c, sink);
+            } else if (c < 0x80) {
+                sink.write(c);
+            } else if (c < 0x800) {
+                sink.write(0xC0 | (c >> 6));
+                sink.write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, value.charAt(++i));
+                sink.write(0xF0 | (cp >> 18));
+                sink.write(0x80 | ((cp >> 12) & 0x3F));
+                sink.write(0x80 | ((cp >> 6) & 0x3F));
+                sink.write(0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // lone surrogate can not be encoded as UTF-8
+                sink.write('?');
+            } else {
+                sink.write(0xE0 | (c >> 12));
+                sink.write(0x80 | ((c >> 6) & 0x3F));
+                sink.write(0x80 | (c & 0x3F));
+            }
+        }
+        sink.write('"');
+    }
+
+    private static void writeControl(final char c, final Sink sink) throws IOException {
+        sink.write('\\');
+        switch (c) {
+            case '\n':
+                sink.write('n');
+                break;
+            case '\r':
+                sink.write('r');
+                break;
+            case '\t':
+                sink.write('t');
+                break;
+            case '\b':
+                sink.write('b');
+                break;
+            case '\f':
+                sink.write('f');
+                break;
+            default:
+                sink.write('u');
+                sink.write('0');
+                sink.write('0');
+                sink.write(HEX[c >> 4]);
+                sink.write(HEX[c & 0xF]);
+        }
+    }
+
+    private static byte[] quoted(final String value) {
+        final Sink sink = new Sink(new byte[value.length() * 6 + 2], null);
+        try {
+            writeString(value, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] encoded = new byte[sink.position];
+        System.arraycopy(sink.buffer, 0, encoded, 0, sink.position);
+        return encoded;
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Destination of encoded bytes.
+     */
+    @FunctionalInterface
+    private interface ByteTarget {
+        void write(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    /**
+     * Buffered byte sink flushing to {@link ByteTarget} when buffer is full.
+     */
+    private static final class Sink {
+
+        private final byte[] buffer;
+        private final ByteTarget target;
+        private int position;
+
+        Sink(final byte[] buffer, final ByteTarget target) {
+            this.buffer = buffer;
+            this.target = target;
+        }
+
+        void write(final int b) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        void write(final byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    target.write(bytes, 0, bytes.length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeAscii(final String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                write(value.charAt(i));
+            }
+        }
+
+        void flush() throws IOException {
+            if (position > 0) {
+                target.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
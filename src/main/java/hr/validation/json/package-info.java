@@ -0,0 +1,6 @@
+/**
+ * The package contains streaming JSON encoding of validation results.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.json;
@@ -0,0 +1,57 @@
+package hr.validation.reactive;
+
+import hr.validation.ValidationResults;
+
+/**
+ * Validated item together with its validation results.
+ *
+ * @param <T> validated item type
+ * @author frano.pecek
+ */
+public final class Validated<T> {
+
+    private final T item;
+    private final ValidationResults validationResults;
+
+    /**
+     * Create new validated item.
+     *
+     * @param item validated item
+     * @param validationResults validation results of the item
+     */
+    public Validated(final T item, final ValidationResults validationResults) {
+        this.item = item;
+        this.validationResults = validationResults;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public ValidationResults getValidationResults() {
+        return validationResults;
+    }
+
+    /**
+     * Check if item is valid.
+     *
+     * @return true if there is no error
+     */
+    public boolean isValid() {
+        return validationResults.isValid();
+    }
+
+    /**
+     * Check if item is invalid.
+     *
+     * @return true if there is error
+     */
+    public boolean isInvalid() {
+        return !isValid();
+    }
+
+    @Override
+    public String toString() {
+        return "Validated [item=" + item + ", validationResults=" + validationResults + "]";
+    }
+}
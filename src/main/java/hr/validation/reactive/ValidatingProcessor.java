@@ -0,0 +1,366 @@
+package hr.validation.reactive;
+
+import hr.validation.ExecutionSnapshot;
+import hr.validation.Validator;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Processor} that validates every received item with given {@link Validator}
+ * and publishes it as {@link Validated} item. At most {@code bufferSize} items are requested
+ * from upstream before they are delivered downstream, so memory stays constant regardless
+ * of stream length and slow subscriber slows down the publisher.
+ *
+ * <p>In parallel mode items are validated on given executor, but they are still published
+ * in the order they were received. Invalid items can be routed to separate subscriber
+ * with {@link #routeInvalidTo(Flow.Subscriber)}, otherwise all items are published to the
+ * main subscriber. Processor accepts one upstream and one downstream subscriber.</p>
+ *
+ * <p>Items for the main and invalid subscriber are buffered separately and each subscriber
+ * receives its items in the order they were received, so invalid subscriber without demand
+ * does not hold back valid items. Buffered items of both subscribers count against
+ * {@code bufferSize}, so when it is filled with items waiting for one subscriber, upstream
+ * waits for demand of that subscriber.</p>
+ *
+ * @param <T> validated item type
+ * @author frano.pecek
+ */
+public final class ValidatingProcessor<T> implements Flow.Processor<T, Validated<T>> {
+
+    private final Validator<T> validator;
+    private final Executor executor;
+    private final int bufferSize;
+    private final Flow.Subscriber<? super Validated<T>> invalidSubscriber;
+
+    private final Queue<CompletableFuture<Validated<T>>> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Validated<T>> valid = new ArrayDeque<>();
+    private final Queue<Validated<T>> invalid = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong invalidRequested = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscriber<? super Validated<T>> downstream;
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile boolean cancelled;
+    private volatile boolean invalidCancelled;
+    private volatile Throwable requestError;
+    private boolean terminated;
+    private boolean validDone;
+    private boolean invalidDone;
+
+    private ValidatingProcessor(final Validator<T> validator, final Executor executor, final int bufferSize,
+                                final Flow.Subscriber<? super Validated<T>> invalidSubscriber) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.validator = Objects.requireNonNull(validator);
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.invalidSubscriber = invalidSubscriber;
+    }
+
+    /**
+     * Create processor validating items in the thread that delivers them.
+     *
+     * @param validator item validator
+     * @param bufferSize maximum number of items requested but not yet published
+     * @param <T> validated item type
+     * @return new processor
+     */
+    public static <T> ValidatingProcessor<T> of(final Validator<T> validator, final int bufferSize) {
+        return new ValidatingProcessor<>(validator, null, bufferSize, null);
+    }
+
+    /**
+     * Create processor validating up to {@code parallelism} items at the same time on
+     * given executor. Items are published in the order they were received.
+     *
+     * @param validator item validator
+     * @param executor executor running validations
+     * @param parallelism maximum number of items validated or waiting to be published
+     * @param <T> validated item type
+     * @return new processor
+     */
+    public static <T> ValidatingProcessor<T> parallel(final Validator<T> validator, final Executor executor,
+                                                      final int parallelism) {
+        return new ValidatingProcessor<>(validator, Objects.requireNonNull(executor), parallelism, null);
+    }
+
+    /**
+     * Create processor with same configuration that publishes invalid items to given subscriber
+     * instead of the main subscriber. Must be called before processor is subscribed to publisher.
+     *
+     * @param subscriber subscriber of invalid items
+     * @return new processor
+     */
+    public ValidatingProcessor<T> routeInvalidTo(final Flow.Subscriber<? super Validated<T>> subscriber) {
+        return new ValidatingProcessor<>(validator, executor, bufferSize, Objects.requireNonNull(subscriber));
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Validated<T>> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new DemandSubscription(new AtomicLong(), () -> { }));
+            subscriber.onError(new IllegalStateException("ValidatingProcessor allows only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new DemandSubscription(requested, this::cancel));
+        downstream = subscriber;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (invalidSubscriber != null) {
+            invalidSubscriber.onSubscribe(new DemandSubscription(invalidRequested, () -> {
+                invalidCancelled = true;
+                drain();
+            }));
+        }
+        subscription.request(bufferSize);
+    }
+
+    @Override
+    public void onNext(final T item) {
+        Objects.requireNonNull(item);
+        if (cancelled) {
+            return;
+        }
+        final CompletableFuture<Validated<T>> future;
+        if (executor == null) {
+            future = new CompletableFuture<>();
+            try {
+                future.complete(new Validated<>(item, validator.validate(item)));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        } else {
+            future = CompletableFuture.supplyAsync(ExecutionSnapshot.capture()
+                    .wrap(() -> new Validated<>(item, validator.validate(item))), executor);
+        }
+        pending.offer(future);
+        future.whenComplete((validated, e) -> drain());
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        upstreamError = Objects.requireNonNull(throwable);
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            final Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Route validated items from the head of the queue to the queue of their subscriber and
+     * publish them while there is demand for them. Only one thread drains at a time, other
+     * threads just mark that drain should repeat.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drainLoop();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainLoop() {
+        while (!terminated) {
+            final Throwable error = requestError;
+            if (error != null) {
+                requestError = null;
+                fail(error);
+                continue;
+            }
+            if (cancelled) {
+                terminated = true;
+                clear();
+                return;
+            }
+            if (!route()) {
+                continue;
+            }
+            long released = emit(downstream, requested, valid);
+            if (invalidCancelled) {
+                released += invalid.size();
+                invalid.clear();
+            } else {
+                released += emit(invalidSubscriber, invalidRequested, invalid);
+            }
+            if (released > 0 && !upstreamDone) {
+                upstream.request(released);
+            }
+            complete();
+            if (released == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move validated items from the head of the queue to the queue of their subscriber.
+     *
+     * @return false if validation failed
+     */
+    private boolean route() {
+        CompletableFuture<Validated<T>> head;
+        while ((head = pending.peek()) != null && head.isDone()) {
+            final Validated<T> validated;
+            try {
+                validated = head.join();
+            } catch (CompletionException e) {
+                fail(e.getCause() != null ? e.getCause() : e);
+                return false;
+            }
+            pending.poll();
+            if (validated.isInvalid() && invalidSubscriber != null) {
+                invalid.offer(validated);
+            } else {
+                valid.offer(validated);
+            }
+        }
+        return true;
+    }
+
+    private long emit(final Flow.Subscriber<? super Validated<T>> subscriber, final AtomicLong demand,
+                      final Queue<Validated<T>> queue) {
+        if (subscriber == null) {
+            return 0;
+        }
+        long emitted = 0;
+        while (!queue.isEmpty() && demand.get() > 0 && !cancelled) {
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            subscriber.onNext(queue.poll());
+            emitted++;
+        }
+        return emitted;
+    }
+
+    /**
+     * Signal completion or upstream error to subscribers which received all their items.
+     */
+    private void complete() {
+        if (!upstreamDone || !pending.isEmpty()) {
+            return;
+        }
+        final Throwable error = upstreamError;
+        if (invalidSubscriber != null && !invalidDone && (invalid.isEmpty() || invalidCancelled)) {
+            invalidDone = true;
+            if (!invalidCancelled) {
+                signal(invalidSubscriber, error);
+            }
+        }
+        final Flow.Subscriber<? super Validated<T>> subscriber = downstream;
+        if (subscriber != null && !validDone && valid.isEmpty()) {
+            validDone = true;
+            signal(subscriber, error);
+        }
+        terminated = validDone && (invalidSubscriber == null || invalidDone);
+    }
+
+    private void signal(final Flow.Subscriber<? super Validated<T>> subscriber, final Throwable error) {
+        if (error == null) {
+            subscriber.onComplete();
+        } else {
+            subscriber.onError(error);
+        }
+    }
+
+    private void fail(final Throwable throwable) {
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        clear();
+        if (!upstreamDone || upstreamError == null) {
+            upstreamError = throwable;
+        }
+        upstreamDone = true;
+        complete();
+    }
+
+    private void clear() {
+        pending.clear();
+        valid.clear();
+        invalid.clear();
+    }
+
+    /**
+     * Subscription recording demand of one subscriber.
+     */
+    private final class DemandSubscription implements Flow.Subscription {
+
+        private final AtomicLong demand;
+        private final Runnable onCancel;
+
+        DemandSubscription(final AtomicLong demand, final Runnable onCancel) {
+            this.demand = demand;
+            this.onCancel = onCancel;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Requested number of items must be positive: " + n);
+                drain();
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = demand.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!demand.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            onCancel.run();
+        }
+    }
+}
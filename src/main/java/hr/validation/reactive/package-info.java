@@ -0,0 +1,6 @@
+/**
+ * The package contains adapters for validating reactive streams.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.reactive;
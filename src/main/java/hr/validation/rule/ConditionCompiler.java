@@ -0,0 +1,221 @@
+package hr.validation.rule;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Member;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Compiler of rule conditions to method handles of type {@code (Object)boolean}. Field paths
+ * are resolved against static types once, getters are called through method handles of
+ * {@link RuleAccessors}, and comparisons of primitive numeric getters with number literals run
+ * without boxing. Conditions are combined with method handle combinators, so a condition kept
+ * in a constant by {@link RuleClassGenerator} is inlined by the JIT compiler as a whole, with
+ * its operators and literals folded. Every condition has the same result as {@link RuleInterpreter}.
+ *
+ * @author frano.pecek
+ */
+final class ConditionCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONDITION = MethodType.methodType(boolean.class, Object.class);
+    private static final MethodType VALUE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodHandle IS_NULL = find(ConditionCompiler.class, "isNull", boolean.class, Object.class);
+    private static final MethodHandle NOT = find(ConditionCompiler.class, "not", boolean.class, boolean.class);
+    private static final MethodHandle IS_TRUE = find(RuleValues.class, "isTrue", boolean.class, Object.class);
+    private static final MethodHandle MATCHES = find(RuleValues.class, "matches", boolean.class, Pattern.class, Object.class);
+    private static final MethodHandle TEST = find(RuleValues.class, "test", boolean.class,
+            RuleExpression.Operator.class, Object.class, Object.class);
+    private static final MethodHandle TEST_LONG = find(RuleValues.class, "test", boolean.class,
+            RuleExpression.Operator.class, long.class, long.class);
+    private static final MethodHandle TEST_DOUBLE = find(RuleValues.class, "test", boolean.class,
+            RuleExpression.Operator.class, double.class, double.class);
+    private static final MethodHandle TRUE = constant(true);
+    private static final MethodHandle FALSE = constant(false);
+    private static final MethodHandle NULL = MethodHandles.dropArguments(
+            MethodHandles.constant(Object.class, null), 0, Object.class);
+
+    private final Class<?> type;
+    private final Map<String, MethodHandle> paths = new HashMap<>();
+
+    /**
+     * Create compiler of conditions of given validated type.
+     *
+     * @param type type of validated data
+     */
+    ConditionCompiler(final Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Compile condition.
+     *
+     * @param expression parsed condition
+     * @return method handle of type {@code (Object)boolean} testing validated data
+     */
+    MethodHandle compile(final RuleExpression expression) {
+        if (expression instanceof RuleExpression.And) {
+            final RuleExpression.And and = (RuleExpression.And) expression;
+            return MethodHandles.guardWithTest(compile(and.getLeft()), compile(and.getRight()), FALSE);
+        }
+        if (expression instanceof RuleExpression.Or) {
+            final RuleExpression.Or or = (RuleExpression.Or) expression;
+            return MethodHandles.guardWithTest(compile(or.getLeft()), TRUE, compile(or.getRight()));
+        }
+        if (expression instanceof RuleExpression.Not) {
+            return MethodHandles.filterReturnValue(compile(((RuleExpression.Not) expression).getExpression()), NOT);
+        }
+        if (expression instanceof RuleExpression.Compare) {
+            final RuleExpression.Compare compare = (RuleExpression.Compare) expression;
+            return compare(compare.getOperator(), compare.getLeft(), compare.getRight());
+        }
+        if (expression instanceof RuleExpression.Between) {
+            final RuleExpression.Between between = (RuleExpression.Between) expression;
+            return MethodHandles.guardWithTest(compare(RuleExpression.Operator.GE, between.getOperand(), between.getLow()),
+                    compare(RuleExpression.Operator.LE, between.getOperand(), between.getHigh()), FALSE);
+        }
+        if (expression instanceof RuleExpression.Matches) {
+            final RuleExpression.Matches matches = (RuleExpression.Matches) expression;
+            return MethodHandles.filterArguments(MATCHES.bindTo(matches.getPattern()), 0, value(matches.getOperand()));
+        }
+        if (expression instanceof RuleExpression.In) {
+            final RuleExpression.In in = (RuleExpression.In) expression;
+            final List<RuleExpression.Operand> values = in.getValues();
+            MethodHandle condition = FALSE;
+            for (int i = values.size() - 1; i >= 0; i--) {
+                condition = MethodHandles.guardWithTest(compare(RuleExpression.Operator.EQ, in.getOperand(), values.get(i)),
+                        TRUE, condition);
+            }
+            return condition;
+        }
+        return MethodHandles.filterReturnValue(value(((RuleExpression.Truth) expression).getOperand()), IS_TRUE);
+    }
+
+    /**
+     * Compile accessor of operand value.
+     *
+     * @param operand field path or literal
+     * @return function returning operand value for validated data
+     */
+    Function<Object, Object> operand(final RuleExpression.Operand operand) {
+        final MethodHandle value = value(operand);
+        return data -> {
+            try {
+                return (Object) value.invokeExact(data);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private MethodHandle value(final RuleExpression.Operand operand) {
+        if (operand instanceof RuleExpression.Literal) {
+            return MethodHandles.dropArguments(
+                    MethodHandles.constant(Object.class, ((RuleExpression.Literal) operand).getValue()), 0, Object.class);
+        }
+        final RuleExpression.Path path = (RuleExpression.Path) operand;
+        return paths.computeIfAbsent(path.toString(), key -> path(path.getNames()));
+    }
+
+    private MethodHandle compare(final RuleExpression.Operator operator, final RuleExpression.Operand left,
+                                 final RuleExpression.Operand right) {
+        if (left instanceof RuleExpression.Path && right instanceof RuleExpression.Literal
+                && ((RuleExpression.Literal) right).getValue() instanceof Number) {
+            final List<String> names = ((RuleExpression.Path) left).getNames();
+            final Number literal = (Number) ((RuleExpression.Literal) right).getValue();
+            final Member member = RuleAccessors.require(names.size() == 1 ? type : typeOf(names), last(names));
+            final Class<?> valueType = RuleAccessors.typeOf(member);
+            MethodHandle condition = null;
+            if (isIntegral(valueType) && RuleValues.isIntegral(literal)) {
+                condition = primitiveCompare(TEST_LONG, long.class, member, operator, literal.longValue());
+            } else if (valueType.isPrimitive() && valueType != boolean.class && valueType != char.class
+                    && !RuleValues.isIntegral(literal)) {
+                condition = primitiveCompare(TEST_DOUBLE, double.class, member, operator, literal.doubleValue());
+            }
+            if (condition != null) {
+                return names.size() == 1 ? condition
+                        : MethodHandles.filterArguments(condition, 0, path(names.subList(0, names.size() - 1)));
+            }
+        }
+        final MethodHandle test = MethodHandles.insertArguments(TEST, 0, operator);
+        if (right instanceof RuleExpression.Literal) {
+            return MethodHandles.filterArguments(
+                    MethodHandles.insertArguments(test, 1, ((RuleExpression.Literal) right).getValue()), 0, value(left));
+        }
+        return MethodHandles.permuteArguments(MethodHandles.filterArguments(test, 0, value(left), value(right)),
+                CONDITION, 0, 0);
+    }
+
+    /**
+     * Compare primitive getter with literal without boxing, owner of the getter is null only for
+     * inequality.
+     */
+    private static MethodHandle primitiveCompare(final MethodHandle test, final Class<?> valueType, final Member member,
+                                                 final RuleExpression.Operator operator, final Object literal) {
+        final MethodHandle getter = RuleAccessors.handle(member).asType(MethodType.methodType(valueType, Object.class));
+        final MethodHandle condition = MethodHandles.filterArguments(
+                MethodHandles.insertArguments(MethodHandles.insertArguments(test, 0, operator), 1, literal), 0, getter);
+        return MethodHandles.guardWithTest(IS_NULL, operator == RuleExpression.Operator.NE ? TRUE : FALSE, condition);
+    }
+
+    private MethodHandle path(final List<String> names) {
+        Class<?> owner = type;
+        MethodHandle handle = null;
+        for (int i = 0; i < names.size(); i++) {
+            if (owner.isPrimitive()) {
+                throw new IllegalArgumentException("Field " + names.get(i - 1) + " of primitive type has no fields");
+            }
+            final Member member = RuleAccessors.require(owner, names.get(i));
+            final MethodHandle getter = MethodHandles.guardWithTest(IS_NULL, NULL,
+                    RuleAccessors.handle(member).asType(VALUE));
+            handle = handle == null ? getter : MethodHandles.filterReturnValue(handle, getter);
+            owner = RuleAccessors.typeOf(member);
+        }
+        return handle;
+    }
+
+    private Class<?> typeOf(final List<String> names) {
+        Class<?> owner = type;
+        for (int i = 0; i < names.size() - 1; i++) {
+            owner = RuleAccessors.typeOf(RuleAccessors.require(owner, names.get(i)));
+        }
+        return owner;
+    }
+
+    private static String last(final List<String> names) {
+        return names.get(names.size() - 1);
+    }
+
+    private static boolean isIntegral(final Class<?> valueType) {
+        return valueType == long.class || valueType == int.class || valueType == short.class || valueType == byte.class;
+    }
+
+    private static boolean isNull(final Object value) {
+        return value == null;
+    }
+
+    private static boolean not(final boolean value) {
+        return !value;
+    }
+
+    private static MethodHandle constant(final boolean value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, Object.class);
+    }
+
+    private static MethodHandle find(final Class<?> owner, final String name, final Class<?> returnType,
+                                     final Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findStatic(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Can not find " + owner.getName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package hr.validation.rule;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Access to fields of validated objects. Field {@code name} is read with public method
+ * {@code getName()}, {@code isName()} or {@code name()}, or with public field {@code name}.
+ *
+ * <p>Compiled rules read fields through {@link MethodHandle} of the getter or field, also
+ * of non-public classes, and {@link RuleInterpreter} reads them reflectively.</p>
+ *
+ * @author frano.pecek
+ */
+final class RuleAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private RuleAccessors() {
+    }
+
+    /**
+     * Find getter method or public field.
+     *
+     * @param owner class declaring the field
+     * @param name field name
+     * @return method or field, or null if there is none
+     */
+    static Member find(final Class<?> owner, final String name) {
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (final String methodName : new String[] {"get" + capitalized, "is" + capitalized, name}) {
+            try {
+                final Method method = owner.getMethod(methodName);
+                final Class<?> type = method.getReturnType();
+                final boolean booleanGetter = methodName.equals("is" + capitalized);
+                if (type != void.class && (!booleanGetter || type == boolean.class || type == Boolean.class)) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try next name
+            }
+        }
+        try {
+            return owner.getField(name);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Find getter method or public field, failing if there is none.
+     */
+    static Member require(final Class<?> owner, final String name) {
+        final Member member = find(owner, name);
+        if (member == null) {
+            throw new IllegalArgumentException("Unknown field " + name + " of " + owner.getName());
+        }
+        return member;
+    }
+
+    /**
+     * Type of field value.
+     */
+    static Class<?> typeOf(final Member member) {
+        return member instanceof Method ? ((Method) member).getReturnType() : ((Field) member).getType();
+    }
+
+    /**
+     * Read field value reflectively.
+     *
+     * @param target object with the field, not null
+     * @param name field name
+     * @return field value
+     */
+    static Object read(final Object target, final String name) {
+        final Member member = require(target.getClass(), name);
+        try {
+            makeAccessible((AccessibleObject) member);
+            return member instanceof Method ? ((Method) member).invoke(target) : ((Field) member).get(target);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Field " + name + " of " + target.getClass().getName() + " is not accessible", e);
+        }
+    }
+
+    /**
+     * Create method handle reading field value.
+     *
+     * @param member getter method or public field
+     * @return method handle of type {@code (Owner)Value}
+     */
+    static MethodHandle handle(final Member member) {
+        try {
+            makeAccessible((AccessibleObject) member);
+            return member instanceof Method ? LOOKUP.unreflect((Method) member) : LOOKUP.unreflectGetter((Field) member);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Field " + member.getName() + " of "
+                    + member.getDeclaringClass().getName() + " is not accessible", e);
+        }
+    }
+
+    private static void makeAccessible(final AccessibleObject member) {
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException e) {
+            // public members of exported packages are accessible anyway
+        }
+    }
+
+    private static RuntimeException rethrow(final Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new UndeclaredThrowableException(e);
+    }
+}
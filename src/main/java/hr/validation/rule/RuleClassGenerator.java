@@ -0,0 +1,317 @@
+package hr.validation.rule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generator of classes checking compiled conditions of a rule set. Every rule set gets its own
+ * hidden class with method handles of conditions in static final fields, which the JIT compiler
+ * treats as constants, so conditions and getters they call are inlined into the generated method
+ * like code of hand-written validator. Generated class of rule set is unloaded together with its
+ * validator.
+ *
+ * <p>Generated class of {@code n} conditions is equivalent to:</p>
+ *
+ * <pre>
+ * final class CompiledRules extends RuleConditions {
+ *     private static final MethodHandle c0 = MethodHandles.classDataAt(MethodHandles.lookup(), "_", MethodHandle.class, 0);
+ *
+ *     int firstFailed(Object data, int from) {
+ *         if (from &lt;= 0 &amp;&amp; !(boolean) c0.invokeExact(data)) {
+ *             return 0;
+ *         }
+ *         ...
+ *         return n;
+ *     }
+ * }
+ * </pre>
+ *
+ * Rule sets with more than {@value #MAX_RULES_PER_CLASS} rules are split to several classes,
+ * so generated methods stay small enough to be compiled by the JIT compiler.
+ *
+ * @author frano.pecek
+ */
+final class RuleClassGenerator {
+
+    static final int MAX_RULES_PER_CLASS = 256;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final int CLASS_VERSION = 60;
+    private static final String CLASS_NAME = "hr/validation/rule/CompiledRules";
+    private static final String SUPER_NAME = "hr/validation/rule/RuleConditions";
+    private static final String HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String HANDLE_DESCRIPTOR = "L" + HANDLE + ";";
+    private static final int RULE_CODE_LENGTH = 21;
+
+    private final Map<String, Integer> constants = new HashMap<>();
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private int constantCount = 1;
+
+    private RuleClassGenerator() {
+    }
+
+    /**
+     * Generate conditions of rule set.
+     *
+     * @param conditions conditions of rules, method handles of type {@code (Object)boolean}
+     * @return conditions of rule set
+     */
+    static RuleConditions generate(final List<MethodHandle> conditions) {
+        final int partCount = Math.max(1, (conditions.size() + MAX_RULES_PER_CLASS - 1) / MAX_RULES_PER_CLASS);
+        final RuleConditions[] parts = new RuleConditions[partCount];
+        for (int i = 0; i < partCount; i++) {
+            final int from = i * MAX_RULES_PER_CLASS;
+            parts[i] = define(conditions.subList(from, Math.min(conditions.size(), from + MAX_RULES_PER_CLASS)));
+        }
+        return RuleConditions.join(parts, MAX_RULES_PER_CLASS);
+    }
+
+    private static RuleConditions define(final List<MethodHandle> conditions) {
+        final byte[] bytes;
+        try {
+            bytes = new RuleClassGenerator().write(conditions.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            final MethodHandles.Lookup lookup = LOOKUP.defineHiddenClassWithClassData(bytes, new ArrayList<>(conditions), true);
+            return (RuleConditions) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Can not define class of compiled rules", e);
+        }
+    }
+
+    private byte[] write(final int ruleCount) throws IOException {
+        final int thisClass = classConstant(CLASS_NAME);
+        final int superClass = classConstant(SUPER_NAME);
+        final int[] fields = new int[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            fields[i] = memberConstant(9, CLASS_NAME, "c" + i, HANDLE_DESCRIPTOR);
+        }
+        final byte[] constructor = method(0, "<init>", "()V", 1, 1, constructorCode(superClass), null);
+        final byte[] initializer = method(0x0008, "<clinit>", "()V", 4, 0, initializerCode(fields), null);
+        final byte[] firstFailed = method(0x0010, "firstFailed", "(Ljava/lang/Object;I)I", 2, 3,
+                firstFailedCode(fields), stackMapTable(ruleCount));
+        final int fieldName = utf8Constant(HANDLE_DESCRIPTOR);
+        final int[] fieldNames = new int[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            fieldNames[i] = utf8Constant("c" + i);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_VERSION);
+        out.writeShort(constantCount);
+        poolOut.flush();
+        pool.writeTo(out);
+        out.writeShort(0x0030);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0);
+        out.writeShort(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            out.writeShort(0x001A);
+            out.writeShort(fieldNames[i]);
+            out.writeShort(fieldName);
+            out.writeShort(0);
+        }
+        out.writeShort(3);
+        out.write(constructor);
+        out.write(initializer);
+        out.write(firstFailed);
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] constructorCode(final int superClass) throws IOException {
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+        out.writeByte(0x2A);
+        out.writeByte(0xB7);
+        out.writeShort(memberConstant(10, SUPER_NAME, "<init>", "()V"));
+        out.writeByte(0xB1);
+        out.flush();
+        return code.toByteArray();
+    }
+
+    private byte[] initializerCode(final int[] fields) throws IOException {
+        final int lookup = memberConstant(10, "java/lang/invoke/MethodHandles", "lookup",
+                "()Ljava/lang/invoke/MethodHandles$Lookup;");
+        final int name = stringConstant("_");
+        final int handleClass = classConstant(HANDLE);
+        final int classDataAt = memberConstant(10, "java/lang/invoke/MethodHandles", "classDataAt",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;");
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+        for (int i = 0; i < fields.length; i++) {
+            out.writeByte(0xB8);
+            out.writeShort(lookup);
+            out.writeByte(0x13);
+            out.writeShort(name);
+            out.writeByte(0x13);
+            out.writeShort(handleClass);
+            out.writeByte(0x11);
+            out.writeShort(i);
+            out.writeByte(0xB8);
+            out.writeShort(classDataAt);
+            out.writeByte(0xC0);
+            out.writeShort(handleClass);
+            out.writeByte(0xB3);
+            out.writeShort(fields[i]);
+        }
+        out.writeByte(0xB1);
+        out.flush();
+        return code.toByteArray();
+    }
+
+    /**
+     * Code of {@code firstFailed}, every rule takes {@value #RULE_CODE_LENGTH} bytes and all
+     * branches jump to the end of rule code.
+     */
+    private byte[] firstFailedCode(final int[] fields) throws IOException {
+        final int invokeExact = memberConstant(10, HANDLE, "invokeExact", "(Ljava/lang/Object;)Z");
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(code);
+        for (int i = 0; i < fields.length; i++) {
+            out.writeByte(0x1C);
+            out.writeByte(0x11);
+            out.writeShort(i);
+            out.writeByte(0xA3);
+            out.writeShort(RULE_CODE_LENGTH - 4);
+            out.writeByte(0xB2);
+            out.writeShort(fields[i]);
+            out.writeByte(0x2B);
+            out.writeByte(0xB6);
+            out.writeShort(invokeExact);
+            out.writeByte(0x9A);
+            out.writeShort(RULE_CODE_LENGTH - 14);
+            out.writeByte(0x11);
+            out.writeShort(i);
+            out.writeByte(0xAC);
+        }
+        out.writeByte(0x11);
+        out.writeShort(fields.length);
+        out.writeByte(0xAC);
+        out.flush();
+        return code.toByteArray();
+    }
+
+    /**
+     * Stack map frames at the end of every rule code, all with locals of method parameters.
+     */
+    private byte[] stackMapTable(final int ruleCount) throws IOException {
+        if (ruleCount == 0) {
+            return null;
+        }
+        final ByteArrayOutputStream table = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(table);
+        out.writeShort(utf8Constant("StackMapTable"));
+        out.writeInt(2 + ruleCount);
+        out.writeShort(ruleCount);
+        out.writeByte(RULE_CODE_LENGTH);
+        for (int i = 1; i < ruleCount; i++) {
+            out.writeByte(RULE_CODE_LENGTH - 1);
+        }
+        out.flush();
+        return table.toByteArray();
+    }
+
+    private byte[] method(final int access, final String name, final String descriptor, final int maxStack,
+                          final int maxLocals, final byte[] code, final byte[] stackMapTable) throws IOException {
+        final ByteArrayOutputStream method = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(method);
+        out.writeShort(access);
+        out.writeShort(utf8Constant(name));
+        out.writeShort(utf8Constant(descriptor));
+        out.writeShort(1);
+        out.writeShort(utf8Constant("Code"));
+        out.writeInt(12 + code.length + (stackMapTable == null ? 0 : stackMapTable.length));
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        if (stackMapTable == null) {
+            out.writeShort(0);
+        } else {
+            out.writeShort(1);
+            out.write(stackMapTable);
+        }
+        out.flush();
+        return method.toByteArray();
+    }
+
+    private int utf8Constant(final String value) throws IOException {
+        final Integer index = constants.get("1 " + value);
+        if (index != null) {
+            return index;
+        }
+        poolOut.writeByte(1);
+        poolOut.writeUTF(value);
+        return add("1 " + value);
+    }
+
+    private int classConstant(final String name) throws IOException {
+        return reference(7, utf8Constant(name));
+    }
+
+    private int stringConstant(final String value) throws IOException {
+        return reference(8, utf8Constant(value));
+    }
+
+    private int memberConstant(final int tag, final String owner, final String name, final String descriptor)
+            throws IOException {
+        final int ownerClass = classConstant(owner);
+        final int nameIndex = utf8Constant(name);
+        final int descriptorIndex = utf8Constant(descriptor);
+        final String key = "12 " + nameIndex + " " + descriptorIndex;
+        Integer nameAndType = constants.get(key);
+        if (nameAndType == null) {
+            poolOut.writeByte(12);
+            poolOut.writeShort(nameIndex);
+            poolOut.writeShort(descriptorIndex);
+            nameAndType = add(key);
+        }
+        final String memberKey = tag + " " + ownerClass + " " + nameAndType;
+        final Integer index = constants.get(memberKey);
+        if (index != null) {
+            return index;
+        }
+        poolOut.writeByte(tag);
+        poolOut.writeShort(ownerClass);
+        poolOut.writeShort(nameAndType);
+        return add(memberKey);
+    }
+
+    private int reference(final int tag, final int utf8) throws IOException {
+        final String key = tag + " " + utf8;
+        final Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        poolOut.writeByte(tag);
+        poolOut.writeShort(utf8);
+        return add(key);
+    }
+
+    private int add(final String key) {
+        final int index = constantCount++;
+        constants.put(key, index);
+        return index;
+    }
+}
@@ -0,0 +1,95 @@
+package hr.validation.rule;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Conditions of all rules of one rule set, checked in order of rules. Compiled rule sets are
+ * subclasses generated by {@link RuleClassGenerator}, interpreted rule sets check predicates.
+ *
+ * @author frano.pecek
+ */
+abstract class RuleConditions {
+
+    /**
+     * Find the first rule whose condition is false.
+     *
+     * @param data validated data
+     * @param from index of the first rule to check
+     * @return index of the first rule from given index with false condition, or number of rules if there is none
+     */
+    abstract int firstFailed(Object data, int from);
+
+    /**
+     * Create conditions checking predicates.
+     *
+     * @param predicates conditions of rules
+     * @return conditions of rule set
+     */
+    static RuleConditions of(final List<Predicate<Object>> predicates) {
+        return new Predicates(predicates);
+    }
+
+    /**
+     * Join conditions of consecutive parts of rule set.
+     *
+     * @param parts conditions of parts, every part except the last one has given size
+     * @param partSize number of rules in every part except the last one
+     * @return conditions of rule set
+     */
+    static RuleConditions join(final RuleConditions[] parts, final int partSize) {
+        return parts.length == 1 ? parts[0] : new Parts(parts, partSize);
+    }
+
+    /**
+     * Conditions checking predicates.
+     */
+    private static final class Predicates extends RuleConditions {
+
+        private final Predicate<Object>[] predicates;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Predicates(final List<Predicate<Object>> predicates) {
+            this.predicates = predicates.toArray(new Predicate[0]);
+        }
+
+        @Override
+        int firstFailed(final Object data, final int from) {
+            for (int i = from; i < predicates.length; i++) {
+                if (!predicates[i].test(data)) {
+                    return i;
+                }
+            }
+            return predicates.length;
+        }
+    }
+
+    /**
+     * Conditions of rule set too large for one generated class.
+     */
+    private static final class Parts extends RuleConditions {
+
+        private final RuleConditions[] parts;
+        private final int partSize;
+
+        Parts(final RuleConditions[] parts, final int partSize) {
+            this.parts = parts;
+            this.partSize = partSize;
+        }
+
+        @Override
+        int firstFailed(final Object data, final int from) {
+            int part = from / partSize;
+            int index = from % partSize;
+            int failed = partSize;
+            for (; part < parts.length; part++) {
+                failed = parts[part].firstFailed(data, index);
+                if (failed < partSize) {
+                    return part * partSize + failed;
+                }
+                index = 0;
+            }
+            return (parts.length - 1) * partSize + failed;
+        }
+    }
+}
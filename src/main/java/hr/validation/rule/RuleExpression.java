@@ -0,0 +1,263 @@
+package hr.validation.rule;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Syntax tree of parsed rule condition. Compiler and interpreter walk the same tree.
+ *
+ * @author frano.pecek
+ */
+abstract class RuleExpression {
+
+    /**
+     * Comparison operator.
+     */
+    enum Operator {
+        EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String symbol;
+
+        Operator(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator of(final String symbol) {
+            for (final Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    /**
+     * Value of a condition operand, field path or literal.
+     */
+    abstract static class Operand {
+    }
+
+    /**
+     * Field path, like {@code customer.address.city}.
+     */
+    static final class Path extends Operand {
+
+        private final List<String> names;
+
+        Path(final List<String> names) {
+            this.names = names;
+        }
+
+        List<String> getNames() {
+            return names;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(".", names);
+        }
+    }
+
+    /**
+     * Constant value: string, long, double, boolean or null.
+     */
+    static final class Literal extends Operand {
+
+        private final Object value;
+
+        Literal(final Object value) {
+            this.value = value;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value instanceof String ? '"' + (String) value + '"' : String.valueOf(value);
+        }
+    }
+
+    /**
+     * Both conditions are true.
+     */
+    static final class And extends RuleExpression {
+
+        private final RuleExpression left;
+        private final RuleExpression right;
+
+        And(final RuleExpression left, final RuleExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        RuleExpression getLeft() {
+            return left;
+        }
+
+        RuleExpression getRight() {
+            return right;
+        }
+    }
+
+    /**
+     * Any of conditions is true.
+     */
+    static final class Or extends RuleExpression {
+
+        private final RuleExpression left;
+        private final RuleExpression right;
+
+        Or(final RuleExpression left, final RuleExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        RuleExpression getLeft() {
+            return left;
+        }
+
+        RuleExpression getRight() {
+            return right;
+        }
+    }
+
+    /**
+     * Condition is false.
+     */
+    static final class Not extends RuleExpression {
+
+        private final RuleExpression expression;
+
+        Not(final RuleExpression expression) {
+            this.expression = expression;
+        }
+
+        RuleExpression getExpression() {
+            return expression;
+        }
+    }
+
+    /**
+     * Comparison of two operands.
+     */
+    static final class Compare extends RuleExpression {
+
+        private final Operator operator;
+        private final Operand left;
+        private final Operand right;
+
+        Compare(final Operator operator, final Operand left, final Operand right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        Operator getOperator() {
+            return operator;
+        }
+
+        Operand getLeft() {
+            return left;
+        }
+
+        Operand getRight() {
+            return right;
+        }
+    }
+
+    /**
+     * Operand is character sequence matching the whole regular expression.
+     */
+    static final class Matches extends RuleExpression {
+
+        private final Operand operand;
+        private final Pattern pattern;
+
+        Matches(final Operand operand, final Pattern pattern) {
+            this.operand = operand;
+            this.pattern = pattern;
+        }
+
+        Operand getOperand() {
+            return operand;
+        }
+
+        Pattern getPattern() {
+            return pattern;
+        }
+    }
+
+    /**
+     * Operand is between bounds, bounds included.
+     */
+    static final class Between extends RuleExpression {
+
+        private final Operand operand;
+        private final Operand low;
+        private final Operand high;
+
+        Between(final Operand operand, final Operand low, final Operand high) {
+            this.operand = operand;
+            this.low = low;
+            this.high = high;
+        }
+
+        Operand getOperand() {
+            return operand;
+        }
+
+        Operand getLow() {
+            return low;
+        }
+
+        Operand getHigh() {
+            return high;
+        }
+    }
+
+    /**
+     * Operand is equal to one of values.
+     */
+    static final class In extends RuleExpression {
+
+        private final Operand operand;
+        private final List<Operand> values;
+
+        In(final Operand operand, final List<Operand> values) {
+            this.operand = operand;
+            this.values = values;
+        }
+
+        Operand getOperand() {
+            return operand;
+        }
+
+        List<Operand> getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * Operand is boolean true, used for boolean fields without comparison.
+     */
+    static final class Truth extends RuleExpression {
+
+        private final Operand operand;
+
+        Truth(final Operand operand) {
+            this.operand = operand;
+        }
+
+        Operand getOperand() {
+            return operand;
+        }
+    }
+}
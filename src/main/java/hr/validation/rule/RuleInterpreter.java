@@ -0,0 +1,94 @@
+package hr.validation.rule;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Interpreter of rule conditions. It walks the syntax tree for every validated object and
+ * reads fields reflectively from runtime class of every object on the path. It is the
+ * reference implementation of rule semantics, compiled rules must give the same results.
+ *
+ * @author frano.pecek
+ */
+final class RuleInterpreter implements Predicate<Object> {
+
+    private final RuleExpression expression;
+
+    /**
+     * Create interpreter of condition.
+     *
+     * @param expression parsed condition
+     */
+    RuleInterpreter(final RuleExpression expression) {
+        this.expression = expression;
+    }
+
+    @Override
+    public boolean test(final Object data) {
+        return evaluate(expression, data);
+    }
+
+    /**
+     * Create function reading operand value reflectively.
+     *
+     * @param operand field path or literal
+     * @return function returning operand value for validated data
+     */
+    static Function<Object, Object> operand(final RuleExpression.Operand operand) {
+        return data -> value(operand, data);
+    }
+
+    private static boolean evaluate(final RuleExpression expression, final Object data) {
+        if (expression instanceof RuleExpression.And) {
+            final RuleExpression.And and = (RuleExpression.And) expression;
+            return evaluate(and.getLeft(), data) && evaluate(and.getRight(), data);
+        }
+        if (expression instanceof RuleExpression.Or) {
+            final RuleExpression.Or or = (RuleExpression.Or) expression;
+            return evaluate(or.getLeft(), data) || evaluate(or.getRight(), data);
+        }
+        if (expression instanceof RuleExpression.Not) {
+            return !evaluate(((RuleExpression.Not) expression).getExpression(), data);
+        }
+        if (expression instanceof RuleExpression.Compare) {
+            final RuleExpression.Compare compare = (RuleExpression.Compare) expression;
+            return RuleValues.test(compare.getOperator(), value(compare.getLeft(), data), value(compare.getRight(), data));
+        }
+        if (expression instanceof RuleExpression.Between) {
+            final RuleExpression.Between between = (RuleExpression.Between) expression;
+            return RuleValues.test(RuleExpression.Operator.GE, value(between.getOperand(), data),
+                    value(between.getLow(), data))
+                    && RuleValues.test(RuleExpression.Operator.LE, value(between.getOperand(), data),
+                    value(between.getHigh(), data));
+        }
+        if (expression instanceof RuleExpression.Matches) {
+            final RuleExpression.Matches matches = (RuleExpression.Matches) expression;
+            return RuleValues.matches(matches.getPattern(), value(matches.getOperand(), data));
+        }
+        if (expression instanceof RuleExpression.In) {
+            final RuleExpression.In in = (RuleExpression.In) expression;
+            final Object value = value(in.getOperand(), data);
+            for (final RuleExpression.Operand candidate : in.getValues()) {
+                if (RuleValues.test(RuleExpression.Operator.EQ, value, value(candidate, data))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return RuleValues.isTrue(value(((RuleExpression.Truth) expression).getOperand(), data));
+    }
+
+    private static Object value(final RuleExpression.Operand operand, final Object data) {
+        if (operand instanceof RuleExpression.Literal) {
+            return ((RuleExpression.Literal) operand).getValue();
+        }
+        Object value = data;
+        for (final String name : ((RuleExpression.Path) operand).getNames()) {
+            if (value == null) {
+                return null;
+            }
+            value = RuleAccessors.read(value, name);
+        }
+        return value;
+    }
+}
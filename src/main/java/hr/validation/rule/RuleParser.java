@@ -0,0 +1,323 @@
+package hr.validation.rule;
+
+import hr.enums.ExceptionSeverityLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Recursive descent parser of rule definitions.
+ *
+ * <pre>
+ * rule       := condition '-&gt;' CODE [SEVERITY]
+ * condition  := and ('or' and)*
+ * and        := unary ('and' unary)*
+ * unary      := 'not' unary | '(' condition ')' | predicate
+ * predicate  := operand [ OPERATOR operand | 'matches' STRING | 'between' operand 'and' operand
+ *               | 'in' '(' operand (',' operand)* ')' | 'is' ['not'] 'null' ]
+ * operand    := path | NUMBER | STRING | 'true' | 'false' | 'null'
+ * path       := NAME ('.' NAME)*
+ * </pre>
+ *
+ * @author frano.pecek
+ */
+final class RuleParser {
+
+    private final String source;
+    private int position;
+
+    private RuleParser(final String source) {
+        this.source = source;
+    }
+
+    /**
+     * Parse rule definition.
+     *
+     * @param source rule definition
+     * @return parsed rule
+     */
+    static ParsedRule parse(final String source) {
+        final RuleParser parser = new RuleParser(source);
+        final Map<String, RuleExpression.Path> paths = new LinkedHashMap<>();
+        final RuleExpression condition = parser.condition(paths);
+        parser.expect("->");
+        final String code = parser.name();
+        ExceptionSeverityLevel severityLevel = null;
+        if (!parser.atEnd()) {
+            final String severity = parser.name();
+            try {
+                severityLevel = ExceptionSeverityLevel.valueOf(severity);
+            } catch (IllegalArgumentException e) {
+                throw parser.error("unknown severity level " + severity);
+            }
+        }
+        if (!parser.atEnd()) {
+            throw parser.error("unexpected input");
+        }
+        return new ParsedRule(source, condition, code, severityLevel, new ArrayList<>(paths.values()));
+    }
+
+    private RuleExpression condition(final Map<String, RuleExpression.Path> paths) {
+        RuleExpression left = and(paths);
+        while (keyword("or")) {
+            left = new RuleExpression.Or(left, and(paths));
+        }
+        return left;
+    }
+
+    private RuleExpression and(final Map<String, RuleExpression.Path> paths) {
+        RuleExpression left = unary(paths);
+        while (keyword("and")) {
+            left = new RuleExpression.And(left, unary(paths));
+        }
+        return left;
+    }
+
+    private RuleExpression unary(final Map<String, RuleExpression.Path> paths) {
+        if (keyword("not")) {
+            return new RuleExpression.Not(unary(paths));
+        }
+        if (symbol("(")) {
+            final RuleExpression expression = condition(paths);
+            expect(")");
+            return expression;
+        }
+        return predicate(paths);
+    }
+
+    private RuleExpression predicate(final Map<String, RuleExpression.Path> paths) {
+        final RuleExpression.Operand operand = operand(paths);
+        final RuleExpression.Operator operator = operator();
+        if (operator != null) {
+            return new RuleExpression.Compare(operator, operand, operand(paths));
+        }
+        if (keyword("matches")) {
+            final int start = skipWhitespace();
+            final Object regex = literal();
+            if (!(regex instanceof String)) {
+                position = start;
+                throw error("expected regular expression string");
+            }
+            try {
+                return new RuleExpression.Matches(operand, Pattern.compile((String) regex));
+            } catch (PatternSyntaxException e) {
+                position = start;
+                throw error("invalid regular expression " + e.getDescription());
+            }
+        }
+        if (keyword("between")) {
+            final RuleExpression.Operand low = operand(paths);
+            expectKeyword("and");
+            return new RuleExpression.Between(operand, low, operand(paths));
+        }
+        if (keyword("in")) {
+            expect("(");
+            final List<RuleExpression.Operand> values = new ArrayList<>();
+            do {
+                values.add(operand(paths));
+            } while (symbol(","));
+            expect(")");
+            return new RuleExpression.In(operand, Collections.unmodifiableList(values));
+        }
+        if (keyword("is")) {
+            final boolean not = keyword("not");
+            expectKeyword("null");
+            return new RuleExpression.Compare(not ? RuleExpression.Operator.NE : RuleExpression.Operator.EQ,
+                    operand, new RuleExpression.Literal(null));
+        }
+        return new RuleExpression.Truth(operand);
+    }
+
+    private RuleExpression.Operand operand(final Map<String, RuleExpression.Path> paths) {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("expected operand");
+        }
+        final char c = source.charAt(position);
+        if (c == '"' || c == '-' || Character.isDigit(c)) {
+            return new RuleExpression.Literal(literal());
+        }
+        if (keyword("true")) {
+            return new RuleExpression.Literal(Boolean.TRUE);
+        }
+        if (keyword("false")) {
+            return new RuleExpression.Literal(Boolean.FALSE);
+        }
+        if (keyword("null")) {
+            return new RuleExpression.Literal(null);
+        }
+        final List<String> names = new ArrayList<>();
+        do {
+            names.add(name());
+        } while (symbol("."));
+        final RuleExpression.Path path = new RuleExpression.Path(Collections.unmodifiableList(names));
+        return paths.computeIfAbsent(path.toString(), key -> path);
+    }
+
+    private Object literal() {
+        skipWhitespace();
+        if (source.charAt(position) == '"') {
+            final StringBuilder value = new StringBuilder();
+            position++;
+            while (position < source.length() && source.charAt(position) != '"') {
+                char c = source.charAt(position++);
+                if (c == '\\' && position < source.length()
+                        && (source.charAt(position) == '"' || source.charAt(position) == '\\')) {
+                    c = source.charAt(position++);
+                }
+                value.append(c);
+            }
+            expect("\"");
+            return value.toString();
+        }
+        final int start = position;
+        if (source.charAt(position) == '-') {
+            position++;
+        }
+        boolean decimal = false;
+        while (position < source.length()) {
+            final char c = source.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!Character.isDigit(c) && !(decimal && (c == '-' || c == '+'))) {
+                break;
+            }
+            position++;
+        }
+        final String number = source.substring(start, position);
+        try {
+            return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("invalid number " + number);
+        }
+    }
+
+    private RuleExpression.Operator operator() {
+        skipWhitespace();
+        for (final String symbol : new String[] {"==", "!=", "<=", ">=", "<", ">"}) {
+            if (source.startsWith(symbol, position)) {
+                position += symbol.length();
+                return RuleExpression.Operator.of(symbol);
+            }
+        }
+        return null;
+    }
+
+    private String name() {
+        skipWhitespace();
+        final int start = position;
+        while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+            position++;
+        }
+        if (start == position || !Character.isJavaIdentifierStart(source.charAt(start))) {
+            position = start;
+            throw error("expected name");
+        }
+        return source.substring(start, position);
+    }
+
+    private boolean keyword(final String keyword) {
+        skipWhitespace();
+        final int end = position + keyword.length();
+        if (source.startsWith(keyword, position)
+                && (end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end)))) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectKeyword(final String keyword) {
+        if (!keyword(keyword)) {
+            throw error("expected " + keyword);
+        }
+    }
+
+    private boolean symbol(final String symbol) {
+        skipWhitespace();
+        if (source.startsWith(symbol, position)) {
+            position += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final String symbol) {
+        if (!symbol(symbol)) {
+            throw error("expected " + symbol);
+        }
+    }
+
+    private boolean atEnd() {
+        skipWhitespace();
+        return position >= source.length();
+    }
+
+    private int skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException("Invalid rule at position " + position + ", " + message + ": " + source);
+    }
+
+    /**
+     * Parsed rule definition.
+     */
+    static final class ParsedRule {
+
+        private final String source;
+        private final RuleExpression condition;
+        private final String code;
+        private final ExceptionSeverityLevel severityLevel;
+        private final List<RuleExpression.Path> paths;
+
+        ParsedRule(final String source, final RuleExpression condition, final String code,
+                   final ExceptionSeverityLevel severityLevel, final List<RuleExpression.Path> paths) {
+            this.source = source;
+            this.condition = condition;
+            this.code = code;
+            this.severityLevel = severityLevel;
+            this.paths = paths;
+        }
+
+        String getSource() {
+            return source;
+        }
+
+        RuleExpression getCondition() {
+            return condition;
+        }
+
+        String getCode() {
+            return code;
+        }
+
+        /**
+         * Severity level of results.
+         *
+         * @return severity level or null if rule does not define it
+         */
+        ExceptionSeverityLevel getSeverityLevel() {
+            return severityLevel;
+        }
+
+        /**
+         * Distinct field paths in order of first use.
+         *
+         * @return field paths
+         */
+        List<RuleExpression.Path> getPaths() {
+            return paths;
+        }
+    }
+}
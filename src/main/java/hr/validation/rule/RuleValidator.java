@@ -0,0 +1,78 @@
+package hr.validation.rule;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.AbstractValidator;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.i18n.MessageCode;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Validator of rules, with conditions either compiled or interpreted. Every rule whose
+ * condition is false adds result with its message code, with paths of fields in condition
+ * as result fields and values of those fields as message parameters. Conditions of all rules
+ * are checked by one {@link RuleConditions}, so only rules that failed are visited here.
+ *
+ * @param <T> the type of data for validation
+ * @author frano.pecek
+ */
+final class RuleValidator<T> extends AbstractValidator<T> {
+
+    private final RuleConditions conditions;
+    private final Rule[] rules;
+
+    RuleValidator(final RuleConditions conditions, final List<Rule> rules) {
+        this.conditions = conditions;
+        this.rules = rules.toArray(new Rule[0]);
+    }
+
+    @Override
+    protected ValidationResults doValidate(final T data, final ValidationResults validationResults) {
+        for (int i = conditions.firstFailed(data, 0); i < rules.length; i = conditions.firstFailed(data, i + 1)) {
+            validationResults.add(rules[i].toResult(data));
+        }
+        return validationResults;
+    }
+
+    @Override
+    protected boolean doIsValid(final T data) {
+        return conditions.firstFailed(data, 0) >= rules.length;
+    }
+
+    /**
+     * One rule with its result.
+     */
+    static final class Rule {
+
+        private final String source;
+        private final MessageCode messageCode;
+        private final ExceptionSeverityLevel severityLevel;
+        private final String[] fields;
+        private final Function<Object, Object>[] parameters;
+
+        Rule(final String source, final MessageCode messageCode,
+             final ExceptionSeverityLevel severityLevel, final String[] fields,
+             final Function<Object, Object>[] parameters) {
+            this.source = source;
+            this.messageCode = messageCode;
+            this.severityLevel = severityLevel;
+            this.fields = fields;
+            this.parameters = parameters;
+        }
+
+        ValidationResult toResult(final Object data) {
+            final Object[] values = new Object[parameters.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = parameters[i].apply(data);
+            }
+            return new ValidationResult(data, messageCode, severityLevel, fields).withMessageParameters(values);
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+}
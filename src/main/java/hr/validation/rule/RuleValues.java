@@ -0,0 +1,148 @@
+package hr.validation.rule;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Comparison semantics of rule values, shared by compiled rules and interpreter.
+ *
+ * <ul>
+ *     <li>Null is equal only to null, and ordering comparison with null is false.</li>
+ *     <li>Integral numbers are compared as {@code long}, numbers with {@link BigDecimal} or
+ *     {@link BigInteger} as {@link BigDecimal}, and other numbers as {@code double}.</li>
+ *     <li>Enum is equal to string with its name.</li>
+ *     <li>Other values are compared with {@link Comparable#compareTo(Object)} or equal with
+ *     {@link Object#equals(Object)}.</li>
+ * </ul>
+ *
+ * @author frano.pecek
+ */
+final class RuleValues {
+
+    private RuleValues() {
+    }
+
+    /**
+     * Compare two values.
+     *
+     * @param operator comparison operator
+     * @param left left value
+     * @param right right value
+     * @return comparison result
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static boolean test(final RuleExpression.Operator operator, final Object left, final Object right) {
+        if (left == null || right == null) {
+            switch (operator) {
+                case EQ:
+                    return left == right;
+                case NE:
+                    return left != right;
+                default:
+                    return false;
+            }
+        }
+        if (left instanceof Number && right instanceof Number) {
+            final Number l = (Number) left;
+            final Number r = (Number) right;
+            if (isIntegral(l) && isIntegral(r)) {
+                return test(operator, l.longValue(), r.longValue());
+            }
+            if (isBig(l) || isBig(r)) {
+                return testComparison(operator, toBigDecimal(l).compareTo(toBigDecimal(r)));
+            }
+            return test(operator, l.doubleValue(), r.doubleValue());
+        }
+        if (left instanceof Enum && right instanceof String) {
+            return test(operator, ((Enum<?>) left).name(), right);
+        }
+        if (left instanceof String && right instanceof Enum) {
+            return test(operator, left, ((Enum<?>) right).name());
+        }
+        if (operator == RuleExpression.Operator.EQ) {
+            return left.equals(right);
+        }
+        if (operator == RuleExpression.Operator.NE) {
+            return !left.equals(right);
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return testComparison(operator, ((Comparable) left).compareTo(right));
+        }
+        throw new IllegalArgumentException("Can not compare " + left.getClass().getName() + " with "
+                + right.getClass().getName());
+    }
+
+    static boolean test(final RuleExpression.Operator operator, final long left, final long right) {
+        switch (operator) {
+            case EQ:
+                return left == right;
+            case NE:
+                return left != right;
+            case LT:
+                return left < right;
+            case LE:
+                return left <= right;
+            case GT:
+                return left > right;
+            default:
+                return left >= right;
+        }
+    }
+
+    static boolean test(final RuleExpression.Operator operator, final double left, final double right) {
+        switch (operator) {
+            case EQ:
+                return left == right;
+            case NE:
+                return left != right;
+            case LT:
+                return left < right;
+            case LE:
+                return left <= right;
+            case GT:
+                return left > right;
+            default:
+                return left >= right;
+        }
+    }
+
+    /**
+     * Check whether value is character sequence fully matching pattern.
+     */
+    static boolean matches(final Pattern pattern, final Object value) {
+        return value instanceof CharSequence && pattern.matcher((CharSequence) value).matches();
+    }
+
+    /**
+     * Check whether value is boolean true.
+     */
+    static boolean isTrue(final Object value) {
+        return Boolean.TRUE.equals(value);
+    }
+
+    static boolean isIntegral(final Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static boolean testComparison(final RuleExpression.Operator operator, final int comparison) {
+        return test(operator, comparison, 0L);
+    }
+
+    private static boolean isBig(final Number number) {
+        return number instanceof BigDecimal || number instanceof BigInteger;
+    }
+
+    private static BigDecimal toBigDecimal(final Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The package contains validators defined by rule expressions, like rules from configuration.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.rule;
@@ -0,0 +1,168 @@
+package hr.validation.trace;
+
+import hr.enums.ExceptionSeverityLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracer keeping ended spans in memory, for tests and diagnostics.
+ * Spans are listed in order in which they ended, so children come before their parent.
+ *
+ * @author frano.pecek
+ */
+public final class InMemoryTracer implements ValidationTracer {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Queue<RecordedSpan> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public ValidationSpan start(final String name, final SpanKind kind, final ValidationSpan parent) {
+        final long parentId = parent instanceof RecordedSpan ? ((RecordedSpan) parent).id : 0;
+        return new RecordedSpan(this, ids.incrementAndGet(), parentId, name, kind);
+    }
+
+    /**
+     * Get ended spans.
+     *
+     * @return spans in order in which they ended
+     */
+    public List<RecordedSpan> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * Get ended spans with given parent.
+     *
+     * @param parent parent span
+     * @return child spans in order in which they ended
+     */
+    public List<RecordedSpan> getChildren(final RecordedSpan parent) {
+        final List<RecordedSpan> children = new ArrayList<>();
+        for (final RecordedSpan span : spans) {
+            if (span.parentId == parent.id) {
+                children.add(span);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Get ended spans without parent.
+     *
+     * @return top-level spans in order in which they ended
+     */
+    public List<RecordedSpan> getRoots() {
+        final List<RecordedSpan> roots = new ArrayList<>();
+        for (final RecordedSpan span : spans) {
+            if (span.parentId == 0) {
+                roots.add(span);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Remove all recorded spans.
+     */
+    public void clear() {
+        spans.clear();
+    }
+
+    /**
+     * Span recorded by {@link InMemoryTracer}.
+     */
+    public static final class RecordedSpan implements ValidationSpan {
+
+        private final InMemoryTracer tracer;
+        private final long id;
+        private final long parentId;
+        private final String name;
+        private final SpanKind kind;
+        private final String threadName;
+        private final long startNanos;
+        private long durationNanos;
+        private int resultCount;
+        private Set<ExceptionSeverityLevel> severityLevels = Collections.emptySet();
+        private Throwable error;
+
+        private RecordedSpan(final InMemoryTracer tracer, final long id, final long parentId, final String name,
+                             final SpanKind kind) {
+            this.tracer = tracer;
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.kind = kind;
+            this.threadName = Thread.currentThread().getName();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void end(final int count, final Set<ExceptionSeverityLevel> levels) {
+            this.durationNanos = System.nanoTime() - startNanos;
+            this.resultCount = count;
+            this.severityLevels = levels;
+            tracer.spans.add(this);
+        }
+
+        @Override
+        public void fail(final Throwable e) {
+            this.durationNanos = System.nanoTime() - startNanos;
+            this.error = e;
+            tracer.spans.add(this);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Get id of parent span.
+         *
+         * @return parent id, zero for top-level span
+         */
+        public long getParentId() {
+            return parentId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SpanKind getKind() {
+            return kind;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public int getResultCount() {
+            return resultCount;
+        }
+
+        public Set<ExceptionSeverityLevel> getSeverityLevels() {
+            return severityLevels;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "RecordedSpan [id=" + id + ", parentId=" + parentId + ", name=" + name + ", kind=" + kind
+                    + ", resultCount=" + resultCount + ", severityLevels=" + severityLevels
+                    + (error == null ? "" : ", error=" + error) + "]";
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package hr.validation.trace;
+
+import hr.enums.ExceptionSeverityLevel;
+
+import java.util.Set;
+
+/**
+ * Tracer that does not record anything.
+ *
+ * @author frano.pecek
+ */
+enum NoopTracer implements ValidationTracer, ValidationSpan {
+
+    INSTANCE;
+
+    @Override
+    public ValidationSpan start(final String name, final SpanKind kind, final ValidationSpan parent) {
+        return this;
+    }
+
+    @Override
+    public void end(final int resultCount, final Set<ExceptionSeverityLevel> severityLevels) {
+        // nothing to record
+    }
+
+    @Override
+    public void fail(final Throwable error) {
+        // nothing to record
+    }
+}
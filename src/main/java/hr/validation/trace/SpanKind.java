@@ -0,0 +1,24 @@
+package hr.validation.trace;
+
+/**
+ * Kind of validation traced by a span.
+ *
+ * @author frano.pecek
+ */
+public enum SpanKind {
+
+    /**
+     * Validation of data by {@link hr.validation.AbstractValidator}.
+     */
+    VALIDATOR,
+
+    /**
+     * Step of validator chain, graph or combinator.
+     */
+    STEP,
+
+    /**
+     * Validation of all data in a stream.
+     */
+    STREAM
+}
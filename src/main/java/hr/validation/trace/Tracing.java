@@ -0,0 +1,152 @@
+package hr.validation.trace;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Installed tracer and span of validation running in the current thread. Validators open
+ * span for every {@link hr.validation.AbstractValidator} validation, every step of validator
+ * chains, graphs and combinators, and every stream validation. Span of enclosing validation is
+ * the parent of spans opened inside it, and it is passed to validations running in other
+ * threads with {@link hr.validation.ExecutionSnapshot}.
+ *
+ * <pre>
+ * InMemoryTracer tracer = new InMemoryTracer();
+ * Tracing.install(tracer);
+ * validator.validate(order);
+ * List&lt;InMemoryTracer.RecordedSpan&gt; spans = tracer.getSpans();
+ * </pre>
+ *
+ * Without installed tracer validations check one volatile field and open no spans.
+ *
+ * @author frano.pecek
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<ValidationSpan> CURRENT = new ThreadLocal<>();
+
+    private static volatile ValidationTracer tracer = ValidationTracer.noop();
+
+    private Tracing() {
+    }
+
+    /**
+     * Install tracer.
+     *
+     * @param validationTracer tracer of all validations
+     */
+    public static void install(final ValidationTracer validationTracer) {
+        if (validationTracer == null) {
+            throw new IllegalArgumentException("Tracer must not be null");
+        }
+        tracer = validationTracer;
+    }
+
+    /**
+     * Remove installed tracer, validations are not traced any more.
+     */
+    public static void uninstall() {
+        tracer = ValidationTracer.noop();
+    }
+
+    /**
+     * Get installed tracer.
+     *
+     * @return installed tracer, no-op tracer if none is installed
+     */
+    public static ValidationTracer tracer() {
+        return tracer;
+    }
+
+    /**
+     * Check if tracer is installed.
+     *
+     * @return true if validations are traced
+     */
+    public static boolean isEnabled() {
+        return tracer != ValidationTracer.noop();
+    }
+
+    /**
+     * Get span of validation running in current thread.
+     *
+     * @return current span or null if there is none
+     */
+    public static ValidationSpan currentSpan() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind span to current thread, so it is the parent of spans started in this thread.
+     * Used by {@link hr.validation.ExecutionSnapshot}, which should be used instead.
+     *
+     * @param span span to bind, can be null
+     * @return previously bound span, to be bound again when work in this thread is done
+     */
+    public static ValidationSpan bind(final ValidationSpan span) {
+        final ValidationSpan previous = CURRENT.get();
+        if (span == null) {
+            if (previous != null) {
+                CURRENT.remove();
+            }
+        } else {
+            CURRENT.set(span);
+        }
+        return previous;
+    }
+
+    /**
+     * Run validation inside new span, child of span of current thread.
+     *
+     * @param step validator or step, name of validator or class name of other steps is span name
+     * @param kind kind of validation
+     * @param validation validation to run
+     * @return validation results
+     */
+    public static ValidationResults trace(final Object step, final SpanKind kind,
+                                          final Supplier<ValidationResults> validation) {
+        final ValidationTracer current = tracer;
+        if (current == ValidationTracer.noop()) {
+            return validation.get();
+        }
+        final ValidationSpan parent = CURRENT.get();
+        final String name = step instanceof Validator ? ((Validator<?>) step).getName() : step.getClass().getName();
+        final ValidationSpan span = current.start(name, kind, parent);
+        CURRENT.set(span);
+        try {
+            final ValidationResults results = validation.get();
+            span.end(results.size(), severityLevels(results));
+            return results;
+        } catch (RuntimeException | Error e) {
+            span.fail(e);
+            throw e;
+        } finally {
+            bind(parent);
+        }
+    }
+
+    /**
+     * Find severity levels of results kept in memory, without assuming their order. Subclasses of
+     * results, like results spilled to file, are not read again only to trace them, their spans
+     * have no severity levels.
+     */
+    private static Set<ExceptionSeverityLevel> severityLevels(final ValidationResults results) {
+        if (results.getClass() != ValidationResults.class || results.isValid()) {
+            return Collections.emptySet();
+        }
+        final Set<ExceptionSeverityLevel> severityLevels = EnumSet.noneOf(ExceptionSeverityLevel.class);
+        for (final ValidationResult result : results) {
+            if (result.getSeverityLevel() != null) {
+                severityLevels.add(result.getSeverityLevel());
+            }
+        }
+        return Collections.unmodifiableSet(severityLevels);
+    }
+}
@@ -0,0 +1,31 @@
+package hr.validation.trace;
+
+import hr.enums.ExceptionSeverityLevel;
+
+import java.util.Set;
+
+/**
+ * Span of one traced validation, started by {@link ValidationTracer#start(String, SpanKind, ValidationSpan)}.
+ * Every span is ended exactly once, with {@link #end(int, Set)} or
+ * {@link #fail(Throwable)}, possibly in another thread than the one that started it.
+ *
+ * @author frano.pecek
+ */
+public interface ValidationSpan {
+
+    /**
+     * End span of validation that returned results.
+     *
+     * @param resultCount number of validation results
+     * @param severityLevels severity levels of results, empty if there are no results or results
+     *                       are not kept in memory
+     */
+    void end(int resultCount, Set<ExceptionSeverityLevel> severityLevels);
+
+    /**
+     * End span of validation that threw exception.
+     *
+     * @param error thrown exception
+     */
+    void fail(Throwable error);
+}
@@ -0,0 +1,31 @@
+package hr.validation.trace;
+
+/**
+ * Service provider interface for tracing validations. Implementation is installed with
+ * {@link Tracing#install(ValidationTracer)} and usually adapts spans to the tracing library
+ * of the application, so this library does not depend on it.
+ * Implementation must be thread safe, spans of one validation can start in several threads.
+ *
+ * @author frano.pecek
+ */
+public interface ValidationTracer {
+
+    /**
+     * Get tracer that does not record anything, used when no tracer is installed.
+     *
+     * @return no-op tracer
+     */
+    static ValidationTracer noop() {
+        return NoopTracer.INSTANCE;
+    }
+
+    /**
+     * Start span of validation.
+     *
+     * @param name name of validator, see {@link hr.validation.Validator#getName()}, or class name of other steps
+     * @param kind kind of traced validation
+     * @param parent span of enclosing validation, null for top-level validation
+     * @return started span
+     */
+    ValidationSpan start(String name, SpanKind kind, ValidationSpan parent);
+}
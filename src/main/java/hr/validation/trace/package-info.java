@@ -0,0 +1,6 @@
+/**
+ * The package contains tracing of validations, with spans of validators and validator chain steps.
+ *
+ * @author frano.pecek
+ */
+package hr.validation.trace;
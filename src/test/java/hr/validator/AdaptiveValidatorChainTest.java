@@ -0,0 +1,128 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.AdaptiveValidatorChain;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for validator chain that reorders its steps.
+ *
+ * @author frano.pecek
+ */
+public class AdaptiveValidatorChainTest {
+
+    private final boolean[] rejects = new boolean[3];
+    private long nanos;
+
+    /**
+     * Clock advancing on every reading, so every sampled step costs the same and steps are
+     * reordered only by their rejection rates.
+     */
+    private long tick() {
+        nanos += 100;
+        return nanos;
+    }
+
+    /**
+     * Step invalid when its flag is set, or when its bit is set in validated number.
+     */
+    private Validator<Integer> step(final int index) {
+        return data -> rejects[index] || (data & 1 << index) != 0
+                ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER, "step" + index).end()
+                : new ValidationResults();
+    }
+
+    /**
+     * Test that fail fast chain moves often invalid steps first, and that data with at most
+     * one invalid step gets the same results as chain in declared order.
+     */
+    @Test
+    public void testReorderingPreservesResults() {
+        final AdaptiveValidatorChain<Integer> chain = AdaptiveValidatorChain.<Integer>builder()
+                .commutativeStep(step(0))
+                .commutativeStep(step(1))
+                .commutativeStep(step(2))
+                .failFast()
+                .sampleEvery(1)
+                .reorderEvery(100)
+                .clock(this::tick)
+                .build();
+        final Validator<Integer> declared = step(0).andThenIfValid(step(1)).andThenIfValid(step(2));
+        final int[] data = {0, 0, 0, 0, 0, 0, 1, 2};
+        final Random random = new Random(7);
+
+        int rejectingFirst = 0;
+        for (int i = 0; i < 2000; i++) {
+            final int value = random.nextInt(10) < 8 ? 4 : data[random.nextInt(data.length)];
+            assertThat(fields(chain.validate(value))).isEqualTo(fields(declared.validate(value)));
+            if (i % 100 == 99 && chain.currentOrder().get(0) == 2) {
+                rejectingFirst++;
+            }
+        }
+        assertThat(rejectingFirst).isEqualTo(20);
+    }
+
+    /**
+     * Test that order follows change of rejection rates soon, because older statistics decay.
+     */
+    @Test
+    public void testDecay() {
+        final AdaptiveValidatorChain<Integer> chain = AdaptiveValidatorChain.<Integer>builder()
+                .commutativeStep(step(0))
+                .commutativeStep(step(1))
+                .failFast()
+                .sampleEvery(1)
+                .reorderEvery(200)
+                .clock(this::tick)
+                .build();
+        rejects[1] = true;
+        for (int i = 0; i < 10000; i++) {
+            chain.validate(0);
+        }
+        assertThat(chain.currentOrder()).containsExactly(1, 0);
+
+        rejects[1] = false;
+        rejects[0] = true;
+        for (int i = 0; i < 1000; i++) {
+            chain.validate(0);
+        }
+        assertThat(chain.currentOrder()).containsExactly(0, 1);
+    }
+
+    /**
+     * Test that chain without fail fast runs steps in declared order and returns all results.
+     */
+    @Test
+    public void testFullModeKeepsOrder() {
+        final AdaptiveValidatorChain<Integer> chain = AdaptiveValidatorChain.<Integer>builder()
+                .commutativeStep(step(0))
+                .commutativeStep(step(1))
+                .step(step(2))
+                .sampleEvery(1)
+                .reorderEvery(10)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            assertThat(fields(chain.validate(6))).containsExactly("step1", "step2");
+        }
+        assertThat(chain.currentOrder()).containsExactly(0, 1, 2);
+        assertThat(fields(chain.validate(7))).containsExactly("step0", "step1", "step2");
+    }
+
+    private static List<String> fields(final ValidationResults results) {
+        final List<String> fields = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            fields.addAll(Arrays.asList(result.getFields()));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,133 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.bulk.CheckpointedValidator;
+import hr.validation.bulk.RecordValidationResult;
+import hr.validation.codec.MessageCodeRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for bulk validation resumed from checkpoints.
+ *
+ * @author frano.pecek
+ */
+public class CheckpointedValidatorTest {
+
+    private static final int ROWS = 1000;
+
+    private final Validator<Long> validator = data -> {
+        final ValidationResults results = new ValidationResults();
+        if (data % 7 == 0) {
+            results.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "value").withParams(data);
+        }
+        if (data % 11 == 0) {
+            results.add(GlobalExceptionMessageCode.NOT_NULL, "value").end();
+        }
+        return results;
+    };
+    private final MessageCodeRegistry registry = MessageCodeRegistry.strict().register(GlobalExceptionMessageCode.class, 1);
+    private final List<Long> startRows = new ArrayList<>();
+    private Path directory;
+
+    /**
+     * Create directory of checkpoints.
+     *
+     * @throws IOException if directory can not be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoints-test");
+    }
+
+    /**
+     * Delete directory of checkpoints.
+     *
+     * @throws IOException if directory can not be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Test that validation interrupted by failing input after some checkpoints continues
+     * from the last checkpoint and gives the same results as uninterrupted validation.
+     */
+    @Test
+    public void testResumeAfterFailure() {
+        final ValidationResults expected = checkpointed(directory.resolve("uninterrupted")).validate(input(null));
+        assertThat(expected.size()).isEqualTo(143 + 91);
+        assertThat(startRows).containsExactly(0L);
+
+        startRows.clear();
+        final CheckpointedValidator<Long> interrupted = checkpointed(directory.resolve("interrupted"));
+        final AtomicBoolean failed = new AtomicBoolean();
+        assertThatThrownBy(() -> interrupted.validate(input(failed))).hasMessageContaining("input failed");
+        assertThat(interrupted.getProgress().getPosition()).isEqualTo(500L);
+        assertThat(interrupted.getProgress().isCompleted()).isFalse();
+
+        final ValidationResults resumed = interrupted.validate(input(failed));
+        assertThat(startRows).containsExactly(0L, 500L);
+        assertThat(describe(resumed)).isEqualTo(describe(expected));
+        assertThat(interrupted.getProgress().isCompleted()).isTrue();
+        assertThat(interrupted.getProgress().getResultCount()).isEqualTo((long) expected.size());
+        assertThat(interrupted.getProgress().getInvalidRowCount()).isEqualTo(143L + 91 - 13);
+
+        assertThat(describe(interrupted.validate(input(failed)))).isEqualTo(describe(expected));
+        assertThat(startRows).containsExactly(0L, 500L);
+    }
+
+    private CheckpointedValidator<Long> checkpointed(final Path checkpoints) {
+        return CheckpointedValidator.builder(validator, checkpoints, registry)
+                .checkpointEvery(100)
+                .build();
+    }
+
+    /**
+     * Create input of rows, failing once after row 550 if flag is given.
+     */
+    private LongFunction<Stream<Long>> input(final AtomicBoolean failed) {
+        return startRow -> {
+            startRows.add(startRow);
+            return LongStream.range(startRow, ROWS).boxed().peek(row -> {
+                if (failed != null && row == 550 && failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("input failed");
+                }
+            });
+        };
+    }
+
+    private static List<String> describe(final ValidationResults results) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            descriptions.add(((RecordValidationResult) result).getRowIndex() + " " + result.getMessageCode()
+                    + " " + Arrays.toString(result.getMessageParameters()));
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,209 @@
+package hr.validator;
+
+import hr.validation.ValidationResult;
+import hr.validation.bulk.BulkValidationResults;
+import hr.validation.bulk.ColumnValidator;
+import hr.validation.bulk.RowBitmap;
+import hr.validation.i18n.MessageCode;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for column validators. Invalid rows found by branch free block checks are compared
+ * with rows found by plain scalar loops, for extreme values, {@code NaN}, empty columns and
+ * columns that do not end at block boundary.
+ *
+ * @author frano.pecek
+ */
+public class ColumnValidatorTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 7, 1023, 1024, 1025, 2047, 2049, 5000};
+
+    /**
+     * Message codes of column rules.
+     */
+    public enum ColumnCode implements MessageCode {
+        RANGE, EQUAL, NON_DECREASING, INCREASING, SUM;
+
+        @Override
+        public String getMessage() {
+            return name() + " %s %s";
+        }
+    }
+
+    /**
+     * Test int rules with values around given ranges and extreme values.
+     */
+    @Test
+    public void testInts() {
+        final Random random = new Random(1);
+        final int[][] ranges = {{-5, 5}, {Integer.MIN_VALUE, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MIN_VALUE},
+                {Integer.MAX_VALUE, Integer.MAX_VALUE}, {0, Integer.MAX_VALUE}, {Integer.MIN_VALUE, -1}};
+        final int[] specials = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -6, -5, 0, 5, 6, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        for (final int[] range : ranges) {
+            for (final int length : LENGTHS) {
+                for (final boolean sorted : new boolean[] {false, true}) {
+                    final int[] column = new int[length];
+                    for (int i = 0; i < length; i++) {
+                        column[i] = random.nextBoolean() ? specials[random.nextInt(specials.length)] : random.nextInt(21) - 10;
+                    }
+                    if (sorted) {
+                        Arrays.sort(column);
+                    }
+                    final int value = column.length > 0 ? column[0] : 0;
+                    final BulkValidationResults results = ColumnValidator.ints("value")
+                            .range(range[0], range[1], ColumnCode.RANGE)
+                            .equalTo(value, ColumnCode.EQUAL)
+                            .nonDecreasing(ColumnCode.NON_DECREASING)
+                            .increasing(ColumnCode.INCREASING)
+                            .build()
+                            .validate(column);
+
+                    assertRows(results, ColumnCode.RANGE, length, i -> column[i] < range[0] || column[i] > range[1]);
+                    assertRows(results, ColumnCode.EQUAL, length, i -> column[i] != value);
+                    assertRows(results, ColumnCode.NON_DECREASING, length, i -> i > 0 && column[i] < column[i - 1]);
+                    assertRows(results, ColumnCode.INCREASING, length, i -> i > 0 && column[i] <= column[i - 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test long rules with values around given ranges and extreme values, where differences overflow.
+     */
+    @Test
+    public void testLongs() {
+        final Random random = new Random(2);
+        final long[][] ranges = {{-5, 5}, {Long.MIN_VALUE, Long.MAX_VALUE}, {Long.MIN_VALUE, Long.MIN_VALUE},
+                {Long.MAX_VALUE, Long.MAX_VALUE}, {0, Long.MAX_VALUE}, {Long.MIN_VALUE, -1}};
+        final long[] specials = {Long.MIN_VALUE, Long.MIN_VALUE + 1, -6, -5, 0, 5, 6, Long.MAX_VALUE - 1, Long.MAX_VALUE,
+                Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (final long[] range : ranges) {
+            for (final int length : LENGTHS) {
+                for (final boolean sorted : new boolean[] {false, true}) {
+                    final long[] column = new long[length];
+                    for (int i = 0; i < length; i++) {
+                        column[i] = random.nextBoolean() ? specials[random.nextInt(specials.length)] : random.nextInt(21) - 10;
+                    }
+                    if (sorted) {
+                        Arrays.sort(column);
+                    }
+                    final long value = column.length > 0 ? column[column.length - 1] : 0;
+                    final BulkValidationResults results = ColumnValidator.longs("value")
+                            .range(range[0], range[1], ColumnCode.RANGE)
+                            .equalTo(value, ColumnCode.EQUAL)
+                            .nonDecreasing(ColumnCode.NON_DECREASING)
+                            .increasing(ColumnCode.INCREASING)
+                            .build()
+                            .validate(column);
+
+                    assertRows(results, ColumnCode.RANGE, length, i -> column[i] < range[0] || column[i] > range[1]);
+                    assertRows(results, ColumnCode.EQUAL, length, i -> column[i] != value);
+                    assertRows(results, ColumnCode.NON_DECREASING, length, i -> i > 0 && column[i] < column[i - 1]);
+                    assertRows(results, ColumnCode.INCREASING, length, i -> i > 0 && column[i] <= column[i - 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test double rules with infinities, signed zeros and {@code NaN}, which is invalid for every rule.
+     */
+    @Test
+    public void testDoubles() {
+        final Random random = new Random(3);
+        final double[][] ranges = {{-5, 5}, {-Double.MAX_VALUE, Double.MAX_VALUE},
+                {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY}, {0.0, 0.0}, {-0.0, 0.0}};
+        final double[] specials = {Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -Double.MAX_VALUE,
+                Double.MAX_VALUE, Double.MIN_VALUE, -0.0, 0.0, -5, 5, 5.000001};
+        for (final double[] range : ranges) {
+            for (final int length : LENGTHS) {
+                for (final boolean sorted : new boolean[] {false, true}) {
+                    final double[] column = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        column[i] = random.nextBoolean() ? specials[random.nextInt(specials.length)] : random.nextInt(21) - 10;
+                    }
+                    if (sorted) {
+                        Arrays.sort(column);
+                    }
+                    final double value = length > 0 && random.nextBoolean() ? column[0] : Double.NaN;
+                    final BulkValidationResults results = ColumnValidator.doubles("value")
+                            .range(range[0], range[1], ColumnCode.RANGE)
+                            .equalTo(value, ColumnCode.EQUAL)
+                            .nonDecreasing(ColumnCode.NON_DECREASING)
+                            .increasing(ColumnCode.INCREASING)
+                            .build()
+                            .validate(column);
+
+                    assertRows(results, ColumnCode.RANGE, length,
+                            i -> Double.isNaN(column[i]) || column[i] < range[0] || column[i] > range[1]);
+                    assertRows(results, ColumnCode.EQUAL, length, i -> Double.isNaN(column[i]) || column[i] != value);
+                    assertRows(results, ColumnCode.NON_DECREASING, length, i -> i > 0
+                            && (Double.isNaN(column[i]) || Double.isNaN(column[i - 1]) || column[i] < column[i - 1]));
+                    assertRows(results, ColumnCode.INCREASING, length, i -> i > 0
+                            && (Double.isNaN(column[i]) || Double.isNaN(column[i - 1]) || column[i] <= column[i - 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test column sums against sums computed with big numbers, including overflowing sums.
+     */
+    @Test
+    public void testSums() {
+        final int[] ints = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, 7};
+        final long intSum = (long) Integer.MAX_VALUE * 3 + Integer.MIN_VALUE + 7;
+        assertThat(ColumnValidator.ints("value").sumEquals(intSum, ColumnCode.SUM).build().validate(ints).isValid()).isTrue();
+        assertThat(sum(ColumnValidator.ints("value").sumEquals(0, ColumnCode.SUM).build().validate(ints))).isEqualTo(intSum);
+        assertThat(ColumnValidator.ints("value").sumEquals(0, ColumnCode.SUM).build().validate(new int[0]).isValid()).isTrue();
+
+        final long[][] columns = {{Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE}, {Long.MIN_VALUE, Long.MIN_VALUE, 1},
+                {Long.MAX_VALUE, 1, Long.MIN_VALUE}, {Long.MAX_VALUE, 1, -1}, {}};
+        for (final long[] column : columns) {
+            BigInteger expected = BigInteger.ZERO;
+            for (final long value : column) {
+                expected = expected.add(BigInteger.valueOf(value));
+            }
+            final Object actual = sum(ColumnValidator.longs("value").sumEquals(42, ColumnCode.SUM).build().validate(column));
+            if (expected.bitLength() < Long.SIZE) {
+                assertThat(actual).isEqualTo(expected.longValue());
+            } else {
+                assertThat(actual).isEqualTo(expected);
+            }
+        }
+        assertThat(ColumnValidator.longs("value").sumEquals(Long.MAX_VALUE, ColumnCode.SUM).build()
+                .validate(new long[] {Long.MAX_VALUE, 1, -1}).isValid()).isTrue();
+
+        final double[] doubles = {Double.NaN, 1};
+        assertThat(ColumnValidator.doubles("value").sumEquals(1, 1e9, ColumnCode.SUM).build().validate(doubles).isValid())
+                .isFalse();
+    }
+
+    private static void assertRows(final BulkValidationResults results, final MessageCode code, final int length,
+                                   final IntPredicate failing) {
+        final BitSet expected = new BitSet();
+        for (int i = 0; i < length; i++) {
+            if (failing.test(i)) {
+                expected.set(i);
+            }
+        }
+        final RowBitmap rows = results.getFailingRows(code);
+        assertThat(rows.toBitSet()).as("%s of %s rows", code, length).isEqualTo(expected);
+        assertThat(results.getMessageCodes().contains(code)).isEqualTo(!expected.isEmpty());
+    }
+
+    private static Object sum(final BulkValidationResults results) {
+        for (final ValidationResult result : results) {
+            return result.getMessageParameters()[1];
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package hr.validator;
+
+import hr.validation.i18n.CompiledTemplate;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that compiled templates format messages the same way as {@link String#format(String, Object...)}.
+ *
+ * @author frano.pecek
+ */
+public class CompiledTemplateTest {
+
+    private static final List<String> TEMPLATES = Arrays.asList(
+            "",
+            "no parameters",
+            "%s",
+            "Hello %s",
+            "%s and %s",
+            "%2$s before %1$s",
+            "%1$s twice %1$s",
+            "%s %2$s %s",
+            "100%% of %s",
+            "%%s is literal",
+            "first line%nsecond %s",
+            "%d items",
+            "%5s|%-5s|",
+            "%.2s",
+            "%S",
+            "%s %<s",
+            "%b %h",
+            "%tY",
+            "trailing %",
+            "%q unknown");
+
+    private static final List<Object[]> PARAMETERS = Arrays.asList(
+            new Object[0],
+            new Object[] {"a"},
+            new Object[] {"a", "b"},
+            new Object[] {"a", "b", "c"},
+            new Object[] {1, 2},
+            new Object[] {null, "b"},
+            new Object[] {"%s", "%n"},
+            new Object[] {new Upper("formattable"), "b"},
+            null);
+
+    /**
+     * Formattable parameter writing its value in upper case.
+     */
+    private static final class Upper implements Formattable {
+
+        private final String value;
+
+        Upper(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void formatTo(final Formatter formatter, final int flags, final int width, final int precision) {
+            formatter.format("%S", value);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    /**
+     * Test that every template formats every set of parameters to the same message, or fails
+     * with the same exception, as {@link String#format(String, Object...)}.
+     */
+    @Test
+    public void testSameAsStringFormat() {
+        for (final String template : TEMPLATES) {
+            final CompiledTemplate compiled = CompiledTemplate.compile(template);
+            for (final Object[] parameters : PARAMETERS) {
+                assertThat(format(compiled, parameters))
+                        .as("template %s with %s", template, Arrays.toString(parameters))
+                        .isEqualTo(stringFormat(template, parameters));
+            }
+        }
+    }
+
+    /**
+     * Test which templates are formatted without {@link String#format(String, Object...)} and
+     * how many parameters they use.
+     */
+    @Test
+    public void testSimpleTemplates() {
+        assertThat(CompiledTemplate.compile("Hello %s").isSimple()).isTrue();
+        assertThat(CompiledTemplate.compile("%2$s before %1$s%n100%%").isSimple()).isTrue();
+        assertThat(CompiledTemplate.compile("%d items").isSimple()).isFalse();
+        assertThat(CompiledTemplate.compile("%5s").isSimple()).isFalse();
+        assertThat(CompiledTemplate.compile("%s %<s").isSimple()).isFalse();
+        assertThat(CompiledTemplate.compile("trailing %").isSimple()).isFalse();
+
+        assertThat(CompiledTemplate.compile("no parameters").getParameterCount()).isEqualTo(0);
+        assertThat(CompiledTemplate.compile("%s %2$s %s").getParameterCount()).isEqualTo(2);
+        assertThat(CompiledTemplate.compile("%3$s %s").getParameterCount()).isEqualTo(3);
+        assertThat(CompiledTemplate.compile("%s %<s %%").getParameterCount()).isEqualTo(1);
+    }
+
+    private static String format(final CompiledTemplate template, final Object[] parameters) {
+        try {
+            return template.format(parameters);
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String stringFormat(final String template, final Object[] parameters) {
+        try {
+            return String.format(template, parameters);
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.Deadline;
+import hr.validation.IncrementalValidator;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for incremental validation, where only steps reading changed fields run again.
+ *
+ * @author frano.pecek
+ */
+public class IncrementalValidatorTest {
+
+    /**
+     * Step validator counting its runs, invalid when the field it checks is empty.
+     */
+    private static final class CountingValidator implements Validator<Map<String, String>> {
+
+        private final String field;
+        private final AtomicInteger runs = new AtomicInteger();
+
+        CountingValidator(final String field) {
+            this.field = field;
+        }
+
+        @Override
+        public ValidationResults validate(final Map<String, String> data) {
+            runs.incrementAndGet();
+            final String value = data.get(field);
+            return value == null || value.isEmpty()
+                    ? new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL, field).end()
+                    : new ValidationResults();
+        }
+    }
+
+    private final Map<String, String> form = new HashMap<>();
+    private CountingValidator name;
+    private CountingValidator address;
+    private CountingValidator city;
+    private CountingValidator always;
+    private IncrementalValidator<Map<String, String>> validator;
+
+    /**
+     * Create validator with steps reading a field, a parent and a child field, and no fields.
+     */
+    @Before
+    public void setUp() {
+        form.put("name", "");
+        form.put("address", "Main street");
+        form.put("address.city", "");
+        form.put("addressLine", "");
+        name = new CountingValidator("name");
+        address = new CountingValidator("address");
+        city = new CountingValidator("address.city");
+        always = new CountingValidator("addressLine");
+        validator = IncrementalValidator.<Map<String, String>>builder()
+                .step(name, "name")
+                .step(address, "address")
+                .step(city, "address.city")
+                .step(always)
+                .build();
+    }
+
+    /**
+     * Test that change of a path reruns steps reading the same path, its parent or its child,
+     * but not steps reading paths that only share its prefix.
+     */
+    @Test
+    public void testChangedFieldOverlaps() {
+        final ValidationResults first = validator.validate(form);
+        assertThat(fields(first)).containsExactly("name", "address.city", "addressLine");
+        assertThat(runs()).containsExactly(1, 1, 1, 1);
+
+        form.put("name", "Ana");
+        final ValidationResults second = validator.revalidate(form, first, Collections.singleton("name"));
+        assertThat(runs()).containsExactly(2, 1, 1, 2);
+        assertThat(fields(second)).containsExactly("address.city", "addressLine");
+
+        form.put("address.city", "Zagreb");
+        final ValidationResults third = validator.revalidate(form, second, Collections.singleton("address"));
+        assertThat(runs()).containsExactly(2, 2, 2, 3);
+        assertThat(fields(third)).containsExactly("addressLine");
+
+        validator.revalidate(form, third, Collections.singleton("address.city.zip"));
+        assertThat(runs()).containsExactly(2, 3, 3, 4);
+        validator.revalidate(form, third, Arrays.asList("addressLine", "names", "nam"));
+        assertThat(runs()).containsExactly(2, 3, 3, 5);
+    }
+
+    /**
+     * Test that results of other validators and plain results make all steps run.
+     */
+    @Test
+    public void testForeignPreviousResults() {
+        final IncrementalValidator<Map<String, String>> other = IncrementalValidator.<Map<String, String>>builder()
+                .step(name, "name")
+                .build();
+        final ValidationResults foreign = other.validate(form);
+        assertThat(runs()).containsExactly(1, 0, 0, 0);
+
+        assertThat(fields(validator.revalidate(form, foreign, Collections.<String>emptyList())))
+                .containsExactly("name", "address.city", "addressLine");
+        assertThat(runs()).containsExactly(2, 1, 1, 1);
+        validator.revalidate(form, new ValidationResults().join(foreign), Collections.<String>emptyList());
+        assertThat(runs()).containsExactly(3, 2, 2, 2);
+    }
+
+    /**
+     * Test that steps skipped because of deadline run again even if their fields did not change.
+     */
+    @Test
+    public void testTimedOutStepsRunAgain() {
+        final ValidationResults timedOut = Deadline.after(Duration.ZERO).run(() -> validator.validate(form));
+        assertThat(timedOut)
+                .extracting(ValidationResult::getMessageCode)
+                .containsOnly(CoreValidationMessageCode.VALIDATION_TIMED_OUT);
+        assertThat(runs()).containsExactly(0, 0, 0, 0);
+
+        final ValidationResults results = validator.revalidate(form, timedOut, Collections.singleton("name"));
+        assertThat(runs()).containsExactly(1, 1, 1, 1);
+        assertThat(fields(results)).containsExactly("name", "address.city", "addressLine");
+    }
+
+    private List<Integer> runs() {
+        return Arrays.asList(name.runs.get(), address.runs.get(), city.runs.get(), always.runs.get());
+    }
+
+    private static List<String> fields(final ValidationResults results) {
+        final List<String> fields = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            fields.addAll(Arrays.asList(result.getFields()));
+        }
+        return fields;
+    }
+}
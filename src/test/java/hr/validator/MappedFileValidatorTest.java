@@ -0,0 +1,163 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.bulk.MappedFileValidator;
+import hr.validation.bulk.RecordValidationResult;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for validation of memory mapped files. Results of small chunks, where records
+ * cross chunk boundaries, are compared with results of a single chunk.
+ *
+ * @author frano.pecek
+ */
+public class MappedFileValidatorTest {
+
+    private static final Validator<Integer> ODD = data -> data % 2 != 0
+            ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER, "value").withParams(data)
+            : new ValidationResults();
+
+    private final List<Path> files = new ArrayList<>();
+
+    /**
+     * Delete files created by the test.
+     *
+     * @throws IOException if file can not be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        for (final Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test that records crossing chunk boundaries are read whole, with the same positions
+     * for every chunk size.
+     *
+     * @throws IOException if file can not be read
+     */
+    @Test
+    public void testChunkBoundaries() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            content.append(i * 37).append(i % 10 == 0 ? "\n\n" : "\n");
+        }
+        final Path file = file(content.toString());
+        final MappedFileValidator<Integer> validator = new MappedFileValidator<>(Integer::parseInt, ODD);
+
+        final List<String> expected = positions(validator.sequential().validate(file));
+        assertThat(expected).hasSize(500);
+        assertThat(expected.get(0)).isEqualTo("1:37:3:3");
+        for (final int chunkSize : new int[] {1, 3, 7, 64, 4096}) {
+            assertThat(positions(validator.withChunkSize(chunkSize).sequential().validate(file)))
+                    .as("chunk size %s", chunkSize).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Test that carriage return before line feed is not part of the record, also at the end of file.
+     *
+     * @throws IOException if file can not be read
+     */
+    @Test
+    public void testCarriageReturn() throws IOException {
+        final Path file = file("1\r\n2\r\n\r\n3\r\n5");
+        final MappedFileValidator<Integer> validator = new MappedFileValidator<>(Integer::parseInt, ODD).withChunkSize(2);
+
+        assertThat(positions(validator.validate(file))).containsExactly("0:1:1:0", "2:3:4:8", "3:5:5:11");
+    }
+
+    /**
+     * Test that header lines are skipped even when they are longer than a chunk, and that line
+     * numbers count them.
+     *
+     * @throws IOException if file can not be read
+     */
+    @Test
+    public void testHeaderLines() throws IOException {
+        final Path file = file("id\n\nsome long header line\n1\n2\n3\n");
+        final MappedFileValidator<Integer> validator = new MappedFileValidator<>(Integer::parseInt, ODD)
+                .withHeaderLines(3);
+
+        assertThat(positions(validator.validate(file))).containsExactly("0:1:4:26", "2:3:6:30");
+        assertThat(positions(validator.withChunkSize(4).validate(file))).containsExactly("0:1:4:26", "2:3:6:30");
+        assertThat(validator.withHeaderLines(10).validate(file).isValid()).isTrue();
+    }
+
+    /**
+     * Test that results of parallel validation are in file order.
+     *
+     * @throws IOException if file can not be read
+     */
+    @Test
+    public void testParallelOrder() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            content.append(i).append('\n');
+        }
+        final Path file = file(content.toString());
+        final MappedFileValidator<Integer> validator = new MappedFileValidator<>(Integer::parseInt, ODD)
+                .withChunkSize(1024);
+
+        final List<String> parallel = positions(validator.validate(file));
+        assertThat(parallel).hasSize(50_000);
+        assertThat(parallel).isEqualTo(positions(validator.sequential().validate(file)));
+    }
+
+    /**
+     * Test that parser exceptions are results and validator exceptions are thrown.
+     *
+     * @throws IOException if file can not be read
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        final Path file = file("1\nx\n2\n");
+
+        final ValidationResults results = new MappedFileValidator<>(Integer::parseInt, ODD).validate(file);
+        assertThat(positions(results)).containsExactly("0:1:1:0", "1:For input string: \"x\":2:2");
+        assertThat(results).extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER, CoreValidationMessageCode.RECORD_NOT_PARSABLE);
+
+        final Validator<Integer> failing = data -> {
+            throw new IllegalStateException("validator failed");
+        };
+        assertThatThrownBy(() -> new MappedFileValidator<>(Integer::parseInt, failing).validate(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("validator failed");
+    }
+
+    private Path file(final String content) throws IOException {
+        final Path file = Files.createTempFile("records", ".txt");
+        files.add(file);
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Describe every result as row index, first message parameter, line number and byte offset.
+     */
+    private static List<String> positions(final ValidationResults results) {
+        final List<String> positions = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            final RecordValidationResult record = (RecordValidationResult) result;
+            positions.add(record.getRowIndex() + ":" + record.getMessageParameters()[0] + ":"
+                    + record.getLineNumber() + ":" + record.getByteOffset());
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,381 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.AbstractValidator;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.rule.RuleCompiler;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Performance regression tests for the core API. Every scenario is warmed up and then
+ * measured in several rounds, and the best round has to stay within budgets in
+ * {@code performance-budgets.properties}: allocated bytes and thread CPU time per operation,
+ * both measured with {@link com.sun.management.ThreadMXBean}. Allocations do not depend on
+ * the machine, so they are always checked. CPU time budgets, the slowdown of compiled rules and
+ * benchmarks of rules in separate JVMs run only with {@code -Dperformance.timing=true}, on
+ * machines quiet enough for timing.
+ * Budgets leave room for slower build machines, raise them only together with the change
+ * that makes an operation more expensive on purpose.
+ *
+ * @author frano.pecek
+ */
+public class PerformanceBudgetTest {
+
+    private static final String BUDGETS = "/performance-budgets.properties";
+    private static final boolean TIMING = Boolean.getBoolean("performance.timing");
+    private static final int WARMUP_OPERATIONS = 50_000;
+    private static final int OPERATIONS = 20_000;
+    private static final int ROUNDS = 5;
+    private static final int FORKS = 3;
+
+    /**
+     * Validator without results.
+     */
+    private static final class ValidValidator extends AbstractValidator<String> {
+        @Override
+        protected ValidationResults doValidate(final String data, final ValidationResults validationResults) {
+            return validationResults;
+        }
+    }
+
+    /**
+     * Validator with one result.
+     */
+    private static final class InvalidValidator extends AbstractValidator<String> {
+        @Override
+        protected ValidationResults doValidate(final String data, final ValidationResults validationResults) {
+            return validationResults.add(new ValidationResult(data, GlobalExceptionMessageCode.INVALID_PARAMETER, "value"));
+        }
+    }
+
+    /**
+     * Hand-written validator of {@link #RULES}.
+     */
+    private static final class ItemValidator extends AbstractValidator<Item> {
+        private static final BigDecimal MAX_AMOUNT = new BigDecimal("1000.50");
+        private static final Pattern CODE = Pattern.compile("[A-Z]+");
+
+        @Override
+        protected ValidationResults doValidate(final Item data, final ValidationResults validationResults) {
+            if (data.getQuantity() < 1 || data.getQuantity() > 100) {
+                validationResults.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "quantity").withParams(data.getQuantity());
+            }
+            if (!(data.getWeight() >= 0 && data.getWeight() < 10.5)) {
+                validationResults.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "weight").withParams(data.getWeight());
+            }
+            if (data.getAmount() != null && data.getAmount().compareTo(MAX_AMOUNT) > 0) {
+                validationResults.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "amount").withParams(data.getAmount());
+            }
+            if (!"NEW".equals(data.getStatus()) && !"PAID".equals(data.getStatus())) {
+                validationResults.add(GlobalExceptionMessageCode.NOT_AUTHORIZED, "status").withParams(data.getStatus());
+            }
+            if (data.getCode() == null || !CODE.matcher(data.getCode()).matches()) {
+                validationResults.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "code").withParams(data.getCode());
+            }
+            return validationResults;
+        }
+    }
+
+    /**
+     * Item validated by rules.
+     */
+    public static final class Item {
+
+        private final int quantity;
+        private final double weight;
+        private final BigDecimal amount;
+        private final String status;
+        private final String code;
+
+        Item(final int quantity, final double weight, final BigDecimal amount, final String status, final String code) {
+            this.quantity = quantity;
+            this.weight = weight;
+            this.amount = amount;
+            this.status = status;
+            this.code = code;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private static final String[] RULES = {
+        "quantity between 1 and 100 -> INVALID_PARAMETER",
+        "weight >= 0 and weight < 10.5 -> INVALID_PARAMETER",
+        "amount <= 1000.50 or amount is null -> INVALID_PARAMETER",
+        "status in (\"NEW\", \"PAID\") -> NOT_AUTHORIZED",
+        "code matches \"[A-Z]+\" -> INVALID_PARAMETER",
+    };
+
+    private static final Item VALID_ITEM = new Item(10, 2.5, new BigDecimal("99.90"), "PAID", "ABC");
+
+    private final Properties budgets = new Properties();
+    private com.sun.management.ThreadMXBean threads;
+    private static Object sink;
+
+    /**
+     * Load budgets and skip tests on JVMs that can not measure allocations.
+     *
+     * @throws IOException if budgets can not be read
+     */
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream input = PerformanceBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertThat(input).as("Budgets %s", BUDGETS).isNotNull();
+            budgets.load(input);
+        }
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isCurrentThreadCpuTimeSupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+    }
+
+    /**
+     * Test validator that creates no results.
+     */
+    @Test
+    public void testValidValidator() {
+        final Validator<String> validator = new ValidValidator();
+        assertWithinBudget("validator.valid", () -> validator.validate("value"));
+    }
+
+    /**
+     * Test validator that creates one result.
+     */
+    @Test
+    public void testInvalidValidator() {
+        final Validator<String> validator = new InvalidValidator();
+        assertWithinBudget("validator.invalid", () -> validator.validate("value"));
+    }
+
+    /**
+     * Test validation and validity check of validator chain. Validity check of valid chain
+     * allocates nothing, invalid chain allocates only result added by invalid validator.
+     */
+    @Test
+    public void testChain() {
+        final Validator<String> chain = new ValidValidator()
+                .andThen(new InvalidValidator())
+                .andThenIfValid(new ValidValidator());
+        final Validator<String> validChain = new ValidValidator()
+                .andThen(new ValidValidator())
+                .andThenIfValid(new ValidValidator());
+        assertWithinBudget("chain.validate", () -> chain.validate("value"));
+        assertWithinBudget("chain.isValidFast", () -> chain.isValidFast("value"));
+        assertWithinBudget("chain.isValidFast.valid", () -> validChain.isValidFast("value"));
+    }
+
+    /**
+     * Test joining validation results.
+     */
+    @Test
+    public void testJoin() {
+        final ValidationResults results = new ValidationResults()
+                .add(GlobalExceptionMessageCode.INVALID_PARAMETER, "first")
+                .add(GlobalExceptionMessageCode.NOT_NULL, "second")
+                .add(GlobalExceptionMessageCode.DATA_NOT_FOUND, "third")
+                .end();
+        assertWithinBudget("results.join", () -> new ValidationResults().join(results));
+    }
+
+    /**
+     * Test rendering message of new validation result.
+     */
+    @Test
+    public void testGetMessage() {
+        assertWithinBudget("result.getMessage",
+                () -> new ValidationResult(GlobalExceptionMessageCode.NOT_NULL, "value").getMessage());
+    }
+
+    /**
+     * Test throwing exception for invalid results and checking valid results.
+     */
+    @Test
+    public void testThrowIfInvalid() {
+        final ValidationResults valid = new ValidationResults();
+        final ValidationResults invalid = new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL, "value").end();
+        assertWithinBudget("results.throwIfInvalid.valid", () -> {
+            valid.throwIfInvalid();
+            return valid;
+        });
+        assertWithinBudget("results.throwIfInvalid.invalid", () -> {
+            try {
+                invalid.throwIfInvalid();
+                return invalid;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+    }
+
+    /**
+     * Test compiled rules against the same rules in hand-written validator and interpreted rules.
+     * Without timing only allocations are measured, in this JVM. With timing every variant is
+     * measured in its own JVMs, so type profiles of other tests do not change what the JIT
+     * compiler inlines, and the best of several JVMs is compared. Compiled rules have to stay
+     * close to hand-written validator.
+     *
+     * @throws Exception if benchmark JVM can not be started or waiting for it is interrupted
+     */
+    @Test
+    public void testRules() throws Exception {
+        final Item invalid = new Item(0, 11, new BigDecimal("2000"), "CANCELLED", "abc");
+        for (final String variant : new String[] {"handWritten", "compiled", "interpreted"}) {
+            final Validator<Item> validator = rulesValidator(variant);
+            assertThat(validator.validate(VALID_ITEM).isValid()).isTrue();
+            assertThat(validator.validate(invalid)).hasSize(5);
+            if (!TIMING) {
+                assertWithinBudget("rules." + variant, () -> validator.validate(VALID_ITEM));
+            }
+        }
+        if (!TIMING) {
+            return;
+        }
+
+        final long[] handWritten = {Long.MAX_VALUE, Long.MAX_VALUE};
+        final long[] compiled = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int fork = 0; fork < FORKS; fork++) {
+            best(handWritten, measureInFork("handWritten"));
+            best(compiled, measureInFork("compiled"));
+        }
+        final long handWrittenNanos = assertWithinBudget("rules.handWritten", handWritten);
+        final long compiledNanos = assertWithinBudget("rules.compiled", compiled);
+        assertWithinBudget("rules.interpreted", measureInFork("interpreted"));
+        assertThat(compiledNanos).as("compiled rules took %s ns, hand-written validator %s ns", compiledNanos, handWrittenNanos)
+                .isLessThanOrEqualTo(Math.max(handWrittenNanos, 1) * budget("rules.compiled.slowdown"));
+    }
+
+    /**
+     * Measures validation of valid item by one variant of rules validator in a new JVM and
+     * prints allocated bytes and CPU nanoseconds per validation.
+     */
+    public static final class RulesBenchmark {
+
+        private RulesBenchmark() {
+        }
+
+        /**
+         * Run benchmark.
+         *
+         * @param args variant of rules validator: handWritten, compiled or interpreted
+         */
+        public static void main(final String[] args) {
+            final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            threads.setThreadAllocatedMemoryEnabled(true);
+            threads.setThreadCpuTimeEnabled(true);
+            final Validator<Item> validator = rulesValidator(args[0]);
+            final long[] measured = measure(threads, () -> validator.validate(VALID_ITEM));
+            System.out.println(measured[0] + " " + measured[1]);
+        }
+    }
+
+    private static Validator<Item> rulesValidator(final String variant) {
+        final RuleCompiler<Item> compiler = new RuleCompiler<>(Item.class, RuleCompiler.enumCodes(GlobalExceptionMessageCode.class));
+        switch (variant) {
+            case "handWritten":
+                return new ItemValidator();
+            case "compiled":
+                return compiler.compile(RULES);
+            default:
+                return compiler.interpret(RULES);
+        }
+    }
+
+    private static void best(final long[] best, final long[] measured) {
+        best[0] = Math.min(best[0], measured[0]);
+        best[1] = Math.min(best[1], measured[1]);
+    }
+
+    private static long[] measureInFork(final String variant) throws IOException, InterruptedException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                RulesBenchmark.class.getName(), variant).redirectErrorStream(true).start();
+        final String output;
+        try (InputStream input = process.getInputStream()) {
+            output = new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        assertThat(process.waitFor()).as("Benchmark of %s rules: %s", variant, output).isEqualTo(0);
+        final String[] measured = output.substring(output.lastIndexOf('\n') + 1).trim().split(" ");
+        return new long[] {Long.parseLong(measured[0]), Long.parseLong(measured[1])};
+    }
+
+    private long assertWithinBudget(final String scenario, final Supplier<Object> operation) {
+        return assertWithinBudget(scenario, measure(threads, operation));
+    }
+
+    private long assertWithinBudget(final String scenario, final long[] measured) {
+        final long bytes = measured[0];
+        final long nanos = measured[1];
+        assertThat(bytes).as("%s allocated bytes per operation", scenario).isLessThanOrEqualTo(budget(scenario + ".bytes"));
+        if (TIMING) {
+            assertThat(nanos).as("%s CPU nanoseconds per operation", scenario).isLessThanOrEqualTo(budget(scenario + ".nanos"));
+        }
+        return nanos;
+    }
+
+    /**
+     * Warm up operation and measure the best of several rounds.
+     *
+     * @return allocated bytes and CPU nanoseconds per operation
+     */
+    private static long[] measure(final com.sun.management.ThreadMXBean threads, final Supplier<Object> operation) {
+        run(operation, WARMUP_OPERATIONS);
+        final long threadId = Thread.currentThread().getId();
+        long bytes = Long.MAX_VALUE;
+        long nanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long startBytes = threads.getThreadAllocatedBytes(threadId);
+            final long startNanos = threads.getCurrentThreadCpuTime();
+            run(operation, OPERATIONS);
+            nanos = Math.min(nanos, (threads.getCurrentThreadCpuTime() - startNanos) / OPERATIONS);
+            bytes = Math.min(bytes, (threads.getThreadAllocatedBytes(threadId) - startBytes) / OPERATIONS);
+        }
+        return new long[] {bytes, nanos};
+    }
+
+    private static void run(final Supplier<Object> operation, final int count) {
+        for (int i = 0; i < count; i++) {
+            sink = operation.get();
+        }
+    }
+
+    private long budget(final String key) {
+        final String value = budgets.getProperty(key);
+        assertThat(value).as("Budget %s", key).isNotNull();
+        return Long.parseLong(value.trim());
+    }
+}
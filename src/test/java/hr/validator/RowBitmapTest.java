@@ -0,0 +1,129 @@
+package hr.validator;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.bulk.BulkValidationResults;
+import hr.validation.bulk.RecordValidationResult;
+import hr.validation.bulk.RowBitmap;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for row bitmaps and bulk validation results.
+ * Bitmap operations are compared with the same operations on {@link BitSet}.
+ *
+ * @author frano.pecek
+ */
+public class RowBitmapTest {
+
+    private static final String[] FIELDS = {"amount"};
+
+    /**
+     * Create random rows, sparse and dense parts of bitmap use different containers.
+     */
+    private static BitSet randomRows(final Random random, final double density) {
+        final BitSet rows = new BitSet();
+        for (int row = 0; row < 300_000; row++) {
+            if (random.nextDouble() < (row < 150_000 ? density : density / 100)) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Test union, intersection and cardinality of sparse and dense bitmaps.
+     */
+    @Test
+    public void testSetOperations() {
+        final Random random = new Random(42);
+        final BitSet first = randomRows(random, 0.5);
+        final BitSet second = randomRows(random, 0.02);
+
+        final BitSet union = (BitSet) first.clone();
+        union.or(second);
+        final BitSet intersection = (BitSet) first.clone();
+        intersection.and(second);
+
+        final RowBitmap firstBitmap = RowBitmap.of(first);
+        final RowBitmap secondBitmap = RowBitmap.of(second);
+
+        assertThat(firstBitmap.cardinality()).isEqualTo((long) first.cardinality());
+        assertThat(RowBitmap.union(firstBitmap, secondBitmap).toBitSet()).isEqualTo(union);
+        assertThat(RowBitmap.intersection(firstBitmap, secondBitmap).toBitSet()).isEqualTo(intersection);
+        assertThat(RowBitmap.intersection(firstBitmap, secondBitmap).cardinality())
+                .isEqualTo((long) intersection.cardinality());
+        assertThat(firstBitmap.toBitSet()).isEqualTo(first);
+    }
+
+    /**
+     * Test iteration, containment and shifting of rows.
+     */
+    @Test
+    public void testRows() {
+        final RowBitmap bitmap = RowBitmap.of(70_000, 3, 65_535, 3);
+
+        assertThat(bitmap.cardinality()).isEqualTo(3L);
+        assertThat(bitmap.contains(65_535)).isTrue();
+        assertThat(bitmap.contains(65_536)).isFalse();
+        assertThat(bitmap.shift(10)).isEqualTo(RowBitmap.of(13, 65_545, 70_010));
+        assertThat(bitmap.shift(65_536)).isEqualTo(RowBitmap.of(65_539, 131_071, 135_536));
+        assertThat(bitmap.toString()).isEqualTo("RowBitmap [cardinality=3, rows=3,65535,70000]");
+    }
+
+    /**
+     * Test merging of partition results and lazy expansion to validation results.
+     */
+    @Test
+    public void testBulkValidationResults() {
+        final BulkValidationResults first = new BulkValidationResults()
+                .addFailingRows(GlobalExceptionMessageCode.INVALID_PARAMETER, ExceptionSeverityLevel.ERROR, FIELDS,
+                        RowBitmap.of(1, 4));
+        final BulkValidationResults second = new BulkValidationResults()
+                .addFailingRow(GlobalExceptionMessageCode.INVALID_PARAMETER, ExceptionSeverityLevel.ERROR, FIELDS, 0)
+                .addFailingRow(GlobalExceptionMessageCode.NOT_NULL, ExceptionSeverityLevel.ERROR, FIELDS, 0)
+                .add(new ValidationResult(GlobalExceptionMessageCode.DATA_NOT_FOUND));
+
+        first.merge(second, 4);
+
+        assertThat(first.size()).isEqualTo(4L);
+        assertThat(first.getRowsFailingAll(GlobalExceptionMessageCode.INVALID_PARAMETER, GlobalExceptionMessageCode.NOT_NULL))
+                .isEqualTo(RowBitmap.of(4));
+        assertThat(first.getFailingRows()).isEqualTo(RowBitmap.of(1, 4));
+        assertThat(first).extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.DATA_NOT_FOUND, GlobalExceptionMessageCode.INVALID_PARAMETER,
+                        GlobalExceptionMessageCode.INVALID_PARAMETER, GlobalExceptionMessageCode.NOT_NULL);
+        assertThat(first.toValidationResults()).extracting(result -> result instanceof RecordValidationResult
+                ? ((RecordValidationResult) result).getRowIndex() : RecordValidationResult.UNKNOWN)
+                .containsExactly(RecordValidationResult.UNKNOWN, 1L, 4L, 4L);
+    }
+
+    /**
+     * Test that rows of the same message code with different severity level or fields keep
+     * their own severity level and fields, and are queried together by message code.
+     */
+    @Test
+    public void testBulkValidationResultsOfDifferentFields() {
+        final BulkValidationResults results = new BulkValidationResults()
+                .addFailingRow(GlobalExceptionMessageCode.INVALID_PARAMETER, ExceptionSeverityLevel.ERROR, FIELDS, 1)
+                .merge(new BulkValidationResults()
+                        .addFailingRow(GlobalExceptionMessageCode.INVALID_PARAMETER, ExceptionSeverityLevel.WARNING,
+                                FIELDS, 0)
+                        .addFailingRow(GlobalExceptionMessageCode.INVALID_PARAMETER, ExceptionSeverityLevel.ERROR,
+                                new String[]{"other"}, 1), 1);
+
+        assertThat(results.getMessageCodes()).containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER);
+        assertThat(results.getFailingRows(GlobalExceptionMessageCode.INVALID_PARAMETER)).isEqualTo(RowBitmap.of(1, 2));
+        assertThat(results.cardinality(GlobalExceptionMessageCode.INVALID_PARAMETER)).isEqualTo(2L);
+        assertThat(results.size()).isEqualTo(3L);
+        assertThat(results).extracting(ValidationResult::getSeverityLevel)
+                .containsExactly(ExceptionSeverityLevel.ERROR, ExceptionSeverityLevel.WARNING, ExceptionSeverityLevel.ERROR);
+        assertThat(results).extracting(result -> result.getFields()[0])
+                .containsExactly(FIELDS[0], FIELDS[0], "other");
+    }
+}
@@ -0,0 +1,204 @@
+package hr.validator;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.rule.RuleCompiler;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for validators created from rule definitions.
+ * Compiled rules are checked against interpreted rules on random data.
+ *
+ * @author frano.pecek
+ */
+public class RuleCompilerTest {
+
+    private static final String[] RULES = {
+        "quantity between 1 and 100 -> INVALID_PARAMETER",
+        "weight >= 0 and weight < 10.5 -> INVALID_PARAMETER WARNING",
+        "amount <= 1000.50 or amount is null -> INVALID_PARAMETER",
+        "status in (\"NEW\", \"PAID\") and not cancelled -> NOT_AUTHORIZED",
+        "customer.email matches \"[a-z]+@[a-z]+\\\\.com\" -> INVALID_PARAMETER INFO",
+        "customer is null or customer.age >= 18 -> NOT_AUTHORIZED",
+        "reference == null or reference > quantity -> DATA_NOT_FOUND",
+    };
+
+    private final RuleCompiler<Order> compiler = new RuleCompiler<>(Order.class,
+            RuleCompiler.enumCodes(GlobalExceptionMessageCode.class));
+
+    /**
+     * Test that compiled and interpreted rules give the same results.
+     */
+    @Test
+    public void testCompiledEqualsInterpreted() {
+        final Validator<Order> compiled = compiler.compile(RULES);
+        final Validator<Order> interpreted = compiler.interpret(RULES);
+        final Random random = new Random(47);
+        for (int i = 0; i < 10_000; i++) {
+            final Order order = randomOrder(random);
+            assertThat(describe(compiled.validate(order))).isEqualTo(describe(interpreted.validate(order)));
+            assertThat(compiled.isValidFast(order)).isEqualTo(interpreted.isValidFast(order));
+        }
+    }
+
+    /**
+     * Test rule sets larger than one generated class, with failing rules at the border of classes,
+     * and empty rule set.
+     */
+    @Test
+    public void testManyRules() {
+        final List<String> rules = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            rules.add("quantity != " + i / 2 + " -> INVALID_PARAMETER");
+        }
+        final Validator<Order> compiled = compiler.compile(rules);
+        final Validator<Order> interpreted = compiler.interpret(rules);
+        final Order order = new Order();
+        for (int quantity = -1; quantity <= 300; quantity++) {
+            order.quantity = quantity;
+            assertThat(describe(compiled.validate(order))).isEqualTo(describe(interpreted.validate(order)));
+            assertThat(compiled.validate(order).size()).isEqualTo(quantity < 0 || quantity == 300 ? 0 : 2);
+            assertThat(compiled.isValidFast(order)).isEqualTo(interpreted.isValidFast(order));
+        }
+        assertThat(compiler.compile().validate(order).isValid()).isTrue();
+        assertThat(compiler.compile().isValidFast(order)).isTrue();
+    }
+
+    /**
+     * Test fields, message parameters and severity level of result.
+     */
+    @Test
+    public void testResult() {
+        final Order order = new Order();
+        order.quantity = 5;
+        order.customer = new Customer();
+        order.customer.email = "Not an email";
+        order.customer.age = 20;
+        order.status = Status.PAID;
+
+        final ValidationResults results = compiler.compile(RULES).validate(order);
+
+        assertThat(results.size()).isEqualTo(1);
+        final ValidationResult result = results.iterator().next();
+        assertThat(result.getMessageCode()).isEqualTo(GlobalExceptionMessageCode.INVALID_PARAMETER);
+        assertThat(result.getSeverityLevel()).isEqualTo(ExceptionSeverityLevel.INFO);
+        assertThat(result.getFields()).containsExactly("customer.email");
+        assertThat(result.getMessageParameters()).containsExactly("Not an email");
+    }
+
+    /**
+     * Test that invalid rules are rejected when compiled.
+     */
+    @Test
+    public void testInvalidRules() {
+        assertThatThrownBy(() -> compiler.compile("quantity > -> INVALID_PARAMETER"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("quantity > 1 -> UNKNOWN_CODE"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("unknown > 1 -> INVALID_PARAMETER"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Order randomOrder(final Random random) {
+        final Order order = new Order();
+        order.quantity = random.nextInt(120) - 10;
+        order.weight = random.nextInt(4) == 0 ? 10.5 : random.nextDouble() * 12 - 1;
+        order.amount = random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(110_000), random.nextInt(3));
+        order.status = random.nextInt(6) == 0 ? null : Status.values()[random.nextInt(Status.values().length)];
+        order.cancelled = random.nextBoolean();
+        order.reference = random.nextInt(3) == 0 ? null : (long) random.nextInt(100);
+        if (random.nextInt(4) != 0) {
+            order.customer = new Customer();
+            order.customer.age = random.nextInt(40);
+            order.customer.email = random.nextInt(4) == 0 ? null : random.nextBoolean() ? "ab@cd.com" : "Ab@cd";
+        }
+        return order;
+    }
+
+    private static List<String> describe(final ValidationResults results) {
+        final List<String> description = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            description.add(result.getMessageCode() + " " + result.getSeverityLevel() + " "
+                    + Arrays.toString(result.getFields()) + " " + Arrays.toString(result.getMessageParameters()));
+        }
+        return description;
+    }
+
+    /**
+     * Order status.
+     */
+    public enum Status {
+        NEW, PAID, CANCELLED
+    }
+
+    /**
+     * Customer of order.
+     */
+    public static class Customer {
+
+        private String email;
+        private int age;
+
+        public String getEmail() {
+            return email;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    /**
+     * Validated order.
+     */
+    public static class Order {
+
+        private int quantity;
+        private double weight;
+        private BigDecimal amount;
+        private Status status;
+        private boolean cancelled;
+        private Long reference;
+        private Customer customer;
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public Long getReference() {
+            return reference;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+    }
+}
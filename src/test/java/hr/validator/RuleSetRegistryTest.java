@@ -0,0 +1,166 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.RuleSetRegistry;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.i18n.CacheStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for registry of tenant validators.
+ *
+ * @author frano.pecek
+ */
+public class RuleSetRegistryTest {
+
+    private final Map<String, AtomicInteger> builds = new ConcurrentHashMap<>();
+    private final RuleSetRegistry.RuleSetFactory<String, Integer> factory = (tenant, version) -> {
+        builds.computeIfAbsent(tenant + "@" + version, key -> new AtomicInteger()).incrementAndGet();
+        return data -> data > version
+                ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER, tenant).end()
+                : new ValidationResults();
+    };
+
+    /**
+     * Test that validator requested by many threads at once is built only once and shared.
+     *
+     * @throws Exception if a task fails or waiting is interrupted
+     */
+    @Test
+    public void testSingleFlight() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final RuleSetRegistry<String, Integer> registry = new RuleSetRegistry<>(10, (tenant, version) -> {
+            started.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return factory.build(tenant, version);
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Validator<Integer>>> validators = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                validators.add(executor.submit(() -> registry.get("a", 1)));
+            }
+            started.await();
+            final Validator<Integer> first = validators.get(0).get();
+            for (final Future<Validator<Integer>> validator : validators) {
+                assertThat(validator.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(builds.get("a@1").get()).isEqualTo(1);
+        final CacheStats stats = registry.stats();
+        assertThat(stats.getMisses()).isEqualTo(1L);
+        assertThat(stats.getHits()).isEqualTo(7L);
+        assertThat(stats.getSize()).isEqualTo(1L);
+    }
+
+    /**
+     * Test that registry stays within maximum size and evicts tenant that was not used longest.
+     */
+    @Test
+    public void testEviction() {
+        final RuleSetRegistry<String, Integer> registry = new RuleSetRegistry<>(3, factory);
+        final Validator<Integer> a = registry.get("a", 1);
+        registry.get("b", 1);
+        registry.get("c", 1);
+        assertThat(registry.get("a", 1)).isSameAs(a);
+        registry.get("d", 1);
+
+        CacheStats stats = registry.stats();
+        assertThat(stats.getSize()).isEqualTo(3L);
+        assertThat(stats.getEvictions()).isEqualTo(1L);
+        assertThat(registry.get("a", 1)).isSameAs(a);
+        assertThat(builds.get("b@1").get()).isEqualTo(1);
+        registry.get("b", 1);
+        assertThat(builds.get("b@1").get()).isEqualTo(2);
+
+        stats = registry.stats();
+        assertThat(stats.getSize()).isEqualTo(3L);
+        assertThat(stats.getEvictions()).isEqualTo(2L);
+        assertThat(stats.getHits()).isEqualTo(2L);
+        assertThat(stats.getMisses()).isEqualTo(5L);
+    }
+
+    /**
+     * Test that newer version replaces cached validator and older version is built but not cached.
+     */
+    @Test
+    public void testVersions() {
+        final RuleSetRegistry<String, Integer> registry = new RuleSetRegistry<>(10, factory);
+        final Validator<Integer> first = registry.get("a", 1);
+        final Validator<Integer> second = registry.get("a", 2);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.validate(2).isValid()).isTrue();
+        assertThat(registry.get("a", 2)).isSameAs(second);
+
+        assertThat(registry.get("a", 1).validate(2).isValid()).isFalse();
+        registry.get("a", 1);
+        assertThat(builds.get("a@1").get()).isEqualTo(3);
+        assertThat(registry.get("a", 2)).isSameAs(second);
+        assertThat(registry.stats().getSize()).isEqualTo(1L);
+    }
+
+    /**
+     * Test that invalidated tenants are built again on next request.
+     */
+    @Test
+    public void testInvalidation() {
+        final RuleSetRegistry<String, Integer> registry = new RuleSetRegistry<>(10, factory);
+        final Validator<Integer> a = registry.get("a", 1);
+        final Validator<Integer> b = registry.get("b", 1);
+
+        registry.invalidate("a");
+        assertThat(registry.stats().getSize()).isEqualTo(1L);
+        assertThat(registry.get("a", 1)).isNotSameAs(a);
+        assertThat(registry.get("b", 1)).isSameAs(b);
+
+        registry.invalidateAll();
+        assertThat(registry.stats().getSize()).isEqualTo(0L);
+        assertThat(registry.get("b", 1)).isNotSameAs(b);
+        assertThat(builds.get("a@1").get()).isEqualTo(2);
+        assertThat(builds.get("b@1").get()).isEqualTo(2);
+    }
+
+    /**
+     * Test that failed build is reported to the caller, is not cached and next request builds again.
+     */
+    @Test
+    public void testFailedBuild() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RuleSetRegistry<String, Integer> registry = new RuleSetRegistry<>(10, (tenant, version) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("configuration not available");
+            }
+            return factory.build(tenant, version);
+        });
+
+        assertThatThrownBy(() -> registry.get("a", 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("configuration not available");
+        assertThat(registry.stats().getSize()).isEqualTo(0L);
+
+        final Validator<Integer> validator = registry.get("a", 1);
+        assertThat(validator.validate(1).isValid()).isTrue();
+        assertThat(registry.get("a", 1)).isSameAs(validator);
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+}
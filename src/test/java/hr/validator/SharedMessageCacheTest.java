@@ -0,0 +1,131 @@
+package hr.validator;
+
+import hr.validation.ValidationResult;
+import hr.validation.i18n.CacheStats;
+import hr.validation.i18n.DefaultTranslatable;
+import hr.validation.i18n.DefaultTranslateFormat;
+import hr.validation.i18n.MessageCode;
+import hr.validation.i18n.SharedMessageCache;
+import hr.validation.i18n.TranslateFormat;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for shared cache of rendered messages.
+ *
+ * @author frano.pecek
+ */
+public class SharedMessageCacheTest {
+
+    /**
+     * Message codes used in tests.
+     */
+    public enum TestMessageCode implements MessageCode {
+        GREETING("Hello %s");
+
+        private final String message;
+
+        TestMessageCode(final String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private final AtomicReference<Locale> locale = new AtomicReference<>(Locale.ENGLISH);
+    private final TranslateFormat<String> counting = translatable -> {
+        renders.incrementAndGet();
+        return DefaultTranslateFormat.INSTANCE.translateAndFormat(translatable);
+    };
+
+    /**
+     * Test that the same code, locale and parameters are rendered once.
+     */
+    @Test
+    public void testHits() {
+        final SharedMessageCache cache = new SharedMessageCache(counting, locale::get, 100);
+
+        assertThat(cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "Ana"))).isEqualTo("Hello Ana");
+        assertThat(cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "Ana"))).isEqualTo("Hello Ana");
+        assertThat(cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "Iva"))).isEqualTo("Hello Iva");
+        locale.set(Locale.GERMAN);
+        cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "Ana"));
+
+        final CacheStats stats = cache.stats();
+        assertThat(renders.get()).isEqualTo(3);
+        assertThat(stats.getHits()).isEqualTo(1L);
+        assertThat(stats.getMisses()).isEqualTo(3L);
+        assertThat(stats.getUncacheable()).isEqualTo(0L);
+        assertThat(stats.getSize()).isEqualTo(3L);
+    }
+
+    /**
+     * Test that messages with mutable parameters are rendered on every call and counted separately.
+     */
+    @Test
+    public void testUncacheable() {
+        final SharedMessageCache cache = new SharedMessageCache(counting, locale::get, 100);
+        final StringBuilder name = new StringBuilder("Ana");
+        final DefaultTranslatable translatable = new DefaultTranslatable(TestMessageCode.GREETING, name);
+
+        assertThat(cache.translateAndFormat(translatable)).isEqualTo("Hello Ana");
+        name.append("-Marija");
+        assertThat(cache.translateAndFormat(translatable)).isEqualTo("Hello Ana-Marija");
+
+        final CacheStats stats = cache.stats();
+        assertThat(renders.get()).isEqualTo(2);
+        assertThat(stats.getUncacheable()).isEqualTo(2L);
+        assertThat(stats.getMisses()).isEqualTo(0L);
+        assertThat(stats.getSize()).isEqualTo(0L);
+        assertThat(stats.hitRate()).isEqualTo(1.0);
+    }
+
+    /**
+     * Test that cache stays within maximum size and keeps recently used messages.
+     */
+    @Test
+    public void testEviction() {
+        final SharedMessageCache cache = new SharedMessageCache(counting, locale::get, 10);
+        for (int i = 0; i < 100; i++) {
+            cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "name" + i));
+            cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "recent"));
+        }
+
+        final CacheStats stats = cache.stats();
+        assertThat(stats.getSize()).isLessThanOrEqualTo(10L);
+        assertThat(stats.getEvictions()).isEqualTo(101 - stats.getSize());
+        assertThat(stats.getHits()).isEqualTo(99L);
+        assertThat(renders.get()).isEqualTo(101);
+
+        cache.clear();
+        assertThat(cache.stats().getSize()).isEqualTo(0L);
+        cache.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING, "recent"));
+        assertThat(renders.get()).isEqualTo(102);
+    }
+
+    /**
+     * Test that message of validation result is rendered again after its parameters change.
+     */
+    @Test
+    public void testInvalidationAfterParametersChange() {
+        final ValidationResult result = new ValidationResult(TestMessageCode.GREETING).withMessageParameters("Ana");
+        assertThat(result.getMessage()).isEqualTo("Hello Ana");
+        assertThat(result.withMessageParameters("Iva").getMessage()).isEqualTo("Hello Iva");
+
+        final Object[] parameters = {"Ana"};
+        final ValidationResult shared = new ValidationResult(TestMessageCode.GREETING).withMessageParameters(parameters);
+        parameters[0] = "Iva";
+        assertThat(shared.getMessage()).isEqualTo("Hello Ana");
+        assertThat(new ValidationResult(TestMessageCode.GREETING).withMessageParameters(parameters).getMessage())
+                .isEqualTo("Hello Iva");
+    }
+}
@@ -0,0 +1,133 @@
+package hr.validator;
+
+import hr.validation.i18n.DefaultTranslateFormat;
+import hr.validation.i18n.DefaultTranslatable;
+import hr.validation.i18n.MessageCode;
+import hr.validation.i18n.TemplateFormatter;
+import hr.validation.i18n.TranslationAudit;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for audit of message translations.
+ *
+ * @author frano.pecek
+ */
+public class TranslationAuditTest {
+
+    /**
+     * Message codes used in tests, each declaring its number of parameters.
+     */
+    public enum TestMessageCode implements MessageCode {
+        GREETING(1),
+        TOTAL(2),
+        UNDECLARED(-1);
+
+        private final int parameterCount;
+
+        TestMessageCode(final int parameterCount) {
+            this.parameterCount = parameterCount;
+        }
+
+        @Override
+        public String getMessage() {
+            return null;
+        }
+
+        @Override
+        public int getParameterCount() {
+            return parameterCount;
+        }
+    }
+
+    private final Map<Locale, Map<MessageCode, String>> templates = new HashMap<>();
+    private final TranslationAudit audit = new TranslationAudit(
+            (code, locale) -> templates.getOrDefault(locale, Collections.<MessageCode, String>emptyMap()).get(code),
+            new TemplateFormatter(100));
+
+    /**
+     * Test that correct translations have no issues.
+     */
+    @Test
+    public void testNoIssues() {
+        translate(Locale.ENGLISH, "Hello %s", "%s of %s", "%s %s %s");
+        translate(Locale.GERMAN, "Hallo %s", "%2$s von %1$s", "");
+
+        assertThat(audit.audit(TranslationAudit.codesOf(TestMessageCode.class), Arrays.asList(Locale.ENGLISH, Locale.GERMAN)))
+                .isEmpty();
+        audit.verify(TranslationAudit.codesOf(TestMessageCode.class), Arrays.asList(Locale.ENGLISH, Locale.GERMAN));
+    }
+
+    /**
+     * Test that missing and invalid templates, and templates with wrong number of parameters
+     * are reported for each locale.
+     */
+    @Test
+    public void testIssues() {
+        translate(Locale.ENGLISH, "Hello %s", "%s of", "%s");
+        translate(Locale.GERMAN, null, "%2$s von %1$q", "%s");
+
+        final List<TranslationAudit.Issue> issues = audit.audit(TranslationAudit.codesOf(TestMessageCode.class),
+                Arrays.asList(Locale.ENGLISH, Locale.GERMAN));
+        assertThat(issues).extracting(TranslationAudit.Issue::getType).containsExactly(
+                TranslationAudit.IssueType.MISSING_TEMPLATE,
+                TranslationAudit.IssueType.PARAMETER_COUNT_MISMATCH,
+                TranslationAudit.IssueType.INVALID_TEMPLATE);
+        assertThat(issues).extracting(TranslationAudit.Issue::getCode)
+                .containsExactly(TestMessageCode.GREETING, TestMessageCode.TOTAL, TestMessageCode.TOTAL);
+        assertThat(issues).extracting(TranslationAudit.Issue::getLocale)
+                .containsExactly(Locale.GERMAN, Locale.ENGLISH, Locale.GERMAN);
+        assertThat(issues.get(1).getDescription()).isEqualTo("template uses 1 parameter(s), message code declares 2");
+
+        assertThatThrownBy(() -> audit.verify(TranslationAudit.codesOf(TestMessageCode.class),
+                Arrays.asList(Locale.ENGLISH, Locale.GERMAN)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("found 3 issue(s)")
+                .hasMessageContaining("MISSING_TEMPLATE GREETING [de]");
+    }
+
+    /**
+     * Test that codes are translated with null locale when no locale is given.
+     */
+    @Test
+    public void testWithoutLocales() {
+        translate(null, "Hello %s", "%s of %s", "");
+
+        assertThat(audit.audit(TranslationAudit.codesOf(TestMessageCode.class), Collections.<Locale>emptyList())).isEmpty();
+        assertThat(audit.audit(TranslationAudit.codesOf(TestMessageCode.class), Collections.singletonList(Locale.ENGLISH)))
+                .hasSize(3);
+    }
+
+    /**
+     * Test that every message without template is counted, also when its code is not an enum.
+     */
+    @Test
+    public void testMissingTemplateCount() {
+        final DefaultTranslateFormat format = new DefaultTranslateFormat();
+        for (int i = 0; i < 2000; i++) {
+            final MessageCode code = () -> null;
+            assertThat(format.translateAndFormat(new DefaultTranslatable(code))).isEqualTo(MessageCode.NO_CODE);
+        }
+        assertThat(format.translateAndFormat(new DefaultTranslatable(TestMessageCode.GREETING))).isEqualTo(MessageCode.NO_CODE);
+        assertThat(format.getMissingTemplateCount()).isEqualTo(2001L);
+    }
+
+    private void translate(final Locale locale, final String... messages) {
+        final Map<MessageCode, String> translations = new HashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            if (messages[i] != null) {
+                translations.put(TestMessageCode.values()[i], messages[i]);
+            }
+        }
+        templates.put(locale, translations);
+    }
+}
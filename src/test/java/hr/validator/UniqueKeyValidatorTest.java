@@ -0,0 +1,236 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.bulk.RecordValidationResult;
+import hr.validation.bulk.UniqueKeyValidator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for validation of unique keys in streams, with log of key hashes kept in memory
+ * and spilled to file.
+ *
+ * @author frano.pecek
+ */
+public class UniqueKeyValidatorTest {
+
+    /**
+     * Two different keys with the same 64-bit key hash, found by collision search.
+     */
+    private static final String COLLIDING_KEY = "\u6190\u52e4\u5c21\u6a24\u5972";
+    private static final String COLLIDING_OTHER_KEY = "\u52a1\u5e46\u566b\u5e7d\u57b8";
+
+    private Path directory;
+
+    /**
+     * Create spill directory.
+     *
+     * @throws IOException if directory can not be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("unique-keys-test");
+    }
+
+    /**
+     * Delete spill directory.
+     *
+     * @throws IOException if directory can not be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Test that every repeated key is reported at its row with row of the first record with
+     * the same key, in memory and with spilling.
+     */
+    @Test
+    public void testFirstOccurrenceRows() {
+        final List<String> keys = Arrays.asList("a", "b", "a", "c", null, "b", "a");
+        for (final UniqueKeyValidator<String> validator : validators(Function.identity(), 1000)) {
+            final ValidationResults results = validator.validate(keys.stream());
+            assertThat(rows(results)).containsExactly(2L, 5L, 6L);
+            assertThat(results).extracting(ValidationResult::getMessageCode)
+                    .containsOnly(CoreValidationMessageCode.DUPLICATE_KEY);
+            assertThat(parameters(results)).containsExactly("a:0", "b:1", "a:0");
+            assertThat(validator.validate(Stream.of("x", "y", "z")).isValid()).isTrue();
+        }
+    }
+
+    /**
+     * Test that keys reported as probably seen by saturated Bloom filter are not reported
+     * as duplicates when they are unique.
+     */
+    @Test
+    public void testBloomFalsePositives() {
+        for (final UniqueKeyValidator<String> validator : validators(Function.identity(), 1)) {
+            assertThat(validator.validate(IntStream.range(0, 5000).mapToObj(i -> "key" + i)).isValid()).isTrue();
+            final ValidationResults results = validator.validate(IntStream.range(0, 5000)
+                    .mapToObj(i -> "key" + (i == 4000 ? 123 : i)));
+            assertThat(rows(results)).containsExactly(4000L);
+            assertThat(parameters(results)).containsExactly("key123:123");
+        }
+    }
+
+    /**
+     * Test that different keys with the same hash are duplicates only without spilling,
+     * spilled keys are compared.
+     */
+    @Test
+    public void testHashCollisions() {
+        final List<String> keys = Arrays.asList(COLLIDING_KEY, "other", COLLIDING_OTHER_KEY);
+        final UniqueKeyValidator<String> spilling = UniqueKeyValidator.builder(Function.<String>identity())
+                .spillTo(directory)
+                .build();
+        assertThat(spilling.validate(keys.stream()).isValid()).isTrue();
+        assertThat(rows(spilling.validate(Stream.concat(keys.stream(), Stream.of(COLLIDING_OTHER_KEY)))))
+                .containsExactly(3L);
+
+        final UniqueKeyValidator<String> inMemory = UniqueKeyValidator.builder(Function.<String>identity()).build();
+        assertThat(rows(inMemory.validate(keys.stream()))).containsExactly(2L);
+    }
+
+    /**
+     * Test that spill file exists only while session is open, also when validation fails.
+     *
+     * @throws IOException if spill directory can not be listed
+     */
+    @Test
+    public void testSpillFileDeleted() throws IOException {
+        final UniqueKeyValidator<String> validator = UniqueKeyValidator.builder(Function.<String>identity())
+                .spillTo(directory)
+                .build();
+        final UniqueKeyValidator<String>.Session session = validator.session();
+        try {
+            session.accept(0, "a");
+            session.accept(1, "a");
+            assertThat(files()).hasSize(1);
+            assertThat(rows(session.finish())).containsExactly(1L);
+        } finally {
+            session.close();
+        }
+        assertThat(files()).isEmpty();
+
+        assertThat(validator.validate(Stream.of("a", "a")).isInvalid()).isTrue();
+        assertThat(files()).isEmpty();
+
+        final UniqueKeyValidator<String> failing = UniqueKeyValidator.builder((String key) -> {
+            if (key.isEmpty()) {
+                throw new IllegalStateException("key failed");
+            }
+            return key;
+        }).spillTo(directory).build();
+        assertThatThrownBy(() -> failing.validate(Stream.of("a", ""))).isInstanceOf(IllegalStateException.class);
+        assertThat(files()).isEmpty();
+    }
+
+    /**
+     * Test that keys are checked in the same pass as validation of single records, and that
+     * spill file is deleted when the pass ends.
+     *
+     * @throws IOException if spill directory can not be listed
+     */
+    @Test
+    public void testSamePassAsRecordValidation() throws IOException {
+        final Validator<String> notEmpty = data -> data.isEmpty()
+                ? new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL, "key").end()
+                : new ValidationResults();
+        for (final UniqueKeyValidator<String> unique : validators(Function.identity(), 1000)) {
+            final List<ValidationResult> results = new ArrayList<>();
+            notEmpty.andAggregate(unique).validate(Stream.of("a", "", "b", "a")).forEach(results::add);
+            assertThat(results).extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.NOT_NULL, CoreValidationMessageCode.DUPLICATE_KEY);
+            assertThat(((RecordValidationResult) results.get(1)).getRowIndex()).isEqualTo(3L);
+            assertThat(results.get(1).getMessageParameters()).containsExactly("a", 0L);
+        }
+        assertThat(files()).isEmpty();
+    }
+
+    /**
+     * Test that parts of parallel stream are checked against each other with rows of the whole
+     * stream. Keys of duplicates found across parts are reported when keys are spilled.
+     *
+     * @throws IOException if spill directory can not be listed
+     */
+    @Test
+    public void testParallelStream() throws IOException {
+        final Function<Integer, String> key = i -> "key" + i % 7000;
+        final List<Long> rows = new ArrayList<>();
+        final List<Long> firstRows = new ArrayList<>();
+        final List<String> parameters = new ArrayList<>();
+        for (long row = 7000; row < 10_000; row++) {
+            rows.add(row);
+            firstRows.add(row - 7000);
+            parameters.add("key" + (row - 7000) + ":" + (row - 7000));
+        }
+        final Validator<Integer> any = data -> new ValidationResults();
+        final UniqueKeyValidator<Integer> spilling = UniqueKeyValidator.builder(key).spillTo(directory).build();
+        ValidationResults results = any.andAggregate(spilling).validate(IntStream.range(0, 10_000).boxed().parallel());
+        assertThat(rows(results)).isEqualTo(rows);
+        assertThat(parameters(results)).isEqualTo(parameters);
+        assertThat(files()).isEmpty();
+
+        final UniqueKeyValidator<Integer> inMemory = UniqueKeyValidator.builder(key).build();
+        results = any.andAggregate(inMemory).validate(IntStream.range(0, 10_000).boxed().parallel());
+        assertThat(rows(results)).isEqualTo(rows);
+        final List<Object> actualFirstRows = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            actualFirstRows.add(result.getMessageParameters()[1]);
+        }
+        assertThat(actualFirstRows).isEqualTo(new ArrayList<Object>(firstRows));
+    }
+
+    private List<UniqueKeyValidator<String>> validators(final Function<String, String> key, final long expectedRows) {
+        return Arrays.asList(
+                UniqueKeyValidator.builder(key).expectedRows(expectedRows).build(),
+                UniqueKeyValidator.builder(key).expectedRows(expectedRows).spillTo(directory).build());
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> rows(final ValidationResults results) {
+        final List<Long> rows = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            rows.add(((RecordValidationResult) result).getRowIndex());
+        }
+        return rows;
+    }
+
+    private static List<String> parameters(final ValidationResults results) {
+        final List<String> parameters = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            parameters.add(result.getMessageParameters()[0] + ":" + result.getMessageParameters()[1]);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,290 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.reactive.Validated;
+import hr.validation.reactive.ValidatingProcessor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for validating {@link Flow.Processor}. Upstream is driven by the test, so demand
+ * requested by the processor is checked exactly.
+ *
+ * @author frano.pecek
+ */
+public class ValidatingProcessorTest {
+
+    private static final Validator<Integer> NEGATIVE = data -> data < 0
+            ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER, "value").end()
+            : new ValidationResults();
+
+    /**
+     * Upstream subscription recording demand and cancellation.
+     */
+    private static final class Upstream implements Flow.Subscription {
+
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+
+        @Override
+        public void request(final long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Publish items while there is demand.
+         */
+        private int publish(final ValidatingProcessor<Integer> processor, final int... items) {
+            int published = 0;
+            for (final int item : items) {
+                if (requested.get() == 0 || cancelled) {
+                    break;
+                }
+                requested.decrementAndGet();
+                processor.onNext(item);
+                published++;
+            }
+            return published;
+        }
+    }
+
+    /**
+     * Subscriber recording received items and signals.
+     */
+    private static final class Recorder implements Flow.Subscriber<Validated<Integer>> {
+
+        private final long initialRequest;
+        private final List<Integer> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        Recorder(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription newSubscription) {
+            subscription = newSubscription;
+            if (initialRequest > 0) {
+                newSubscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(final Validated<Integer> item) {
+            items.add(item.getItem());
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Test that at most buffer size items are requested from upstream and items are
+     * published only on demand.
+     */
+    @Test
+    public void testDemand() {
+        final ValidatingProcessor<Integer> processor = ValidatingProcessor.of(NEGATIVE, 4);
+        final Upstream upstream = new Upstream();
+        final Recorder recorder = new Recorder(2);
+        processor.subscribe(recorder);
+        processor.onSubscribe(upstream);
+
+        assertThat(upstream.requested.get()).isEqualTo(4L);
+        assertThat(upstream.publish(processor, 1, 2, 3, 4, 5, 6, 7)).isEqualTo(6);
+        assertThat(recorder.items).containsExactly(1, 2);
+        assertThat(upstream.requested.get()).isEqualTo(0L);
+
+        recorder.subscription.request(5);
+        assertThat(recorder.items).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(upstream.requested.get()).isEqualTo(4L);
+        assertThat(upstream.publish(processor, 7, 8, 9, 10, 11)).isEqualTo(5);
+        processor.onComplete();
+        assertThat(recorder.items).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        assertThat(recorder.completed).isFalse();
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertThat(recorder.items).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        assertThat(recorder.completed).isTrue();
+    }
+
+    /**
+     * Test that invalid items waiting for demand of invalid subscriber do not hold back valid items.
+     */
+    @Test
+    public void testInvalidSubscriberWithoutDemand() {
+        final Recorder invalid = new Recorder(0);
+        final ValidatingProcessor<Integer> processor = ValidatingProcessor.of(NEGATIVE, 3).routeInvalidTo(invalid);
+        final Upstream upstream = new Upstream();
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        processor.onSubscribe(upstream);
+
+        assertThat(upstream.publish(processor, -1, 1, 2, -2, 3, -3, 4, 5)).isEqualTo(6);
+        assertThat(recorder.items).containsExactly(1, 2, 3);
+        assertThat(invalid.items).isEmpty();
+        assertThat(upstream.requested.get()).as("buffer full of invalid items").isEqualTo(0L);
+
+        invalid.subscription.request(2);
+        assertThat(invalid.items).containsExactly(-1, -2);
+        assertThat(upstream.publish(processor, 4, 5)).isEqualTo(2);
+        processor.onComplete();
+        assertThat(recorder.items).containsExactly(1, 2, 3, 4, 5);
+        assertThat(recorder.completed).isTrue();
+        assertThat(invalid.completed).isFalse();
+
+        invalid.subscription.request(1);
+        assertThat(invalid.items).containsExactly(-1, -2, -3);
+        assertThat(invalid.completed).isTrue();
+    }
+
+    /**
+     * Test that cancelling subscription cancels upstream, and that items of cancelled invalid
+     * subscriber are dropped.
+     */
+    @Test
+    public void testCancel() {
+        final Recorder invalid = new Recorder(1);
+        final ValidatingProcessor<Integer> processor = ValidatingProcessor.of(NEGATIVE, 2).routeInvalidTo(invalid);
+        final Upstream upstream = new Upstream();
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        processor.onSubscribe(upstream);
+
+        upstream.publish(processor, -1, -2, -3);
+        invalid.subscription.cancel();
+        assertThat(upstream.publish(processor, -3, 1, -4, 2)).isEqualTo(4);
+        assertThat(invalid.items).containsExactly(-1);
+        assertThat(recorder.items).containsExactly(1, 2);
+
+        recorder.subscription.cancel();
+        assertThat(upstream.cancelled).isTrue();
+        processor.onNext(3);
+        assertThat(recorder.items).containsExactly(1, 2);
+        assertThat(recorder.completed).isFalse();
+    }
+
+    /**
+     * Test that validator exception and invalid demand fail both subscribers and cancel
+     * upstream, and that upstream error is published after buffered items.
+     */
+    @Test
+    public void testErrors() {
+        final Validator<Integer> failing = data -> {
+            if (data == 3) {
+                throw new IllegalStateException("validator failed");
+            }
+            return NEGATIVE.validate(data);
+        };
+        final Recorder invalid = new Recorder(Long.MAX_VALUE);
+        final ValidatingProcessor<Integer> processor = ValidatingProcessor.of(failing, 4).routeInvalidTo(invalid);
+        final Upstream upstream = new Upstream();
+        final Recorder recorder = new Recorder(Long.MAX_VALUE);
+        processor.subscribe(recorder);
+        processor.onSubscribe(upstream);
+        upstream.publish(processor, 1, -1, 3, 4);
+
+        assertThat(recorder.items).containsExactly(1);
+        assertThat(invalid.items).containsExactly(-1);
+        assertThat(recorder.error).isInstanceOf(IllegalStateException.class);
+        assertThat(invalid.error).isInstanceOf(IllegalStateException.class);
+        assertThat(upstream.cancelled).isTrue();
+
+        final ValidatingProcessor<Integer> buffered = ValidatingProcessor.of(NEGATIVE, 4);
+        final Upstream bufferedUpstream = new Upstream();
+        final Recorder bufferedRecorder = new Recorder(1);
+        buffered.subscribe(bufferedRecorder);
+        buffered.onSubscribe(bufferedUpstream);
+        bufferedUpstream.publish(buffered, 1, 2);
+        buffered.onError(new IllegalStateException("upstream failed"));
+        assertThat(bufferedRecorder.error).isNull();
+        bufferedRecorder.subscription.request(1);
+        assertThat(bufferedRecorder.items).containsExactly(1, 2);
+        assertThat(bufferedRecorder.error).hasMessageContaining("upstream failed");
+
+        final ValidatingProcessor<Integer> badDemand = ValidatingProcessor.of(NEGATIVE, 4);
+        final Upstream badDemandUpstream = new Upstream();
+        final Recorder badDemandRecorder = new Recorder(0);
+        badDemand.subscribe(badDemandRecorder);
+        badDemand.onSubscribe(badDemandUpstream);
+        badDemandRecorder.subscription.request(0);
+        assertThat(badDemandRecorder.error).isInstanceOf(IllegalArgumentException.class);
+        assertThat(badDemandUpstream.cancelled).isTrue();
+    }
+
+    /**
+     * Test that items validated in parallel are published in the order they were received.
+     *
+     * @throws InterruptedException if interrupted while waiting for completion
+     */
+    @Test
+    public void testParallelOrder() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Validator<Integer> slow = data -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return NEGATIVE.validate(data);
+            };
+            final Recorder invalid = new Recorder(Long.MAX_VALUE);
+            final ValidatingProcessor<Integer> processor = ValidatingProcessor.parallel(slow, executor, 8)
+                    .routeInvalidTo(invalid);
+            final Upstream upstream = new Upstream();
+            final Recorder recorder = new Recorder(Long.MAX_VALUE);
+            processor.subscribe(recorder);
+            processor.onSubscribe(upstream);
+
+            final int[] items = IntStream.range(0, 500).map(i -> i % 3 == 0 ? -i : i).toArray();
+            int published = 0;
+            final long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (published < items.length && System.nanoTime() < timeout) {
+                published += upstream.publish(processor, Arrays.copyOfRange(items, published, items.length));
+                Thread.yield();
+            }
+            processor.onComplete();
+
+            assertThat(recorder.done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(invalid.done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(recorder.items).isEqualTo(IntStream.of(items).filter(i -> i >= 0).boxed().collect(Collectors.toList()));
+            assertThat(invalid.items).isEqualTo(IntStream.of(items).filter(i -> i < 0).boxed().collect(Collectors.toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationContext;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for sharing values in validation context and for scope of contexts in stream validation.
+ *
+ * @author frano.pecek
+ */
+public class ValidationContextTest {
+
+    private static final Validator<Integer> VALID = data -> new ValidationResults();
+    private static final Validator<String> NOT_EMPTY = data -> data.isEmpty()
+            ? new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL, "text").end()
+            : new ValidationResults();
+
+    private final List<ValidationContext> contexts = new CopyOnWriteArrayList<>();
+    private final Validator<Integer> recording = data -> {
+        contexts.add(ValidationContext.current());
+        return new ValidationResults();
+    };
+
+    /**
+     * Test that shared converter runs once per element for all chained validators, also in parallel.
+     */
+    @Test
+    public void testSharedConverter() {
+        final AtomicInteger conversions = new AtomicInteger();
+        final Function<Integer, String> text = ValidationContext.shared(data -> {
+            conversions.incrementAndGet();
+            return data == 0 ? "" : String.valueOf(data);
+        });
+        final Validator<Integer> validator = VALID.andThen(NOT_EMPTY, text).andThen(NOT_EMPTY, text);
+
+        assertThat(validator.validate(IntStream.range(0, 100).boxed())).hasSize(2);
+        assertThat(conversions.get()).isEqualTo(100);
+        assertThat(validator.validate(IntStream.range(0, 100).boxed().parallel())).hasSize(2);
+        assertThat(conversions.get()).isEqualTo(200);
+        assertThat(validator.isValidFast(IntStream.range(1, 100).boxed())).isTrue();
+        assertThat(conversions.get()).isEqualTo(299);
+    }
+
+    /**
+     * Test that every element of a stream is validated in its own context, shared only by
+     * validators of that element.
+     */
+    @Test
+    public void testContextPerElement() {
+        final Validator<Integer> validator = recording.andThen(recording);
+
+        validator.validate(IntStream.range(0, 50).boxed());
+        assertThat(contexts).hasSize(100).doesNotContain((ValidationContext) null);
+        assertThat(distinct(contexts)).isEqualTo(50);
+        for (int i = 0; i < contexts.size(); i += 2) {
+            assertThat(contexts.get(i)).isSameAs(contexts.get(i + 1));
+        }
+        assertThat(ValidationContext.current()).isNull();
+
+        contexts.clear();
+        validator.validate(IntStream.range(0, 50).boxed().parallel());
+        assertThat(contexts).hasSize(100).doesNotContain((ValidationContext) null);
+        assertThat(distinct(contexts)).isEqualTo(50);
+
+        contexts.clear();
+        validator.isValidFast(IntStream.range(0, 50).boxed());
+        assertThat(distinct(contexts)).isEqualTo(50);
+        assertThat(ValidationContext.current()).isNull();
+    }
+
+    /**
+     * Test that elements of a stream validated inside another validation share its context.
+     */
+    @Test
+    public void testEnclosingContext() {
+        final Validator<List<Integer>> validator = ((Validator<List<Integer>>) data -> new ValidationResults())
+                .andThenForEach(recording.andThen(recording), List::stream);
+
+        validator.validate(Arrays.asList(1, 2, 3));
+        assertThat(contexts).hasSize(6).doesNotContain((ValidationContext) null);
+        assertThat(distinct(contexts)).isEqualTo(1);
+        assertThat(ValidationContext.current()).isNull();
+    }
+
+    private static int distinct(final List<ValidationContext> values) {
+        final Set<ValidationContext> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        identities.addAll(values);
+        return identities.size();
+    }
+}
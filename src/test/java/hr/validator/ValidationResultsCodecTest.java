@@ -0,0 +1,247 @@
+package hr.validator;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.Validator;
+import hr.validation.codec.EncodedValidationResults;
+import hr.validation.codec.MessageCodeRegistry;
+import hr.validation.codec.SpillingValidationResults;
+import hr.validation.codec.ValidationResultsCodec;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for binary validation results codec.
+ * Every test encodes validation results created with one of the
+ * {@link ValidationResult} constructors and checks decoded copy.
+ *
+ * @author frano.pecek
+ */
+public class ValidationResultsCodecTest {
+
+    private ValidationResultsCodec codec;
+
+    /**
+     * Initialize codec with registered test message codes.
+     */
+    @Before
+    public void setUp() {
+        codec = new ValidationResultsCodec(MessageCodeRegistry.strict().register(GlobalExceptionMessageCode.class, 1));
+    }
+
+    /**
+     * Test result created with bean, message code, severity level and fields.
+     */
+    @Test
+    public void testBeanCodeSeverityFields() {
+        assertRoundTrip(new ValidationResult(new Object(), GlobalExceptionMessageCode.NOT_NULL,
+                ExceptionSeverityLevel.WARNING, "name", "address.city"));
+    }
+
+    /**
+     * Test result created with message code, severity level and fields.
+     */
+    @Test
+    public void testCodeSeverityFields() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.DATA_NOT_FOUND, ExceptionSeverityLevel.ERROR, "id"));
+    }
+
+    /**
+     * Test result created with message code and severity level.
+     */
+    @Test
+    public void testCodeSeverity() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.NOT_AUTHORIZED, ExceptionSeverityLevel.WARNING));
+    }
+
+    /**
+     * Test result created with bean, message code and fields.
+     */
+    @Test
+    public void testBeanCodeFields() {
+        assertRoundTrip(new ValidationResult(new Object(), GlobalExceptionMessageCode.INVALID_PARAMETER, "a", "b", "a"));
+    }
+
+    /**
+     * Test that null fields stay null and are not confused with field named "null".
+     */
+    @Test
+    public void testNullFields() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.INVALID_PARAMETER, (String) null, "null", null));
+    }
+
+    /**
+     * Test result created with message code and fields.
+     */
+    @Test
+    public void testCodeFields() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.NOT_NULL, "field"));
+    }
+
+    /**
+     * Test result created with message code only.
+     */
+    @Test
+    public void testCode() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.NOT_NULL));
+    }
+
+    /**
+     * Test result without message code and severity level.
+     */
+    @Test
+    public void testNullCodeAndSeverity() {
+        assertRoundTrip(new ValidationResult(null, (ExceptionSeverityLevel) null));
+    }
+
+    /**
+     * Test that message parameters keep their types.
+     */
+    @Test
+    public void testTypedParameters() {
+        assertRoundTrip(new ValidationResult(GlobalExceptionMessageCode.INVALID_PARAMETER, "amount")
+                .withMessageParameters("text", -1, Long.MAX_VALUE, 1.5d, 2.5f, true, false, null,
+                        new BigDecimal("10.50"), new BigInteger("123456789012345678901234567890"),
+                        (short) -7, (byte) 3, '\u017e'));
+    }
+
+    /**
+     * Test encoding of multiple results and decoding from direct buffer.
+     */
+    @Test
+    public void testDirectBufferWithMultipleResults() {
+        final ValidationResults results = new ValidationResults()
+                .add(GlobalExceptionMessageCode.NOT_NULL, "name").withParams("x")
+                .add(GlobalExceptionMessageCode.DATA_NOT_FOUND, ExceptionSeverityLevel.WARNING, "name").end();
+        final byte[] frame = codec.encode(results);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(frame.length);
+        direct.put(frame).flip();
+
+        final EncodedValidationResults decoded = codec.decode(direct);
+
+        assertThat(decoded.size()).isEqualTo(2);
+        assertThat(decoded.isValid()).isFalse();
+        assertThat(decoded.toValidationResults()).extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.NOT_NULL, GlobalExceptionMessageCode.DATA_NOT_FOUND);
+    }
+
+    /**
+     * Test empty validation results.
+     */
+    @Test
+    public void testEmpty() {
+        final EncodedValidationResults decoded = codec.decode(codec.encode(new ValidationResults()));
+
+        assertThat(decoded.isValid()).isTrue();
+        assertThat(decoded.toValidationResults()).isEmpty();
+    }
+
+    /**
+     * Test that strict registry rejects unknown message code.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisteredCode() {
+        final ValidationResultsCodec strict = new ValidationResultsCodec(MessageCodeRegistry.strict());
+        strict.encode(new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL).end());
+    }
+
+    /**
+     * Test that spilled results are read back in order they were added.
+     */
+    @Test
+    public void testSpillingValidationResults() {
+        try (SpillingValidationResults results = new SpillingValidationResults(10)) {
+            for (int i = 0; i < 25; i++) {
+                results.add(GlobalExceptionMessageCode.INVALID_PARAMETER, "row").withParams(i);
+            }
+            results.join(new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL).end());
+
+            assertThat(results.getSpilledCount()).isEqualTo(20L);
+            assertThat(results.size()).isEqualTo(26);
+            assertThat(results.stream().limit(25).map(result -> result.getMessageParameters()[0]).toArray())
+                    .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24);
+            assertThat(new ValidationResults().join(results).size()).isEqualTo(26);
+        }
+    }
+
+    /**
+     * Test that results of stream elements are spilled while the stream is validated, not
+     * collected in memory first.
+     */
+    @Test
+    public void testSpillingWhileValidatingStream() {
+        try (SpillingValidationResults results = new SpillingValidationResults(10)) {
+            final List<Long> spilled = new ArrayList<>();
+            final Validator<Integer> validator = data -> {
+                spilled.add(results.getSpilledCount());
+                return new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER, "row").withParams(data);
+            };
+            assertThat(validator.validate(IntStream.range(0, 25).boxed(), results)).isSameAs(results);
+
+            assertThat(spilled.get(24)).isEqualTo(20L);
+            assertThat(results.size()).isEqualTo(25);
+            assertThat(results.stream().map(result -> result.getMessageParameters()[0]).toArray())
+                    .containsExactly(IntStream.range(0, 25).boxed().toArray());
+        }
+    }
+
+    /**
+     * Test that closing results deletes spill file.
+     *
+     * @throws IOException if temporary directory can not be created or listed
+     */
+    @Test
+    public void testSpillFileDeletedOnClose() throws IOException {
+        final Path directory = Files.createTempDirectory("spilling-results-test");
+        try {
+            final SpillingValidationResults results = new SpillingValidationResults(1, directory);
+            results.add(GlobalExceptionMessageCode.NOT_NULL, "a").end();
+            results.add(GlobalExceptionMessageCode.NOT_NULL, "b").end();
+            assertThat(results.getSpilledBytes()).isPositive();
+            assertThat(files(directory)).hasSize(1);
+
+            results.close();
+            assertThat(files(directory)).isEmpty();
+            results.close();
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    private static List<Path> files(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private void assertRoundTrip(final ValidationResult expected) {
+        final List<ValidationResult> source = new ArrayList<>();
+        source.add(expected);
+
+        final List<ValidationResult> decoded = new ArrayList<>();
+        codec.decode(codec.encode(source)).forEach(decoded::add);
+
+        assertThat(decoded).hasSize(1);
+        final ValidationResult actual = decoded.get(0);
+        assertThat(actual.getMessageCode()).isEqualTo(expected.getMessageCode());
+        assertThat(actual.getSeverityLevel()).isEqualTo(expected.getSeverityLevel());
+        assertThat(actual.getFields()).containsExactly(expected.getFields());
+        assertThat(actual.getMessageParameters()).containsExactly(expected.getMessageParameters());
+    }
+}
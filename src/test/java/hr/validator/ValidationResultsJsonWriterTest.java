@@ -0,0 +1,142 @@
+package hr.validator;
+
+import hr.enums.ExceptionSeverityLevel;
+import hr.validation.ValidationResult;
+import hr.validation.ValidationResults;
+import hr.validation.i18n.MessageCode;
+import hr.validation.json.ValidationResultsJsonWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for streaming JSON writer of validation results.
+ * Output is compared with golden strings, so every change of encoded bytes is visible.
+ *
+ * @author frano.pecek
+ */
+public class ValidationResultsJsonWriterTest {
+
+    /**
+     * Message codes used in tests.
+     */
+    public enum TestMessageCode implements MessageCode {
+        PLAIN("Plain message"),
+        QUOTED("Say \"%s\"\n\tnow");
+
+        private final String message;
+
+        TestMessageCode(final String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Parameter without its own string value.
+     */
+    public static final class Opaque {
+    }
+
+    private final ValidationResultsJsonWriter writer = new ValidationResultsJsonWriter();
+
+    /**
+     * Test escaping of strings, null fields and string value of codes that are not enums.
+     */
+    @Test
+    public void testEscapingAndNullFields() {
+        final ValidationResults results = new ValidationResults()
+                .add(new ValidationResult(TestMessageCode.PLAIN, ExceptionSeverityLevel.WARNING,
+                        "name", null, "a\"b\\c", "\u0001\u001f", "\u00e9\u20ac\ud83d\ude00", "\ud800x"))
+                .add(new ValidationResult(new MessageCode() {
+                    @Override
+                    public String getMessage() {
+                        return "Ad hoc";
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "AD_HOC";
+                    }
+                }));
+
+        assertThat(json(results)).isEqualTo("["
+                + "{\"code\":\"PLAIN\",\"key\":\"PLAIN\",\"message\":\"Plain message\","
+                + "\"fields\":[\"name\",null,\"a\\\"b\\\\c\",\"\\u0001\\u001f\",\"\u00e9\u20ac\ud83d\ude00\",\"?x\"],"
+                + "\"severity\":\"WARNING\",\"parameters\":[]},"
+                + "{\"code\":\"AD_HOC\",\"key\":null,\"message\":\"Ad hoc\",\"fields\":[],\"severity\":\"ERROR\","
+                + "\"parameters\":[]}"
+                + "]");
+    }
+
+    /**
+     * Test parameters of all supported types, including null parameters and objects without string value.
+     */
+    @Test
+    public void testParameters() {
+        final ValidationResults results = new ValidationResults()
+                .add(new ValidationResult(TestMessageCode.QUOTED, "field").withMessageParameters("x\"y", null, 42, 7L,
+                        new BigDecimal("1.50"), Double.NaN, 2.5, true, ExceptionSeverityLevel.INFO,
+                        Arrays.asList(1, "two", null), new int[] {3, 4}, new Opaque()));
+
+        assertThat(json(results)).isEqualTo("["
+                + "{\"code\":\"QUOTED\",\"key\":\"QUOTED\",\"message\":\"Say \\\"x\\\"y\\\"\\n\\tnow\","
+                + "\"fields\":[\"field\"],\"severity\":\"ERROR\","
+                + "\"parameters\":[\"x\\\"y\",null,42,7,1.50,\"NaN\",2.5,true,\"INFO\",[1,\"two\",null],[3,4],"
+                + "\"hr.validator.ValidationResultsJsonWriterTest$Opaque\"]}"
+                + "]");
+    }
+
+    /**
+     * Test that output larger than pooled buffer is the same for every target, and that
+     * reused buffers do not leak bytes of previous output.
+     *
+     * @throws IOException if writing fails
+     */
+    @Test
+    public void testPooledBufferReuse() throws IOException {
+        final ValidationResults large = new ValidationResults();
+        for (int i = 0; i < 1_000; i++) {
+            large.add(new ValidationResult(TestMessageCode.PLAIN, "field" + i));
+        }
+        final ValidationResults small = new ValidationResults().add(new ValidationResult(TestMessageCode.PLAIN, "x"));
+
+        final byte[] expected = writer.toBytes(large);
+        assertThat(expected.length).isGreaterThan(8192);
+        assertThat(json(small)).isEqualTo("[{\"code\":\"PLAIN\",\"key\":\"PLAIN\",\"message\":\"Plain message\","
+                + "\"fields\":[\"x\"],\"severity\":\"ERROR\",\"parameters\":[]}]");
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.write(large, stream);
+        final ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        writer.write(large, Channels.newChannel(channel));
+
+        assertThat(stream.toByteArray()).isEqualTo(expected);
+        assertThat(channel.toByteArray()).isEqualTo(expected);
+        assertThat(writer.toBytes(large)).isEqualTo(expected);
+        assertThat(new ValidationResultsJsonWriter().toBytes(large)).isEqualTo(expected);
+    }
+
+    /**
+     * Test empty results.
+     */
+    @Test
+    public void testEmpty() {
+        assertThat(json(new ValidationResults())).isEqualTo("[]");
+    }
+
+    private String json(final ValidationResults results) {
+        return new String(writer.toBytes(results), StandardCharsets.UTF_8);
+    }
+}
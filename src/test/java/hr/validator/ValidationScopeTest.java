@@ -0,0 +1,152 @@
+package hr.validator;
+
+import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.AbstractValidator;
+import hr.validation.IncrementalValidator;
+import hr.validation.ValidationResults;
+import hr.validation.ValidationScope;
+import hr.validation.Validator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for pooling of validation results in {@link ValidationScope}.
+ *
+ * @author frano.pecek
+ */
+public class ValidationScopeTest {
+
+    /**
+     * Validator reporting empty values.
+     */
+    private static final class NotEmptyValidator extends AbstractValidator<String> {
+        @Override
+        protected ValidationResults doValidate(final String data, final ValidationResults validationResults) {
+            return data.isEmpty() ? validationResults.add(GlobalExceptionMessageCode.NOT_NULL, "value").end() : validationResults;
+        }
+    }
+
+    private final Validator<String> validator = new NotEmptyValidator();
+
+    /**
+     * Test that detached results stay valid after scope is closed and pooled ones are cleared.
+     */
+    @Test
+    public void testDetach() {
+        final ValidationResults pooled;
+        final ValidationResults detached;
+        try (ValidationScope scope = ValidationScope.open()) {
+            pooled = validator.validate("");
+            detached = scope.detach(pooled);
+            assertThat(detached).isNotSameAs(pooled).hasSize(1);
+
+            final ValidationResults unpooled = new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL).end();
+            assertThat(scope.detach(unpooled)).isSameAs(unpooled);
+        }
+        assertThat(pooled).isEmpty();
+        assertThat(detached).hasSize(1);
+        assertThat(validator.validate("")).isNotSameAs(pooled).hasSize(1);
+    }
+
+    /**
+     * Test that results returned to the pool are reused by the next scope, also by nested scopes.
+     */
+    @Test
+    public void testPoolReuse() {
+        final ValidationResults first;
+        final ValidationScope scope = ValidationScope.open();
+        try {
+            first = validator.validate("a");
+        } finally {
+            scope.close();
+        }
+        final ValidationScope next = ValidationScope.open();
+        try {
+            assertThat(validator.validate("")).isSameAs(first).hasSize(1);
+            final ValidationResults nested;
+            final ValidationScope inner = ValidationScope.open();
+            try {
+                nested = validator.validate("");
+                assertThat(nested).isNotSameAs(first);
+            } finally {
+                inner.close();
+            }
+            assertThat(nested).isEmpty();
+            assertThat(first).hasSize(1);
+        } finally {
+            next.close();
+        }
+        assertThat(first).isEmpty();
+    }
+
+    /**
+     * Test that scope can be closed only by the thread that opened it, and that scopes of
+     * many short lived threads return correct results.
+     *
+     * @throws Exception if a task fails or waiting is interrupted
+     */
+    @Test
+    public void testThreads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ValidationScope scope = ValidationScope.open();
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            executor.submit(() -> {
+                try {
+                    scope.close();
+                } catch (RuntimeException e) {
+                    error.set(e);
+                }
+            }).get();
+            assertThat(error.get()).isInstanceOf(IllegalStateException.class);
+            scope.close();
+
+            final int[] sizes = new int[200];
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < sizes.length; i++) {
+                final int index = i;
+                final Thread thread = new Thread(() -> {
+                    try (ValidationScope threadScope = ValidationScope.open()) {
+                        sizes[index] = threadScope.detach(validator.validate(index % 2 == 0 ? "" : "x")).size();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (int i = 0; i < sizes.length; i++) {
+                threads.get(i).join();
+                assertThat(sizes[i]).isEqualTo(i % 2 == 0 ? 1 : 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that incremental results detached from scope keep step results after scope is closed.
+     */
+    @Test
+    public void testIncrementalResultsAfterClose() {
+        final IncrementalValidator<String> incremental = IncrementalValidator.<String>builder()
+                .step(validator, "a")
+                .step(new NotEmptyValidator(), "b")
+                .build();
+        final ValidationResults kept;
+        try (ValidationScope scope = ValidationScope.open()) {
+            kept = scope.detach(incremental.validate(""));
+        }
+        assertThat(kept).hasSize(2);
+
+        final ValidationResults results = incremental.revalidate("", kept, Collections.singletonList("b"));
+        assertThat(results).hasSize(2);
+        assertThat(results.isValid()).isFalse();
+    }
+}
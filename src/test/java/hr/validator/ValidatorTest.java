@@ -1,20 +1,41 @@
 package hr.validator;
 
+import hr.enums.ExceptionSeverityLevel;
 import hr.exception.message.GlobalExceptionMessageCode;
+import hr.validation.AbstractValidator;
+import hr.validation.AggregateValidator;
+import hr.validation.CoreValidationMessageCode;
+import hr.validation.LoadShedding;
+import hr.validation.ValidationGraph;
 import hr.validation.ValidationResult;
 import hr.validation.ValidationResults;
 import hr.validation.Validator;
 import hr.exception.ValidationException;
+import hr.validation.codec.SpillingValidationResults;
+import hr.validation.trace.InMemoryTracer;
+import hr.validation.trace.SpanKind;
+import hr.validation.trace.Tracing;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for Validator implementations.
@@ -299,4 +320,422 @@ public class ValidatorTest {
         assertThat(vr).extracting(ValidationResult::getMessageCode).contains(GlobalExceptionMessageCode.NOT_AUTHORIZED);
     }
 
+    /**
+     * Test validation graph with independent nodes and nodes with prerequisites.
+     * Node depending on invalid node is skipped, node depending on valid node is executed,
+     * and results are joined in node declaration order.
+     * Expected result is validation messages of first node, converted string node and second node.
+     */
+    @Test
+    public void testValidationGraph() {
+        final Validator<ClassToValidate> valid = data -> new ValidationResults();
+        final ValidationResults vr = ValidationGraph.<ClassToValidate>builder()
+                .node("first", validationFirst)
+                .node("valid", valid)
+                .node("afterFirst", validationSecond, "first")
+                .node("afterValid", validationString, ClassToValidate::getValue, "valid")
+                .node("second", validationSecond)
+                .build()
+                .validate(objectToValidate);
+
+        assertThat(vr).hasSize(3);
+        assertThat(vr).extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.NOT_AUTHORIZED, GlobalExceptionMessageCode.INVALID_PARAMETER,
+                        GlobalExceptionMessageCode.DATA_NOT_FOUND);
+    }
+
+    /**
+     * Test alternatives where only one needs to be valid. Invalid alternatives are ignored
+     * if any alternative is valid, otherwise all results are returned in declared order.
+     */
+    @Test
+    public void testAnyOf() {
+        final Validator<ClassToValidate> valid = data -> new ValidationResults();
+
+        assertThat(validationFirst.or(valid).validate(objectToValidate)).isEmpty();
+        assertThat(Validator.anyOf(validationFirst, validationSecond).validate(objectToValidate))
+                .extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.NOT_AUTHORIZED, GlobalExceptionMessageCode.DATA_NOT_FOUND);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertThat(Validator.anyOf(executor, validationFirst, valid, validationSecond).validate(objectToValidate))
+                    .isEmpty();
+            assertThat(validationSecond.or(validationFirst, executor).validate(objectToValidate))
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.DATA_NOT_FOUND, GlobalExceptionMessageCode.NOT_AUTHORIZED);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that racing alternatives return when one of them is valid and interrupt alternative
+     * that is still running.
+     *
+     * @throws InterruptedException if waiting for interruption is interrupted
+     */
+    @Test
+    public void testAnyOfInterruptsRunningAlternative() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Validator<Integer> validAfterStart = data -> {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ValidationResults();
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(Validator.anyOf(executor, blocking(started, interrupted), validAfterStart).validate(1)).isEmpty();
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that racing alternatives that do not finish before deadline are reported as skipped
+     * and interrupted.
+     *
+     * @throws InterruptedException if waiting for interruption is interrupted
+     */
+    @Test
+    public void testAnyOfDeadline() throws InterruptedException {
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Validator<Integer> anyOf = Validator.anyOf(executor,
+                    blocking(new CountDownLatch(1), interrupted), blocking(new CountDownLatch(1), interrupted));
+            final ValidationResults results = anyOf.withDeadline(Duration.ofMillis(50)).validate(1);
+            assertThat(results)
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(CoreValidationMessageCode.VALIDATION_TIMED_OUT);
+            assertThat(results.iterator().next().getMessageParameters()).containsExactly(anyOf.getName());
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test validity probe of composed validators. Probe must give the same answer as validation.
+     */
+    @Test
+    public void testIsValidFast() {
+        final Validator<ClassToValidate> valid = data -> new ValidationResults();
+
+        assertThat(valid.andThen(validationString, ClassToValidate::getValue).isValidFast(objectToValidate)).isFalse();
+        assertThat(valid.andThenIfValid(valid).isValidFast(objectToValidate)).isTrue();
+        assertThat(validationFirst.repack(ValidationResults::new).isValidFast(objectToValidate)).isTrue();
+        assertThat(valid.isValidFast(objectsToValidate)).isTrue();
+    }
+
+    /**
+     * Test aggregate validators running in the same pass as validation of stream elements.
+     * Parallel stream must give the same results as sequential stream.
+     */
+    @Test
+    public void testAndAggregate() {
+        final Validator<Integer> negative = data -> data < 0
+                ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER).end() : new ValidationResults();
+        final Validator<Integer> validator = negative
+                .andAggregate(AggregateValidator.sumEquals(BigDecimal::valueOf, BigDecimal.valueOf(49_995_000),
+                        GlobalExceptionMessageCode.DATA_NOT_FOUND))
+                .andAggregate(AggregateValidator.atMostPerKey(data -> Math.abs(data % 10), 1_000, GlobalExceptionMessageCode.NOT_NULL))
+                .andAggregate(AggregateValidator.nonDecreasing(data -> data, GlobalExceptionMessageCode.NOT_AUTHORIZED));
+
+        assertThat(validator.validate(IntStream.range(0, 10_000).boxed())).isEmpty();
+        assertThat(validator.validate(IntStream.range(0, 10_000).boxed().parallel())).isEmpty();
+        assertThat(validator.validate(IntStream.range(0, 10_000).map(i -> i == 5_000 ? -1 : i).boxed().parallel()))
+                .extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER, GlobalExceptionMessageCode.DATA_NOT_FOUND,
+                        GlobalExceptionMessageCode.NOT_NULL, GlobalExceptionMessageCode.NOT_AUTHORIZED);
+        assertThat(negative.validate(Stream.of(1, -1, 2, -2).parallel()))
+                .extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER, GlobalExceptionMessageCode.INVALID_PARAMETER);
+    }
+
+    /**
+     * Test that combinators applied after aggregate keep it, and apply to validation of single data.
+     */
+    @Test
+    public void testCombinatorsKeepAggregates() {
+        final Validator<Integer> negative = data -> data < 0
+                ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER).end() : new ValidationResults();
+        final Validator<Integer> even = data -> data % 2 == 0
+                ? new ValidationResults().add(GlobalExceptionMessageCode.NOT_NULL).end() : new ValidationResults();
+        final Validator<Integer> aggregating = negative.andAggregate(AggregateValidator.sumEquals(BigDecimal::valueOf,
+                BigDecimal.ZERO, GlobalExceptionMessageCode.DATA_NOT_FOUND));
+        final List<Validator<Integer>> validators = Arrays.asList(
+                aggregating.andThen(even),
+                aggregating.andThenIfValid(even),
+                aggregating.andThen(even, data -> data),
+                aggregating.withDeadline(Duration.ofMinutes(1)).andThen(even),
+                aggregating.withMaxSeverityLevel(ExceptionSeverityLevel.ERROR).andThen(even),
+                aggregating.named("negative").andThen(even));
+
+        for (final Validator<Integer> validator : validators) {
+            assertThat(validator.validate(Stream.of(2, -1, 3)))
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.NOT_NULL, GlobalExceptionMessageCode.INVALID_PARAMETER,
+                            GlobalExceptionMessageCode.DATA_NOT_FOUND);
+            assertThat(validator.validate(Stream.of(-1, 1)))
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER);
+            assertThat(validator.validate(Stream.of(1, 3).parallel()))
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.DATA_NOT_FOUND);
+            assertThat(validator.validate(4))
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(GlobalExceptionMessageCode.NOT_NULL);
+        }
+        assertThat(aggregating.named("negative").getName()).isEqualTo("negative");
+        assertThat(aggregating.andThen(even).withDeadline(Duration.ZERO).validate(Stream.of(1, 3)))
+                .extracting(ValidationResult::getMessageCode)
+                .containsExactly(CoreValidationMessageCode.VALIDATION_TIMED_OUT, CoreValidationMessageCode.VALIDATION_TIMED_OUT,
+                        GlobalExceptionMessageCode.DATA_NOT_FOUND);
+    }
+
+    /**
+     * Test that validators with shed severity level are skipped only while load shedding is active.
+     */
+    @Test
+    public void testLoadShedding() {
+        final Validator<Integer> negative = data -> data < 0
+                ? new ValidationResults().add(GlobalExceptionMessageCode.INVALID_PARAMETER).end() : new ValidationResults();
+        final Validator<Integer> odd = data -> data % 2 != 0
+                ? new ValidationResults().add(new ValidationResult(GlobalExceptionMessageCode.NOT_NULL,
+                ExceptionSeverityLevel.WARNING)) : new ValidationResults();
+        final Validator<Integer> validator = negative.andThen(odd.withMaxSeverityLevel(ExceptionSeverityLevel.WARNING));
+        final AtomicBoolean pressure = new AtomicBoolean();
+        final LoadShedding shedding = LoadShedding.builder()
+                .shed(ExceptionSeverityLevel.WARNING)
+                .pressure(pressure::get)
+                .build();
+
+        assertThat(shedding.run(() -> validator.validate(-1))).hasSize(2);
+        pressure.set(true);
+        assertThat(shedding.run(() -> validator.validate(-1)))
+                .extracting(ValidationResult::getMessageCode)
+                .containsExactly(GlobalExceptionMessageCode.INVALID_PARAMETER);
+        assertThat(shedding.run(() -> validator.validate(IntStream.range(0, 100).boxed().parallel()))).isEmpty();
+        assertThat(validator.validate(1)).hasSize(1);
+        assertThat(shedding.getSkippedCount(ExceptionSeverityLevel.WARNING)).isEqualTo(101);
+        assertThat(shedding.getSheddingRunCount()).isEqualTo(2);
+    }
+
+    /**
+     * Test spans of validator chain, of results spilled to file, of parallel stream validation
+     * and of stream validation with aggregates.
+     */
+    @Test
+    public void testTracing() {
+        final Validator<Integer> negative = new AbstractValidator<Integer>() {
+            @Override
+            protected ValidationResults doValidate(final Integer data, final ValidationResults validationResults) {
+                return data < 0 ? validationResults.add(GlobalExceptionMessageCode.INVALID_PARAMETER).end() : validationResults;
+            }
+        };
+        final Validator<Integer> validator = negative.andThen(negative.named("negative"));
+        final InMemoryTracer tracer = new InMemoryTracer();
+        Tracing.install(tracer);
+        try {
+            validator.validate(-1);
+            assertThat(tracer.getSpans())
+                    .extracting(InMemoryTracer.RecordedSpan::getKind)
+                    .containsExactly(SpanKind.VALIDATOR, SpanKind.VALIDATOR, SpanKind.STEP);
+            assertThat(tracer.getSpans())
+                    .extracting(InMemoryTracer.RecordedSpan::getSeverityLevels)
+                    .containsOnly(EnumSet.of(ExceptionSeverityLevel.ERROR));
+            assertThat(tracer.getSpans())
+                    .extracting(InMemoryTracer.RecordedSpan::getName)
+                    .containsExactly(negative.getName(), negative.getName(), "negative");
+            tracer.clear();
+
+            new AbstractValidator<Integer>() {
+                @Override
+                protected ValidationResults doValidate(final Integer data, final ValidationResults validationResults) {
+                    return validationResults.add(GlobalExceptionMessageCode.NOT_NULL, ExceptionSeverityLevel.WARNING).end()
+                            .add(GlobalExceptionMessageCode.INVALID_PARAMETER).end();
+                }
+            }.validate(1);
+            assertThat(tracer.getSpans()).hasSize(1);
+            assertThat(tracer.getSpans().get(0).getSeverityLevels())
+                    .containsOnly(ExceptionSeverityLevel.WARNING, ExceptionSeverityLevel.ERROR);
+            tracer.clear();
+
+            final SpillingValidationResults spilled = new SpillingValidationResults(1);
+            try {
+                spilled.add(GlobalExceptionMessageCode.INVALID_PARAMETER).end().add(GlobalExceptionMessageCode.NOT_NULL).end();
+                negative.andThen(data -> spilled).validate(-1);
+                final InMemoryTracer.RecordedSpan step = tracer.getSpans().get(tracer.getSpans().size() - 1);
+                assertThat(step.getKind()).isEqualTo(SpanKind.STEP);
+                assertThat(step.getResultCount()).isEqualTo(2);
+                assertThat(step.getSeverityLevels()).isEmpty();
+            } finally {
+                spilled.close();
+            }
+            tracer.clear();
+
+            validator.validate(IntStream.range(-50, 50).boxed().parallel());
+            final List<InMemoryTracer.RecordedSpan> roots = tracer.getRoots();
+            assertThat(roots).hasSize(1);
+            assertThat(roots.get(0).getKind()).isEqualTo(SpanKind.STREAM);
+            assertThat(roots.get(0).getResultCount()).isEqualTo(100);
+            assertThat(tracer.getChildren(roots.get(0))).hasSize(200);
+            assertThat(tracer.getSpans()).hasSize(301);
+            tracer.clear();
+
+            validator.andAggregate(AggregateValidator.atMostPerKey((Integer data) -> data, 1,
+                    GlobalExceptionMessageCode.INVALID_PARAMETER)).validate(IntStream.range(-50, 50).boxed());
+            assertThat(tracer.getRoots()).extracting(InMemoryTracer.RecordedSpan::getKind)
+                    .containsExactly(SpanKind.STREAM);
+            assertThat(tracer.getRoots().get(0).getResultCount()).isEqualTo(100);
+        } finally {
+            Tracing.uninstall();
+        }
+        assertThat(Tracing.currentSpan()).isNull();
+    }
+
+    /**
+     * Test that steps and graph nodes skipped because of deadline are reported with names of validators.
+     */
+    @Test
+    public void testDeadlineSkippedStepNames() {
+        final Validator<Integer> valid = data -> new ValidationResults();
+        final String lambda = ValidatorTest.class.getName() + "$$Lambda";
+        final Validator<Integer> validator = valid
+                .andThen(valid.named("amount"))
+                .andThen(valid.named("first").andThen(valid.named("second")))
+                .andThen(valid)
+                .withDeadline(Duration.ZERO);
+
+        assertThat(validator.getName()).isEqualTo(lambda + ".andThen(amount).andThen(first.andThen(second))"
+                + ".andThen(" + lambda + ").withDeadline(PT0S)");
+        final ValidationResults results = validator.validate(1);
+        assertThat(results)
+                .extracting(ValidationResult::getMessageCode)
+                .containsOnly(CoreValidationMessageCode.VALIDATION_TIMED_OUT);
+        assertThat(results)
+                .extracting(result -> result.getMessageParameters()[0])
+                .containsExactly("amount", "first.andThen(second)", lambda);
+
+        final Validator<String> validString = data -> new ValidationResults();
+        final ValidationResults graphResults = ValidationGraph.<Integer>builder()
+                .node("converted", validString.named("amount"), String::valueOf)
+                .build()
+                .withDeadline(Duration.ZERO)
+                .validate(1);
+        assertThat(graphResults)
+                .extracting(result -> result.getMessageParameters()[0])
+                .containsExactly("amount");
+    }
+
+    /**
+     * Test that validator which does not finish before deadline is reported as skipped and
+     * interrupted, both when validating and when checking validity.
+     *
+     * @throws InterruptedException if waiting for interruption is interrupted
+     */
+    @Test
+    public void testCancelOnDeadlineTimeout() throws InterruptedException {
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        final Validator<Integer> blocking = blocking(new CountDownLatch(2), interrupted).named("blocking");
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final Validator<Integer> validator = blocking.cancelOnDeadline(executor).withDeadline(Duration.ofMillis(50));
+            final ValidationResults results = validator.validate(1);
+            assertThat(results)
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(CoreValidationMessageCode.VALIDATION_TIMED_OUT);
+            assertThat(results.iterator().next().getMessageParameters()).containsExactly("blocking");
+            assertThat(validator.isValidFast(1)).isFalse();
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that interrupted caller stops waiting, interrupts validator and keeps its interrupt status.
+     *
+     * @throws InterruptedException if waiting for interruption is interrupted
+     */
+    @Test
+    public void testCancelOnDeadlineInterruptedCaller() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final Validator<Integer> validator = blocking(started, interrupted).cancelOnDeadline(executor)
+                    .withDeadline(Duration.ofMinutes(1));
+            final Thread caller = Thread.currentThread();
+            executor.execute(() -> {
+                try {
+                    started.await();
+                    caller.interrupt();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            final ValidationResults results = validator.validate(1);
+            assertThat(Thread.interrupted()).isTrue();
+            assertThat(results)
+                    .extracting(ValidationResult::getMessageCode)
+                    .containsExactly(CoreValidationMessageCode.VALIDATION_TIMED_OUT);
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that exception of validator running on executor is thrown to the caller, and that
+     * validator without deadline runs in the calling thread.
+     */
+    @Test
+    public void testCancelOnDeadlineRethrowsAndRunsInCaller() {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final IllegalStateException failure = new IllegalStateException("validator failed");
+            final Validator<Integer> failing = data -> {
+                throw failure;
+            };
+            assertThatThrownBy(() -> failing.cancelOnDeadline(executor).withDeadline(Duration.ofMinutes(1)).validate(1))
+                    .isSameAs(failure);
+            assertThatThrownBy(() -> failing.cancelOnDeadline(executor).withDeadline(Duration.ofMinutes(1)).isValidFast(1))
+                    .isSameAs(failure);
+
+            final List<Thread> threads = new LinkedList<>();
+            final Validator<Integer> recording = data -> {
+                threads.add(Thread.currentThread());
+                return new ValidationResults();
+            };
+            assertThat(recording.cancelOnDeadline(executor).validate(1).isValid()).isTrue();
+            assertThat(recording.cancelOnDeadline(executor).isValidFast(1)).isTrue();
+            assertThat(threads).containsExactly(Thread.currentThread(), Thread.currentThread());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Validator that counts down started latch, blocks until it is interrupted and then counts
+     * down interrupted latch.
+     */
+    private static Validator<Integer> blocking(final CountDownLatch started, final CountDownLatch interrupted) {
+        return data -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new ValidationResults();
+        };
+    }
+
 }